@@ -66,6 +66,9 @@ public final class SpongeTimings {
     public static final Timing dataSupportsKey = SpongeTimingsFactory.ofSafe("## supportsKey");
     public static final Timing dataRemoveKey = SpongeTimingsFactory.ofSafe("## removeKey");
 
+    public static final Timing eventListenerBakeTimer = SpongeTimingsFactory.ofSafe("## bakeEventListeners");
+    public static final Timing eventListenerPatchTimer = SpongeTimingsFactory.ofSafe("## patchEventListeners");
+
     public static final Timing TRACKING_PHASE_UNWINDING = SpongeTimingsFactory.ofSafe("## unwindPhase");
 
     private SpongeTimings() {
@@ -118,6 +121,17 @@ public static Timing getTileEntityTiming(TileEntity entity) {
         return SpongeTimingsFactory.ofSafe("Minecraft", "## tickTileEntity - " + entityType);
     }
 
+    /**
+     * Get a named timer for the specified inbound packet class to track
+     * packet type specific timings.
+     *
+     * @param packetClass The packet class
+     * @return The timing
+     */
+    public static Timing getPacketTiming(Class<?> packetClass) {
+        return SpongeTimingsFactory.ofSafe("Minecraft", "## processPacket - " + packetClass.getName());
+    }
+
     public static Timing getModTimings(PluginContainer plugin, String context) {
         return SpongeTimingsFactory.ofSafe(plugin.getName(), context, TimingsManager.MOD_EVENT_HANDLER);
     }
@@ -130,6 +144,14 @@ public static Timing getPluginSchedulerTimings(PluginContainer plugin) {
         return SpongeTimingsFactory.ofSafe(plugin.getName(), TimingsManager.PLUGIN_SCHEDULER_HANDLER);
     }
 
+    public static TimingHistogram getPluginAsyncQueueHistogram(PluginContainer plugin) {
+        return TimingHistogram.of(plugin.getId(), "Async Task Queue Latency");
+    }
+
+    public static TimingHistogram getPluginAsyncRunHistogram(PluginContainer plugin) {
+        return TimingHistogram.of(plugin.getId(), "Async Task Run Time");
+    }
+
     public static Timing getCancelTasksTimer() {
         return SpongeTimingsFactory.ofSafe("Cancel Tasks");
     }
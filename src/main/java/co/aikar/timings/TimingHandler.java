@@ -28,6 +28,7 @@
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.world.ParallelWorldTicker;
 
 class TimingHandler implements Timing {
 
@@ -106,7 +107,7 @@ public void stopTimingIfSync() {
 
     @Override
     public TimingHandler startTiming() {
-        if (!this.enabled || SpongeImpl.getGame().getPlatform().getExecutionType().isClient()) {
+        if (!this.enabled || SpongeImpl.getGame().getPlatform().getExecutionType().isClient() || ParallelWorldTicker.isWorldThread()) {
             return this;
         }
 
@@ -120,7 +121,7 @@ public TimingHandler startTiming() {
 
     @Override
     public void stopTiming() {
-        if (!this.enabled || SpongeImpl.getGame().getPlatform().getExecutionType().isClient()) {
+        if (!this.enabled || SpongeImpl.getGame().getPlatform().getExecutionType().isClient() || ParallelWorldTicker.isWorldThread()) {
             return;
         }
 
@@ -143,6 +144,19 @@ public void abort() {
         }
     }
 
+    /**
+     * Adds a duration that was measured on a thread which is not timed, such
+     * as a world tick thread.
+     *
+     * @param diff The duration, in nanoseconds
+     */
+    void addTime(long diff) {
+        if (!this.enabled || SpongeImpl.getGame().getPlatform().getExecutionType().isClient()) {
+            return;
+        }
+        addDiff(diff);
+    }
+
     void addDiff(long diff) {
         if (TimingsManager.CURRENT == this) {
             TimingsManager.CURRENT = this.parent;
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package co.aikar.timings;
+
+import co.aikar.util.JSONUtil;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe histogram of durations, for work that doesn't happen on the
+ * main thread and therefore can't be measured by a {@link Timing}. Bucket
+ * {@code i} counts the durations between {@code 2^(i-1)} and {@code 2^i}
+ * microseconds.
+ */
+public final class TimingHistogram {
+
+    static final Map<String, TimingHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static final int BUCKETS = 32;
+
+    private final String group;
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+
+    private TimingHistogram(String group, String name) {
+        this.group = group;
+        this.name = name;
+    }
+
+    static TimingHistogram of(String group, String name) {
+        return HISTOGRAMS.computeIfAbsent(group + ':' + name, key -> new TimingHistogram(group, name));
+    }
+
+    public void record(long nanos) {
+        final long micros = Math.max(0L, nanos / 1000L);
+        final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        this.buckets.incrementAndGet(bucket);
+        this.count.increment();
+        this.totalTime.add(nanos);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0L);
+        }
+        this.count.reset();
+        this.totalTime.reset();
+    }
+
+    JsonObject export() {
+        final long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = this.buckets.get(i);
+        }
+        return JSONUtil.singleObjectPair(this.group + ':' + this.name, JSONUtil.objectBuilder()
+                .add("group", this.group)
+                .add("name", this.name)
+                .add("count", this.count.sum())
+                .add("total", this.totalTime.sum())
+                .add("buckets", buckets));
+    }
+
+}
@@ -178,6 +178,10 @@ static void reportTimings(CommandSource sender) {
             ).build();
         }));
 
+        // Durations of work which happened off the main thread
+
+        builder.add("histograms", JSONUtil.mapArrayToObject(TimingHistogram.HISTOGRAMS.values(), TimingHistogram::export));
+
         // Information on the users Config
 
         builder.add("config", JSONUtil.objectBuilder()
@@ -121,6 +121,7 @@ static void resetTimings() {
                 SpongeImpl.getLogger().info("Timings reset");
             }
             HISTORY.clear();
+            TimingHistogram.HISTOGRAMS.values().forEach(TimingHistogram::reset);
             needsFullReset = false;
             needsRecheckEnabled = false;
             timingStart = System.currentTimeMillis();
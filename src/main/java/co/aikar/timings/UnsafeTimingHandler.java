@@ -25,6 +25,7 @@
 package co.aikar.timings;
 
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.world.ParallelWorldTicker;
 
 class UnsafeTimingHandler extends TimingHandler {
 
@@ -33,7 +34,8 @@ class UnsafeTimingHandler extends TimingHandler {
     }
 
     private static void checkThread() {
-        if (!SpongeImpl.getServer().isCallingFromMinecraftThread()) {
+        // World tick threads are not timed, TimingHandler ignores them
+        if (!SpongeImpl.getServer().isCallingFromMinecraftThread() && !ParallelWorldTicker.isWorldThread()) {
             throw new IllegalStateException("Calling Timings from Async Operation");
         }
     }
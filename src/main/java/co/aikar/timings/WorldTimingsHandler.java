@@ -120,4 +120,18 @@ public WorldTimingsHandler(World world) {
 
         this.chunkPopulate = SpongeTimingsFactory.ofSafe(name + "chunkPopulate");
     }
+
+    /**
+     * Records the durations of a world tick that ran on a world tick thread,
+     * where the timings themselves are not recorded.
+     *
+     * @param tick The duration of the world tick, in nanoseconds
+     * @param entities The duration of the entity updates, in nanoseconds
+     * @param tracker The duration of the entity tracker tick, in nanoseconds
+     */
+    public void recordParallelTick(long tick, long entities, long tracker) {
+        ((TimingHandler) this.doTick).addTime(tick);
+        ((TimingHandler) this.tickEntities).addTime(entities);
+        ((TimingHandler) this.tracker1).addTime(tracker);
+    }
 }
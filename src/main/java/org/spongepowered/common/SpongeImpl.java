@@ -252,4 +252,15 @@ public static boolean isMainThread() {
         // events with cause tracking.
         return !Sponge.isServerAvailable() || Sponge.getServer().isMainThread();
     }
+
+    /**
+     * Gets whether the current thread is the server thread itself. Unlike
+     * {@link #isMainThread()}, this excludes the threads that tick worlds in
+     * parallel.
+     *
+     * @return True if the current thread is the server thread
+     */
+    public static boolean isServerThread() {
+        return !Sponge.isServerAvailable() || getServer().isCallingFromMinecraftThread();
+    }
 }
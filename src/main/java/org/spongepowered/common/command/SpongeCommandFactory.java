@@ -91,11 +91,15 @@
 import org.spongepowered.common.interfaces.IMixinChunk;
 import org.spongepowered.common.interfaces.IMixinMinecraftServer;
 import org.spongepowered.common.interfaces.entity.IMixinEntity;
+import org.spongepowered.common.interfaces.world.IMixinAnvilChunkLoader;
 import org.spongepowered.common.interfaces.world.IMixinDimensionType;
 import org.spongepowered.common.interfaces.world.IMixinWorldInfo;
 import org.spongepowered.common.interfaces.world.IMixinWorldServer;
+import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
 import org.spongepowered.common.util.SpongeHooks;
+import org.spongepowered.common.world.ChunkUnloadQueue;
 import org.spongepowered.common.world.WorldManager;
+import org.spongepowered.common.world.storage.RegionFileWriter;
 
 import java.io.File;
 import java.net.MalformedURLException;
@@ -316,9 +320,17 @@ protected Text value(Object text) {
                     }
 
                     protected Text getChunksInfo(WorldServer worldserver) {
+                        final IMixinChunkProviderServer chunkProvider = (IMixinChunkProviderServer) worldserver.getChunkProvider();
+                        final ChunkUnloadQueue unloadQueue = chunkProvider.getUnloadQueue();
+                        final int pendingWrites = chunkProvider.getChunkLoader() instanceof IMixinAnvilChunkLoader
+                                ? ((IMixinAnvilChunkLoader) chunkProvider.getChunkLoader()).getPendingChunks().size() : 0;
                         return Text.of(NEWLINE_TEXT, key("DimensionId: "), value(WorldManager.getDimensionId(worldserver)), NEWLINE_TEXT,
                                 key("Loaded chunks: "), value(worldserver.getChunkProvider().getLoadedChunkCount()), NEWLINE_TEXT,
                                 key("Active chunks: "), value(worldserver.getChunkProvider().getLoadedChunks().size()), NEWLINE_TEXT,
+                                key("Queued unloads: "), value(unloadQueue.size()), NEWLINE_TEXT,
+                                key("Unload latency: "), value(String.format("%.1fms", unloadQueue.getMeanLatency())), NEWLINE_TEXT,
+                                key("Pending chunk writes: "), value(pendingWrites), NEWLINE_TEXT,
+                                key("Chunk write latency: "), value(String.format("%.1fms", RegionFileWriter.getMeanLatency())), NEWLINE_TEXT,
                                 key("Entities: "), value(worldserver.loadedEntityList.size()), NEWLINE_TEXT,
                                 key("Tile Entities: "), value(worldserver.loadedTileEntityList.size()), NEWLINE_TEXT,
                                 key("Removed Entities:"), value(worldserver.unloadedEntityList.size()), NEWLINE_TEXT,
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class AsyncSchedulerCategory extends ConfigCategory {
+
+    @Setting(value = "bounded", comment = "If enabled, async plugin tasks run on a bounded work-stealing pool with per plugin limits,\n"
+            + "instead of an unbounded cached thread pool.")
+    private boolean bounded = false;
+
+    @Setting(value = "max-threads", comment = "The amount of threads of the bounded pool. (Default: 0, the amount of available processors)")
+    private int maxThreads = 0;
+
+    @Setting(value = "max-concurrency-per-plugin", comment = "The maximum amount of async tasks of a single plugin which can run at the same time. (Default: 4)")
+    private int maxConcurrencyPerPlugin = 4;
+
+    @Setting(value = "max-queued-per-plugin", comment = "The maximum amount of async tasks of a single plugin which can wait for a thread,\n"
+            + "further tasks are rejected. (Default: 10000, 0 to disable)")
+    private int maxQueuedPerPlugin = 10000;
+
+    public boolean isBounded() {
+        return this.bounded;
+    }
+
+    public int getMaxThreads() {
+        return this.maxThreads;
+    }
+
+    public int getMaxConcurrencyPerPlugin() {
+        return this.maxConcurrencyPerPlugin;
+    }
+
+    public int getMaxQueuedPerPlugin() {
+        return this.maxQueuedPerPlugin;
+    }
+}
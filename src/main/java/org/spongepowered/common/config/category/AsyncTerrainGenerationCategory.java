@@ -0,0 +1,78 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class AsyncTerrainGenerationCategory extends ConfigCategory {
+
+    @Setting(value = "enabled", comment = "If enabled, chunk pre-generation and the chunks ahead of moving players generate their\n"
+            + "terrain on worker threads. Only population, lighting and saving are left to the main thread. Generation populators\n"
+            + "still run one chunk at a time per world, but must not rely on being called from the main thread.")
+    private boolean enabled = false;
+
+    @Setting(value = "num-threads", comment = "The amount of threads to dedicate to terrain generation. (Default: 2)")
+    private int numThreads = 2;
+
+    @Setting(value = "parallel-base-terrain", comment = "If enabled, each thread generates the base terrain of the vanilla overworld\n"
+            + "and flat generators with its own copy of the generator, instead of one chunk at a time.")
+    private boolean parallelBaseTerrain = true;
+
+    @Setting(value = "predict-player-movement", comment = "If enabled, the terrain of the chunks players are heading towards is\n"
+            + "generated before they are requested.")
+    private boolean predictPlayerMovement = true;
+
+    @Setting(value = "prediction-seconds", comment = "How far ahead, in seconds of player movement, chunks are predicted. (Default: 3)")
+    private double predictionSeconds = 3;
+
+    @Setting(value = "max-predicted-chunks", comment = "The maximum amount of predicted chunks kept per world. (Default: 256)")
+    private int maxPredictedChunks = 256;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public int getNumThreads() {
+        return this.numThreads;
+    }
+
+    public boolean useParallelBaseTerrain() {
+        return this.parallelBaseTerrain;
+    }
+
+    public boolean predictPlayerMovement() {
+        return this.predictPlayerMovement;
+    }
+
+    public double getPredictionSeconds() {
+        return this.predictionSeconds;
+    }
+
+    public int getMaxPredictedChunks() {
+        return this.maxPredictedChunks;
+    }
+}
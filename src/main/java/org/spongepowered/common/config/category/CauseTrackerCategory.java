@@ -62,6 +62,17 @@ public class CauseTrackerCategory extends ConfigCategory {
                                                                   + "and emit a warning about said spawn anyways.")
     boolean captureAndSpawnEntitiesSync = true;
 
+    @Setting(value = "pool-phase-contexts", comment = "If true, the phase contexts of frequently entered phases such as\n"
+                                                      + "entity, tile entity and block ticks are reset and reused once\n"
+                                                      + "their phase completes instead of being reallocated.")
+    boolean poolPhaseContexts = true;
+
+    @Setting(value = "debug-pooled-phase-contexts", comment = "If true, pooled phase contexts are checked for use after they have\n"
+                                                              + "been closed, and released contexts are never handed out again.\n"
+                                                              + "Any such use throws an exception pointing at where the context\n"
+                                                              + "was released. This is only intended for debugging tracking issues.")
+    boolean debugPooledPhaseContexts = false;
+
     public boolean isVerbose() {
         return this.isVerbose;
     }
@@ -78,6 +89,14 @@ public boolean captureEntitiesAsync() {
         return this.captureAndSpawnEntitiesSync;
     }
 
+    public boolean poolPhaseContexts() {
+        return this.poolPhaseContexts;
+    }
+
+    public boolean debugPooledPhaseContexts() {
+        return this.debugPooledPhaseContexts;
+    }
+
     public boolean reportWorldTickDifferences() {
         return this.reportWorldTickDifferentWorlds;
     }
@@ -61,6 +61,28 @@ public class OptimizationCategory extends ConfigCategory {
             + "Note: This optimization has a few issues which is explained in the bug report. We are not responsible for any issues this may cause.")
     private boolean pandaRedstone = false;
 
+    @Setting(value = "event-listener-chains", comment = "If enabled, events without generic types are posted through generated listener chains\n"
+            + "which are cached per event class and only push a cause frame for listeners that use the cause stack.")
+    private boolean eventListenerChains = true;
+
+    @Setting(value = "parallel-block-workers", comment = "If enabled, block volume workers evaluate large map, merge, fill and reduce operations\n"
+            + "in parallel, one chunk section at a time, against a snapshot of the volume. Edits to a world are then written\n"
+            + "directly to its chunk sections, with one lighting and client update per chunk, instead of block by block.\n"
+            + "Warning: plugin mappers must be thread safe, and direct writes do not fire block change events or neighbor updates.")
+    private boolean parallelBlockWorkers = false;
+
+    @Setting(value = "async-terrain-generation", comment = "Generates the terrain of chunks off the main thread.")
+    private AsyncTerrainGenerationCategory asyncTerrainGenerationCategory = new AsyncTerrainGenerationCategory();
+
+    @Setting(value = "parallel-chunk-writing", comment = "Writes saved chunks to their region files on a pool of threads.")
+    private ParallelChunkWritingCategory parallelChunkWritingCategory = new ParallelChunkWritingCategory();
+
+    @Setting(value = "async-chunk-serialization", comment = "Serializes saved chunks off the main thread.")
+    private AsyncChunkSerializationCategory asyncChunkSerializationCategory = new AsyncChunkSerializationCategory();
+
+    @Setting(value = "parallel-world-ticking", comment = "Ticks worlds in parallel on a pool of threads.")
+    private ParallelWorldTickingCategory parallelWorldTickingCategory = new ParallelWorldTickingCategory();
+
     public OptimizationCategory() {  
         try {  
             // Enabled by default on SpongeVanilla, disabled by default on SpongeForge.  
@@ -99,4 +121,44 @@ public boolean useAsyncLighting() {
     public boolean usePandaRedstone() {
         return this.pandaRedstone;
     }
+
+    public boolean useEventListenerChains() {
+        return this.eventListenerChains;
+    }
+
+    public boolean useParallelBlockWorkers() {
+        return this.parallelBlockWorkers;
+    }
+
+    public AsyncTerrainGenerationCategory getAsyncTerrainGenerationCategory() {
+        return this.asyncTerrainGenerationCategory;
+    }
+
+    public boolean useAsyncTerrainGeneration() {
+        return this.asyncTerrainGenerationCategory.isEnabled();
+    }
+
+    public ParallelChunkWritingCategory getParallelChunkWritingCategory() {
+        return this.parallelChunkWritingCategory;
+    }
+
+    public boolean useParallelChunkWriting() {
+        return this.parallelChunkWritingCategory.isEnabled();
+    }
+
+    public AsyncChunkSerializationCategory getAsyncChunkSerializationCategory() {
+        return this.asyncChunkSerializationCategory;
+    }
+
+    public boolean useAsyncChunkSerialization() {
+        return this.asyncChunkSerializationCategory.isEnabled();
+    }
+
+    public ParallelWorldTickingCategory getParallelWorldTickingCategory() {
+        return this.parallelWorldTickingCategory;
+    }
+
+    public boolean useParallelWorldTicking() {
+        return this.parallelWorldTickingCategory.isEnabled();
+    }
 }
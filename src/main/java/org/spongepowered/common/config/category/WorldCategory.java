@@ -80,6 +80,11 @@ public class WorldCategory extends ConfigCategory {
                                                              + "\nloaded on the world and increases the chance for a drop in tps. (Default: 100)")
     private int maxChunkUnloads = 100;
 
+    @Setting(value = "max-chunk-unload-time", comment = "The maximum number of milliseconds spent saving queued chunks for unload in a single tick."
+                                                        + "\nChunks that don't fit are unloaded in the following ticks."
+                                                        + "\nSet to 0 to only limit unloads by 'max-chunk-unloads-per-tick'. (Default: 10)")
+    private int maxChunkUnloadTime = 10;
+
     @Setting(value = "chunk-gc-load-threshold", comment = "The number of newly loaded chunks before triggering a forced cleanup. "
                                                           + "\nNote: When triggered, the loaded chunk threshold will reset and start incrementing. "
                                                           + "\nDisabled by default.")
@@ -214,6 +219,10 @@ public int getMaxChunkUnloads() {
         return this.maxChunkUnloads;
     }
 
+    public int getMaxChunkUnloadTime() {
+        return this.maxChunkUnloadTime;
+    }
+
     public double getItemMergeRadius() {
         return this.itemMergeRadius;
     }
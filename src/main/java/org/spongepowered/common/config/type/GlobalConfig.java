@@ -30,6 +30,7 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import ninja.leaping.configurate.objectmapping.Setting;
+import org.spongepowered.common.config.category.AsyncSchedulerCategory;
 import org.spongepowered.common.config.category.BungeeCordCategory;
 import org.spongepowered.common.config.category.CauseTrackerCategory;
 import org.spongepowered.common.config.category.CommandsCategory;
@@ -88,6 +89,9 @@ public class GlobalConfig extends GeneralConfigBase {
     @Setting("movement-checks")
     private MovementChecksCategory movementChecks = new MovementChecksCategory();
 
+    @Setting(value = "async-scheduler", comment = "Configuration options related to the threads which run async plugin tasks.")
+    private AsyncSchedulerCategory asyncScheduler = new AsyncSchedulerCategory();
+
     public GlobalConfig() {
         super();
     }
@@ -159,4 +163,8 @@ public MovementChecksCategory getMovementChecks() {
         return this.movementChecks;
     }
 
+    public AsyncSchedulerCategory getAsyncScheduler() {
+        return this.asyncScheduler;
+    }
+
 }
@@ -0,0 +1,700 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.spongepowered.api.data.DataQuery.of;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apache.commons.lang3.ArrayUtils;
+import org.spongepowered.api.CatalogType;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataManager;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataSerializable;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.data.persistence.DataTranslator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link DataView} that keeps its entries in parallel arrays instead of a
+ * map of boxed values, meant for bulk conversion of large amounts of data
+ * to and from NBT.
+ *
+ * <p>Keys are interned and shared between all compact views, numbers and
+ * booleans are stored unboxed in a {@code long} column and queries are
+ * walked by index rather than being popped apart per level. Values are
+ * only boxed when read through the {@link DataView} getters, callers that
+ * know the layout can read and write the columns directly through
+ * {@link #getKind(int)}, {@link #getPrimitive(int)} and the typed
+ * setters.</p>
+ *
+ * <p>Entries keep their insertion order. Boxed primitives and strings are
+ * stored as they are without consulting the {@link DataTranslator}s.</p>
+ */
+public class CompactDataView extends AbstractDataView {
+
+    public static final byte KIND_OBJECT = 0;
+    public static final byte KIND_BOOLEAN = 1;
+    public static final byte KIND_BYTE = 2;
+    public static final byte KIND_SHORT = 3;
+    public static final byte KIND_INT = 4;
+    public static final byte KIND_LONG = 5;
+    public static final byte KIND_FLOAT = 6;
+    public static final byte KIND_DOUBLE = 7;
+
+    // Views with more entries than this look their keys up through a hash index
+    private static final int INDEX_THRESHOLD = 16;
+    // Arbitrary user keys past this bound are simply not shared
+    private static final int MAX_INTERNED_KEYS = 16384;
+    private static final Map<String, DataQuery> KEY_QUERIES = new ConcurrentHashMap<>();
+
+    private static final String[] NO_KEYS = new String[0];
+    private static final byte[] NO_KINDS = new byte[0];
+    private static final long[] NO_PRIMITIVES = new long[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final DataContainer container;
+    private final CompactDataView parent;
+    private final String name;
+    private final DataView.SafetyMode safety;
+    @Nullable private DataQuery path;
+
+    private String[] keys = NO_KEYS;
+    private byte[] kinds = NO_KINDS;
+    private long[] primitives = NO_PRIMITIVES;
+    private Object[] values = NO_VALUES;
+    private int size;
+    @Nullable private Object2IntOpenHashMap<String> index;
+
+    CompactDataView(DataView.SafetyMode safety) {
+        checkState(this instanceof DataContainer, "Cannot construct a root CompactDataView without a container!");
+        this.parent = this;
+        this.container = (DataContainer) this;
+        this.name = "";
+        this.path = of();
+        this.safety = checkNotNull(safety, "Safety mode");
+    }
+
+    private CompactDataView(CompactDataView parent, String name) {
+        this.parent = parent;
+        this.container = parent.container;
+        this.name = name;
+        this.safety = parent.safety;
+    }
+
+    /**
+     * Gets the single part {@link DataQuery} of the given key, shared with
+     * every other compact view using the same key.
+     *
+     * @param key The key
+     * @return The query
+     */
+    public static DataQuery keyQuery(String key) {
+        DataQuery query = KEY_QUERIES.get(key);
+        if (query == null) {
+            query = of(key);
+            if (KEY_QUERIES.size() < MAX_INTERNED_KEYS) {
+                final DataQuery existing = KEY_QUERIES.putIfAbsent(key, query);
+                if (existing != null) {
+                    query = existing;
+                }
+            }
+        }
+        return query;
+    }
+
+    private static String intern(String key) {
+        return keyQuery(key).getParts().get(0);
+    }
+
+    private static Object cloneArray(Object object) {
+        if (!object.getClass().isArray()) {
+            return object;
+        } else if (object instanceof byte[]) {
+            return ArrayUtils.clone((byte[]) object);
+        } else if (object instanceof short[]) {
+            return ArrayUtils.clone((short[]) object);
+        } else if (object instanceof int[]) {
+            return ArrayUtils.clone((int[]) object);
+        } else if (object instanceof long[]) {
+            return ArrayUtils.clone((long[]) object);
+        } else if (object instanceof float[]) {
+            return ArrayUtils.clone((float[]) object);
+        } else if (object instanceof double[]) {
+            return ArrayUtils.clone((double[]) object);
+        } else if (object instanceof boolean[]) {
+            return ArrayUtils.clone((boolean[]) object);
+        }
+        return ArrayUtils.clone((Object[]) object);
+    }
+
+    @Override
+    public DataContainer getContainer() {
+        return this.container;
+    }
+
+    @Override
+    public DataQuery getCurrentPath() {
+        DataQuery path = this.path;
+        if (path == null) {
+            path = this.parent.getCurrentPath().then(keyQuery(this.name));
+            this.path = path;
+        }
+        return path;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public Optional<DataView> getParent() {
+        return Optional.of(this.parent);
+    }
+
+    /**
+     * Gets the number of entries directly held by this view.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the key of the entry at the given index.
+     *
+     * @param index The index of the entry
+     * @return The key
+     */
+    public String getKey(int index) {
+        checkElementIndex(index, this.size);
+        return this.keys[index];
+    }
+
+    /**
+     * Gets the storage kind of the entry at the given index, one of the
+     * {@code KIND_} constants.
+     *
+     * @param index The index of the entry
+     * @return The kind
+     */
+    public byte getKind(int index) {
+        checkElementIndex(index, this.size);
+        return this.kinds[index];
+    }
+
+    /**
+     * Gets the raw bits of a primitive entry. Integral kinds are sign
+     * extended, booleans are {@code 0} or {@code 1}, floats and doubles are
+     * stored as their raw bits.
+     *
+     * @param index The index of the entry
+     * @return The raw bits
+     */
+    public long getPrimitive(int index) {
+        checkElementIndex(index, this.size);
+        return this.primitives[index];
+    }
+
+    /**
+     * Gets the value of the entry at the given index, boxing primitives and
+     * without any cloning.
+     *
+     * @param index The index of the entry
+     * @return The value
+     */
+    public Object getValue(int index) {
+        checkElementIndex(index, this.size);
+        return valueAt(index);
+    }
+
+    public CompactDataView setBoolean(String key, boolean value) {
+        put(key, KIND_BOOLEAN, value ? 1 : 0, null);
+        return this;
+    }
+
+    public CompactDataView setByte(String key, byte value) {
+        put(key, KIND_BYTE, value, null);
+        return this;
+    }
+
+    public CompactDataView setShort(String key, short value) {
+        put(key, KIND_SHORT, value, null);
+        return this;
+    }
+
+    public CompactDataView setInt(String key, int value) {
+        put(key, KIND_INT, value, null);
+        return this;
+    }
+
+    public CompactDataView setLong(String key, long value) {
+        put(key, KIND_LONG, value, null);
+        return this;
+    }
+
+    public CompactDataView setFloat(String key, float value) {
+        put(key, KIND_FLOAT, Float.floatToRawIntBits(value), null);
+        return this;
+    }
+
+    public CompactDataView setDouble(String key, double value) {
+        put(key, KIND_DOUBLE, Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    /**
+     * Stores the value under the given key as it is, without translating,
+     * serializing or cloning it. This is meant for strings, arrays and lists
+     * that were built by the caller and are handed over to this view.
+     *
+     * @param key The key
+     * @param value The value
+     * @return This view, for chaining
+     */
+    public CompactDataView setDirect(String key, Object value) {
+        checkNotNull(value, "value");
+        checkArgument(!(value instanceof DataView), "Views can only be created through createChild");
+        store(key, value);
+        return this;
+    }
+
+    /**
+     * Creates a new, empty child view under the given key, replacing any
+     * existing entry.
+     *
+     * @param key The key
+     * @return The new child view
+     */
+    public CompactDataView createChild(String key) {
+        final String interned = intern(key);
+        final CompactDataView child = new CompactDataView(this, interned);
+        put(interned, KIND_OBJECT, 0, child);
+        return child;
+    }
+
+    private int indexOf(String key) {
+        if (this.size > INDEX_THRESHOLD) {
+            Object2IntOpenHashMap<String> index = this.index;
+            if (index == null) {
+                index = new Object2IntOpenHashMap<>(this.size * 2);
+                index.defaultReturnValue(-1);
+                for (int i = 0; i < this.size; i++) {
+                    index.put(this.keys[i], i);
+                }
+                this.index = index;
+            }
+            return index.getInt(key);
+        }
+        final String[] keys = this.keys;
+        for (int i = 0; i < this.size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void put(String key, byte kind, long bits, @Nullable Object value) {
+        int index = indexOf(key);
+        if (index < 0) {
+            index = this.size;
+            if (index == this.keys.length) {
+                final int capacity = Math.max(4, index * 2);
+                this.keys = Arrays.copyOf(this.keys, capacity);
+                this.kinds = Arrays.copyOf(this.kinds, capacity);
+                this.primitives = Arrays.copyOf(this.primitives, capacity);
+                this.values = Arrays.copyOf(this.values, capacity);
+            }
+            final String interned = intern(key);
+            this.keys[index] = interned;
+            if (this.index != null) {
+                this.index.put(interned, index);
+            }
+            this.size++;
+        }
+        this.kinds[index] = kind;
+        this.primitives[index] = bits;
+        this.values[index] = value;
+    }
+
+    private void removeAt(int index) {
+        final int moved = this.size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+            System.arraycopy(this.kinds, index + 1, this.kinds, index, moved);
+            System.arraycopy(this.primitives, index + 1, this.primitives, index, moved);
+            System.arraycopy(this.values, index + 1, this.values, index, moved);
+        }
+        this.size--;
+        this.keys[this.size] = null;
+        this.values[this.size] = null;
+        // Indices shifted, rebuilt on the next lookup
+        this.index = null;
+    }
+
+    private void store(String key, Object value) {
+        if (value instanceof Integer) {
+            put(key, KIND_INT, (Integer) value, null);
+        } else if (value instanceof Double) {
+            put(key, KIND_DOUBLE, Double.doubleToRawLongBits((Double) value), null);
+        } else if (value instanceof Byte) {
+            put(key, KIND_BYTE, (Byte) value, null);
+        } else if (value instanceof Boolean) {
+            put(key, KIND_BOOLEAN, (Boolean) value ? 1 : 0, null);
+        } else if (value instanceof Long) {
+            put(key, KIND_LONG, (Long) value, null);
+        } else if (value instanceof Float) {
+            put(key, KIND_FLOAT, Float.floatToRawIntBits((Float) value), null);
+        } else if (value instanceof Short) {
+            put(key, KIND_SHORT, (Short) value, null);
+        } else {
+            put(key, KIND_OBJECT, 0, value);
+        }
+    }
+
+    private Object valueAt(int index) {
+        final long bits = this.primitives[index];
+        switch (this.kinds[index]) {
+            case KIND_BOOLEAN:
+                return bits != 0;
+            case KIND_BYTE:
+                return (byte) bits;
+            case KIND_SHORT:
+                return (short) bits;
+            case KIND_INT:
+                return (int) bits;
+            case KIND_LONG:
+                return bits;
+            case KIND_FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case KIND_DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return this.values[index];
+        }
+    }
+
+    private Object exposedValueAt(int index) {
+        if (this.kinds[index] != KIND_OBJECT) {
+            return valueAt(index);
+        }
+        final Object value = this.values[index];
+        return this.safety == SafetyMode.ALL_DATA_CLONED ? cloneArray(value) : value;
+    }
+
+    /**
+     * Walks all but the last part of the given query.
+     */
+    @Nullable
+    private CompactDataView resolveParent(List<String> parts, boolean create) {
+        CompactDataView view = this;
+        for (int i = 0, last = parts.size() - 1; i < last; i++) {
+            final String part = parts.get(i);
+            final int index = view.indexOf(part);
+            if (index >= 0 && view.values[index] instanceof CompactDataView) {
+                view = (CompactDataView) view.values[index];
+            } else if (create) {
+                view = view.createChild(part);
+            } else {
+                return null;
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public Set<DataQuery> getKeys(boolean deep) {
+        final ImmutableSet.Builder<DataQuery> builder = ImmutableSet.builder();
+        for (int i = 0; i < this.size; i++) {
+            builder.add(keyQuery(this.keys[i]));
+        }
+        if (deep) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.values[i] instanceof CompactDataView) {
+                    final DataQuery key = keyQuery(this.keys[i]);
+                    for (DataQuery query : ((CompactDataView) this.values[i]).getKeys(true)) {
+                        builder.add(key.then(query));
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Map<DataQuery, Object> getValues(boolean deep) {
+        final ImmutableMap.Builder<DataQuery, Object> builder = ImmutableMap.builder();
+        final List<Map<DataQuery, Object>> children = deep ? new ArrayList<>() : null;
+        for (int i = 0; i < this.size; i++) {
+            final DataQuery key = keyQuery(this.keys[i]);
+            if (this.values[i] instanceof CompactDataView) {
+                final Map<DataQuery, Object> childValues = ((CompactDataView) this.values[i]).getValues(deep);
+                builder.put(key, childValues);
+                if (deep) {
+                    children.add(childValues);
+                }
+            } else {
+                builder.put(key, exposedValueAt(i));
+            }
+        }
+        if (deep) {
+            int child = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (this.values[i] instanceof CompactDataView) {
+                    final DataQuery key = keyQuery(this.keys[i]);
+                    for (Map.Entry<DataQuery, Object> entry : children.get(child++).entrySet()) {
+                        builder.put(key.then(entry.getKey()), entry.getValue());
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean contains(DataQuery path) {
+        checkNotNull(path, "path");
+        final List<String> parts = path.getParts();
+        final CompactDataView view = resolveParent(parts, false);
+        return view != null && view.indexOf(parts.get(parts.size() - 1)) >= 0;
+    }
+
+    @Override
+    public Optional<Object> get(DataQuery path) {
+        checkNotNull(path, "path");
+        final List<String> parts = path.getParts();
+        final int sz = parts.size();
+        if (sz == 0) {
+            return Optional.of(this);
+        }
+        final CompactDataView view = resolveParent(parts, false);
+        if (view == null) {
+            return Optional.empty();
+        }
+        final int index = view.indexOf(parts.get(sz - 1));
+        if (index < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(view.exposedValueAt(index));
+    }
+
+    @Override
+    public DataView set(DataQuery path, Object value) {
+        checkNotNull(path, "path");
+        checkNotNull(value, "value");
+        final List<String> parts = path.getParts();
+        checkArgument(!parts.isEmpty(), "The size of the query must be at least 1");
+        resolveParent(parts, true).setLocal(parts.get(parts.size() - 1), value);
+        return this;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void setLocal(String key, Object value) {
+        if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+            store(key, value);
+            return;
+        }
+        @Nullable DataManager manager;
+        if (value instanceof DataView) {
+            checkArgument(value != this, "Cannot set a DataView to itself.");
+            // always have to copy a data view to avoid overwriting existing
+            // views and to set the interior path correctly.
+            copyView(key, (DataView) value);
+        } else if (value instanceof DataSerializable) {
+            final DataContainer valueContainer = ((DataSerializable) value).toContainer();
+            checkArgument(!valueContainer.equals(this), "Cannot insert self-referencing DataSerializable");
+            copyView(key, valueContainer);
+        } else if (value instanceof CatalogType) {
+            store(key, ((CatalogType) value).getId());
+        } else if ((manager = getDataManager()) != null && manager.getTranslator(value.getClass()).isPresent()) {
+            final DataTranslator serializer = manager.getTranslator(value.getClass()).get();
+            final DataContainer container = serializer.translate(value);
+            checkArgument(!container.equals(this), "Cannot insert self-referencing Objects!");
+            copyView(key, container);
+        } else if (value instanceof Collection) {
+            store(key, serializeCollection((Collection) value));
+        } else if (value instanceof Map) {
+            final CompactDataView child = createChild(key);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                child.set(keyQuery(entry.getKey().toString()), entry.getValue());
+            }
+        } else if (this.safety == SafetyMode.ALL_DATA_CLONED || this.safety == SafetyMode.CLONED_ON_SET) {
+            store(key, cloneArray(value));
+        } else {
+            store(key, value);
+        }
+    }
+
+    private void copyView(String key, DataView source) {
+        if (source instanceof CompactDataView) {
+            CompactDataView compact = (CompactDataView) source;
+            if (isSelfOrAncestor(compact)) {
+                // Detach it first, the new child would otherwise end up copied into itself
+                compact = (CompactDataView) compact.copy();
+            }
+            createChild(key).copyEntries(compact);
+            return;
+        }
+        final CompactDataView child = createChild(key);
+        for (DataQuery query : source.getKeys(false)) {
+            source.get(query).ifPresent(value -> child.set(query, value));
+        }
+    }
+
+    private boolean isSelfOrAncestor(DataView view) {
+        CompactDataView current = this;
+        while (current != view) {
+            if (current.parent == current) {
+                return false;
+            }
+            current = current.parent;
+        }
+        return true;
+    }
+
+    void copyEntries(CompactDataView source) {
+        for (int i = 0; i < source.size; i++) {
+            if (source.kinds[i] != KIND_OBJECT) {
+                put(source.keys[i], source.kinds[i], source.primitives[i], null);
+            } else {
+                setLocal(source.keys[i], source.values[i]);
+            }
+        }
+    }
+
+    @Override
+    public DataView remove(DataQuery path) {
+        checkNotNull(path, "path");
+        final List<String> parts = path.getParts();
+        final CompactDataView view = resolveParent(parts, false);
+        if (view != null) {
+            final int index = view.indexOf(parts.get(parts.size() - 1));
+            if (index >= 0) {
+                view.removeAt(index);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public DataView createView(DataQuery path) {
+        checkNotNull(path, "path");
+        final List<String> parts = path.getParts();
+        checkArgument(!parts.isEmpty(), "The size of the query must be at least 1");
+        return resolveParent(parts, true).createChild(parts.get(parts.size() - 1));
+    }
+
+    @Override
+    protected DataContainer createContainer(SafetyMode safety) {
+        return new CompactDataContainer(safety);
+    }
+
+    @Override
+    public DataContainer copy() {
+        return copy(this.safety);
+    }
+
+    @Override
+    public DataContainer copy(SafetyMode safety) {
+        final CompactDataContainer container = new CompactDataContainer(safety);
+        container.copyEntries(this);
+        return container;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public SafetyMode getSafetyMode() {
+        return this.safety;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < this.size; i++) {
+            hash += this.keys[i].hashCode() ^ valueAt(i).hashCode();
+        }
+        return 31 * hash + getCurrentPath().hashCode();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final CompactDataView other = (CompactDataView) obj;
+        if (this.size != other.size || !getCurrentPath().equals(other.getCurrentPath())) {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++) {
+            final int index = other.indexOf(this.keys[i]);
+            if (index < 0 || !valueAt(i).equals(other.valueAt(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final Map<String, Object> entries = Maps.newLinkedHashMap();
+        for (int i = 0; i < this.size; i++) {
+            entries.put(this.keys[i], valueAt(i));
+        }
+        final MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+        if (!getCurrentPath().toString().isEmpty()) {
+            helper.add("path", getCurrentPath());
+        }
+        helper.add("safety", this.safety.name());
+        return helper.add("map", entries).toString();
+    }
+}
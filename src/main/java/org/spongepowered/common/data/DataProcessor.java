@@ -55,6 +55,19 @@
 
     boolean supports(DataHolder dataHolder);
 
+    /**
+     * Gets whether this processor may support {@link DataHolder}s of the
+     * given class. Delegates skip processors that return {@code false} for
+     * all holders of that class, so the result may only depend on the class
+     * and not on the state of individual holders.
+     *
+     * @param holderClass The class of the data holder
+     * @return False if no holder of the class is ever supported
+     */
+    default boolean supportsHolderClass(Class<?> holderClass) {
+        return true;
+    }
+
     boolean supports(EntityType entityType);
 
     /**
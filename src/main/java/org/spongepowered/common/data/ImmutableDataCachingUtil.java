@@ -34,11 +34,19 @@
 import org.spongepowered.api.data.value.BaseValue;
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.data.value.immutable.ImmutableSpongeValue;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
 
 public final class ImmutableDataCachingUtil {
 
@@ -48,16 +56,77 @@ private ImmutableDataCachingUtil() {}
     public static final int MANIPULATOR_CACHE_LIMIT = 100000;
     public static final int VALUE_CACHE_LIMIT = 100000;
 
-    private static final Cache<String, ImmutableDataManipulator<?, ?>> manipulatorCache = CacheBuilder.newBuilder()
+    private static final int CONCURRENCY_LEVEL = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final Cache<CacheKey, ImmutableDataManipulator<?, ?>> manipulatorCache = CacheBuilder.newBuilder()
         .maximumSize(MANIPULATOR_CACHE_LIMIT)
-        .concurrencyLevel(4)
+        .concurrencyLevel(CONCURRENCY_LEVEL)
         .build();
 
-    private static final Cache<String, ImmutableValue<?>> valueCache = CacheBuilder.newBuilder()
-        .concurrencyLevel(4)
+    private static final Cache<CacheKey, ImmutableValue<?>> valueCache = CacheBuilder.newBuilder()
+        .concurrencyLevel(CONCURRENCY_LEVEL)
         .maximumSize(VALUE_CACHE_LIMIT)
         .build();
 
+    // Values and manipulators of a single constant argument, see isConstant.
+    // These are never evicted, the number of constants is bounded.
+    private static final Map<Key<?>, Map<Object, ImmutableValue<?>>> constantValues = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<Object, ImmutableDataManipulator<?, ?>>> constantManipulators = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Statistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * The cache hits and misses for a single manipulator or value class.
+     */
+    public static final class Statistics {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+
+        public long getHits() {
+            return this.hits.sum();
+        }
+
+        public long getMisses() {
+            return this.misses.sum();
+        }
+
+    }
+
+    /**
+     * Gets the cache {@link Statistics} of every manipulator and value class
+     * that has been requested so far.
+     *
+     * @return The statistics by class
+     */
+    public static Map<Class<?>, Statistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    private static Statistics getStatistics(Class<?> type) {
+        Statistics stats = statistics.get(type);
+        if (stats == null) {
+            final Statistics newStats = new Statistics();
+            stats = statistics.putIfAbsent(type, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Gets whether the argument is one of a small, bounded set of constants,
+     * which are interned without building a {@link CacheKey}.
+     */
+    private static boolean isConstant(@Nullable Object arg) {
+        if (arg instanceof Integer) {
+            final int value = (Integer) arg;
+            return value >= -128 && value <= 255;
+        }
+        return arg instanceof Boolean || arg instanceof Enum || arg instanceof CatalogType;
+    }
+
     /**
      * Retrieves a basic manipulator from {@link Cache}. If the {@link Cache}
      * does not have the desired {@link ImmutableDataManipulator} with relative
@@ -75,55 +144,135 @@ private ImmutableDataCachingUtil() {}
      */
     @SuppressWarnings("unchecked")
     public static <T extends ImmutableDataManipulator<?, ?>> T getManipulator(final Class<T> immutableClass, final Object... args) {
-        final String key = getKey(immutableClass, args);
+        final Statistics stats = getStatistics(immutableClass);
+        if (args.length == 1 && isConstant(args[0])) {
+            Map<Object, ImmutableDataManipulator<?, ?>> constants = constantManipulators.get(immutableClass);
+            if (constants == null) {
+                constants = constantManipulators.computeIfAbsent(immutableClass, k -> new ConcurrentHashMap<>());
+            }
+            ImmutableDataManipulator<?, ?> manipulator = constants.get(args[0]);
+            if (manipulator != null) {
+                stats.hits.increment();
+                return (T) manipulator;
+            }
+            stats.misses.increment();
+            manipulator = createManipulator(immutableClass, args);
+            final ImmutableDataManipulator<?, ?> previous = constants.putIfAbsent(args[0], manipulator);
+            return (T) (previous == null ? manipulator : previous);
+        }
+        final CacheKey key = new CacheKey(immutableClass, args);
+        final ImmutableDataManipulator<?, ?> cached = ImmutableDataCachingUtil.manipulatorCache.getIfPresent(key);
+        if (cached != null) {
+            stats.hits.increment();
+            return (T) cached;
+        }
+        stats.misses.increment();
         // We can't really use the generic typing here because it's complicated...
         try {
             // Let's get the key
-            return (T) ImmutableDataCachingUtil.manipulatorCache.get(key, (Callable<ImmutableDataManipulator<?, ?>>) () -> {
-                    try {
-                        return createUnsafeInstance(immutableClass, args);
-                    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                        SpongeImpl.getLogger().error("Could not construct an ImmutableDataManipulator: " + immutableClass.getCanonicalName() + " with the args: "
-                                                     + Arrays.toString(args), e);
-                    }
-                    throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName() + " with the args: "
-                                                            + Arrays.toString(args));
-            });
+            return (T) ImmutableDataCachingUtil.manipulatorCache.get(key,
+                (Callable<ImmutableDataManipulator<?, ?>>) () -> createManipulator(immutableClass, args));
         } catch (Throwable e) {
             throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName(), e);
         }
     }
 
+    private static ImmutableDataManipulator<?, ?> createManipulator(Class<?> immutableClass, Object... args) {
+        try {
+            return (ImmutableDataManipulator<?, ?>) createUnsafeInstance(immutableClass, args);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            SpongeImpl.getLogger().error("Could not construct an ImmutableDataManipulator: " + immutableClass.getCanonicalName() + " with the args: "
+                                         + Arrays.toString(args), e);
+        }
+        throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName() + " with the args: "
+                                                + Arrays.toString(args));
+    }
+
     @SuppressWarnings("unchecked")
     public static <E, V extends ImmutableValue<?>, T extends ImmutableValue<E>> T getValue(final Class<V> valueClass,
             final Key<? extends BaseValue<E>> usedKey, final E defaultArg, final E arg, final Object... extraArgs) {
-        final String key = getKey(valueClass, usedKey.getQuery().asString('.'), arg.getClass(), arg);
+        final Statistics stats = getStatistics(valueClass);
+        final boolean noExtraArgs = extraArgs == null || extraArgs.length == 0;
+        if (valueClass == ImmutableSpongeValue.class && noExtraArgs && isConstant(arg)) {
+            Map<Object, ImmutableValue<?>> constants = constantValues.get(usedKey);
+            if (constants == null) {
+                constants = constantValues.computeIfAbsent(usedKey, k -> new ConcurrentHashMap<>());
+            }
+            final ImmutableValue<?> value = constants.get(arg);
+            if (value != null && Objects.equals(value.getDefault(), defaultArg)) {
+                stats.hits.increment();
+                return (T) value;
+            }
+            stats.misses.increment();
+            final ImmutableValue<?> created = createValue(valueClass, usedKey, defaultArg, arg, extraArgs);
+            // Another default for the same key and value is rare, keep the first one
+            if (value == null) {
+                constants.putIfAbsent(arg, created);
+            }
+            return (T) created;
+        }
+        final CacheKey key = noExtraArgs
+            ? new CacheKey(valueClass, usedKey, defaultArg, arg)
+            : new CacheKey(valueClass, usedKey, defaultArg, arg, extraArgs);
+        final ImmutableValue<?> cached = ImmutableDataCachingUtil.valueCache.getIfPresent(key);
+        if (cached != null) {
+            stats.hits.increment();
+            return (T) cached;
+        }
+        stats.misses.increment();
         try {
-            return (T) ImmutableDataCachingUtil.valueCache.get(key, (Callable<ImmutableValue<?>>) () -> {
-                    try {
-                        if (extraArgs == null || extraArgs.length == 0) {
-                            return createUnsafeInstance(valueClass, usedKey, defaultArg, arg);
-                        }
-                        return createUnsafeInstance(valueClass, usedKey, defaultArg, arg, extraArgs);
-                    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                        SpongeImpl.getLogger().error("Could not construct an ImmutableValue: " + valueClass.getCanonicalName(), e);
-                    }
-                    throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName());
-            });
+            return (T) ImmutableDataCachingUtil.valueCache.get(key,
+                (Callable<ImmutableValue<?>>) () -> createValue(valueClass, usedKey, defaultArg, arg, extraArgs));
         } catch (ExecutionException e) {
             throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName(), e);
         }
     }
 
-    private static String getKey(final Class<?> immutableClass, final Object... args) {
-        final StringBuilder builder = new StringBuilder(immutableClass.getCanonicalName() + ":");
-        for (Object object : args) {
-            if (object instanceof CatalogType) {
-                builder.append("{").append(((CatalogType) object).getId()).append("}");
-            } else {
-                builder.append("{").append(object.toString()).append("}");
+    private static ImmutableValue<?> createValue(Class<?> valueClass, Key<?> usedKey, Object defaultArg, Object arg, @Nullable Object[] extraArgs) {
+        try {
+            if (extraArgs == null || extraArgs.length == 0) {
+                return (ImmutableValue<?>) createUnsafeInstance(valueClass, usedKey, defaultArg, arg);
+            }
+            return (ImmutableValue<?>) createUnsafeInstance(valueClass, usedKey, defaultArg, arg, extraArgs);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            SpongeImpl.getLogger().error("Could not construct an ImmutableValue: " + valueClass.getCanonicalName(), e);
+        }
+        throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName());
+    }
+
+    /**
+     * A cache key of a class and the arguments passed to its constructor,
+     * compared by the equality of the arguments.
+     */
+    private static final class CacheKey {
+
+        private final Class<?> type;
+        private final Object[] args;
+        private final int hashCode;
+
+        CacheKey(Class<?> type, Object... args) {
+            this.type = type;
+            this.args = args;
+            this.hashCode = 31 * type.hashCode() + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
             }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) obj;
+            return this.hashCode == other.hashCode && this.type == other.type && Arrays.deepEquals(this.args, other.args);
         }
-        return builder.toString();
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
     }
+
 }
@@ -139,6 +139,19 @@
      */
     boolean supports(ValueContainer<?> container);
 
+    /**
+     * Gets whether this processor may support {@link ValueContainer}s of
+     * the given class. Delegates skip processors that return {@code false}
+     * for all containers of that class, so the result may only depend on the
+     * class and not on the state of individual containers.
+     *
+     * @param containerClass The class of the value container
+     * @return False if no container of the class is ever supported
+     */
+    default boolean supportsContainerClass(Class<?> containerClass) {
+        return true;
+    }
+
     /**
      * Offers the provided {@link BaseValue} containing a value of the
      * appropriate value type of this {@link ValueProcessor} to offer
@@ -24,23 +24,21 @@
  */
 package org.spongepowered.common.data.persistence;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.gson.stream.JsonWriter;
 import org.spongepowered.api.data.DataContainer;
-import org.spongepowered.api.data.DataQuery;
-import org.spongepowered.api.data.DataView;
+import org.spongepowered.common.data.persistence.stream.DataContainerWriter;
+import org.spongepowered.common.data.persistence.stream.DataVisitor;
+import org.spongepowered.common.data.persistence.stream.JsonDataReader;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.annotation.Nullable;
 
 /**
- * A {@link JsonWriter} that serializes to a {@link DataContainer}
- * instead of a JSON string.
+ * A {@link JsonWriter} that serializes to a {@link DataContainer}, or any
+ * other {@link DataVisitor}, instead of a JSON string.
  *
  * Inspired by GSON's {@link com.google.gson.internal.bind.JsonTreeWriter}.
  */
@@ -58,116 +56,112 @@ public final class DataViewJsonWriter extends JsonWriter {
         }
     };
 
-    private final List<Object> stack = new ArrayList<>();
-    @Nullable private DataQuery pendingKey;
-    private DataContainer result = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
+    private final DataVisitor visitor;
+    private int depth;
 
     public DataViewJsonWriter() {
+        this(new DataContainerWriter());
+    }
+
+    /**
+     * Creates a new writer forwarding everything written to it to the given
+     * visitor as it is written.
+     *
+     * @param visitor The visitor
+     */
+    public DataViewJsonWriter(DataVisitor visitor) {
         super(UNWRITABLE_WRITER);
+        this.visitor = checkNotNull(visitor, "visitor");
     }
 
     public DataContainer getResult() throws IOException {
+        checkState(this.visitor instanceof DataContainerWriter, "Not writing to a container");
         close();
-        return this.result;
-    }
-
-    private Object peek() {
-        return this.stack.get(this.stack.size() - 1);
-    }
-
-    private Object pop() {
-        return this.stack.remove(this.stack.size() - 1);
-    }
-
-    @SuppressWarnings("unchecked")
-    private void put(@Nullable Object value) {
-        if (this.pendingKey != null) {
-            ((DataView) peek()).set(this.pendingKey, value);
-            this.pendingKey = null;
-        } else {
-            ((List<Object>) peek()).add(value);
-        }
+        return ((DataContainerWriter) this.visitor).getResult();
     }
 
     @Override
-    public JsonWriter beginArray() {
-        List<Object> list = new ArrayList<>();
-        put(list);
-        this.stack.add(list);
+    public JsonWriter beginArray() throws IOException {
+        this.visitor.beginList(DataVisitor.UNKNOWN_SIZE);
+        this.depth++;
         return this;
     }
 
     @Override
-    public JsonWriter endArray() {
-        checkState(!this.stack.isEmpty() && this.pendingKey == null && pop() instanceof List);
+    public JsonWriter endArray() throws IOException {
+        this.visitor.endList();
+        this.depth--;
         return this;
     }
 
     @Override
-    public JsonWriter beginObject() {
-        if (this.stack.isEmpty()) {
-            this.stack.add(this.result);
-            return this;
-        }
-
-        Object parent = peek();
-        if (parent instanceof DataView) {
-            checkState(this.pendingKey != null);
-            ((DataView) parent).createView(this.pendingKey);
-            this.pendingKey = null;
-            return this;
-        }
-
-        put(DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED));
+    public JsonWriter beginObject() throws IOException {
+        this.visitor.beginView();
+        this.depth++;
         return this;
     }
 
     @Override
-    public JsonWriter endObject() {
-        checkState(!this.stack.isEmpty() && this.pendingKey == null && pop() instanceof DataView);
+    public JsonWriter endObject() throws IOException {
+        this.visitor.endView();
+        this.depth--;
         return this;
     }
 
     @Override
-    public JsonWriter name(String name) {
-        checkState(!this.stack.isEmpty() && this.pendingKey == null && peek() instanceof DataView);
-        this.pendingKey = DataQuery.of(name);
+    public JsonWriter name(String name) throws IOException {
+        this.visitor.key(name);
         return this;
     }
 
     @Override
-    public JsonWriter value(String value) {
-        put(value);
+    public JsonWriter value(String value) throws IOException {
+        this.visitor.value(value);
         return this;
     }
 
     @Override
-    public JsonWriter nullValue() {
-        put(null);
+    public JsonWriter nullValue() throws IOException {
+        this.visitor.nullValue();
         return this;
     }
 
     @Override
-    public JsonWriter value(boolean value) {
-        put(value);
+    public JsonWriter value(boolean value) throws IOException {
+        this.visitor.value(value);
         return this;
     }
 
     @Override
-    public JsonWriter value(double value) {
-        put(value);
+    public JsonWriter value(double value) throws IOException {
+        this.visitor.value(value);
         return this;
     }
 
     @Override
-    public JsonWriter value(long value) {
-        put(value);
+    public JsonWriter value(long value) throws IOException {
+        this.visitor.value(value);
         return this;
     }
 
     @Override
-    public JsonWriter value(Number value) {
-        put(value);
+    public JsonWriter value(Number value) throws IOException {
+        if (value instanceof Integer) {
+            this.visitor.value(value.intValue());
+        } else if (value instanceof Byte) {
+            this.visitor.value(value.byteValue());
+        } else if (value instanceof Short) {
+            this.visitor.value(value.shortValue());
+        } else if (value instanceof Long) {
+            this.visitor.value(value.longValue());
+        } else if (value instanceof Float) {
+            this.visitor.value(value.floatValue());
+        } else if (value instanceof Double) {
+            this.visitor.value(value.doubleValue());
+        } else {
+            // Lazily parsed and arbitrary precision numbers
+            JsonDataReader.visitNumber(value.doubleValue(), this.visitor);
+        }
         return this;
     }
 
@@ -177,7 +171,7 @@ public void flush() {
 
     @Override
     public void close() throws IOException {
-        if (!this.stack.isEmpty()) {
+        if (this.depth != 0) {
             throw new IOException("Incomplete document");
         }
     }
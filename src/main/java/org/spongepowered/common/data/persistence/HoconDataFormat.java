@@ -33,6 +33,10 @@
 import org.spongepowered.api.data.persistence.InvalidDataFormatException;
 import org.spongepowered.api.data.persistence.StringDataFormat;
 import org.spongepowered.common.SpongeCatalogType;
+import org.spongepowered.common.data.persistence.stream.DataViewWalker;
+import org.spongepowered.common.data.persistence.stream.DataVisitor;
+import org.spongepowered.common.data.persistence.stream.HoconDataWriter;
+import org.spongepowered.common.data.persistence.stream.StreamingDataFormat;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -48,7 +52,7 @@
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Callable;
 
-public class HoconDataFormat extends SpongeCatalogType implements StringDataFormat {
+public class HoconDataFormat extends SpongeCatalogType implements StringDataFormat, StreamingDataFormat {
 
     public HoconDataFormat(String id) {
         super(id);
@@ -69,6 +73,20 @@ public DataContainer readFrom(InputStream input) throws InvalidDataFormatExcepti
         return readFrom(() -> new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
     }
 
+    /**
+     * Reads the input, emitting it to the visitor. HOCON documents can merge
+     * objects and refer to earlier values, so the document is still loaded
+     * as a whole first and only emitted as a stream afterwards.
+     */
+    @Override
+    public void readFrom(InputStream input, DataVisitor visitor) throws IOException {
+        DataViewWalker.walk(readFrom(input), visitor);
+    }
+
+    public void readFrom(Reader input, DataVisitor visitor) throws IOException {
+        DataViewWalker.walk(readFrom(input), visitor);
+    }
+
     private static DataContainer readFrom(Callable<BufferedReader> source) throws IOException {
         HoconConfigurationLoader loader = HoconConfigurationLoader.builder()
                 .setSource(source)
@@ -94,6 +112,15 @@ public void writeTo(OutputStream output, DataView data) throws IOException {
         writeTo(() -> new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)), data);
     }
 
+    @Override
+    public DataVisitor createWriter(OutputStream output) {
+        return createWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    public DataVisitor createWriter(Writer output) {
+        return new HoconDataWriter(createBufferedWriter(output));
+    }
+
     private static void writeTo(Callable<BufferedWriter> sink, DataView data) throws IOException {
         HoconConfigurationLoader loader = HoconConfigurationLoader.builder()
                 .setSink(sink)
@@ -24,19 +24,20 @@
  */
 package org.spongepowered.common.data.persistence;
 
-import static org.spongepowered.api.data.DataQuery.of;
-
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import org.spongepowered.api.data.DataContainer;
-import org.spongepowered.api.data.DataQuery;
-import org.spongepowered.api.data.DataSerializable;
 import org.spongepowered.api.data.DataView;
 import org.spongepowered.api.data.persistence.InvalidDataException;
 import org.spongepowered.api.data.persistence.StringDataFormat;
 import org.spongepowered.common.SpongeCatalogType;
+import org.spongepowered.common.data.persistence.stream.DataContainerWriter;
+import org.spongepowered.common.data.persistence.stream.DataViewWalker;
+import org.spongepowered.common.data.persistence.stream.DataVisitor;
+import org.spongepowered.common.data.persistence.stream.JsonDataReader;
+import org.spongepowered.common.data.persistence.stream.JsonDataWriter;
+import org.spongepowered.common.data.persistence.stream.StreamingDataFormat;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -50,13 +51,8 @@
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-
-import javax.annotation.Nullable;
 
-public final class JsonDataFormat extends SpongeCatalogType implements StringDataFormat {
+public final class JsonDataFormat extends SpongeCatalogType implements StringDataFormat, StreamingDataFormat {
 
     public JsonDataFormat() {
         super("json");
@@ -93,81 +89,20 @@ public DataContainer readFrom(InputStream input) throws IOException {
     }
 
     private static DataContainer readFrom(JsonReader reader) throws IOException {
-        return createContainer(reader);
-    }
-
-    private static DataContainer createContainer(JsonReader reader) throws IOException {
-        DataContainer container = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
-        readView(reader, container);
-        return container;
-    }
-
-    private static void readView(JsonReader reader, DataView view) throws IOException {
-        reader.beginObject();
-
-        while (reader.hasNext()) {
-            DataQuery key = of(reader.nextName());
-
-            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
-                // Check this early so we don't need to copy the view
-                readView(reader, view.createView(key));
-            } else {
-                view.set(key, read(reader));
-            }
-        }
-
-        reader.endObject();
-    }
-
-    @Nullable
-    private static Object read(JsonReader reader) throws IOException {
-        JsonToken token = reader.peek();
-        switch (token) {
-            case BEGIN_OBJECT:
-                return createContainer(reader);
-            case BEGIN_ARRAY:
-                return readArray(reader);
-            case BOOLEAN:
-                return reader.nextBoolean();
-            case NULL:
-                reader.nextNull();
-                return null;
-            case STRING:
-                return reader.nextString();
-            case NUMBER:
-                return readNumber(reader);
-            default:
-                throw new IOException("Unexpected token: " + token);
-        }
+        DataContainerWriter writer = new DataContainerWriter();
+        JsonDataReader.read(reader, writer);
+        return writer.getResult();
     }
 
-    private static Number readNumber(JsonReader reader) throws IOException {
-        // Similar to https://github.com/zml2008/configurate/blob/master/configurate-gson/src/main/java/ninja/leaping/configurate/gson/GsonConfigurationLoader.java#L113
-        // Not sure what's the best way to detect the type of number
-        double nextDouble = reader.nextDouble();
-        int nextInt = (int) nextDouble;
-        if (nextInt == nextDouble) {
-            return nextInt;
-        }
-
-        long nextLong = (long) nextDouble;
-        if (nextLong == nextDouble) {
-            return nextLong;
-        }
-
-        return nextDouble;
+    @Override
+    public void readFrom(InputStream input, DataVisitor visitor) throws IOException {
+        readFrom(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), visitor);
     }
 
-    private static List<?> readArray(JsonReader reader) throws IOException {
-        reader.beginArray();
-
-        List<Object> result = new ArrayList<>();
-        while (reader.hasNext()) {
-            result.add(read(reader));
+    public void readFrom(Reader input, DataVisitor visitor) throws IOException {
+        try (JsonReader reader = new JsonReader(input)) {
+            JsonDataReader.read(reader, visitor);
         }
-
-        reader.endArray();
-        return result;
     }
 
     @Override
@@ -191,61 +126,17 @@ public void writeTo(Writer output, DataView data) throws IOException {
         }
     }
 
-    private static void writeView(JsonWriter writer, DataView view) throws IOException {
-        writer.beginObject();
-
-        for (Map.Entry<DataQuery, Object> entry : view.getValues(false).entrySet()) {
-            writer.name(entry.getKey().asString('.'));
-            write(writer, entry.getValue());
-        }
-
-        writer.endObject();
-    }
-
-    private static void write(JsonWriter writer, @Nullable Object value) throws IOException {
-        if (value == null) {
-            writer.nullValue();
-        } else if (value instanceof Boolean) {
-            writer.value((Boolean) value);
-        } else if (value instanceof Number) {
-            writer.value((Number) value);
-        } else if (value instanceof String) {
-            writer.value((String) value);
-        } else if (value instanceof Iterable) {
-            writeArray(writer, (Iterable<?>) value);
-        } else if (value instanceof Map) {
-            writeMap(writer, (Map<?, ?>) value);
-        } else if (value instanceof DataSerializable) {
-            writeView(writer, ((DataSerializable) value).toContainer());
-        } else if (value instanceof DataView) {
-            writeView(writer, (DataView) value);
-        } else {
-            throw new IllegalArgumentException("Unable to translate object to JSON: " + value);
-        }
+    @Override
+    public DataVisitor createWriter(OutputStream output) {
+        return createWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
     }
 
-    private static void writeArray(JsonWriter writer, Iterable<?> iterable) throws IOException {
-        writer.beginArray();
-        for (Object value : iterable) {
-            write(writer, value);
-        }
-        writer.endArray();
+    public DataVisitor createWriter(Writer output) {
+        return new JsonDataWriter(new JsonWriter(output));
     }
 
-    private static void writeMap(JsonWriter writer, Map<?, ?> map) throws IOException {
-        writer.beginObject();
-
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            Object key = entry.getKey();
-            if (key instanceof DataQuery) {
-                key = ((DataQuery) key).asString('.');
-            }
-
-            writer.name(key.toString());
-            write(writer, entry.getValue());
-        }
-
-        writer.endObject();
+    private static void writeView(JsonWriter writer, DataView view) throws IOException {
+        DataViewWalker.walk(view, new JsonDataWriter(writer));
     }
 
 }
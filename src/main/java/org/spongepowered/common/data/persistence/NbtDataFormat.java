@@ -28,17 +28,22 @@
 import net.minecraft.nbt.NBTTagCompound;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.data.DataView;
-import org.spongepowered.api.data.persistence.DataFormat;
 import org.spongepowered.api.data.persistence.InvalidDataFormatException;
 import org.spongepowered.common.SpongeCatalogType;
+import org.spongepowered.common.data.persistence.stream.DataVisitor;
+import org.spongepowered.common.data.persistence.stream.NbtDataReader;
+import org.spongepowered.common.data.persistence.stream.NbtDataWriter;
+import org.spongepowered.common.data.persistence.stream.StreamingDataFormat;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-public class NbtDataFormat extends SpongeCatalogType implements DataFormat {
+public class NbtDataFormat extends SpongeCatalogType implements StreamingDataFormat {
 
     public NbtDataFormat(String id) {
         super(id);
@@ -61,6 +66,22 @@ public DataContainer readFrom(InputStream input) throws InvalidDataFormatExcepti
         }
     }
 
+    @Override
+    @SuppressWarnings("resource")
+    public void readFrom(InputStream input, DataVisitor visitor) throws IOException {
+        DataInputStream dis;
+        if (input instanceof DataInputStream) {
+            dis = (DataInputStream) input;
+        } else {
+            dis = new DataInputStream(new BufferedInputStream(input));
+        }
+        try {
+            NbtDataReader.read(dis, visitor);
+        } finally {
+            dis.close();
+        }
+    }
+
     @Override
     @SuppressWarnings("resource")
     public void writeTo(OutputStream output, DataView data) throws IOException {
@@ -78,4 +99,9 @@ public void writeTo(OutputStream output, DataView data) throws IOException {
         }
     }
 
+    @Override
+    public DataVisitor createWriter(OutputStream output) {
+        return new NbtDataWriter(output instanceof DataOutputStream ? output : new BufferedOutputStream(output));
+    }
+
 }
@@ -29,6 +29,7 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.spongepowered.api.data.DataQuery.of;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
 import net.minecraft.nbt.NBTBase;
@@ -49,6 +50,8 @@
 import org.spongepowered.api.data.DataView;
 import org.spongepowered.api.data.persistence.DataTranslator;
 import org.spongepowered.api.data.persistence.InvalidDataException;
+import org.spongepowered.common.data.CompactDataContainer;
+import org.spongepowered.common.data.CompactDataView;
 import org.spongepowered.common.data.util.NbtDataUtil;
 
 import java.util.List;
@@ -78,12 +81,18 @@ private static void containerToCompound(final DataView container, final NBTTagCo
         // from the instance of checks.
         checkNotNull(container);
         checkNotNull(compound);
-        for (Map.Entry<DataQuery, Object> entry : container.getValues(false).entrySet()) {
-            Object value = entry.getValue();
-            String key = entry.getKey().asString('.');
+        if (container instanceof CompactDataView) {
+            compactToCompound((CompactDataView) container, compound);
+            return;
+        }
+        // Values are looked up one by one, getValues would turn every nested
+        // view into a map first.
+        for (DataQuery query : container.getKeys(false)) {
+            Object value = container.get(query).get();
+            String key = query.asString('.');
             if (value instanceof DataView) {
                 NBTTagCompound inner = new NBTTagCompound();
-                containerToCompound(container.getView(entry.getKey()).get(), inner);
+                containerToCompound((DataView) value, inner);
                 compound.setTag(key, inner);
             } else if (value instanceof Boolean) {
                 compound.setTag(key + BOOLEAN_IDENTIFER, new NBTTagByte(((Boolean) value) ? (byte) 1 : 0));
@@ -93,6 +102,45 @@ private static void containerToCompound(final DataView container, final NBTTagCo
         }
     }
 
+    private static void compactToCompound(CompactDataView view, NBTTagCompound compound) {
+        for (int i = 0; i < view.size(); i++) {
+            final String key = view.getKey(i);
+            final long bits = view.getPrimitive(i);
+            switch (view.getKind(i)) {
+                case CompactDataView.KIND_BOOLEAN:
+                    compound.setTag(key + BOOLEAN_IDENTIFER, new NBTTagByte(bits != 0 ? (byte) 1 : 0));
+                    break;
+                case CompactDataView.KIND_BYTE:
+                    compound.setTag(key, new NBTTagByte((byte) bits));
+                    break;
+                case CompactDataView.KIND_SHORT:
+                    compound.setTag(key, new NBTTagShort((short) bits));
+                    break;
+                case CompactDataView.KIND_INT:
+                    compound.setTag(key, new NBTTagInt((int) bits));
+                    break;
+                case CompactDataView.KIND_LONG:
+                    compound.setTag(key, new NBTTagLong(bits));
+                    break;
+                case CompactDataView.KIND_FLOAT:
+                    compound.setTag(key, new NBTTagFloat(Float.intBitsToFloat((int) bits)));
+                    break;
+                case CompactDataView.KIND_DOUBLE:
+                    compound.setTag(key, new NBTTagDouble(Double.longBitsToDouble(bits)));
+                    break;
+                default:
+                    final Object value = view.getValue(i);
+                    if (value instanceof CompactDataView) {
+                        final NBTTagCompound inner = new NBTTagCompound();
+                        compactToCompound((CompactDataView) value, inner);
+                        compound.setTag(key, inner);
+                    } else {
+                        compound.setTag(key, getBaseFromObject(value));
+                    }
+            }
+        }
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static NBTBase getBaseFromObject(Object value) {
         checkNotNull(value);
@@ -171,6 +219,58 @@ private static DataContainer getViewFromCompound(NBTTagCompound compound) {
         return container;
     }
 
+    private static CompactDataContainer getCompactFromCompound(NBTTagCompound compound) {
+        checkNotNull(compound);
+        CompactDataContainer container = new CompactDataContainer(DataView.SafetyMode.NO_DATA_CLONED);
+        compoundToCompact(compound, container);
+        return container;
+    }
+
+    private static void compoundToCompact(NBTTagCompound compound, CompactDataView view) {
+        for (String key : compound.getKeySet()) {
+            NBTBase base = compound.getTag(key);
+            switch (base.getId()) {
+                case NbtDataUtil.TAG_BYTE:
+                    if (key.contains(BOOLEAN_IDENTIFER)) {
+                        view.setBoolean(key.replace(BOOLEAN_IDENTIFER, ""), ((NBTTagByte) base).getByte() != 0);
+                    } else {
+                        view.setByte(key, ((NBTTagByte) base).getByte());
+                    }
+                    break;
+                case NbtDataUtil.TAG_SHORT:
+                    view.setShort(key, ((NBTTagShort) base).getShort());
+                    break;
+                case NbtDataUtil.TAG_INT:
+                    view.setInt(key, ((NBTTagInt) base).getInt());
+                    break;
+                case NbtDataUtil.TAG_LONG:
+                    view.setLong(key, ((NBTTagLong) base).getLong());
+                    break;
+                case NbtDataUtil.TAG_FLOAT:
+                    view.setFloat(key, ((NBTTagFloat) base).getFloat());
+                    break;
+                case NbtDataUtil.TAG_DOUBLE:
+                    view.setDouble(key, ((NBTTagDouble) base).getDouble());
+                    break;
+                case NbtDataUtil.TAG_COMPOUND:
+                    compoundToCompact((NBTTagCompound) base, view.createChild(key));
+                    break;
+                case NbtDataUtil.TAG_LIST:
+                    NBTTagList list = (NBTTagList) base;
+                    byte listType = (byte) list.getTagType();
+                    int count = list.tagCount();
+                    ImmutableList.Builder<Object> builder = ImmutableList.builder();
+                    for (int i = 0; i < count; i++) {
+                        builder.add(fromTagBase(list.get(i), listType, true));
+                    }
+                    view.setDirect(key, builder.build());
+                    break;
+                default:
+                    view.setDirect(key, fromTagBase(base, base.getId(), true));
+            }
+        }
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static void setInternal(NBTBase base, byte type, DataView view, String key) {
         checkNotNull(base);
@@ -213,7 +313,7 @@ private static void setInternal(NBTBase base, byte type, DataView view, String k
                 int count = list.tagCount();
                 List objectList = Lists.newArrayListWithCapacity(count);
                 for (int i = 0; i < count; i++) {
-                    objectList.add(fromTagBase(list.get(i), listType));
+                    objectList.add(fromTagBase(list.get(i), listType, false));
                 }
                 view.set(of(key), objectList);
                 break;
@@ -239,7 +339,7 @@ private static void setInternal(NBTBase base, byte type, DataView view, String k
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private static Object fromTagBase(NBTBase base, byte type) {
+    private static Object fromTagBase(NBTBase base, byte type, boolean compact) {
         switch (type) {
             case NbtDataUtil.TAG_BYTE:
                 return ((NBTTagByte) base).getByte();
@@ -263,11 +363,11 @@ private static Object fromTagBase(NBTBase base, byte type) {
                 int count = list.tagCount();
                 List objectList = Lists.newArrayListWithCapacity(count);
                 for (int i = 0; i < list.tagCount(); i++) {
-                    objectList.add(fromTagBase(list.get(i), listType));
+                    objectList.add(fromTagBase(list.get(i), listType, compact));
                 }
                 return objectList;
             case NbtDataUtil.TAG_COMPOUND:
-                return getViewFromCompound((NBTTagCompound) base);
+                return compact ? getCompactFromCompound((NBTTagCompound) base) : getViewFromCompound((NBTTagCompound) base);
             case NbtDataUtil.TAG_INT_ARRAY:
                 return ((NBTTagIntArray) base).getIntArray();
             default :
@@ -287,6 +387,18 @@ public DataContainer translateFrom(NBTTagCompound node) {
         return NbtTranslator.getViewFromCompound(node);
     }
 
+    /**
+     * Translates the compound into a {@link CompactDataContainer}, filling
+     * its columns directly without going through {@link DataQuery} based
+     * setters.
+     *
+     * @param node The compound to translate
+     * @return The translated container
+     */
+    public CompactDataContainer translateCompact(NBTTagCompound node) {
+        return NbtTranslator.getCompactFromCompound(node);
+    }
+
     @Override
     public TypeToken<NBTTagCompound> getToken() {
         return TOKEN;
@@ -0,0 +1,224 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.data.persistence.InvalidDataException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link DataVisitor} that materializes the events it receives into a
+ * {@link DataContainer}.
+ */
+public final class DataContainerWriter implements DataVisitor {
+
+    private final Supplier<DataContainer> containerFactory;
+    private final List<Object> stack = new ArrayList<>();
+    @Nullable private DataQuery pendingKey;
+    @Nullable private Object result;
+
+    public DataContainerWriter() {
+        this(() -> DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED));
+    }
+
+    /**
+     * Creates a new writer creating its containers, including the ones held
+     * in lists, through the given factory.
+     *
+     * @param containerFactory The container factory
+     */
+    public DataContainerWriter(Supplier<DataContainer> containerFactory) {
+        this.containerFactory = checkNotNull(containerFactory, "containerFactory");
+    }
+
+    /**
+     * Gets the container the visited document was written to.
+     *
+     * @return The container
+     */
+    public DataContainer getResult() {
+        checkState(this.stack.isEmpty() && this.result instanceof DataContainer, "Incomplete document");
+        return (DataContainer) this.result;
+    }
+
+    /**
+     * Gets the root value that was written, which unlike {@link #getResult()}
+     * may also be a list or a single value.
+     */
+    Object getValue() {
+        checkState(this.stack.isEmpty() && this.result != null, "Incomplete value");
+        return this.result;
+    }
+
+    private Object peek() {
+        return this.stack.get(this.stack.size() - 1);
+    }
+
+    private Object pop() {
+        return this.stack.remove(this.stack.size() - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void put(Object value) {
+        if (this.stack.isEmpty()) {
+            checkState(this.result == null, "Only a single root value can be written");
+            this.result = value;
+            return;
+        }
+        final Object parent = peek();
+        if (parent instanceof DataView) {
+            checkState(this.pendingKey != null, "Missing key");
+            ((DataView) parent).set(this.pendingKey, value);
+            this.pendingKey = null;
+        } else {
+            ((ListFrame) parent).elements.add(value);
+        }
+    }
+
+    @Override
+    public void beginView() {
+        if (!this.stack.isEmpty() && peek() instanceof DataView) {
+            checkState(this.pendingKey != null, "Missing key");
+            // Create it in place so it doesn't need to be copied afterwards
+            this.stack.add(((DataView) peek()).createView(this.pendingKey));
+            this.pendingKey = null;
+            return;
+        }
+        final DataContainer container = this.containerFactory.get();
+        put(container);
+        this.stack.add(container);
+    }
+
+    @Override
+    public void endView() {
+        checkState(!this.stack.isEmpty() && this.pendingKey == null && peek() instanceof DataView, "Not inside a view");
+        pop();
+    }
+
+    @Override
+    public void beginList(int size) {
+        final DataQuery key = this.pendingKey;
+        this.pendingKey = null;
+        this.stack.add(new ListFrame(key, size));
+    }
+
+    @Override
+    public void endList() {
+        checkState(!this.stack.isEmpty() && peek() instanceof ListFrame, "Not inside a list");
+        final ListFrame frame = (ListFrame) pop();
+        // Lists are only inserted once complete, since setting them copies them
+        this.pendingKey = frame.key;
+        put(frame.elements);
+    }
+
+    @Override
+    public void key(String key) {
+        checkState(!this.stack.isEmpty() && this.pendingKey == null && peek() instanceof DataView, "Not inside a view");
+        this.pendingKey = DataQuery.of(key);
+    }
+
+    @Override
+    public void nullValue() {
+        if (!this.stack.isEmpty() && peek() instanceof DataView) {
+            // Views have no null values, the entry is simply left out
+            checkState(this.pendingKey != null, "Missing key");
+            this.pendingKey = null;
+            return;
+        }
+        throw new InvalidDataException("Null values can only be held by views");
+    }
+
+    @Override
+    public void value(boolean value) {
+        put(value);
+    }
+
+    @Override
+    public void value(byte value) {
+        put(value);
+    }
+
+    @Override
+    public void value(short value) {
+        put(value);
+    }
+
+    @Override
+    public void value(int value) {
+        put(value);
+    }
+
+    @Override
+    public void value(long value) {
+        put(value);
+    }
+
+    @Override
+    public void value(float value) {
+        put(value);
+    }
+
+    @Override
+    public void value(double value) {
+        put(value);
+    }
+
+    @Override
+    public void value(String value) {
+        put(value);
+    }
+
+    @Override
+    public void value(byte[] value) {
+        put(value);
+    }
+
+    @Override
+    public void value(int[] value) {
+        put(value);
+    }
+
+    private static final class ListFrame {
+
+        @Nullable final DataQuery key;
+        final List<Object> elements;
+
+        ListFrame(@Nullable DataQuery key, int size) {
+            this.key = key;
+            this.elements = size > 0 ? new ArrayList<>(size) : new ArrayList<>();
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import org.spongepowered.api.CatalogType;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataSerializable;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.common.data.CompactDataView;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Emits the contents of existing {@link DataView}s to a {@link DataVisitor}.
+ */
+public final class DataViewWalker {
+
+    /**
+     * Emits the given view as a complete document.
+     *
+     * @param view The view to walk
+     * @param visitor The visitor to emit to
+     * @throws IOException If the visitor fails
+     */
+    public static void walk(DataView view, DataVisitor visitor) throws IOException {
+        visitor.beginView();
+        if (view instanceof CompactDataView) {
+            walkCompact((CompactDataView) view, visitor);
+        } else {
+            // Looked up one by one, getValues would turn nested views into maps first
+            for (DataQuery query : view.getKeys(false)) {
+                final Optional<Object> value = view.get(query);
+                if (value.isPresent()) {
+                    visitor.key(query.asString('.'));
+                    walkValue(value.get(), visitor);
+                }
+            }
+        }
+        visitor.endView();
+    }
+
+    private static void walkCompact(CompactDataView view, DataVisitor visitor) throws IOException {
+        for (int i = 0; i < view.size(); i++) {
+            visitor.key(view.getKey(i));
+            final long bits = view.getPrimitive(i);
+            switch (view.getKind(i)) {
+                case CompactDataView.KIND_BOOLEAN:
+                    visitor.value(bits != 0);
+                    break;
+                case CompactDataView.KIND_BYTE:
+                    visitor.value((byte) bits);
+                    break;
+                case CompactDataView.KIND_SHORT:
+                    visitor.value((short) bits);
+                    break;
+                case CompactDataView.KIND_INT:
+                    visitor.value((int) bits);
+                    break;
+                case CompactDataView.KIND_LONG:
+                    visitor.value(bits);
+                    break;
+                case CompactDataView.KIND_FLOAT:
+                    visitor.value(Float.intBitsToFloat((int) bits));
+                    break;
+                case CompactDataView.KIND_DOUBLE:
+                    visitor.value(Double.longBitsToDouble(bits));
+                    break;
+                default:
+                    walkValue(view.getValue(i), visitor);
+            }
+        }
+    }
+
+    /**
+     * Emits a single value as it would be held by a {@link DataView}.
+     *
+     * @param value The value to walk
+     * @param visitor The visitor to emit to
+     * @throws IOException If the visitor fails
+     */
+    public static void walkValue(@Nullable Object value, DataVisitor visitor) throws IOException {
+        if (value == null) {
+            visitor.nullValue();
+        } else if (value instanceof DataView) {
+            walk((DataView) value, visitor);
+        } else if (value instanceof Boolean) {
+            visitor.value((boolean) (Boolean) value);
+        } else if (value instanceof Integer) {
+            visitor.value((int) (Integer) value);
+        } else if (value instanceof Double) {
+            visitor.value((double) (Double) value);
+        } else if (value instanceof Long) {
+            visitor.value((long) (Long) value);
+        } else if (value instanceof Byte) {
+            visitor.value((byte) (Byte) value);
+        } else if (value instanceof Short) {
+            visitor.value((short) (Short) value);
+        } else if (value instanceof Float) {
+            visitor.value((float) (Float) value);
+        } else if (value instanceof Number) {
+            visitor.value(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            visitor.value((String) value);
+        } else if (value instanceof byte[]) {
+            visitor.value((byte[]) value);
+        } else if (value instanceof int[]) {
+            visitor.value((int[]) value);
+        } else if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            visitor.beginList(length);
+            for (int i = 0; i < length; i++) {
+                walkValue(Array.get(value, i), visitor);
+            }
+            visitor.endList();
+        } else if (value instanceof Iterable) {
+            visitor.beginList(value instanceof Collection ? ((Collection<?>) value).size() : DataVisitor.UNKNOWN_SIZE);
+            for (Object element : (Iterable<?>) value) {
+                walkValue(element, visitor);
+            }
+            visitor.endList();
+        } else if (value instanceof Map) {
+            visitor.beginView();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                final Object key = entry.getKey();
+                visitor.key(key instanceof DataQuery ? ((DataQuery) key).asString('.') : key.toString());
+                walkValue(entry.getValue(), visitor);
+            }
+            visitor.endView();
+        } else if (value instanceof DataSerializable) {
+            walk(((DataSerializable) value).toContainer(), visitor);
+        } else if (value instanceof CatalogType) {
+            visitor.value(((CatalogType) value).getId());
+        } else {
+            throw new IllegalArgumentException("Unable to stream object: " + value);
+        }
+    }
+
+    private DataViewWalker() {
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import org.spongepowered.api.data.DataView;
+
+import java.io.IOException;
+
+/**
+ * Receives the contents of a {@link DataView} tree as a sequence of events,
+ * allowing data to be read and written without the whole tree being held
+ * in memory at once.
+ *
+ * <p>A document is a single view, started by {@link #beginView()} and
+ * closed by {@link #endView()}. Inside a view, every entry is announced by
+ * {@link #key(String)} and followed by exactly one value, view or list.
+ * Inside a list, values, views and lists follow each other directly.</p>
+ */
+public interface DataVisitor {
+
+    /**
+     * The size passed to {@link #beginList(int)} when the number of elements
+     * isn't known up front.
+     */
+    int UNKNOWN_SIZE = -1;
+
+    void beginView() throws IOException;
+
+    void endView() throws IOException;
+
+    /**
+     * Begins a list.
+     *
+     * @param size The number of elements that will follow, or
+     *     {@link #UNKNOWN_SIZE}
+     * @throws IOException If the underlying output fails
+     */
+    void beginList(int size) throws IOException;
+
+    void endList() throws IOException;
+
+    void key(String key) throws IOException;
+
+    void nullValue() throws IOException;
+
+    void value(boolean value) throws IOException;
+
+    default void value(byte value) throws IOException {
+        value((int) value);
+    }
+
+    default void value(short value) throws IOException {
+        value((int) value);
+    }
+
+    void value(int value) throws IOException;
+
+    void value(long value) throws IOException;
+
+    default void value(float value) throws IOException {
+        value((double) value);
+    }
+
+    void value(double value) throws IOException;
+
+    void value(String value) throws IOException;
+
+    default void value(byte[] value) throws IOException {
+        beginList(value.length);
+        for (byte element : value) {
+            value(element);
+        }
+        endList();
+    }
+
+    default void value(int[] value) throws IOException {
+        beginList(value.length);
+        for (int element : value) {
+            value(element);
+        }
+        endList();
+    }
+
+}
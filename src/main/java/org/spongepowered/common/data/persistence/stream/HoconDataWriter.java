@@ -0,0 +1,216 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link DataVisitor} writing the events it receives as HOCON. The root
+ * view is written without braces and list elements are separated by new
+ * lines, matching what the configurate loader reads back. The writer is
+ * flushed once the root view is closed.
+ */
+public final class HoconDataWriter implements DataVisitor {
+
+    private static final String INDENT = "    ";
+    private static final Pattern UNQUOTED_KEY = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Writer writer;
+    // Whether each open frame is a list
+    private final List<Boolean> stack = new ArrayList<>();
+    @Nullable private String pendingKey;
+
+    public HoconDataWriter(Writer writer) {
+        this.writer = checkNotNull(writer, "writer");
+    }
+
+    private boolean inList() {
+        return !this.stack.isEmpty() && this.stack.get(this.stack.size() - 1);
+    }
+
+    private void indent(int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            this.writer.write(INDENT);
+        }
+    }
+
+    /**
+     * Writes the indentation and key preceding a value at the current
+     * position, the root view's entries being at depth zero.
+     */
+    private void beginEntry(String separator) throws IOException {
+        checkState(!this.stack.isEmpty(), "The root of a HOCON document must be a view");
+        indent(this.stack.size() - 1);
+        if (!inList()) {
+            checkState(this.pendingKey != null, "Missing key");
+            writeKey(this.pendingKey);
+            this.writer.write(separator);
+            this.pendingKey = null;
+        }
+    }
+
+    private void writeKey(String key) throws IOException {
+        if (UNQUOTED_KEY.matcher(key).matches()) {
+            this.writer.write(key);
+        } else {
+            writeString(key);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        this.writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    this.writer.write("\\\"");
+                    break;
+                case '\\':
+                    this.writer.write("\\\\");
+                    break;
+                case '\n':
+                    this.writer.write("\\n");
+                    break;
+                case '\r':
+                    this.writer.write("\\r");
+                    break;
+                case '\t':
+                    this.writer.write("\\t");
+                    break;
+                case '\b':
+                    this.writer.write("\\b");
+                    break;
+                case '\f':
+                    this.writer.write("\\f");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        this.writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        this.writer.write(c);
+                    }
+            }
+        }
+        this.writer.write('"');
+    }
+
+    private void writeScalar(String literal) throws IOException {
+        beginEntry("=");
+        this.writer.write(literal);
+        this.writer.write('\n');
+    }
+
+    @Override
+    public void beginView() throws IOException {
+        if (!this.stack.isEmpty()) {
+            beginEntry(" ");
+            this.writer.write("{\n");
+        }
+        this.stack.add(false);
+    }
+
+    @Override
+    public void endView() throws IOException {
+        checkState(!this.stack.isEmpty() && !inList() && this.pendingKey == null, "Not inside a view");
+        this.stack.remove(this.stack.size() - 1);
+        if (this.stack.isEmpty()) {
+            this.writer.flush();
+            return;
+        }
+        indent(this.stack.size() - 1);
+        this.writer.write("}\n");
+    }
+
+    @Override
+    public void beginList(int size) throws IOException {
+        beginEntry("=");
+        this.writer.write("[\n");
+        this.stack.add(true);
+    }
+
+    @Override
+    public void endList() throws IOException {
+        checkState(inList(), "Not inside a list");
+        this.stack.remove(this.stack.size() - 1);
+        indent(this.stack.size() - 1);
+        this.writer.write("]\n");
+    }
+
+    @Override
+    public void key(String key) {
+        checkState(!this.stack.isEmpty() && !inList() && this.pendingKey == null, "Not inside a view");
+        this.pendingKey = key;
+    }
+
+    @Override
+    public void nullValue() throws IOException {
+        writeScalar("null");
+    }
+
+    @Override
+    public void value(boolean value) throws IOException {
+        writeScalar(Boolean.toString(value));
+    }
+
+    @Override
+    public void value(int value) throws IOException {
+        writeScalar(Integer.toString(value));
+    }
+
+    @Override
+    public void value(long value) throws IOException {
+        writeScalar(Long.toString(value));
+    }
+
+    @Override
+    public void value(float value) throws IOException {
+        checkArgument(Float.isFinite(value), "HOCON can't represent %s", value);
+        writeScalar(Float.toString(value));
+    }
+
+    @Override
+    public void value(double value) throws IOException {
+        checkArgument(Double.isFinite(value), "HOCON can't represent %s", value);
+        writeScalar(Double.toString(value));
+    }
+
+    @Override
+    public void value(String value) throws IOException {
+        beginEntry("=");
+        writeString(value);
+        this.writer.write('\n');
+    }
+
+}
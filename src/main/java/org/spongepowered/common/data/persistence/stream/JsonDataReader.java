@@ -0,0 +1,118 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads JSON documents token by token into a {@link DataVisitor}.
+ */
+public final class JsonDataReader {
+
+    /**
+     * Reads the next JSON object from the reader.
+     *
+     * @param reader The reader
+     * @param visitor The visitor to emit to
+     * @throws IOException If the input couldn't be read or isn't an object
+     */
+    public static void read(JsonReader reader, DataVisitor visitor) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IOException("Expected an object but found " + reader.peek());
+        }
+        readValue(reader, visitor);
+    }
+
+    private static void readValue(JsonReader reader, DataVisitor visitor) throws IOException {
+        final JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                visitor.beginView();
+                while (reader.hasNext()) {
+                    visitor.key(reader.nextName());
+                    readValue(reader, visitor);
+                }
+                reader.endObject();
+                visitor.endView();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                visitor.beginList(DataVisitor.UNKNOWN_SIZE);
+                while (reader.hasNext()) {
+                    readValue(reader, visitor);
+                }
+                reader.endArray();
+                visitor.endList();
+                break;
+            case BOOLEAN:
+                visitor.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                visitor.nullValue();
+                break;
+            case STRING:
+                visitor.value(reader.nextString());
+                break;
+            case NUMBER:
+                visitNumber(reader.nextDouble(), visitor);
+                break;
+            default:
+                throw new IOException("Unexpected token: " + token);
+        }
+    }
+
+    /**
+     * Emits a JSON number as the narrowest of int, long and double that
+     * holds it without loss.
+     *
+     * @param value The number
+     * @param visitor The visitor to emit to
+     * @throws IOException If the visitor fails
+     */
+    public static void visitNumber(double value, DataVisitor visitor) throws IOException {
+        // Similar to https://github.com/zml2008/configurate/blob/master/configurate-gson/src/main/java/ninja/leaping/configurate/gson/GsonConfigurationLoader.java#L113
+        // Not sure what's the best way to detect the type of number
+        final int intValue = (int) value;
+        if (intValue == value) {
+            visitor.value(intValue);
+            return;
+        }
+        final long longValue = (long) value;
+        if (longValue == value) {
+            visitor.value(longValue);
+            return;
+        }
+        visitor.value(value);
+    }
+
+    private JsonDataReader() {
+    }
+
+}
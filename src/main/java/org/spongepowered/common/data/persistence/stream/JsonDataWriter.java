@@ -0,0 +1,113 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A {@link DataVisitor} writing the events it receives as JSON. The writer
+ * is flushed once the root view is closed.
+ */
+public final class JsonDataWriter implements DataVisitor {
+
+    private final JsonWriter writer;
+    private int depth;
+
+    public JsonDataWriter(JsonWriter writer) {
+        this.writer = checkNotNull(writer, "writer");
+    }
+
+    @Override
+    public void beginView() throws IOException {
+        this.writer.beginObject();
+        this.depth++;
+    }
+
+    @Override
+    public void endView() throws IOException {
+        this.writer.endObject();
+        if (--this.depth == 0) {
+            this.writer.flush();
+        }
+    }
+
+    @Override
+    public void beginList(int size) throws IOException {
+        this.writer.beginArray();
+        this.depth++;
+    }
+
+    @Override
+    public void endList() throws IOException {
+        this.writer.endArray();
+        this.depth--;
+    }
+
+    @Override
+    public void key(String key) throws IOException {
+        this.writer.name(key);
+    }
+
+    @Override
+    public void nullValue() throws IOException {
+        this.writer.nullValue();
+    }
+
+    @Override
+    public void value(boolean value) throws IOException {
+        this.writer.value(value);
+    }
+
+    @Override
+    public void value(int value) throws IOException {
+        this.writer.value(value);
+    }
+
+    @Override
+    public void value(long value) throws IOException {
+        this.writer.value(value);
+    }
+
+    @Override
+    public void value(float value) throws IOException {
+        // Written through its own toString so it isn't widened first
+        this.writer.value(Float.valueOf(value));
+    }
+
+    @Override
+    public void value(double value) throws IOException {
+        this.writer.value(value);
+    }
+
+    @Override
+    public void value(String value) throws IOException {
+        this.writer.value(value);
+    }
+
+}
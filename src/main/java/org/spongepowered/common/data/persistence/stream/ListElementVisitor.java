@@ -0,0 +1,309 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link DataVisitor} handing the elements of the list at a given path to
+ * a consumer one at a time, as soon as each of them was read, so large
+ * lists such as entities or block palettes never have to be held in memory
+ * as a whole.
+ *
+ * <p>Views in the list are passed as {@link DataContainer}s, nested lists
+ * as {@link List}s and everything else as their boxed value. Null elements
+ * are skipped. All other events are forwarded to a delegate, which doesn't
+ * see the list or its key at all.</p>
+ */
+public final class ListElementVisitor implements DataVisitor {
+
+    private final DataVisitor delegate;
+    private final List<String> target;
+    private final Consumer<Object> consumer;
+
+    // Keys of the views open from the root, as long as no list is open
+    private final List<String> path = new ArrayList<>();
+    // For each open frame outside of the captured list, whether it added to the path
+    private final List<Boolean> frames = new ArrayList<>();
+    private int openLists;
+    @Nullable private String pendingKey;
+
+    private boolean capturing;
+    @Nullable private DataContainerWriter element;
+    private int elementDepth;
+
+    public ListElementVisitor(DataVisitor delegate, DataQuery listPath, Consumer<Object> consumer) {
+        this.delegate = checkNotNull(delegate, "delegate");
+        this.target = checkNotNull(listPath, "listPath").getParts();
+        this.consumer = checkNotNull(consumer, "consumer");
+        checkArgument(!this.target.isEmpty(), "The list path can't be empty");
+    }
+
+    private void flushKey() throws IOException {
+        if (this.pendingKey != null) {
+            this.delegate.key(this.pendingKey);
+            this.pendingKey = null;
+        }
+    }
+
+    private boolean isTarget(String key) {
+        if (this.openLists != 0 || this.path.size() + 1 != this.target.size()) {
+            return false;
+        }
+        for (int i = 0; i < this.path.size(); i++) {
+            if (!this.path.get(i).equals(this.target.get(i))) {
+                return false;
+            }
+        }
+        return key.equals(this.target.get(this.path.size()));
+    }
+
+    private void completeElement() {
+        if (--this.elementDepth == 0) {
+            final Object value = this.element.getValue();
+            this.element = null;
+            this.consumer.accept(value);
+        }
+    }
+
+    @Override
+    public void beginView() throws IOException {
+        if (this.capturing) {
+            if (this.elementDepth++ == 0) {
+                this.element = new DataContainerWriter();
+            }
+            this.element.beginView();
+            return;
+        }
+        final boolean keyed = this.pendingKey != null && this.openLists == 0;
+        if (keyed) {
+            this.path.add(this.pendingKey);
+        }
+        this.frames.add(keyed);
+        flushKey();
+        this.delegate.beginView();
+    }
+
+    @Override
+    public void endView() throws IOException {
+        if (this.capturing) {
+            this.element.endView();
+            completeElement();
+            return;
+        }
+        if (this.frames.remove(this.frames.size() - 1)) {
+            this.path.remove(this.path.size() - 1);
+        }
+        this.delegate.endView();
+    }
+
+    @Override
+    public void beginList(int size) throws IOException {
+        if (this.capturing) {
+            if (this.elementDepth++ == 0) {
+                this.element = new DataContainerWriter();
+            }
+            this.element.beginList(size);
+            return;
+        }
+        if (this.pendingKey != null && isTarget(this.pendingKey)) {
+            // Neither the key nor the list reach the delegate
+            this.pendingKey = null;
+            this.capturing = true;
+            return;
+        }
+        this.openLists++;
+        this.frames.add(false);
+        flushKey();
+        this.delegate.beginList(size);
+    }
+
+    @Override
+    public void endList() throws IOException {
+        if (this.capturing) {
+            if (this.elementDepth == 0) {
+                this.capturing = false;
+                return;
+            }
+            this.element.endList();
+            completeElement();
+            return;
+        }
+        this.openLists--;
+        this.frames.remove(this.frames.size() - 1);
+        this.delegate.endList();
+    }
+
+    @Override
+    public void key(String key) throws IOException {
+        if (this.element != null) {
+            this.element.key(key);
+        } else {
+            this.pendingKey = key;
+        }
+    }
+
+    @Override
+    public void nullValue() throws IOException {
+        if (this.element != null) {
+            this.element.nullValue();
+        } else if (!this.capturing) {
+            flushKey();
+            this.delegate.nullValue();
+        }
+    }
+
+    @Override
+    public void value(boolean value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(byte value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(short value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(int value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(long value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(float value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(double value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(String value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(byte[] value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+    @Override
+    public void value(int[] value) throws IOException {
+        if (this.element != null) {
+            this.element.value(value);
+        } else if (this.capturing) {
+            this.consumer.accept(value);
+        } else {
+            flushKey();
+            this.delegate.value(value);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import org.spongepowered.common.data.persistence.NbtTranslator;
+import org.spongepowered.common.data.util.NbtDataUtil;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Reads uncompressed NBT tag by tag into a {@link DataVisitor}, following the
+ * same conventions as the {@link NbtTranslator}.
+ */
+public final class NbtDataReader {
+
+    // Same limit as the NBTSizeTracker
+    private static final int MAX_DEPTH = 512;
+
+    /**
+     * Reads a named root compound from the input.
+     *
+     * @param input The input
+     * @param visitor The visitor to emit to
+     * @throws IOException If the input couldn't be read or isn't valid NBT
+     */
+    public static void read(DataInput input, DataVisitor visitor) throws IOException {
+        if (input.readByte() != NbtDataUtil.TAG_COMPOUND) {
+            throw new IOException("Root tag must be a named compound tag");
+        }
+        input.readUTF();
+        readCompound(input, visitor, 0);
+    }
+
+    private static void readCompound(DataInput input, DataVisitor visitor, int depth) throws IOException {
+        visitor.beginView();
+        byte type;
+        while ((type = input.readByte()) != NbtDataUtil.TAG_END) {
+            final String key = input.readUTF();
+            if (type == NbtDataUtil.TAG_BYTE && key.contains(NbtTranslator.BOOLEAN_IDENTIFER)) {
+                visitor.key(key.replace(NbtTranslator.BOOLEAN_IDENTIFER, ""));
+                visitor.value(input.readByte() != 0);
+            } else {
+                visitor.key(key);
+                readPayload(input, type, visitor, depth + 1);
+            }
+        }
+        visitor.endView();
+    }
+
+    private static void readPayload(DataInput input, byte type, DataVisitor visitor, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+        switch (type) {
+            case NbtDataUtil.TAG_BYTE:
+                visitor.value(input.readByte());
+                break;
+            case NbtDataUtil.TAG_SHORT:
+                visitor.value(input.readShort());
+                break;
+            case NbtDataUtil.TAG_INT:
+                visitor.value(input.readInt());
+                break;
+            case NbtDataUtil.TAG_LONG:
+                visitor.value(input.readLong());
+                break;
+            case NbtDataUtil.TAG_FLOAT:
+                visitor.value(input.readFloat());
+                break;
+            case NbtDataUtil.TAG_DOUBLE:
+                visitor.value(input.readDouble());
+                break;
+            case NbtDataUtil.TAG_BYTE_ARRAY: {
+                final byte[] array = new byte[readLength(input)];
+                input.readFully(array);
+                visitor.value(array);
+                break;
+            }
+            case NbtDataUtil.TAG_STRING:
+                visitor.value(input.readUTF());
+                break;
+            case NbtDataUtil.TAG_LIST: {
+                final byte elementType = input.readByte();
+                final int size = readLength(input);
+                visitor.beginList(size);
+                for (int i = 0; i < size; i++) {
+                    readPayload(input, elementType, visitor, depth + 1);
+                }
+                visitor.endList();
+                break;
+            }
+            case NbtDataUtil.TAG_COMPOUND:
+                readCompound(input, visitor, depth);
+                break;
+            case NbtDataUtil.TAG_INT_ARRAY: {
+                final int[] array = new int[readLength(input)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = input.readInt();
+                }
+                visitor.value(array);
+                break;
+            }
+            default:
+                throw new IOException("Unknown NBT type " + type);
+        }
+    }
+
+    private static int readLength(DataInput input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Negative NBT length " + length);
+        }
+        return length;
+    }
+
+    private NbtDataReader() {
+    }
+
+}
@@ -0,0 +1,342 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.spongepowered.common.data.persistence.NbtTranslator;
+import org.spongepowered.common.data.util.NbtDataUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link DataVisitor} writing the events it receives as uncompressed NBT,
+ * following the same conventions as the {@link NbtTranslator}.
+ *
+ * <p>NBT lists are prefixed by their length, so lists begun with a known
+ * size are written straight through, while lists of
+ * {@link #UNKNOWN_SIZE unknown size} are buffered until they end. The
+ * elements of a list must all be of the same type, except that the numbers
+ * of buffered lists are widened to a common type, as formats like JSON
+ * don't tell apart {@code 64.0} and {@code 64}. The output is flushed once
+ * the root view is closed.</p>
+ */
+public final class NbtDataWriter implements DataVisitor {
+
+    private final DataOutputStream output;
+    private final List<Frame> stack = new ArrayList<>();
+    @Nullable private String pendingKey;
+
+    public NbtDataWriter(OutputStream output) {
+        this.output = output instanceof DataOutputStream ? (DataOutputStream) output : new DataOutputStream(output);
+    }
+
+    @Nullable
+    private Frame peek() {
+        return this.stack.isEmpty() ? null : this.stack.get(this.stack.size() - 1);
+    }
+
+    private Frame pop() {
+        return this.stack.remove(this.stack.size() - 1);
+    }
+
+    /**
+     * Writes whatever precedes a payload of the given type at the current
+     * position and returns the stream the payload has to be written to.
+     */
+    private DataOutputStream beginEntry(byte type) throws IOException {
+        final Frame frame = peek();
+        if (frame == null) {
+            checkState(type == NbtDataUtil.TAG_COMPOUND, "The root of a NBT document must be a view");
+            this.output.writeByte(type);
+            this.output.writeUTF("");
+            return this.output;
+        }
+        if (!frame.list) {
+            checkState(this.pendingKey != null, "Missing key");
+            frame.output.writeByte(type);
+            frame.output.writeUTF(this.pendingKey);
+            this.pendingKey = null;
+            return frame.output;
+        }
+        if (frame.count == 0) {
+            frame.elementType = type;
+            if (frame.buffer == null) {
+                frame.output.writeByte(type);
+                frame.output.writeInt(frame.size);
+            }
+        } else {
+            checkArgument(frame.elementType == type, "NBT lists can only hold a single type, got %s after %s", type, frame.elementType);
+        }
+        frame.count++;
+        checkState(frame.buffer != null || frame.count <= frame.size, "More elements than the declared %s", frame.size);
+        return frame.output;
+    }
+
+    /**
+     * Writes a number at the current position. If the current list is
+     * buffered and holds another type of numbers, its elements and the
+     * number are widened to a type holding both.
+     *
+     * @param type The type of the number
+     * @param integral The value of an integral number
+     * @param floating The value of the number as a double
+     */
+    private void number(byte type, long integral, double floating) throws IOException {
+        final Frame frame = peek();
+        byte entryType = type;
+        if (frame != null && frame.list && frame.buffer != null && frame.count > 0 && frame.elementType != type
+                && isNumber(frame.elementType)) {
+            entryType = isIntegral(type) && isIntegral(frame.elementType)
+                    ? (byte) Math.max(type, frame.elementType) : NbtDataUtil.TAG_DOUBLE;
+            if (entryType != frame.elementType) {
+                frame.widen(entryType);
+            }
+        }
+        writeNumber(beginEntry(entryType), entryType, integral, floating);
+    }
+
+    private static boolean isNumber(byte type) {
+        return type >= NbtDataUtil.TAG_BYTE && type <= NbtDataUtil.TAG_DOUBLE;
+    }
+
+    private static boolean isIntegral(byte type) {
+        return type >= NbtDataUtil.TAG_BYTE && type <= NbtDataUtil.TAG_LONG;
+    }
+
+    private static void writeNumber(DataOutputStream output, byte type, long integral, double floating) throws IOException {
+        switch (type) {
+            case NbtDataUtil.TAG_BYTE:
+                output.writeByte((byte) integral);
+                break;
+            case NbtDataUtil.TAG_SHORT:
+                output.writeShort((short) integral);
+                break;
+            case NbtDataUtil.TAG_INT:
+                output.writeInt((int) integral);
+                break;
+            case NbtDataUtil.TAG_LONG:
+                output.writeLong(integral);
+                break;
+            case NbtDataUtil.TAG_FLOAT:
+                output.writeFloat((float) floating);
+                break;
+            default:
+                output.writeDouble(floating);
+                break;
+        }
+    }
+
+    @Override
+    public void beginView() throws IOException {
+        this.stack.add(new Frame(false, beginEntry(NbtDataUtil.TAG_COMPOUND), null, 0));
+    }
+
+    @Override
+    public void endView() throws IOException {
+        final Frame frame = peek();
+        checkState(frame != null && !frame.list && this.pendingKey == null, "Not inside a view");
+        pop();
+        frame.output.writeByte(NbtDataUtil.TAG_END);
+        if (this.stack.isEmpty()) {
+            this.output.flush();
+        }
+    }
+
+    @Override
+    public void beginList(int size) throws IOException {
+        final DataOutputStream target = beginEntry(NbtDataUtil.TAG_LIST);
+        if (size == UNKNOWN_SIZE) {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            this.stack.add(new Frame(true, new DataOutputStream(buffer), buffer, size));
+        } else {
+            checkArgument(size >= 0, "Invalid list size %s", size);
+            this.stack.add(new Frame(true, target, null, size));
+        }
+    }
+
+    @Override
+    public void endList() throws IOException {
+        final Frame frame = peek();
+        checkState(frame != null && frame.list, "Not inside a list");
+        pop();
+        if (frame.buffer == null) {
+            checkState(frame.count == frame.size, "Declared %s elements but got %s", frame.size, frame.count);
+            if (frame.count == 0) {
+                frame.output.writeByte(NbtDataUtil.TAG_END);
+                frame.output.writeInt(0);
+            }
+        } else {
+            final DataOutputStream target = this.stack.isEmpty() ? this.output : this.stack.get(this.stack.size() - 1).output;
+            target.writeByte(frame.count == 0 ? NbtDataUtil.TAG_END : frame.elementType);
+            target.writeInt(frame.count);
+            frame.buffer.writeTo(target);
+        }
+    }
+
+    @Override
+    public void key(String key) {
+        final Frame frame = peek();
+        checkState(frame != null && !frame.list && this.pendingKey == null, "Not inside a view");
+        this.pendingKey = key;
+    }
+
+    @Override
+    public void nullValue() {
+        final Frame frame = peek();
+        checkArgument(frame != null && !frame.list, "NBT can only leave out null values of views");
+        checkState(this.pendingKey != null, "Missing key");
+        this.pendingKey = null;
+    }
+
+    @Override
+    public void value(boolean value) throws IOException {
+        final Frame frame = peek();
+        if (frame != null && !frame.list && this.pendingKey != null) {
+            this.pendingKey += NbtTranslator.BOOLEAN_IDENTIFER;
+        }
+        beginEntry(NbtDataUtil.TAG_BYTE).writeByte(value ? 1 : 0);
+    }
+
+    @Override
+    public void value(byte value) throws IOException {
+        number(NbtDataUtil.TAG_BYTE, value, value);
+    }
+
+    @Override
+    public void value(short value) throws IOException {
+        number(NbtDataUtil.TAG_SHORT, value, value);
+    }
+
+    @Override
+    public void value(int value) throws IOException {
+        number(NbtDataUtil.TAG_INT, value, value);
+    }
+
+    @Override
+    public void value(long value) throws IOException {
+        number(NbtDataUtil.TAG_LONG, value, value);
+    }
+
+    @Override
+    public void value(float value) throws IOException {
+        number(NbtDataUtil.TAG_FLOAT, 0, value);
+    }
+
+    @Override
+    public void value(double value) throws IOException {
+        number(NbtDataUtil.TAG_DOUBLE, 0, value);
+    }
+
+    @Override
+    public void value(String value) throws IOException {
+        beginEntry(NbtDataUtil.TAG_STRING).writeUTF(value);
+    }
+
+    @Override
+    public void value(byte[] value) throws IOException {
+        final DataOutputStream output = beginEntry(NbtDataUtil.TAG_BYTE_ARRAY);
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    @Override
+    public void value(int[] value) throws IOException {
+        final DataOutputStream output = beginEntry(NbtDataUtil.TAG_INT_ARRAY);
+        output.writeInt(value.length);
+        for (int element : value) {
+            output.writeInt(element);
+        }
+    }
+
+    private static final class Frame {
+
+        final boolean list;
+        final DataOutputStream output;
+        @Nullable final ByteArrayOutputStream buffer;
+        final int size;
+        byte elementType = NbtDataUtil.TAG_END;
+        int count;
+
+        Frame(boolean list, DataOutputStream output, @Nullable ByteArrayOutputStream buffer, int size) {
+            this.list = list;
+            this.output = output;
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        /**
+         * Rewrites the buffered numbers of this list as a wider type.
+         */
+        void widen(byte type) throws IOException {
+            checkState(this.buffer != null, "Only buffered lists can be widened");
+            final DataInputStream input = new DataInputStream(new ByteArrayInputStream(this.buffer.toByteArray()));
+            this.buffer.reset();
+            for (int i = 0; i < this.count; i++) {
+                final long integral;
+                final double floating;
+                switch (this.elementType) {
+                    case NbtDataUtil.TAG_BYTE:
+                        integral = input.readByte();
+                        floating = integral;
+                        break;
+                    case NbtDataUtil.TAG_SHORT:
+                        integral = input.readShort();
+                        floating = integral;
+                        break;
+                    case NbtDataUtil.TAG_INT:
+                        integral = input.readInt();
+                        floating = integral;
+                        break;
+                    case NbtDataUtil.TAG_LONG:
+                        integral = input.readLong();
+                        floating = integral;
+                        break;
+                    case NbtDataUtil.TAG_FLOAT:
+                        integral = 0;
+                        floating = input.readFloat();
+                        break;
+                    default:
+                        integral = 0;
+                        floating = input.readDouble();
+                        break;
+                }
+                writeNumber(this.output, type, integral, floating);
+            }
+            this.elementType = type;
+        }
+    }
+
+}
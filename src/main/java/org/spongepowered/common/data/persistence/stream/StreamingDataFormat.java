@@ -0,0 +1,58 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import org.spongepowered.api.data.persistence.DataFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@link DataFormat} that can also be read and written as a stream of
+ * {@link DataVisitor} events.
+ */
+public interface StreamingDataFormat extends DataFormat {
+
+    /**
+     * Reads a single document from the input, emitting it to the visitor.
+     *
+     * @param input The input to read from
+     * @param visitor The visitor to emit to
+     * @throws IOException If the input couldn't be read
+     */
+    void readFrom(InputStream input, DataVisitor visitor) throws IOException;
+
+    /**
+     * Creates a visitor writing a single document to the output. The output
+     * is flushed, but not closed, once the root view ends.
+     *
+     * @param output The output to write to
+     * @return The writing visitor
+     * @throws IOException If the output couldn't be prepared
+     */
+    DataVisitor createWriter(OutputStream output) throws IOException;
+
+}
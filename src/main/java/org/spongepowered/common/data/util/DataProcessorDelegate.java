@@ -41,11 +41,18 @@
 import org.spongepowered.common.data.DataProcessor;
 import org.spongepowered.common.util.ServerUtils;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class DataProcessorDelegate<M extends DataManipulator<M, I>, I extends ImmutableDataManipulator<I, M>> implements DataProcessor<M, I> {
 
+    // Only every n-th call is timed, so the processor timings are a sample
+    private static final int TIMING_SAMPLE_INTERVAL = 64;
+
     private final ImmutableList<Tuple<DataProcessor<M, I>, Timing>> processors;
+    private final Map<Class<?>, ImmutableList<Tuple<DataProcessor<M, I>, Timing>>> processorsByHolderClass = new ConcurrentHashMap<>();
+    private int calls;
 
     public DataProcessorDelegate(ImmutableList<DataProcessor<M, I>> processors) {
         ImmutableList.Builder<Tuple<DataProcessor<M, I>, Timing>> builder = ImmutableList.builder();
@@ -55,6 +62,34 @@ public DataProcessorDelegate(ImmutableList<DataProcessor<M, I>> processors) {
         this.processors = builder.build();
     }
 
+    /**
+     * Gets the processors that may support the given holder, resolved once
+     * per holder class.
+     *
+     * @param dataHolder The data holder
+     * @return The processors, in order of priority
+     */
+    private ImmutableList<Tuple<DataProcessor<M, I>, Timing>> getProcessors(DataHolder dataHolder) {
+        final Class<?> holderClass = dataHolder.getClass();
+        ImmutableList<Tuple<DataProcessor<M, I>, Timing>> processors = this.processorsByHolderClass.get(holderClass);
+        if (processors == null) {
+            final ImmutableList.Builder<Tuple<DataProcessor<M, I>, Timing>> builder = ImmutableList.builder();
+            for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+                if (tuple.getFirst().supportsHolderClass(holderClass)) {
+                    builder.add(tuple);
+                }
+            }
+            processors = builder.build();
+            this.processorsByHolderClass.put(holderClass, processors);
+        }
+        return processors;
+    }
+
+    private boolean shouldTime() {
+        // Not synchronized, a lost update only shifts the sample
+        return (++this.calls & (TIMING_SAMPLE_INTERVAL - 1)) == 0 && ServerUtils.isCallingFromMainThread();
+    }
+
     @Override
     public int getPriority() {
         return Integer.MAX_VALUE;
@@ -62,20 +97,20 @@ public int getPriority() {
 
     @Override
     public boolean supports(DataHolder dataHolder) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
-        for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+        for (Tuple<DataProcessor<M, I>, Timing> tuple : getProcessors(dataHolder)) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                if (callingFromMinecraftThread) {
+            try {
+                if (tuple.getFirst().supports(dataHolder)) {
+                    return true;
+                }
+            } finally {
+                if (timed) {
                     tuple.getSecond().stopTiming();
                 }
-                return true;
-            }
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
             }
         }
         return false;
@@ -88,68 +123,69 @@ public boolean supports(EntityType entityType) {
 
     @Override
     public Optional<M> from(DataHolder dataHolder) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
-        for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+        for (Tuple<DataProcessor<M, I>, Timing> tuple : getProcessors(dataHolder)) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final Optional<M> optional = tuple.getFirst().from(dataHolder);
-                if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+            try {
+                if (tuple.getFirst().supports(dataHolder)) {
+                    final Optional<M> optional = tuple.getFirst().from(dataHolder);
+                    if (optional.isPresent()) {
+                        return optional;
+                    }
                 }
-                if (optional.isPresent()) {
-                    return optional;
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
                 }
             }
-
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
-            }
         }
         return Optional.empty();
     }
 
     @Override
     public Optional<M> fill(DataHolder dataHolder, M manipulator, MergeFunction overlap) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
-        for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+        for (Tuple<DataProcessor<M, I>, Timing> tuple : getProcessors(dataHolder)) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final Optional<M> optional = tuple.getFirst().fill(dataHolder, manipulator, overlap);
-                if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+            try {
+                if (tuple.getFirst().supports(dataHolder)) {
+                    final Optional<M> optional = tuple.getFirst().fill(dataHolder, manipulator, overlap);
+                    if (optional.isPresent()) {
+                        return optional;
+                    }
                 }
-                if (optional.isPresent()) {
-                    return optional;
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
                 }
             }
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
-            }
-
         }
         return Optional.empty();
     }
 
     @Override
     public Optional<M> fill(DataContainer container, M m) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
         for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            final Optional<M> optional = tuple.getFirst().fill(container, m);
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
-            }
-            if (optional.isPresent()) {
-                return optional;
+            try {
+                final Optional<M> optional = tuple.getFirst().fill(container, m);
+                if (optional.isPresent()) {
+                    return optional;
+                }
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
+                }
             }
         }
         return Optional.empty();
@@ -157,23 +193,23 @@ public Optional<M> fill(DataContainer container, M m) {
 
     @Override
     public DataTransactionResult set(DataHolder dataHolder, M manipulator, MergeFunction function) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
-        for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+        for (Tuple<DataProcessor<M, I>, Timing> tuple : getProcessors(dataHolder)) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final DataTransactionResult result = tuple.getFirst().set(dataHolder, manipulator, function);
-                if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
-                    if (callingFromMinecraftThread) {
-                        tuple.getSecond().stopTiming();
+            try {
+                if (tuple.getFirst().supports(dataHolder)) {
+                    final DataTransactionResult result = tuple.getFirst().set(dataHolder, manipulator, function);
+                    if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
+                        return result;
                     }
-                    return result;
                 }
-            }
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
+                }
             }
         }
         return DataTransactionResult.failResult(manipulator.asImmutable().getValues());
@@ -181,19 +217,21 @@ public DataTransactionResult set(DataHolder dataHolder, M manipulator, MergeFunc
 
     @Override
     public Optional<I> with(Key<? extends BaseValue<?>> key, Object value, I immutable) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
         for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            final Optional<I> optional = tuple.getFirst().with(key, value, immutable);
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
-            }
-            if (optional.isPresent()) {
-                return optional;
-
+            try {
+                final Optional<I> optional = tuple.getFirst().with(key, value, immutable);
+                if (optional.isPresent()) {
+                    return optional;
+                }
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
+                }
             }
         }
         return Optional.empty();
@@ -201,49 +239,48 @@ public Optional<I> with(Key<? extends BaseValue<?>> key, Object value, I immutab
 
     @Override
     public DataTransactionResult remove(DataHolder dataHolder) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
-        for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+        for (Tuple<DataProcessor<M, I>, Timing> tuple : getProcessors(dataHolder)) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final DataTransactionResult result = tuple.getFirst().remove(dataHolder);
-                if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+            try {
+                if (tuple.getFirst().supports(dataHolder)) {
+                    final DataTransactionResult result = tuple.getFirst().remove(dataHolder);
+                    if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
+                        return result;
+                    }
                 }
-                if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
-                    return result;
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
                 }
             }
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
-            }
-
         }
         return DataTransactionResult.failNoData();
     }
 
     @Override
     public Optional<M> createFrom(DataHolder dataHolder) {
-        final boolean callingFromMinecraftThread = ServerUtils.isCallingFromMainThread();
+        final boolean timed = shouldTime();
 
-        for (Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
-            if (callingFromMinecraftThread) {
+        for (Tuple<DataProcessor<M, I>, Timing> tuple : getProcessors(dataHolder)) {
+            if (timed) {
                 tuple.getSecond().startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final Optional<M> optional = tuple.getFirst().createFrom(dataHolder);
-                if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+            try {
+                if (tuple.getFirst().supports(dataHolder)) {
+                    final Optional<M> optional = tuple.getFirst().createFrom(dataHolder);
+                    if (optional.isPresent()) {
+                        return optional;
+                    }
                 }
-                if (optional.isPresent()) {
-                    return optional;
+            } finally {
+                if (timed) {
+                    tuple.getSecond().stopTiming();
                 }
             }
-            if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
-            }
         }
         return Optional.empty();
     }
@@ -343,7 +343,9 @@ private static final class CachedFireworkPacket implements ICachedParticleEffect
         private static final SPacketEntityStatus FIREWORK_ROCKET_DUMMY_EFFECT;
 
         static {
-            FIREWORK_ROCKET_ID = Entity.nextEntityID++;
+            synchronized (Entity.class) {
+                FIREWORK_ROCKET_ID = Entity.nextEntityID++;
+            }
             FIREWORK_ROCKET_UNIQUE_ID = MathHelper.getRandomUUID(new Random());
 
             DESTROY_FIREWORK_ROCKET_DUMMY = new SPacketDestroyEntities(FIREWORK_ROCKET_ID);
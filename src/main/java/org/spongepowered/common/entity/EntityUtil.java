@@ -113,6 +113,7 @@
 import org.spongepowered.common.registry.type.entity.EntityTypeRegistryModule;
 import org.spongepowered.common.registry.type.entity.ProfessionRegistryModule;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.ParallelWorldTicker;
 import org.spongepowered.common.world.WorldManager;
 
 import java.util.ArrayList;
@@ -158,6 +159,14 @@ public boolean apply(Entity entity) {
     @Nullable
     public static Entity transferEntityToDimension(IMixinEntity mixinEntity, int toSuggestedDimension) {
         final Entity entity = toNative(mixinEntity);
+        // Dimension changes reach into the target world, defer them until it is no longer ticked
+        if (ParallelWorldTicker.defer(() -> {
+            if (!entity.isDead) {
+                transferEntityToDimension(mixinEntity, toSuggestedDimension);
+            }
+        })) {
+            return null;
+        }
         // handle portal event
         MoveEntityEvent.Teleport.Portal event = handleDisplaceEntityPortalEvent(entity, toSuggestedDimension, null);
         if (event == null || event.isCancelled()) {
@@ -197,6 +206,9 @@ public static Entity transferEntityToDimension(IMixinEntity mixinEntity, int toS
      */
     @Nullable
     public static Entity teleportPlayerToDimension(EntityPlayerMP entityPlayerMP, int suggestedDimensionId) {
+        if (ParallelWorldTicker.defer(() -> teleportPlayerToDimension(entityPlayerMP, suggestedDimensionId))) {
+            return entityPlayerMP;
+        }
         // Fire teleport event here to support Forge's EntityTravelDimensionEvent
         // This also prevents sending client wrong data if event is cancelled
         WorldServer toWorld = SpongeImpl.getServer().getWorld(suggestedDimensionId);
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import co.aikar.timings.TimingsManager;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.event.Cancellable;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.impl.AbstractEvent;
+import org.spongepowered.common.SpongeImpl;
+
+/**
+ * A dispatch chain of all the listeners for a single, non generic, event
+ * class. Implementations are generated by the {@link EventListenerChainFactory}
+ * and unroll the listener invocations, so every listener gets its own call
+ * site instead of sharing the one in {@link SpongeEventManager#post(Event, java.util.List)}.
+ */
+public abstract class EventListenerChain {
+
+    static final EventListenerChain EMPTY = new EventListenerChain(new RegisteredListener<?>[0]) {
+
+        @Override
+        protected void postSync(Event event) {
+        }
+    };
+
+    private final RegisteredListener<?>[] listeners;
+
+    protected EventListenerChain(RegisteredListener<?>[] listeners) {
+        this.listeners = checkNotNull(listeners, "listeners");
+    }
+
+    public boolean post(Event event) {
+        if (this.listeners.length == 0) {
+            return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+        }
+        if (!Sponge.getServer().isMainThread()) {
+            // If this event is being posted asynchronously then we don't want
+            // to do any timing or cause stack changes
+            postAsync(event);
+        } else {
+            TimingsManager.PLUGIN_EVENT_HANDLER.startTimingIfSync();
+            postSync(event);
+        }
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).currentOrder = null;
+        }
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    /**
+     * Passes the event to every listener of this chain, in order. Each
+     * invocation is surrounded by {@link #before(Event, RegisteredListener)}
+     * and either {@link #after(RegisteredListener)} or, when the listener
+     * throws, {@link #fail(Event, RegisteredListener, Throwable)}.
+     *
+     * @param event The event
+     */
+    protected abstract void postSync(Event event);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void postAsync(Event event) {
+        for (RegisteredListener listener : this.listeners) {
+            try {
+                if (event instanceof AbstractEvent) {
+                    ((AbstractEvent) event).currentOrder = listener.getOrder();
+                }
+                listener.handle(event);
+            } catch (Throwable e) {
+                SpongeImpl.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), listener.getPlugin(), e);
+            }
+        }
+    }
+
+    protected static void before(Event event, RegisteredListener<?> listener) {
+        // The frame is only created if the listener interacts with the cause stack
+        SpongeImpl.getCauseStackManager().pushListenerFrame(listener.getPlugin());
+        listener.getTimingsHandler().startTimingIfSync();
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).currentOrder = listener.getOrder();
+        }
+    }
+
+    protected static void after(RegisteredListener<?> listener) {
+        listener.getTimingsHandler().stopTimingIfSync();
+        SpongeImpl.getCauseStackManager().popListenerFrame();
+    }
+
+    protected static void fail(Event event, RegisteredListener<?> listener, Throwable e) {
+        SpongeImpl.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), listener.getPlugin(), e);
+        after(listener);
+    }
+
+    /**
+     * A chain which is not unrolled, used for event classes with too many
+     * listeners to generate a single method for.
+     */
+    static final class Looping extends EventListenerChain {
+
+        private final RegisteredListener<?>[] listeners;
+
+        Looping(RegisteredListener<?>[] listeners) {
+            super(listeners);
+            this.listeners = listeners;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        protected void postSync(Event event) {
+            for (RegisteredListener listener : this.listeners) {
+                before(event, listener);
+                try {
+                    listener.handle(event);
+                } catch (Throwable e) {
+                    fail(event, listener, e);
+                    continue;
+                }
+                after(listener);
+            }
+        }
+    }
+
+}
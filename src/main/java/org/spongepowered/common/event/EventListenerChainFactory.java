@@ -0,0 +1,212 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_6;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.common.event.gen.DefineableClassLoader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates {@link EventListenerChain}s which invoke every listener through a
+ * dedicated call site. Chain classes only depend on the event class and the
+ * amount of listeners, so they are reused when the listeners of an event class
+ * change without changing in number.
+ */
+public final class EventListenerChainFactory {
+
+    private static final String BASE_CHAIN = Type.getInternalName(EventListenerChain.class);
+    private static final String REGISTERED_LISTENER_DESCRIPTOR = Type.getDescriptor(RegisteredListener.class);
+    private static final String EVENT_LISTENER = Type.getInternalName(EventListener.class);
+    private static final String EVENT_LISTENER_DESCRIPTOR = Type.getDescriptor(EventListener.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = "([" + REGISTERED_LISTENER_DESCRIPTOR + "[" + EVENT_LISTENER_DESCRIPTOR + ")V";
+    private static final String HANDLE_METHOD_DESCRIPTOR = '(' + Type.getDescriptor(Event.class) + ")V";
+    private static final String BEFORE_DESCRIPTOR = '(' + Type.getDescriptor(Event.class) + REGISTERED_LISTENER_DESCRIPTOR + ")V";
+    private static final String AFTER_DESCRIPTOR = '(' + REGISTERED_LISTENER_DESCRIPTOR + ")V";
+    private static final String FAIL_DESCRIPTOR = '(' + Type.getDescriptor(Event.class) + REGISTERED_LISTENER_DESCRIPTOR
+            + Type.getDescriptor(Throwable.class) + ")V";
+
+    /**
+     * Above this amount of listeners the unrolled chain would approach the
+     * method size limit, so a looping chain is used instead.
+     */
+    private static final int MAX_UNROLLED_LISTENERS = 512;
+
+    private final AtomicInteger id = new AtomicInteger();
+    private final DefineableClassLoader classLoader;
+    private final Map<Class<?>, Map<Integer, Class<? extends EventListenerChain>>> classes = new ConcurrentHashMap<>();
+    private final String targetPackage;
+
+    public EventListenerChainFactory(String targetPackage, DefineableClassLoader classLoader) {
+        checkNotNull(targetPackage, "targetPackage");
+        checkArgument(!targetPackage.isEmpty(), "targetPackage cannot be empty");
+        this.targetPackage = targetPackage + '.';
+        this.classLoader = checkNotNull(classLoader, "classLoader");
+    }
+
+    public EventListenerChain create(Class<? extends Event> eventClass, List<RegisteredListener<?>> listeners) throws Exception {
+        if (listeners.isEmpty()) {
+            return EventListenerChain.EMPTY;
+        }
+        final int size = listeners.size();
+        final RegisteredListener<?>[] registeredListeners = listeners.toArray(new RegisteredListener<?>[size]);
+        if (size > MAX_UNROLLED_LISTENERS) {
+            return new EventListenerChain.Looping(registeredListeners);
+        }
+        final EventListener<?>[] eventListeners = new EventListener<?>[size];
+        for (int i = 0; i < size; i++) {
+            eventListeners[i] = registeredListeners[i].getListener();
+        }
+        return this.classes.computeIfAbsent(eventClass, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(size, key -> createClass(eventClass, size))
+                .getConstructor(RegisteredListener[].class, EventListener[].class)
+                .newInstance(registeredListeners, eventListeners);
+    }
+
+    Class<? extends EventListenerChain> createClass(Class<?> eventClass, int size) {
+        final String name = this.targetPackage + eventClass.getSimpleName() + "Chain_" + size + '_' + this.id.incrementAndGet();
+        return this.classLoader.defineClass(name, generateClass(name, size));
+    }
+
+    private static byte[] generateClass(String name, int size) {
+        name = name.replace('.', '/');
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_CHAIN, null);
+        for (int i = 0; i < size; i++) {
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "registered" + i, REGISTERED_LISTENER_DESCRIPTOR, null, null).visitEnd();
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "listener" + i, EVENT_LISTENER_DESCRIPTOR, null, null).visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_CHAIN, "<init>", "([" + REGISTERED_LISTENER_DESCRIPTOR + ")V", false);
+            for (int i = 0; i < size; i++) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 1);
+                visitIntInsn(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitFieldInsn(PUTFIELD, name, "registered" + i, REGISTERED_LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 2);
+                visitIntInsn(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitFieldInsn(PUTFIELD, name, "listener" + i, EVENT_LISTENER_DESCRIPTOR);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PROTECTED, "postSync", HANDLE_METHOD_DESCRIPTOR, null, null);
+            mv.visitCode();
+            for (int i = 0; i < size; i++) {
+                final Label start = new Label();
+                final Label end = new Label();
+                final Label handler = new Label();
+                final Label next = new Label();
+                mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "registered" + i, REGISTERED_LISTENER_DESCRIPTOR);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_CHAIN, "before", BEFORE_DESCRIPTOR, false);
+
+                mv.visitLabel(start);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "listener" + i, EVENT_LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEINTERFACE, EVENT_LISTENER, "handle", HANDLE_METHOD_DESCRIPTOR, true);
+                mv.visitLabel(end);
+
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "registered" + i, REGISTERED_LISTENER_DESCRIPTOR);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_CHAIN, "after", AFTER_DESCRIPTOR, false);
+                mv.visitJumpInsn(GOTO, next);
+
+                mv.visitLabel(handler);
+                mv.visitVarInsn(ASTORE, 2);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "registered" + i, REGISTERED_LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_CHAIN, "fail", FAIL_DESCRIPTOR, false);
+
+                mv.visitLabel(next);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    private static void visitIntInsn(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else {
+            mv.visitIntInsn(SIPUSH, value);
+        }
+    }
+
+}
@@ -35,8 +35,11 @@
 import org.spongepowered.api.event.Order;
 import org.spongepowered.api.plugin.PluginContainer;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Set;
 
 public final class RegisteredListener<T extends Event> implements SpongeEventListener<T>, Comparable<RegisteredListener<?>> {
 
@@ -81,6 +84,10 @@ public Timing getTimingsHandler() {
         return this.listenerTimer;
     }
 
+    EventListener<? super T> getListener() {
+        return this.listener;
+    }
+
     @Override
     public Object getHandle() {
         if (this.listener instanceof SpongeEventListener) {
@@ -102,13 +109,19 @@ public int compareTo(RegisteredListener<?> handler) {
 
     public static final class Cache {
 
-        private final List<RegisteredListener<?>> listeners;
+        private final RegisteredListener<?>[] listeners;
+        private final List<RegisteredListener<?>> listenerList;
         private final EnumMap<Order, List<RegisteredListener<?>>> listenersByOrder;
 
         private static final Order[] ORDERS = Order.values();
 
         Cache(List<RegisteredListener<?>> listeners) {
+            this(listeners.toArray(new RegisteredListener<?>[listeners.size()]));
+        }
+
+        private Cache(RegisteredListener<?>[] listeners) {
             this.listeners = listeners;
+            this.listenerList = Collections.unmodifiableList(Arrays.asList(listeners));
 
             this.listenersByOrder = Maps.newEnumMap(Order.class);
             for (Order order : ORDERS) {
@@ -120,13 +133,57 @@ public static final class Cache {
         }
 
         public List<RegisteredListener<?>> getListeners() {
-            return this.listeners;
+            return this.listenerList;
         }
 
         public List<RegisteredListener<?>> getListenersByOrder(Order order) {
             return this.listenersByOrder.get(checkNotNull(order, "order"));
         }
 
+        /**
+         * Creates a copy of this cache which also contains the given listener,
+         * inserted after all listeners of the same or an earlier order.
+         *
+         * @param listener The listener to add
+         * @return The new cache, or this cache if the listener is already present
+         */
+        Cache with(RegisteredListener<?> listener) {
+            for (RegisteredListener<?> existing : this.listeners) {
+                if (existing == listener) {
+                    return this;
+                }
+            }
+            int index = this.listeners.length;
+            while (index > 0 && this.listeners[index - 1].compareTo(listener) > 0) {
+                index--;
+            }
+            final RegisteredListener<?>[] listeners = new RegisteredListener<?>[this.listeners.length + 1];
+            System.arraycopy(this.listeners, 0, listeners, 0, index);
+            listeners[index] = listener;
+            System.arraycopy(this.listeners, index, listeners, index + 1, this.listeners.length - index);
+            return new Cache(listeners);
+        }
+
+        /**
+         * Creates a copy of this cache without the given listeners.
+         *
+         * @param removed The listeners to remove
+         * @return The new cache, or this cache if none of the listeners are present
+         */
+        Cache without(Set<RegisteredListener<?>> removed) {
+            int kept = 0;
+            final RegisteredListener<?>[] listeners = new RegisteredListener<?>[this.listeners.length];
+            for (RegisteredListener<?> listener : this.listeners) {
+                if (!removed.contains(listener)) {
+                    listeners[kept++] = listener;
+                }
+            }
+            if (kept == this.listeners.length) {
+                return this;
+            }
+            return new Cache(Arrays.copyOf(listeners, kept));
+        }
+
     }
 
 }
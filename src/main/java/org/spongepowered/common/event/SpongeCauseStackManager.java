@@ -26,10 +26,9 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.collect.Maps;
-import com.google.common.collect.Queues;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.apache.logging.log4j.Level;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.CauseStackManager;
@@ -39,55 +38,132 @@
 import org.spongepowered.asm.util.PrettyPrinter;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.util.ThreadUtil;
+import org.spongepowered.common.world.WorldTickThread;
 
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 import javax.annotation.Nullable;
 
+/**
+ * An array backed cause stack. Frames are reused once they are popped and the
+ * context is stored in an array indexed by context key, where each frame
+ * restores the values logged since it was pushed. The {@link Cause} and
+ * {@link EventContext} are only built when they are requested.
+ *
+ * <p>Each thread that ticks worlds in parallel has a stack of its own, which
+ * the injected stack delegates to when called from that thread.</p>
+ */
 @Singleton
 public class SpongeCauseStackManager implements CauseStackManager {
 
     public static final boolean DEBUG_CAUSE_FRAMES = Boolean.valueOf(System.getProperty("sponge.debugcauseframes", "false"));
 
-    private final Deque<Object> cause = Queues.newArrayDeque();
-    private final Deque<CauseStackFrameImpl> frames = Queues.newArrayDeque();
-    private Map<EventContextKey<?>, Object> ctx = Maps.newHashMap();
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The cause stack, the top is at cause_size - 1
+    private Object[] cause = new Object[INITIAL_CAPACITY];
+    private int cause_size;
+
+    // The frame stack, the frames above frame_count are reused by new frames
+    private Frame[] frames = new Frame[INITIAL_CAPACITY];
+    private int frame_count;
+
+    // The positions in the frame stack of the materialized listener frames
+    private int[] listener_frames = new int[INITIAL_CAPACITY];
+    private int listener_frame_count;
+
+    /**
+     * The cause of a listener frame that has been requested through
+     * {@link #pushListenerFrame(Object)} but not yet materialized because
+     * nothing has touched the stack since.
+     */
+    @Nullable private Object pending_listener_cause;
+
+    // The context values, indexed by the index assigned to their key
+    private final Object2IntOpenHashMap<EventContextKey<?>> key_indices = new Object2IntOpenHashMap<>();
+    private EventContextKey<?>[] ctx_keys = new EventContextKey<?>[INITIAL_CAPACITY];
+    private Object[] ctx_values = new Object[INITIAL_CAPACITY];
+    // The depth of the frame which logged the previous value of each key, 0 if none
+    private int[] ctx_logged_depth = new int[INITIAL_CAPACITY];
+
+    // The log of replaced context values, each frame restores the entries
+    // logged after it was pushed
+    private int[] undo_keys = new int[INITIAL_CAPACITY];
+    private Object[] undo_values = new Object[INITIAL_CAPACITY];
+    private int[] undo_logged_depths = new int[INITIAL_CAPACITY];
+    private int undo_size;
 
     private int min_depth = 0;
     private Cause cached_cause;
     private EventContext cached_ctx;
 
     @Inject
-    private SpongeCauseStackManager() { }
+    private SpongeCauseStackManager() {
+        this.key_indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Creates a cause stack for a thread that ticks worlds in parallel. The
+     * injected stack hands it out on that thread.
+     *
+     * @return The new cause stack
+     */
+    public static SpongeCauseStackManager createThreadStack() {
+        return new SpongeCauseStackManager();
+    }
+
+    /**
+     * Gets the cause stack of the current thread, which is this stack unless
+     * the thread ticks worlds in parallel.
+     */
+    private SpongeCauseStackManager getThreadStack() {
+        final Thread current = Thread.currentThread();
+        if (current instanceof WorldTickThread) {
+            return ((WorldTickThread) current).getCauseStackManager();
+        }
+        enforceMainThread();
+        return this;
+    }
 
     private void enforceMainThread() {
-        // On clients, this may not be available immediately, we can't bomb out that early.
-        if (Sponge.isServerAvailable() && !isPermittedThread()) {
+        // The server thread isn't cached, the integrated server of a client
+        // runs on a new thread every time a world is opened. On clients the
+        // server may not be available immediately, we can't bomb out that
+        // early.
+        if (SpongeImpl.isServerThread()) {
+            return;
+        }
+        final Thread current = Thread.currentThread();
+        if (!current.getName().equals("Server Shutdown Thread")) {
             throw new IllegalStateException(String.format(
                     "CauseStackManager called from off main thread (current='%s', expected='%s')!",
-                    ThreadUtil.getDescription(Thread.currentThread()),
+                    ThreadUtil.getDescription(current),
                     ThreadUtil.getDescription(SpongeImpl.getServer().getServerThread())
             ));
         }
     }
 
-    private static boolean isPermittedThread() {
-        return Sponge.getServer().isMainThread() || Thread.currentThread().getName().equals("Server Shutdown Thread");
-    }
-
     @Override
     public Cause getCurrentCause() {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.getCurrentCause();
+        }
+        materializeListenerFrame();
         if (this.cached_cause == null || this.cached_ctx == null) {
-            if (this.cause.isEmpty()) {
+            if (this.cause_size == 0) {
                 this.cached_cause = Cause.of(getCurrentContext(), SpongeImpl.getGame());
             } else {
-                this.cached_cause = Cause.of(getCurrentContext(), this.cause);
+                final List<Object> causes = new ArrayList<>(this.cause_size);
+                for (int i = this.cause_size - 1; i >= 0; i--) {
+                    causes.add(this.cause[i]);
+                }
+                this.cached_cause = Cause.of(getCurrentContext(), causes);
             }
         }
         return this.cached_cause;
@@ -95,36 +171,65 @@ public Cause getCurrentCause() {
 
     @Override
     public EventContext getCurrentContext() {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.getCurrentContext();
+        }
+        materializeListenerFrame();
         if (this.cached_ctx == null) {
-            this.cached_ctx = EventContext.of(this.ctx);
+            final Map<EventContextKey<?>, Object> ctx = new HashMap<>();
+            for (int i = 0; i < this.key_indices.size(); i++) {
+                final Object value = this.ctx_values[i];
+                if (value != null) {
+                    ctx.put(this.ctx_keys[i], value);
+                }
+            }
+            this.cached_ctx = EventContext.of(ctx);
         }
         return this.cached_ctx;
     }
 
     @Override
     public CauseStackManager pushCause(Object obj) {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.pushCause(obj);
+        }
+        materializeListenerFrame();
         checkNotNull(obj, "obj");
         this.cached_cause = null;
-        this.cause.push(obj);
+        if (this.cause_size == this.cause.length) {
+            this.cause = Arrays.copyOf(this.cause, this.cause_size * 2);
+        }
+        this.cause[this.cause_size++] = obj;
         return this;
     }
 
     @Override
     public Object popCause() {
-        enforceMainThread();
-        if (this.cause.size() <= this.min_depth) {
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.popCause();
+        }
+        materializeListenerFrame();
+        if (this.cause_size <= this.min_depth) {
             throw new IllegalStateException("Cause stack corruption, tried to pop more objects off than were pushed since last frame (Size was "
-                    + this.cause.size() + " but mid depth is " + this.min_depth + ")");
+                    + this.cause_size + " but mid depth is " + this.min_depth + ")");
         }
         this.cached_cause = null;
-        return this.cause.pop();
+        final Object obj = this.cause[--this.cause_size];
+        this.cause[this.cause_size] = null;
+        return obj;
     }
 
     @Override
     public void popCauses(int n) {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            owner.popCauses(n);
+            return;
+        }
+        materializeListenerFrame();
         for (int i = 0; i < n; i++) {
             popCause();
         }
@@ -132,31 +237,69 @@ public void popCauses(int n) {
 
     @Override
     public Object peekCause() {
-        enforceMainThread();
-        return this.cause.peek();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.peekCause();
+        }
+        materializeListenerFrame();
+        return this.cause_size == 0 ? null : this.cause[this.cause_size - 1];
     }
 
     @Override
     public StackFrame pushCauseFrame() {
-        enforceMainThread();
-        CauseStackFrameImpl frame = new CauseStackFrameImpl(this.min_depth);
-        this.frames.push(frame);
-        this.min_depth = this.cause.size();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.pushCauseFrame();
+        }
+        materializeListenerFrame();
+        if (this.frame_count == this.frames.length) {
+            this.frames = Arrays.copyOf(this.frames, this.frame_count * 2);
+        }
+        Frame frame = this.frames[this.frame_count];
+        if (frame == null || DEBUG_CAUSE_FRAMES) {
+            // Frames aren't reused while debugging so that the debug trace of
+            // a frame which is popped twice is kept
+            frame = new Frame();
+            this.frames[this.frame_count] = frame;
+        }
+        frame.old_min_depth = this.min_depth;
+        frame.undo_start = this.undo_size;
+        this.frame_count++;
+        this.min_depth = this.cause_size;
         if (DEBUG_CAUSE_FRAMES) {
             // Attach an exception to the frame so that if there is any frame
             // corruption we can print out the stack trace of when the frames
             // were created.
             frame.stack_debug = new Exception();
         }
-        return frame;
+        // The handle never escapes the caller in the usual try-with-resources
+        // block, so it doesn't need to be reused
+        return new CauseStackFrameImpl(frame, frame.generation);
     }
 
     @Override
     public void popCauseFrame(StackFrame oldFrame) {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            owner.popCauseFrame(oldFrame);
+            return;
+        }
+        materializeListenerFrame();
         checkNotNull(oldFrame, "oldFrame");
-        CauseStackFrameImpl frame = this.frames.peek();
-        if (frame != oldFrame) {
+        final CauseStackFrameImpl handle = (CauseStackFrameImpl) oldFrame;
+        popFrame(handle.frame, handle.generation);
+    }
+
+    /**
+     * Pops the given frame, if the frame was pushed again since the handle
+     * was created it is not on the stack anymore.
+     *
+     * @param oldFrame The frame to pop
+     * @param generation The generation of the frame when it was pushed
+     */
+    private void popFrame(Frame oldFrame, int generation) {
+        final Frame frame = this.frame_count == 0 ? null : this.frames[this.frame_count - 1];
+        if (frame != oldFrame || oldFrame.generation != generation) {
             // If the given frame is not the top frame then some form of
             // corruption of the stack has occured and we do our best to correct
             // it.
@@ -165,13 +308,13 @@ public void popCauseFrame(StackFrame oldFrame) {
             // off the stack until we reach it, otherwise we have no choice but
             // to simply throw an error.
             int offset = -1;
-            int i = 0;
-            for (CauseStackFrameImpl f : this.frames) {
-                if (f == oldFrame) {
-                    offset = i;
-                    break;
+            if (oldFrame.generation == generation) {
+                for (int i = this.frame_count - 1; i >= 0; i--) {
+                    if (this.frames[i] == oldFrame) {
+                        offset = this.frame_count - 1 - i;
+                        break;
+                    }
                 }
-                i++;
             }
             if (!DEBUG_CAUSE_FRAMES && offset == -1) {
                 // if we're not debugging the cause frames then throw an error
@@ -188,19 +331,19 @@ public void popCauseFrame(StackFrame oldFrame) {
             } else {
                 printer.add()
                     .add("Attempting to pop frame:")
-                    .add(frame.stack_debug)
+                    .add(frame == null ? null : frame.stack_debug)
                     .add()
                     .add("Frames being popped are:")
-                    .add(((CauseStackFrameImpl) oldFrame).stack_debug);
+                    .add(oldFrame.stack_debug);
             }
 
             while (offset >= 0) {
-                CauseStackFrameImpl f = this.frames.peek();
+                final Frame f = this.frames[this.frame_count - 1];
                 if (DEBUG_CAUSE_FRAMES && offset > 0) {
                     printer.add("   Stack frame in position %n:", offset);
                     printer.add(f.stack_debug);
                 }
-                popCauseFrame(f);
+                popFrame(f, f.generation);
                 offset--;
             }
             printer.trace(System.err, SpongeImpl.getLogger(), Level.ERROR);
@@ -211,127 +354,196 @@ public void popCauseFrame(StackFrame oldFrame) {
             }
             return;
         }
-        this.frames.pop();
-        // Remove new values
-        boolean ctx_invalid = false;
-        if (frame.hasNew()) {
-            for (EventContextKey<?> key : frame.getNew()) {
-                this.ctx.remove(key);
-            }
-            ctx_invalid = true;
-        }
-        // Restore old values
-        if (frame.hasStoredValues()) {
-            for (Map.Entry<EventContextKey<?>, Object> e : frame.getStoredValues()) {
-                this.ctx.put(e.getKey(), e.getValue());
+        this.frame_count--;
+        // Restore the replaced values, latest first
+        if (this.undo_size > frame.undo_start) {
+            for (int i = this.undo_size - 1; i >= frame.undo_start; i--) {
+                final int index = this.undo_keys[i];
+                this.ctx_values[index] = this.undo_values[i];
+                this.ctx_logged_depth[index] = this.undo_logged_depths[i];
+                this.undo_values[i] = null;
             }
-            ctx_invalid = true;
-        }
-        if (ctx_invalid) {
+            this.undo_size = frame.undo_start;
             this.cached_ctx = null;
         }
         // If there were any objects left on the stack then we pop them off
-        while (this.cause.size() > this.min_depth) {
-            this.cause.pop();
+        if (this.cause_size > this.min_depth) {
+            Arrays.fill(this.cause, this.min_depth, this.cause_size, null);
+            this.cause_size = this.min_depth;
 
             // and clear the cached causes
             this.cached_cause = null;
         }
         this.min_depth = frame.old_min_depth;
+        frame.stack_debug = null;
+        // Invalidates the handles of the frame
+        frame.generation++;
+    }
+
+    /**
+     * Pushes the given cause within a new frame, as done around each event
+     * listener invocation. The frame is only materialized if anything
+     * interacts with the cause stack before the matching
+     * {@link #popListenerFrame()}, so listeners that never read or modify the
+     * cause stack do not pay for a frame.
+     *
+     * @param cause The cause to push, usually the owning plugin
+     */
+    public void pushListenerFrame(Object cause) {
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            owner.pushListenerFrame(cause);
+            return;
+        }
+        materializeListenerFrame();
+        this.pending_listener_cause = checkNotNull(cause, "cause");
+    }
+
+    /**
+     * Pops the frame pushed by the last {@link #pushListenerFrame(Object)},
+     * materialized or not, together with its cause.
+     */
+    public void popListenerFrame() {
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            owner.popListenerFrame();
+            return;
+        }
+        if (this.pending_listener_cause != null) {
+            // Nothing observed the frame, so there is nothing to undo
+            this.pending_listener_cause = null;
+            return;
+        }
+        final Frame frame = this.frames[this.listener_frames[--this.listener_frame_count]];
+        popFrame(frame, frame.generation);
+        popCause();
+    }
+
+    private void materializeListenerFrame() {
+        final Object cause = this.pending_listener_cause;
+        if (cause != null) {
+            this.pending_listener_cause = null;
+            pushCause(cause);
+            pushCauseFrame();
+            if (this.listener_frame_count == this.listener_frames.length) {
+                this.listener_frames = Arrays.copyOf(this.listener_frames, this.listener_frame_count * 2);
+            }
+            this.listener_frames[this.listener_frame_count++] = this.frame_count - 1;
+        }
+    }
+
+    private int getOrCreateIndex(EventContextKey<?> key) {
+        int index = this.key_indices.getInt(key);
+        if (index == -1) {
+            index = this.key_indices.size();
+            if (index == this.ctx_keys.length) {
+                this.ctx_keys = Arrays.copyOf(this.ctx_keys, index * 2);
+                this.ctx_values = Arrays.copyOf(this.ctx_values, index * 2);
+                this.ctx_logged_depth = Arrays.copyOf(this.ctx_logged_depth, index * 2);
+            }
+            this.ctx_keys[index] = key;
+            this.key_indices.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Logs the current value of the context key so that the current frame
+     * restores it, unless the frame already did so.
+     */
+    private void logContext(int index) {
+        if (this.frame_count == 0 || this.ctx_logged_depth[index] == this.frame_count) {
+            return;
+        }
+        if (this.undo_size == this.undo_keys.length) {
+            this.undo_keys = Arrays.copyOf(this.undo_keys, this.undo_size * 2);
+            this.undo_values = Arrays.copyOf(this.undo_values, this.undo_size * 2);
+            this.undo_logged_depths = Arrays.copyOf(this.undo_logged_depths, this.undo_size * 2);
+        }
+        this.undo_keys[this.undo_size] = index;
+        this.undo_values[this.undo_size] = this.ctx_values[index];
+        this.undo_logged_depths[this.undo_size] = this.ctx_logged_depth[index];
+        this.undo_size++;
+        this.ctx_logged_depth[index] = this.frame_count;
     }
 
     @Override
     public <T> CauseStackManager addContext(EventContextKey<T> key, T value) {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.addContext(key, value);
+        }
+        materializeListenerFrame();
         checkNotNull(key, "key");
         checkNotNull(value, "value");
         this.cached_ctx = null;
-        Object existing = this.ctx.put(key, value);
-        if (!this.frames.isEmpty()) {
-            CauseStackFrameImpl frame = this.frames.peek();
-            if (existing == null) {
-                frame.markNew(key);
-            } else if (!frame.isNew(key) && !frame.isStored(key)) {
-                frame.store(key, existing);
-            }
-        }
+        final int index = getOrCreateIndex(key);
+        logContext(index);
+        this.ctx_values[index] = value;
         return this;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> Optional<T> getContext(EventContextKey<T> key) {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.getContext(key);
+        }
+        materializeListenerFrame();
         checkNotNull(key, "key");
-        return Optional.ofNullable((T) this.ctx.get(key));
+        final int index = this.key_indices.getInt(key);
+        return index == -1 ? Optional.empty() : Optional.ofNullable((T) this.ctx_values[index]);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> Optional<T> removeContext(EventContextKey<T> key) {
-        enforceMainThread();
+        final SpongeCauseStackManager owner = getThreadStack();
+        if (owner != this) {
+            return owner.removeContext(key);
+        }
+        materializeListenerFrame();
         checkNotNull(key, "key");
-        this.cached_ctx = null;
-        Object existing = this.ctx.remove(key);
-        if (existing != null && !this.frames.isEmpty()) {
-            CauseStackFrameImpl frame = this.frames.peek();
-            if (!frame.isNew(key)) {
-                frame.store(key, existing);
-            }
+        final int index = this.key_indices.getInt(key);
+        if (index == -1 || this.ctx_values[index] == null) {
+            return Optional.empty();
         }
-        return Optional.ofNullable((T) existing);
+        this.cached_ctx = null;
+        logContext(index);
+        final Object existing = this.ctx_values[index];
+        this.ctx_values[index] = null;
+        return Optional.of((T) existing);
     }
 
-    // TODO could pool these for more fasts
-    public static class CauseStackFrameImpl implements StackFrame {
-
-        // lazy loaded
-        @Nullable private Map<EventContextKey<?>, Object> stored_ctx_values;
-        @Nullable private Set<EventContextKey<?>> new_ctx_values;
-        public int old_min_depth;
-
-        public Exception stack_debug = null;
-
-        public CauseStackFrameImpl(int old_depth) {
-            this.old_min_depth = old_depth;
-        }
+    // A frame of the stack, reused by the frames pushed after it was popped
+    private static final class Frame {
 
-        public boolean isStored(EventContextKey<?> key) {
-            return this.stored_ctx_values != null && this.stored_ctx_values.containsKey(key);
-        }
+        int old_min_depth;
+        // The size of the context undo log when the frame was pushed
+        int undo_start;
+        // Incremented every time the frame is popped
+        int generation;
 
-        public Set<Map.Entry<EventContextKey<?>, Object>> getStoredValues() {
-            return this.stored_ctx_values.entrySet();
-        }
+        @Nullable Exception stack_debug = null;
 
-        public boolean hasStoredValues() {
-            return this.stored_ctx_values != null && !this.stored_ctx_values.isEmpty();
-        }
-
-        public void store(EventContextKey<?> key, Object existing) {
-            if (this.stored_ctx_values == null) {
-                this.stored_ctx_values = new HashMap<>();
-            }
-            this.stored_ctx_values.put(key, existing);
-        }
-
-        public boolean isNew(EventContextKey<?> key) {
-            return this.new_ctx_values != null && this.new_ctx_values.contains(key);
-        }
+    }
 
-        public Set<EventContextKey<?>> getNew() {
-            return this.new_ctx_values;
-        }
+    /**
+     * A handle to a frame of the cause stack. Frames are reused after they
+     * have been popped, a handle which is popped after its frame was reused
+     * fails instead of popping the newer frame.
+     */
+    public static class CauseStackFrameImpl implements StackFrame {
 
-        public boolean hasNew() {
-            return this.new_ctx_values != null && !this.new_ctx_values.isEmpty();
-        }
+        final Frame frame;
+        // The generation of the frame when it was pushed, the handle is stale
+        // once the frame was popped
+        final int generation;
 
-        public void markNew(EventContextKey<?> key) {
-            if (this.new_ctx_values == null) {
-                this.new_ctx_values = new HashSet<>();
-            }
-            this.new_ctx_values.add(key);
+        CauseStackFrameImpl(Frame frame, int generation) {
+            this.frame = frame;
+            this.generation = generation;
         }
 
         @Override
@@ -27,6 +27,7 @@
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import co.aikar.timings.SpongeTimings;
 import co.aikar.timings.TimingsManager;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
@@ -61,6 +62,7 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -84,19 +86,41 @@ public class SpongeEventManager implements EventManager {
     private final DefineableClassLoader classLoader = new DefineableClassLoader(getClass().getClassLoader());
     private final AnnotatedEventListener.Factory handlerFactory = new ClassEventListenerFactory("org.spongepowered.common.event.listener",
             new FilterFactory("org.spongepowered.common.event.filters", this.classLoader), this.classLoader);
+    private final EventListenerChainFactory chainFactory = new EventListenerChainFactory("org.spongepowered.common.event.chain", this.classLoader);
     private final Multimap<Class<?>, RegisteredListener<?>> handlersByEvent = HashMultimap.create();
     private final Set<Object> registeredListeners = Sets.newHashSet();
 
+    /**
+     * A reverse index from each raw event type to the baked event types whose
+     * listeners include the listeners of that raw type, used to patch only the
+     * affected {@link #handlersCache} entries when listeners change.
+     */
+    private final Multimap<Class<?>, EventType<?>> bakedTypesByRawType = HashMultimap.create();
+
     public final ListenerChecker checker = new ListenerChecker(ShouldFire.class);
 
     /**
      * A cache of all the handlers for an event type for quick event posting.
-     * <p>The cache is currently entirely invalidated if handlers are added or
-     * removed.</p>
+     * <p>Entries are patched in place, through {@link #bakedTypesByRawType},
+     * if handlers are added or removed.</p>
      */
     private final LoadingCache<EventType<?>, RegisteredListener.Cache> handlersCache =
             Caffeine.newBuilder().initialCapacity(150).build(this::bakeHandlers);
 
+    /**
+     * The generated listener chains of non generic event classes, stored on
+     * the event class itself so posting doesn't need a cache lookup. Chains
+     * are rebuilt on the next post whenever the listeners of the class change.
+     */
+    private final ClassValue<ListenerChainSlot> listenerChains = new ClassValue<ListenerChainSlot>() {
+
+        @Override
+        protected ListenerChainSlot computeValue(Class<?> type) {
+            return new ListenerChainSlot();
+        }
+    };
+    @Nullable private Boolean useListenerChains;
+
     @Inject
     public SpongeEventManager(Logger logger, PluginManager pluginManager) {
         this.logger = logger;
@@ -127,32 +151,70 @@ public SpongeEventManager(Logger logger, PluginManager pluginManager) {
     }
 
     <T extends Event> RegisteredListener.Cache bakeHandlers(EventType<T> eventType) {
+        SpongeTimings.eventListenerBakeTimer.startTimingIfSync();
         final List<RegisteredListener<?>> handlers = new ArrayList<>();
         final Set<Class<? super T>> types = TypeToken.of(eventType.getType()).getTypes().rawTypes();
 
         synchronized (this.lock) {
             for (Class<? super T> type : types) {
                 if (Event.class.isAssignableFrom(type)) {
-                    final Collection<RegisteredListener<?>> listeners = this.handlersByEvent.get(type);
-                    if (GenericEvent.class.isAssignableFrom(type)) {
-                        final TypeToken<?> genericType = eventType.getGenericType();
-                        checkNotNull(genericType);
-                        for (RegisteredListener<?> listener : listeners) {
-                            final TypeToken<?> genericType1 = listener.getEventType().getGenericType();
-                            checkNotNull(genericType1);
-                            if (TypeTokenHelper.isAssignable(genericType, genericType1)) {
-                                handlers.add(listener);
-                            }
+                    this.bakedTypesByRawType.put(type, eventType);
+                    for (RegisteredListener<?> listener : this.handlersByEvent.get(type)) {
+                        if (includes(eventType, type, listener)) {
+                            handlers.add(listener);
                         }
-                    } else {
-                        handlers.addAll(listeners);
                     }
                 }
             }
         }
 
         Collections.sort(handlers);
-        return new RegisteredListener.Cache(handlers);
+        final RegisteredListener.Cache cache = new RegisteredListener.Cache(handlers);
+        SpongeTimings.eventListenerBakeTimer.stopTimingIfSync();
+        return cache;
+    }
+
+    /**
+     * Gets whether a listener registered for the given raw type, which is a
+     * supertype of the baked event type, should receive the baked event type.
+     */
+    private static boolean includes(EventType<?> eventType, Class<?> rawType, RegisteredListener<?> listener) {
+        if (!GenericEvent.class.isAssignableFrom(rawType)) {
+            return true;
+        }
+        final TypeToken<?> genericType = checkNotNull(eventType.getGenericType());
+        final TypeToken<?> genericType1 = checkNotNull(listener.getEventType().getGenericType());
+        return TypeTokenHelper.isAssignable(genericType, genericType1);
+    }
+
+    /**
+     * Patches every baked cache entry which is affected by the given listener
+     * changes. This must be called outside of the lock, loading a cache entry
+     * acquires the lock while holding the cache's own lock.
+     */
+    private void patchHandlers(Collection<RegisteredListener<?>> added, Collection<RegisteredListener<?>> removed,
+            Multimap<EventType<?>, Class<?>> affected) {
+        SpongeTimings.eventListenerPatchTimer.startTimingIfSync();
+        final Set<RegisteredListener<?>> removedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedSet.addAll(removed);
+        for (Map.Entry<EventType<?>, Collection<Class<?>>> entry : affected.asMap().entrySet()) {
+            final EventType<?> eventType = entry.getKey();
+            final Collection<Class<?>> rawTypes = entry.getValue();
+            final RegisteredListener.Cache patched = this.handlersCache.asMap().computeIfPresent(eventType, (key, cache) -> {
+                RegisteredListener.Cache result = removedSet.isEmpty() ? cache : cache.without(removedSet);
+                for (RegisteredListener<?> listener : added) {
+                    final Class<?> rawType = listener.getEventType().getType();
+                    if (rawTypes.contains(rawType) && includes(eventType, rawType, listener)) {
+                        result = result.with(listener);
+                    }
+                }
+                return result;
+            });
+            if (patched != null && eventType.getGenericType() == null) {
+                this.listenerChains.get(eventType.getType()).version++;
+            }
+        }
+        SpongeTimings.eventListenerPatchTimer.stopTimingIfSync();
     }
 
     @Nullable
@@ -190,20 +252,24 @@ private void register(RegisteredListener<? extends Event> handler) {
     }
 
     private void register(List<RegisteredListener<? extends Event>> handlers) {
-        boolean changed = false;
+        final List<RegisteredListener<?>> added = new ArrayList<>();
+        final Multimap<EventType<?>, Class<?>> affected = HashMultimap.create();
 
         synchronized (this.lock) {
             for (RegisteredListener<?> handler : handlers) {
                 final Class<?> raw = handler.getEventType().getType();
                 if (this.handlersByEvent.put(raw, handler)) {
-                    changed = true;
+                    added.add(handler);
                     this.checker.registerListenerFor(raw);
+                    for (EventType<?> eventType : this.bakedTypesByRawType.get(raw)) {
+                        affected.put(eventType, raw);
+                    }
                 }
             }
         }
 
-        if (changed) {
-            this.handlersCache.invalidateAll();
+        if (!affected.isEmpty()) {
+            patchHandlers(added, Collections.emptyList(), affected);
         }
     }
 
@@ -326,7 +392,8 @@ public <T extends Event> void registerListener(Object plugin, TypeToken<T> event
     }
 
     private void unregister(Predicate<RegisteredListener<?>> unregister) {
-        boolean changed = false;
+        final List<RegisteredListener<?>> removed = new ArrayList<>();
+        final Multimap<EventType<?>, Class<?>> affected = HashMultimap.create();
 
         synchronized (this.lock) {
             Iterator<RegisteredListener<?>> itr = this.handlersByEvent.values().iterator();
@@ -334,16 +401,20 @@ private void unregister(Predicate<RegisteredListener<?>> unregister) {
                 RegisteredListener<?> handler = itr.next();
                 if (unregister.test(handler)) {
                     itr.remove();
-                    changed = true;
+                    removed.add(handler);
+                    final Class<?> raw = handler.getEventType().getType();
+                    for (EventType<?> eventType : this.bakedTypesByRawType.get(raw)) {
+                        affected.put(eventType, raw);
+                    }
                     // TODO: This doesn't seem right, even as it was before
-                    this.checker.unregisterListenerFor(handler.getEventType().getType());
+                    this.checker.unregisterListenerFor(raw);
                     this.registeredListeners.remove(handler.getHandle());
                 }
             }
         }
 
-        if (changed) {
-            this.handlersCache.invalidateAll();
+        if (!affected.isEmpty()) {
+            patchHandlers(Collections.emptyList(), removed, affected);
         }
     }
 
@@ -423,6 +494,55 @@ public boolean post(Event event) {
     }
 
     public boolean post(Event event, boolean allowClientThread) {
+        if (!(event instanceof GenericEvent) && useListenerChains()) {
+            return getListenerChain(event.getClass()).post(event);
+        }
         return post(event, getHandlerCache(event).getListeners());
     }
+
+    private boolean useListenerChains() {
+        if (this.useListenerChains == null) {
+            this.useListenerChains = SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useEventListenerChains();
+        }
+        return this.useListenerChains;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private EventListenerChain getListenerChain(Class<? extends Event> eventClass) {
+        final ListenerChainSlot slot = this.listenerChains.get(eventClass);
+        final BakedListenerChain baked = slot.baked;
+        final int version = slot.version;
+        if (baked != null && baked.version == version) {
+            return baked.chain;
+        }
+        final List<RegisteredListener<?>> listeners = this.handlersCache.get(new EventType(eventClass, null)).getListeners();
+        EventListenerChain chain;
+        try {
+            chain = this.chainFactory.create(eventClass, listeners);
+        } catch (Exception e) {
+            this.logger.error("Failed to create listener chain for {}, falling back to a non generated chain", eventClass, e);
+            chain = new EventListenerChain.Looping(listeners.toArray(new RegisteredListener<?>[listeners.size()]));
+        }
+        // If the listeners changed in the meantime the chain is rebuilt on the next post
+        slot.baked = new BakedListenerChain(chain, version);
+        return chain;
+    }
+
+    private static final class ListenerChainSlot {
+
+        @Nullable volatile BakedListenerChain baked;
+        // Bumped after the cache entry of the class is patched
+        volatile int version;
+    }
+
+    private static final class BakedListenerChain {
+
+        final EventListenerChain chain;
+        final int version;
+
+        BakedListenerChain(EventListenerChain chain, int version) {
+            this.chain = chain;
+            this.version = version;
+        }
+    }
 }
@@ -51,6 +51,7 @@
 import org.spongepowered.common.event.tracking.context.EntityItemDropsSupplier;
 import org.spongepowered.common.event.tracking.context.EntityItemEntityDropsSupplier;
 import org.spongepowered.common.event.tracking.context.ItemDropData;
+import org.spongepowered.common.interfaces.world.IMixinWorldServer;
 
 import java.util.Collections;
 import java.util.List;
@@ -89,7 +90,13 @@
 
     @Nullable private Object source;
 
+    // Set for contexts handed out by a PhaseContextPool, see PhaseTracker#completePhase
+    @Nullable PhaseContextPool<?> pool;
+    @Nullable PhaseData phaseData;
+    @Nullable Throwable releasedAt;
+
     public P source(Object owner) {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         this.source = owner;
         return (P) this;
@@ -101,6 +108,7 @@ public P owner(Supplier<Optional<User>> supplier) {
     }
 
     public P owner(User owner) {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         if (this.owner != null) {
             throw new IllegalStateException("Owner for this phase context is already set!");
@@ -115,6 +123,7 @@ public P notifier(Supplier<Optional<User>> supplier) {
     }
 
     public P notifier(User notifier) {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         if (this.notifier != null) {
             throw new IllegalStateException("Notifier for this phase context is already set!");
@@ -132,6 +141,7 @@ private void checkBlockSuppliers() {
     }
 
     public P addBlockCaptures() {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         this.checkBlockSuppliers();
 
@@ -144,6 +154,7 @@ public P addBlockCaptures() {
     }
 
     public P addCaptures() {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         this.checkBlockSuppliers();
         checkState(this.capturedItemsSupplier == null, "CapturedItemsSupplier is already set!");
@@ -162,6 +173,7 @@ public P addCaptures() {
     }
 
     public P addEntityCaptures() {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         checkState(this.capturedItemsSupplier == null, "CapturedItemsSupplier is already set!");
         checkState(this.capturedEntitiesSupplier == null, "CapturedEntitiesSupplier is already set!");
@@ -174,6 +186,7 @@ public P addEntityCaptures() {
     }
 
     public P addEntityDropCaptures() {
+        this.checkNotReleased();
         checkState(!this.isCompleted, "Cannot add a new object to the context if it's already marked as completed!");
         checkState(this.entityItemDropsSupplier == null, "EntityItemDropsSupplier is already set!");
         checkState(this.entityItemEntityDropsSupplier == null, "EntityItemEntityDropsSupplier is already set!");
@@ -184,6 +197,7 @@ public P addEntityDropCaptures() {
     }
 
     public P buildAndSwitch() {
+        this.checkNotReleased();
         this.isCompleted = true;
         PhaseTracker.getInstance().switchToPhase(this.state, this);
         return (P) this;
@@ -222,6 +236,7 @@ public void setProcessImmediately(boolean state) {
 
     @SuppressWarnings("unchecked")
     public <T> Optional<T> getSource(Class<T> sourceClass) {
+        this.checkNotReleased();
         if (this.source == null) {
             return Optional.empty();
         }
@@ -237,14 +252,17 @@ public <T> T requireSource(Class<T> targetClass) {
     }
 
     public Optional<User> getOwner() {
+        this.checkNotReleased();
         return Optional.ofNullable(this.owner);
     }
 
     public Optional<User> getNotifier() {
+        this.checkNotReleased();
         return Optional.ofNullable(this.notifier);
     }
 
     public List<Entity> getCapturedEntities() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.capturedEntitiesSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to capture entity spawns!", this).get();
         }
@@ -252,6 +270,7 @@ public List<Entity> getCapturedEntities() throws IllegalStateException {
     }
 
     public CapturedSupplier<Entity> getCapturedEntitySupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.capturedEntitiesSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to capture entity spawns!", this).get();
         }
@@ -259,6 +278,7 @@ public CapturedSupplier<Entity> getCapturedEntitySupplier() throws IllegalStateE
     }
 
     public List<EntityItem> getCapturedItems() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.capturedItemsSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to capture dropped item entities!", this).get();
         }
@@ -266,6 +286,7 @@ public List<EntityItem> getCapturedItems() throws IllegalStateException {
     }
 
     public CapturedSupplier<EntityItem> getCapturedItemsSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.capturedItemsSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to capture dropped item entities!", this).get();
         }
@@ -273,6 +294,7 @@ public CapturedSupplier<EntityItem> getCapturedItemsSupplier() throws IllegalSta
     }
 
     public List<BlockSnapshot> getCapturedBlocks() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.blocksSupplier == null) {
             throw TrackingUtil.throwWithContext("Expected to be capturing blocks, but we're not capturing them!", this).get();
         }
@@ -280,6 +302,7 @@ public List<BlockSnapshot> getCapturedBlocks() throws IllegalStateException {
     }
 
     public CapturedSupplier<BlockSnapshot> getCapturedBlockSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.blocksSupplier == null) {
             throw TrackingUtil.throwWithContext("Expected to be capturing blocks, but we're not capturing them!", this).get();
         }
@@ -287,6 +310,7 @@ public CapturedSupplier<BlockSnapshot> getCapturedBlockSupplier() throws Illegal
     }
 
     public Multimap<BlockPos, ItemDropData> getCapturedBlockDrops() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.blockItemDropsSupplier == null) {
             throw TrackingUtil.throwWithContext("Expected to be capturing block drops!", this).get();
         }
@@ -294,6 +318,7 @@ public Multimap<BlockPos, ItemDropData> getCapturedBlockDrops() throws IllegalSt
     }
 
     public CapturedMultiMapSupplier<BlockPos, ItemDropData> getBlockDropSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.blockItemDropsSupplier == null) {
             throw TrackingUtil.throwWithContext("Expected to be capturing block drops!", this).get();
         }
@@ -301,6 +326,7 @@ public CapturedMultiMapSupplier<BlockPos, ItemDropData> getBlockDropSupplier() t
     }
 
     public CapturedMultiMapSupplier<BlockPos, EntityItem> getBlockItemDropSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.blockItemEntityDropsSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to track block item drops!", this).get();
         }
@@ -308,6 +334,7 @@ public CapturedMultiMapSupplier<BlockPos, EntityItem> getBlockItemDropSupplier()
     }
 
     public CapturedMultiMapSupplier<UUID, ItemDropData> getCapturedEntityDropSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.entityItemDropsSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to capture entity drops!", this).get();
         }
@@ -315,6 +342,7 @@ public CapturedMultiMapSupplier<UUID, ItemDropData> getCapturedEntityDropSupplie
     }
 
     public CapturedMultiMapSupplier<UUID, EntityItem> getCapturedEntityItemDropSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.entityItemEntityDropsSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to capture entity drops!", this).get();
         }
@@ -322,6 +350,7 @@ public CapturedMultiMapSupplier<UUID, EntityItem> getCapturedEntityItemDropSuppl
     }
 
     public CapturedSupplier<ItemDropData> getCapturedItemStackSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.capturedItemStackSupplier == null) {
             throw TrackingUtil.throwWithContext("Expected to be capturing ItemStack drops from entities!", this).get();
         }
@@ -329,6 +358,7 @@ public CapturedSupplier<ItemDropData> getCapturedItemStackSupplier() throws Ille
     }
 
     public CapturedMultiMapSupplier<BlockPos, net.minecraft.entity.Entity> getBlockEntitySpawnSupplier() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.blockEntitySpawnSupplier == null) {
             throw TrackingUtil.throwWithContext("Intended to track block entity spawns!", this).get();
         }
@@ -336,6 +366,7 @@ public CapturedMultiMapSupplier<BlockPos, net.minecraft.entity.Entity> getBlockE
     }
 
     public CaptureBlockPos getCaptureBlockPos() throws IllegalStateException {
+        this.checkNotReleased();
         if (this.captureBlockPos == null) {
             throw TrackingUtil.throwWithContext("Intended to capture a block position!", this).get();
         }
@@ -391,9 +422,62 @@ public P markEmpty() {
 
     @Override
     public void close() { // Should never throw an exception
+        // Unless pooled contexts are being debugged, where closing twice is exactly what we want to know about
+        this.checkNotReleased();
         PhaseTracker.getInstance().completePhase(this.state);
     }
 
+    /**
+     * Resets this context to the state it was in right after being created by
+     * its {@link PhaseContextPool}, so it can be built again for a new phase.
+     * The capture suppliers that were added on creation are kept, but cleared.
+     * Subclasses carrying their own state must override this and call super.
+     */
+    protected void reset() {
+        this.isCompleted = false;
+        this.owner = null;
+        this.notifier = null;
+        this.source = null;
+        this.processImmediately = false;
+        if (this.blocksSupplier != null) {
+            this.blocksSupplier.reset();
+        }
+        if (this.blockItemDropsSupplier != null) {
+            this.blockItemDropsSupplier.reset();
+        }
+        if (this.blockItemEntityDropsSupplier != null) {
+            this.blockItemEntityDropsSupplier.reset();
+        }
+        if (this.capturedItemsSupplier != null) {
+            this.capturedItemsSupplier.reset();
+        }
+        if (this.capturedEntitiesSupplier != null) {
+            this.capturedEntitiesSupplier.reset();
+        }
+        if (this.capturedItemStackSupplier != null) {
+            this.capturedItemStackSupplier.reset();
+        }
+        if (this.entityItemDropsSupplier != null) {
+            this.entityItemDropsSupplier.reset();
+        }
+        if (this.entityItemEntityDropsSupplier != null) {
+            this.entityItemEntityDropsSupplier.reset();
+        }
+        if (this.blockEntitySpawnSupplier != null) {
+            this.blockEntitySpawnSupplier.reset();
+        }
+        if (this.captureBlockPos != null) {
+            this.captureBlockPos.setPos(null);
+            this.captureBlockPos.setWorld((IMixinWorldServer) null);
+        }
+    }
+
+    private void checkNotReleased() {
+        if (PhaseContextPool.CHECK_RELEASED && this.releasedAt != null) {
+            throw new IllegalStateException("Attempted to use a phase context after it was closed and released: " + this, this.releasedAt);
+        }
+    }
+
 
     public List<BlockSnapshot> getCapturedBlocksOrEmptyList() {
         return this.blocksSupplier != null ? this.blocksSupplier.orEmptyList() : Collections.emptyList();
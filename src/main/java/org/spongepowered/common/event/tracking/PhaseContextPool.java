@@ -0,0 +1,101 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event.tracking;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.spongepowered.common.SpongeImpl;
+
+import java.util.function.Supplier;
+
+/**
+ * A small free list of {@link PhaseContext}s for a single {@link IPhaseState}
+ * that is entered often enough for the context allocation to matter, such as
+ * entity, tile entity and block ticks. Contexts handed out by
+ * {@link #acquire()} are returned by the {@link PhaseTracker} once their
+ * phase has been completed and unwound, at which point they are
+ * {@link PhaseContext#reset() reset} and their capture suppliers are
+ * cleared for the next phase.
+ *
+ * <p>Pools are confined to the server thread. Contexts requested from any
+ * other thread, including the threads ticking worlds in parallel, are
+ * created fresh and never returned to the pool.</p>
+ *
+ * @param <C> The type of phase context
+ */
+public final class PhaseContextPool<C extends PhaseContext<C>> {
+
+    static final boolean ENABLED = SpongeImpl.getGlobalConfig().getConfig().getCauseTracker().poolPhaseContexts();
+    static final boolean CHECK_RELEASED = SpongeImpl.getGlobalConfig().getConfig().getCauseTracker().debugPooledPhaseContexts();
+
+    // Only needs to cover the re-entrance depth of a single state, e.g. an entity ticking its passengers
+    private static final int MAX_POOLED_CONTEXTS = 8;
+
+    private final Supplier<C> factory;
+    private final PhaseContext<?>[] free = new PhaseContext<?>[MAX_POOLED_CONTEXTS];
+    private int size;
+
+    public PhaseContextPool(Supplier<C> factory) {
+        this.factory = checkNotNull(factory, "factory");
+    }
+
+    /**
+     * Gets a context that is ready to be built, reusing a previously
+     * released one when possible.
+     *
+     * @return The phase context
+     */
+    @SuppressWarnings("unchecked")
+    public C acquire() {
+        if (!ENABLED || !SpongeImpl.isServerThread()) {
+            return this.factory.get();
+        }
+        if (this.size > 0) {
+            final PhaseContext<?> context = this.free[--this.size];
+            this.free[this.size] = null;
+            return (C) context;
+        }
+        final C context = this.factory.get();
+        context.pool = this;
+        return context;
+    }
+
+    void release(PhaseContext<?> context) {
+        if (!SpongeImpl.isServerThread()) {
+            return;
+        }
+        context.reset();
+        if (CHECK_RELEASED) {
+            // Never hand the context out again, a stale reference would otherwise
+            // start observing whichever phase happened to reuse it.
+            context.releasedAt = new IllegalStateException("Phase context was released here");
+            return;
+        }
+        if (this.size < this.free.length) {
+            this.free[this.size++] = context;
+        }
+    }
+
+}
@@ -85,7 +85,15 @@ private PhaseStack push(PhaseData tuple) {
     }
 
     PhaseStack push(IPhaseState<?> state, PhaseContext<?> context) {
-        return push(new PhaseData(context, state));
+        // Pooled contexts are always switched to with the same state, so their data can be reused
+        PhaseData data = context.phaseData;
+        if (data == null || data.state != state) {
+            data = new PhaseData(context, state);
+            if (context.pool != null) {
+                context.phaseData = data;
+            }
+        }
+        return push(data);
     }
 
     public void forEach(Consumer<PhaseData> consumer) {
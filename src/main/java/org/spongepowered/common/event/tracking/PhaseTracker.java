@@ -68,6 +68,7 @@
 import org.spongepowered.common.registry.type.event.InternalSpawnTypes;
 import org.spongepowered.common.registry.type.world.BlockChangeFlagRegistryModule;
 import org.spongepowered.common.world.SpongeBlockChangeFlag;
+import org.spongepowered.common.world.WorldTickThread;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
@@ -87,7 +88,18 @@ public final class PhaseTracker {
 
     private static final PhaseTracker INSTANCE = new PhaseTracker();
 
+    /**
+     * Gets the phase tracker of the current thread. Threads ticking worlds in
+     * parallel have their own tracker, all other threads share the tracker of
+     * the server thread.
+     *
+     * @return The phase tracker
+     */
     public static PhaseTracker getInstance() {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof WorldTickThread) {
+            return ((WorldTickThread) thread).getPhaseTracker();
+        }
         return checkNotNull(INSTANCE, "PhaseTracker instance was illegally set to null!");
     }
 
@@ -228,6 +240,11 @@ public void completePhase(IPhaseState<?> prevState) {
         } catch (Exception e) {
             this.printMessageWithCaughtException("Exception Post Dispatching Phase", "Something happened when trying to post dispatch state", state, context, e);
         }
+        // If the states did not match, the unwound context was not the one being closed
+        // and its owner may still be holding on to it, so it is left alone.
+        if (context.pool != null && prevState == state) {
+            context.pool.release(context);
+        }
     }
 
     private void printRunnawayPhaseCompletion(IPhaseState<?> state) {
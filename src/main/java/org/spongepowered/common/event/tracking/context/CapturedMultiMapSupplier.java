@@ -159,6 +159,16 @@ public final Stream<V> stream(K key) {
         return this.captured == null ? Stream.empty() : this.captured.get(key).stream();
     }
 
+    /**
+     * Clears all captures so this supplier can be reused by a pooled
+     * {@link org.spongepowered.common.event.tracking.PhaseContext}.
+     */
+    public final void reset() {
+        if (this.captured != null) {
+            this.captured.clear();
+        }
+    }
+
     /**
      * If not empty and key is present, applies the function to the resulting values.
      * 
@@ -35,6 +35,9 @@
 import javax.annotation.Nullable;
 
 public abstract class CapturedSupplier<T> implements Supplier<List<T>> {
+
+    private static final int MAX_RETAINED_SIZE = 256;
+
     @Nullable private List<T> captured;
 
     CapturedSupplier() {
@@ -85,6 +88,21 @@ public final List<T> orEmptyList() {
         return this.captured == null ? Collections.emptyList() : this.captured;
     }
 
+    /**
+     * Clears all captures so this supplier can be reused by a pooled
+     * {@link org.spongepowered.common.event.tracking.PhaseContext}. The
+     * backing list is kept unless it grew unusually large during the phase.
+     */
+    public final void reset() {
+        if (this.captured != null) {
+            if (this.captured.size() > MAX_RETAINED_SIZE) {
+                this.captured = null;
+            } else {
+                this.captured.clear();
+            }
+        }
+    }
+
     /**
      * If not empty, returns a sequential stream of values associated with key.
      * 
@@ -98,6 +98,11 @@ public boolean requiresBlockCapturing() {
         return false;
     }
 
+    @Override
+    public boolean requiresCursorSnapshot() {
+        return true;
+    }
+
 
     @Nullable
     public ClickInventoryEvent createInventoryEvent(EntityPlayerMP playerMP, Container openContainer, Transaction<ItemStackSnapshot> transaction,
@@ -50,6 +50,12 @@ public Container getContainer() {
         return container;
     }
 
+    @Override
+    protected void reset() {
+        super.reset();
+        this.container = null;
+    }
+
     @Override
     public PrettyPrinter printCustom(PrettyPrinter printer) {
         return super.printCustom(printer)
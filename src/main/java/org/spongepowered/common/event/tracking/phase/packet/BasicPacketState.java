@@ -24,12 +24,16 @@
  */
 package org.spongepowered.common.event.tracking.phase.packet;
 
+import org.spongepowered.common.event.tracking.PhaseContextPool;
+
 public class BasicPacketState extends PacketState<BasicPacketContext> {
 
+    private final PhaseContextPool<BasicPacketContext> contextPool = new PhaseContextPool<>(() -> new BasicPacketContext(this)
+        .addCaptures()
+        .addEntityDropCaptures());
+
     @Override
     public BasicPacketContext createPhaseContext() {
-        return new BasicPacketContext(this)
-            .addCaptures()
-            .addEntityDropCaptures();
+        return this.contextPool.acquire();
     }
 }
@@ -49,6 +49,11 @@
 
 final class CloseWindowState extends BasicPacketState {
 
+    @Override
+    public boolean requiresCursorSnapshot() {
+        return true;
+    }
+
     @Override
     public void populateContext(EntityPlayerMP playerMP, Packet<?> packet, BasicPacketContext context) {
         context.openContainer(playerMP.openContainer);
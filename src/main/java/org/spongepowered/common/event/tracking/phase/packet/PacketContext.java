@@ -94,6 +94,16 @@ public ItemStack getItemUsed() {
         return itemUsed;
     }
 
+    @Override
+    protected void reset() {
+        super.reset();
+        this.packetPlayer = null;
+        this.packet = null;
+        this.cursor = null;
+        this.ignoreCreative = false;
+        this.itemUsed = null;
+    }
+
     @Override
     public PrettyPrinter printCustom(PrettyPrinter printer) {
         return super.printCustom(printer)
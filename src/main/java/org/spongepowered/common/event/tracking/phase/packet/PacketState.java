@@ -105,6 +105,17 @@ public boolean isPacketIgnored(Packet<?> packetIn, EntityPlayerMP packetPlayer)
         return false;
     }
 
+    /**
+     * Gets whether this state compares the cursor from before the packet
+     * was processed during unwinding, only then a snapshot of the cursor
+     * is taken for the {@link PacketContext}.
+     *
+     * @return True if the cursor is used
+     */
+    public boolean requiresCursorSnapshot() {
+        return false;
+    }
+
     @Override
     public boolean ignoresItemPreMerging() {
         return false;
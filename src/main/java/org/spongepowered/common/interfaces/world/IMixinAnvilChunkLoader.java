@@ -24,9 +24,12 @@
  */
 package org.spongepowered.common.interfaces.world;
 
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 
 import java.nio.file.Path;
+import java.util.Map;
 
 public interface IMixinAnvilChunkLoader {
 
@@ -35,4 +38,14 @@ public interface IMixinAnvilChunkLoader {
 
     Path getWorldDir();
 
+    /**
+     * Gets the data of the chunks that are waiting to be written, which is
+     * backed by a concurrent map.
+     *
+     * @return The pending chunks
+     */
+    Map<ChunkPos, NBTTagCompound> getPendingChunks();
+
+    void writeChunk(ChunkPos pos, NBTTagCompound compound);
+
 }
@@ -28,6 +28,8 @@
 
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import org.spongepowered.common.world.ChunkUnloadQueue;
 
 public interface IMixinChunkProviderServer {
 
@@ -35,6 +37,8 @@ public interface IMixinChunkProviderServer {
 
     void setMaxChunkUnloads(int maxUnloads);
 
+    void setMaxChunkUnloadTime(int maxUnloadTime);
+
     void setDenyChunkRequests(boolean flag);
 
     void setForceChunkRequests(boolean flag);
@@ -43,5 +47,19 @@ public interface IMixinChunkProviderServer {
 
     long getChunkUnloadDelay();
 
+    ChunkUnloadQueue getUnloadQueue();
+
     WorldServer getWorld();
+
+    IChunkLoader getChunkLoader();
+
+    /**
+     * Loads and populates a chunk that was generated off the main thread. If
+     * the chunk was loaded or generated in the meantime, the generated chunk
+     * is discarded.
+     *
+     * @param chunk The generated chunk
+     * @return The loaded chunk
+     */
+    Chunk loadGeneratedChunk(Chunk chunk);
 }
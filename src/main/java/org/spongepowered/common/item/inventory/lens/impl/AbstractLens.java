@@ -45,6 +45,7 @@
 import org.spongepowered.common.item.inventory.lens.impl.struct.LensHandle;
 import org.spongepowered.common.item.inventory.observer.InventoryEventArgs;
 import org.spongepowered.common.item.inventory.observer.InventoryEventArgs.Type;
+import org.spongepowered.common.item.inventory.query.QueryPlanCache;
 import org.spongepowered.common.util.observer.Observer;
 
 import java.util.ArrayList;
@@ -54,6 +55,8 @@
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import javax.annotation.Nullable;
+
 public abstract class AbstractLens<TInventory, TStack> extends ObservableLens<TInventory, TStack> implements Observer<InventoryEventArgs> {
 
     protected final Class<? extends Inventory> adapterType;
@@ -71,6 +74,8 @@
     protected int size;
     
     private int maxOrdinal = 0;
+
+    @Nullable private QueryPlanCache<TInventory, TStack> queryPlans;
     
     public AbstractLens(int base, int size, InventoryAdapter<TInventory, TStack> adapter, SlotProvider<TInventory, TStack> slots) {
         this(base, size, adapter.getClass(), slots);
@@ -153,6 +158,20 @@ public Translation getName(Fabric<TInventory> inv) {
     public Lens<TInventory, TStack> getParent() {
         return this.parent;
     }
+
+    /**
+     * Gets the compiled query plans for the tree rooted at this lens,
+     * flattening the tree on first use.
+     *
+     * @return The query plan cache of this lens
+     */
+    public QueryPlanCache<TInventory, TStack> getQueryPlans() {
+        QueryPlanCache<TInventory, TStack> queryPlans = this.queryPlans;
+        if (queryPlans == null) {
+            this.queryPlans = queryPlans = new QueryPlanCache<>(this);
+        }
+        return queryPlans;
+    }
     
     @Override
     public IntSet getSlots() {
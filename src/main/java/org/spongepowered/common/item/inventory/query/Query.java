@@ -24,6 +24,7 @@
  */
 package org.spongepowered.common.item.inventory.query;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import org.spongepowered.api.item.inventory.Inventory;
@@ -33,12 +34,16 @@
 import org.spongepowered.common.item.inventory.lens.Fabric;
 import org.spongepowered.common.item.inventory.lens.Lens;
 import org.spongepowered.common.item.inventory.lens.MutableLensSet;
+import org.spongepowered.common.item.inventory.lens.impl.AbstractLens;
 import org.spongepowered.common.item.inventory.lens.impl.collections.MutableLensSetImpl;
 import org.spongepowered.common.item.inventory.lens.slots.SlotLens;
+import org.spongepowered.common.item.inventory.query.operation.ItemStackQueryOperation;
 import org.spongepowered.common.item.inventory.query.result.MinecraftResultAdapterProvider;
 import org.spongepowered.common.item.inventory.query.result.QueryResult;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class Query<TInventory, TStack> {
 
@@ -71,6 +76,10 @@ public Inventory execute() {
     }
 
     public Inventory execute(ResultAdapterProvider<TInventory, TStack> resultProvider) {
+        if (this.lens instanceof AbstractLens && this.isPlannable()) {
+            return this.executePlan(resultProvider, ((AbstractLens<TInventory, TStack>) this.lens).getQueryPlans());
+        }
+
         if (this.matches(this.lens, null, this.inventory)) {
             return this.lens.getAdapter(this.inventory, this.adapter);
         }
@@ -78,6 +87,88 @@ public Inventory execute(ResultAdapterProvider<TInventory, TStack> resultProvide
         return this.toResult(resultProvider, this.reduce(this.lens, this.depthFirstSearch(this.lens)));
     }
 
+    /**
+     * Gets whether every operation is either structural, or only inspects
+     * the contents of slots, so that the query can be answered from the
+     * compiled form of the lens tree.
+     */
+    private boolean isPlannable() {
+        for (QueryOperation<?> operation : this.queries) {
+            if (!((SpongeQueryOperation<?>) operation).isStructural() && !(operation instanceof ItemStackQueryOperation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Inventory executePlan(ResultAdapterProvider<TInventory, TStack> resultProvider, QueryPlanCache<TInventory, TStack> plans) {
+        final List<QueryOperation<?>> structural = new ArrayList<>(this.queries.length);
+        final List<QueryOperation<?>> content = new ArrayList<>(this.queries.length);
+        for (QueryOperation<?> operation : this.queries) {
+            if (((SpongeQueryOperation<?>) operation).isStructural()) {
+                structural.add(operation);
+            } else {
+                content.add(operation);
+            }
+        }
+        final QueryPlanCache.Plan<TInventory, TStack> plan = plans.getPlan(structural, operations -> this.compile(plans, operations));
+
+        if (plan.rootMatches || this.matchesAny(content, this.lens, null)) {
+            return this.lens.getAdapter(this.inventory, this.adapter);
+        }
+
+        final MutableLensSet<TInventory, TStack> matches = new MutableLensSetImpl<>(true);
+        if (content.isEmpty()) {
+            for (Lens<TInventory, TStack> lens : plan.reduced) {
+                matches.add(lens);
+            }
+            return this.toResult(resultProvider, matches);
+        }
+
+        // Merge the memoized structural matches with the slots matching on
+        // their contents, keeping the order of the recursive search
+        final int[] structuralMatches = plan.matches;
+        int next = 0;
+        for (int entry : plans.getSlotEntries()) {
+            while (next < structuralMatches.length && structuralMatches[next] < entry) {
+                matches.add(plans.getLens(structuralMatches[next++]));
+            }
+            if (next < structuralMatches.length && structuralMatches[next] == entry) {
+                matches.add(plans.getLens(structuralMatches[next++]));
+            } else if (this.matchesAny(content, plans.getLens(entry), plans.getParent(entry))) {
+                matches.add(plans.getLens(entry));
+            }
+        }
+        while (next < structuralMatches.length) {
+            matches.add(plans.getLens(structuralMatches[next++]));
+        }
+        return this.toResult(resultProvider, this.reduce(this.lens, matches));
+    }
+
+    @SuppressWarnings("unchecked")
+    private QueryPlanCache.Plan<TInventory, TStack> compile(QueryPlanCache<TInventory, TStack> plans, List<QueryOperation<?>> operations) {
+        final IntArrayList matches = new IntArrayList();
+        if (!operations.isEmpty()) {
+            for (int entry = 0; entry < plans.size(); entry++) {
+                if (this.matchesAny(operations, plans.getLens(entry), plans.getParent(entry))) {
+                    matches.add(entry);
+                }
+            }
+        }
+        final int[] entries = matches.toIntArray();
+        final MutableLensSet<TInventory, TStack> reduced = this.reduce(this.lens, plans.toLensSet(entries));
+        return new QueryPlanCache.Plan<>(this.matchesAny(operations, this.lens, null), entries, reduced.toArray(new Lens[reduced.size()]));
+    }
+
+    private boolean matchesAny(List<QueryOperation<?>> operations, Lens<TInventory, TStack> lens, Lens<TInventory, TStack> parent) {
+        for (QueryOperation<?> operation : operations) {
+            if (((SpongeQueryOperation<?>) operation).matches(lens, parent, this.inventory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     private Inventory toResult(ResultAdapterProvider<TInventory, TStack> resultProvider, MutableLensSet<TInventory, TStack> matches) {
         if (matches.isEmpty()) {
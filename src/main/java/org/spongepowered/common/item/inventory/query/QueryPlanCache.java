@@ -0,0 +1,158 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.item.inventory.query;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.spongepowered.api.item.inventory.query.QueryOperation;
+import org.spongepowered.common.item.inventory.lens.Lens;
+import org.spongepowered.common.item.inventory.lens.MutableLensSet;
+import org.spongepowered.common.item.inventory.lens.impl.collections.MutableLensSetImpl;
+import org.spongepowered.common.item.inventory.lens.slots.SlotLens;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The compiled form of a root lens for {@link Query}. Lens trees do not
+ * change once they are initialized, so the tree is flattened once into the
+ * order a depth first search visits it, and the outcome of structural
+ * operations is memoized per set of operations as indices into that order.
+ */
+public final class QueryPlanCache<TInventory, TStack> {
+
+    /**
+     * Plans are dropped wholesale past this many distinct operation sets,
+     * which only happens when the operations carry throwaway arguments.
+     */
+    private static final int MAX_PLANS = 64;
+
+    private final Lens<TInventory, TStack>[] lenses;
+    private final Lens<TInventory, TStack>[] parents;
+    private final int[] slotEntries;
+    private final Map<List<QueryOperation<?>>, Plan<TInventory, TStack>> plans = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public QueryPlanCache(Lens<TInventory, TStack> root) {
+        final List<Lens<TInventory, TStack>> lenses = new ArrayList<>();
+        final List<Lens<TInventory, TStack>> parents = new ArrayList<>();
+        flatten(root, lenses, parents);
+        this.lenses = lenses.toArray(new Lens[lenses.size()]);
+        this.parents = parents.toArray(new Lens[parents.size()]);
+        final IntArrayList slotEntries = new IntArrayList();
+        for (int i = 0; i < this.lenses.length; i++) {
+            if (this.lenses[i] instanceof SlotLens) {
+                slotEntries.add(i);
+            }
+        }
+        this.slotEntries = slotEntries.toIntArray();
+    }
+
+    /**
+     * Mirrors the visiting order of the recursive search in {@link Query}:
+     * the descendants of a child come before the child itself.
+     */
+    private static <TInventory, TStack> void flatten(Lens<TInventory, TStack> lens, List<Lens<TInventory, TStack>> lenses,
+            List<Lens<TInventory, TStack>> parents) {
+        for (Lens<TInventory, TStack> child : lens.getChildren()) {
+            if (child == null) {
+                continue;
+            }
+            if (!child.getChildren().isEmpty()) {
+                flatten(child, lenses, parents);
+            }
+            lenses.add(child);
+            parents.add(lens);
+        }
+    }
+
+    public int size() {
+        return this.lenses.length;
+    }
+
+    public Lens<TInventory, TStack> getLens(int entry) {
+        return this.lenses[entry];
+    }
+
+    public Lens<TInventory, TStack> getParent(int entry) {
+        return this.parents[entry];
+    }
+
+    /**
+     * Gets the entries of this tree which are slots, in visiting order.
+     *
+     * @return The slot entries, which must not be modified
+     */
+    public int[] getSlotEntries() {
+        return this.slotEntries;
+    }
+
+    public Plan<TInventory, TStack> getPlan(List<QueryOperation<?>> operations, Function<List<QueryOperation<?>>, Plan<TInventory, TStack>> compiler) {
+        Plan<TInventory, TStack> plan = this.plans.get(operations);
+        if (plan == null) {
+            if (this.plans.size() >= MAX_PLANS) {
+                this.plans.clear();
+            }
+            plan = this.plans.computeIfAbsent(operations, compiler);
+        }
+        return plan;
+    }
+
+    /**
+     * Builds a fresh match set from the given entries, in visiting order.
+     *
+     * @param entries The sorted entries to add
+     * @return The new match set
+     */
+    public MutableLensSet<TInventory, TStack> toLensSet(int[] entries) {
+        final MutableLensSet<TInventory, TStack> matches = new MutableLensSetImpl<>(true);
+        for (int entry : entries) {
+            matches.add(this.lenses[entry]);
+        }
+        return matches;
+    }
+
+    /**
+     * The memoized outcome of a set of structural operations: whether the
+     * root matches, the matching entries in visiting order, and the reduced
+     * matches to return when no other operations take part.
+     */
+    public static final class Plan<TInventory, TStack> {
+
+        final boolean rootMatches;
+        final int[] matches;
+        final Lens<TInventory, TStack>[] reduced;
+
+        Plan(boolean rootMatches, int[] matches, Lens<TInventory, TStack>[] reduced) {
+            this.rootMatches = rootMatches;
+            this.matches = matches;
+            this.reduced = reduced;
+        }
+
+    }
+
+}
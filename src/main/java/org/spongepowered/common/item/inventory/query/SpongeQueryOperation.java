@@ -45,4 +45,17 @@ public final QueryOperationType<T> getType() {
     public abstract <TInventory, TStack> boolean matches(Lens<TInventory, TStack> lens, Lens<TInventory, TStack> parent,
             Fabric<TInventory> inventory);
 
+    /**
+     * Gets whether the outcome of this operation depends only on the lens
+     * tree it is evaluated against, and not on the contents of the
+     * inventory. Structural operations are evaluated once per lens tree and
+     * memoized, so they must implement {@link #equals} and
+     * {@link #hashCode} over their arguments.
+     *
+     * @return True if this operation only inspects the lens structure
+     */
+    public boolean isStructural() {
+        return false;
+    }
+
 }
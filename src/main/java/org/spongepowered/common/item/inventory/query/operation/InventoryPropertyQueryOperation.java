@@ -52,4 +52,26 @@ public <TInventory, TStack> boolean matches(Lens<TInventory, TStack> lens, Lens<
         return false;
     }
 
+    @Override
+    public boolean isStructural() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || this.getClass() != obj.getClass()) {
+            return false;
+        }
+        final InventoryPropertyQueryOperation other = (InventoryPropertyQueryOperation) obj;
+        return this.property.equals(other.property);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.property.hashCode();
+    }
+
 }
@@ -43,4 +43,26 @@ public <TInventory, TStack> boolean matches(Lens<TInventory, TStack> lens, Lens<
         return this.lens.equals(lens);
     }
 
+    @Override
+    public boolean isStructural() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || this.getClass() != obj.getClass()) {
+            return false;
+        }
+        final LensQueryOperation other = (LensQueryOperation) obj;
+        return this.lens.equals(other.lens);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.lens.hashCode();
+    }
+
 }
@@ -43,4 +43,26 @@ public <TInventory, TStack> boolean matches(Lens<TInventory, TStack> lens, Lens<
         return this.targetType.isAssignableFrom(lens.getAdapterType());
     }
 
+    @Override
+    public boolean isStructural() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || this.getClass() != obj.getClass()) {
+            return false;
+        }
+        final TypeQueryOperation other = (TypeQueryOperation) obj;
+        return this.targetType.equals(other.targetType);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.targetType.hashCode();
+    }
+
 }
@@ -39,7 +39,7 @@ public class MixinClassInheritanceMultiMap {
     @Inject(method = "addForClass", at = @At("HEAD"), cancellable = true)
     public void onAddForClass(Object entity, Class<?> parentClass, CallbackInfo ci) {
         // This class gets used on the client, but we only care about the server
-        if (!(SpongeImpl.getGame().getPlatform().getExecutionType() == Platform.Type.CLIENT) && !SpongeImpl.getServer().isCallingFromMinecraftThread()) {
+        if (!(SpongeImpl.getGame().getPlatform().getExecutionType() == Platform.Type.CLIENT) && !SpongeImpl.isMainThread()) {
             Thread.dumpStack();
             SpongeImpl.getLogger().error("Detected attempt to add entity '" + entity + "' to ClassInheritanceMultiMap asynchronously.\n"
                     + " This is very bad as it can cause ConcurrentModificationException's during a server tick.\n"
@@ -50,7 +50,7 @@ public void onAddForClass(Object entity, Class<?> parentClass, CallbackInfo ci)
 
     @Inject(method = "remove", at = @At("HEAD"), cancellable = true)
     public void onRemove(Object entity, CallbackInfoReturnable<Boolean> cir) {
-        if (!(SpongeImpl.getGame().getPlatform().getExecutionType() == Platform.Type.CLIENT) && !SpongeImpl.getServer().isCallingFromMinecraftThread()) {
+        if (!(SpongeImpl.getGame().getPlatform().getExecutionType() == Platform.Type.CLIENT) && !SpongeImpl.isMainThread()) {
             Thread.dumpStack();
             SpongeImpl.getLogger().error("Detected attempt to remove entity '" + entity + "' from ClassInheritanceMultiMap asynchronously.\n"
                     + " This is very bad as it can cause ConcurrentModificationException's during a server tick.\n"
@@ -135,6 +135,7 @@
 import org.spongepowered.common.text.SpongeTexts;
 import org.spongepowered.common.util.SpongeHooks;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.ParallelWorldTicker;
 
 import java.lang.ref.WeakReference;
 import java.util.Collection;
@@ -255,6 +256,19 @@ public abstract class MixinEntity implements IMixinEntity {
 
     @Shadow private boolean invulnerable;
 
+    @Redirect(method = "<init>", at = @At(value = "FIELD", target = "Lnet/minecraft/entity/Entity;nextEntityID:I", opcode = Opcodes.GETSTATIC))
+    private int onGetNextEntityId() {
+        // Entities may be constructed by the threads ticking worlds in parallel
+        synchronized (net.minecraft.entity.Entity.class) {
+            return net.minecraft.entity.Entity.nextEntityID++;
+        }
+    }
+
+    @Redirect(method = "<init>", at = @At(value = "FIELD", target = "Lnet/minecraft/entity/Entity;nextEntityID:I", opcode = Opcodes.PUTSTATIC))
+    private void onSetNextEntityId(int nextEntityId) {
+        // Already incremented while the id was taken
+    }
+
     @Redirect(method = "<init>", at = @At(value = "FIELD", target = "Lnet/minecraft/entity/Entity;dimension:I", opcode = Opcodes.PUTFIELD))
     private void onSet(net.minecraft.entity.Entity self, int dimensionId, net.minecraft.world.World worldIn) {
         if (worldIn instanceof IMixinWorldServer) {
@@ -472,6 +486,14 @@ public boolean setLocation(Location<World> location) {
         if (isRemoved()) {
             return false;
         }
+        if (location.getExtent() != this.world) {
+            // Moving to another world while the worlds are ticked in parallel
+            // happens once all of them have been ticked
+            final Location<World> target = location;
+            if (ParallelWorldTicker.defer(() -> setLocation(target))) {
+                return true;
+            }
+        }
 
         try (final BasicPluginContext context = PluginPhase.State.TELEPORT.createPhaseContext().buildAndSwitch()) {
 
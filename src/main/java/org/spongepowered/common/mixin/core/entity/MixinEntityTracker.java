@@ -38,9 +38,12 @@
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.entity.living.human.EntityHuman;
 import org.spongepowered.common.event.tracking.PhaseTracker;
+import org.spongepowered.common.interfaces.entity.IMixinEntityTracker;
+import org.spongepowered.common.interfaces.world.IMixinWorldServer;
+import org.spongepowered.common.world.ParallelWorldTicker;
 
 @Mixin(EntityTracker.class)
-public abstract class MixinEntityTracker {
+public abstract class MixinEntityTracker implements IMixinEntityTracker {
 
     @Shadow @Final private WorldServer world;
 
@@ -67,7 +70,7 @@ private IllegalStateException reportEntityAlreadyTrackedWithWorld(String string,
 
     @Inject(method = "track(Lnet/minecraft/entity/Entity;IIZ)V", at = @At("HEAD"), cancellable = true)
     public void onAddEntityToTracker(Entity entityIn, int trackingRange, final int updateFrequency, boolean sendVelocityUpdates, CallbackInfo ci) {
-        if (!SpongeImpl.getServer().isCallingFromMinecraftThread() ) {
+        if (!ParallelWorldTicker.isOwningThread(this.world)) {
             Thread.dumpStack();
             SpongeImpl.getLogger().error("Detected attempt to add entity '" + entityIn + "' to tracker asynchronously.\n"
                     + " This is very bad as it can cause ConcurrentModificationException's during a server tick.\n"
@@ -76,9 +79,14 @@ public void onAddEntityToTracker(Entity entityIn, int trackingRange, final int u
         }
     }
 
+    @Override
+    public IMixinWorldServer getWorld() {
+        return (IMixinWorldServer) this.world;
+    }
+
     @Inject(method = "untrack", at = @At("HEAD"), cancellable = true)
     public void onUntrackEntity(Entity entityIn, CallbackInfo ci) {
-        if (!SpongeImpl.getServer().isCallingFromMinecraftThread() ) {
+        if (!ParallelWorldTicker.isOwningThread(this.world)) {
             Thread.dumpStack();
             SpongeImpl.getLogger().error("Detected attempt to untrack entity '" + entityIn + "' asynchronously.\n"
                     + "This is very bad as it can cause ConcurrentModificationException's during a server tick.\n"
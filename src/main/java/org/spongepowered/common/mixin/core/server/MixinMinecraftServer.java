@@ -27,6 +27,7 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import co.aikar.timings.Timing;
 import co.aikar.timings.TimingsManager;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -103,13 +104,19 @@
 import org.spongepowered.common.interfaces.IMixinCommandSource;
 import org.spongepowered.common.interfaces.IMixinMinecraftServer;
 import org.spongepowered.common.interfaces.IMixinSubject;
+import org.spongepowered.common.interfaces.entity.IMixinEntityTracker;
 import org.spongepowered.common.interfaces.world.IMixinWorldServer;
 import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
 import org.spongepowered.common.profile.SpongeProfileManager;
 import org.spongepowered.common.resourcepack.SpongeResourcePack;
+import org.spongepowered.common.service.user.UserIndex;
 import org.spongepowered.common.text.SpongeTexts;
+import org.spongepowered.common.util.SpongeUsernameCache;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.ParallelWorldTicker;
 import org.spongepowered.common.world.WorldManager;
+import org.spongepowered.common.world.gen.AsyncTerrainGenerator;
+import org.spongepowered.common.world.gen.SpongeChunkGenerator;
 import org.spongepowered.common.world.storage.SpongeChunkLayout;
 
 import java.net.InetSocketAddress;
@@ -317,6 +324,9 @@ public void shutdown(Text kickMessage) {
     @Inject(method = "stopServer()V", at = @At("HEAD"))
     public void onServerStopping(CallbackInfo ci) {
         ((MinecraftServer) (Object) this).getPlayerProfileCache().save();
+        UserIndex.getInstance().save();
+        SpongeUsernameCache.saveAndWait();
+        AsyncTerrainGenerator.shutdown();
 
         if (this.worlds != null && SpongeImpl.getGlobalConfig().getConfig().getModules().useOptimizations() &&
                 SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useAsyncLighting()) {
@@ -352,6 +362,7 @@ public void loadAllWorlds(String overworldFolder, String worldName, long seed, W
         this.setUserMessage("menu.loadingLevel");
 
         WorldManager.loadAllWorlds(worldName, seed, type, generatorOptions);
+        UserIndex.init();
 
         this.getPlayerList().setPlayerManager(this.worlds);
         this.setDifficultyForAllWorlds(this.getDifficulty());
@@ -591,6 +602,8 @@ public String toString() {
     // This prevents a situation where a chunk is requested to load then unloads at end of tick.
     @Inject(method = "updateTimeLightAndEntities", at = @At("HEAD"))
     public void onUpdateTimeLightAndEntitiesHead(CallbackInfo ci) {
+        ParallelWorldTicker.startTick();
+        AsyncTerrainGenerator.updateExecutor();
         for (int i = 0; i < this.worlds.length; ++i)
         {
             WorldServer worldServer = this.worlds[i];
@@ -619,13 +632,54 @@ public EntityTracker onUpdateTimeLightAndEntitiesGetEntityTracker(WorldServer wo
         // Chunk unloads must run after a world tick to guarantee any chunks accessed during the world tick have
         // been marked active and will not unload.
         // Note: This injection must come after Forge's post world tick event or it will cause issues with mods.
+        // When the worlds are ticked in parallel, the chunk unloads run once all of them are done.
         IMixinWorldServer spongeWorld = (IMixinWorldServer) worldServer;
-        if (spongeWorld.getChunkGCTickInterval() > 0) {
+        if (spongeWorld.getChunkGCTickInterval() > 0 && !ParallelWorldTicker.isTickingInParallel()) {
             worldServer.getChunkProvider().tick();
         }
         return worldServer.getEntityTracker();
     }
 
+    @Redirect(method = "updateTimeLightAndEntities", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/WorldServer;tick()V"))
+    private void onTickWorld(WorldServer worldServer) {
+        if (ParallelWorldTicker.isTickingInParallel()) {
+            // The world thread updates the entities and ticks the tracker as well
+            ParallelWorldTicker.submit(worldServer);
+            return;
+        }
+        try (Timing timing = ((IMixinWorldServer) worldServer).getTimingsHandler().doTick.startTiming()) {
+            worldServer.tick();
+        }
+        if (worldServer.getChunkProvider().chunkGenerator instanceof SpongeChunkGenerator) {
+            ((SpongeChunkGenerator) worldServer.getChunkProvider().chunkGenerator).tickTerrainPrediction();
+        }
+    }
+
+    @Redirect(method = "updateTimeLightAndEntities", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/WorldServer;updateEntities()V"))
+    private void onUpdateWorldEntities(WorldServer worldServer) {
+        if (ParallelWorldTicker.isTickingInParallel()) {
+            return;
+        }
+        try (Timing timing = ((IMixinWorldServer) worldServer).getTimingsHandler().tickEntities.startTiming()) {
+            worldServer.updateEntities();
+        }
+    }
+
+    @Redirect(method = "updateTimeLightAndEntities", at = @At(value = "INVOKE", target = "Lnet/minecraft/entity/EntityTracker;tick()V"))
+    private void onTickEntityTracker(EntityTracker entityTracker) {
+        if (ParallelWorldTicker.isTickingInParallel()) {
+            return;
+        }
+        try (Timing timing = ((IMixinEntityTracker) entityTracker).getWorld().getTimingsHandler().tracker1.startTiming()) {
+            entityTracker.tick();
+        }
+    }
+
+    @Inject(method = "updateTimeLightAndEntities", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/MinecraftServer;getNetworkSystem()Lnet/minecraft/network/NetworkSystem;"))
+    private void onWorldsTicked(CallbackInfo ci) {
+        ParallelWorldTicker.await();
+    }
+
     @Inject(method = "tick", at = @At(value = "HEAD"))
     public void onServerTickStart(CallbackInfo ci) {
         TimingsManager.FULL_SERVER_TICK.startTiming();
@@ -784,7 +838,8 @@ public WorldServer getWorld(int dimensionId) {
 
     @Override
     public boolean isMainThread() {
-        return this.serverThread == Thread.currentThread();
+        // The threads ticking worlds in parallel act as the main thread of their world
+        return this.serverThread == Thread.currentThread() || ParallelWorldTicker.isWorldThread();
     }
 
     @Redirect(method = "callFromMainThread", at = @At(value = "INVOKE", target = "Ljava/util/concurrent/Callable;call()Ljava/lang/Object;", remap = false))
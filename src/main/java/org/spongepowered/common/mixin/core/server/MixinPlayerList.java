@@ -115,9 +115,11 @@
 import org.spongepowered.common.service.ban.SpongeIPBanList;
 import org.spongepowered.common.service.ban.SpongeUserListBans;
 import org.spongepowered.common.service.permission.SpongePermissionService;
+import org.spongepowered.common.service.user.UserIndex;
 import org.spongepowered.common.service.whitelist.SpongeUserListWhitelist;
 import org.spongepowered.common.text.SpongeTexts;
 import org.spongepowered.common.text.chat.ChatUtil;
+import org.spongepowered.common.world.ParallelWorldTicker;
 import org.spongepowered.common.world.WorldManager;
 import org.spongepowered.common.world.storage.SpongePlayerDataHandler;
 
@@ -242,6 +244,7 @@ public void initializeConnectionToPlayer(NetworkManager netManager, EntityPlayer
         Optional<Instant> firstJoined = SpongePlayerDataHandler.getFirstJoined(playerIn.getUniqueID());
         Instant lastJoined = Instant.now();
         SpongePlayerDataHandler.setPlayerInfo(playerIn.getUniqueID(), firstJoined.orElse(lastJoined), lastJoined);
+        UserIndex.getInstance().setFlag(playerIn.getUniqueID(), gameprofile.getName(), UserIndex.PLAYED, true);
 
         if (actualDimensionId != playerIn.dimension) {
             SpongeImpl.getLogger().warn("Player [{}] has attempted to login to unloaded world [{}]. This is not safe so we have moved them to "
@@ -626,6 +629,9 @@ public EntityPlayerMP recreatePlayerEntity(EntityPlayerMP playerIn, int targetDi
      */
     @Override
     public void transferPlayerToDimension(EntityPlayerMP playerIn, int targetDimensionId, net.minecraft.world.Teleporter teleporter) {
+        if (ParallelWorldTicker.defer(() -> transferPlayerToDimension(playerIn, targetDimensionId, teleporter))) {
+            return;
+        }
         MoveEntityEvent.Teleport.Portal event = EntityUtil.handleDisplaceEntityPortalEvent(playerIn, targetDimensionId, teleporter);
         if (event == null || event.isCancelled()) {
             return;
@@ -808,6 +814,7 @@ public void playerLoggedIn2(EntityPlayerMP player, CallbackInfo ci) {
     @Inject(method = "writePlayerData", at = @At(target = WRITE_PLAYER_DATA, value = "INVOKE"))
     private void onWritePlayerFile(EntityPlayerMP playerMP, CallbackInfo callbackInfo) {
         SpongePlayerDataHandler.savePlayer(playerMP.getUniqueID());
+        UserIndex.getInstance().setFlag(playerMP.getUniqueID(), null, UserIndex.DATA_FILE, true);
     }
 
     @ModifyVariable(method = "sendPlayerPermissionLevel", at = @At("HEAD"), argsOnly = true)
@@ -841,6 +848,7 @@ private WorldInfo onGetWorldInfo(WorldServer overworld, EntityPlayerMP player) {
      */
     @Overwrite
     public void sendMessage(ITextComponent component, boolean isSystem) {
+        // Broadcasts from the threads ticking worlds in parallel are deferred by ChatUtil
         ChatUtil.sendMessage(component, MessageChannel.TO_ALL, (CommandSource) this.mcServer, !isSystem);
     }
 
@@ -24,7 +24,11 @@
  */
 package org.spongepowered.common.mixin.core.server.management;
 
+import com.mojang.authlib.GameProfile;
 import net.minecraft.server.management.UserList;
+import net.minecraft.server.management.UserListBans;
+import net.minecraft.server.management.UserListEntry;
+import net.minecraft.server.management.UserListWhitelist;
 import org.apache.logging.log4j.Logger;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -32,6 +36,7 @@
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.common.service.user.UserIndex;
 
 import java.io.File;
 import java.util.List;
@@ -57,4 +62,31 @@ private void onReadSavedFile(CallbackInfo ci) {
         }
     }
 
+    @Inject(method = "addEntry", at = @At("RETURN"))
+    private void onAddEntry(UserListEntry<?> entry, CallbackInfo ci) {
+        final int flag = this.getIndexFlag();
+        if (flag != 0 && entry.getValue() instanceof GameProfile && ((GameProfile) entry.getValue()).getId() != null) {
+            final GameProfile profile = (GameProfile) entry.getValue();
+            UserIndex.getInstance().setFlag(profile.getId(), profile.getName(), flag, true);
+        }
+    }
+
+    @Inject(method = "removeEntry", at = @At("RETURN"))
+    private void onRemoveEntry(Object entry, CallbackInfo ci) {
+        final int flag = this.getIndexFlag();
+        if (flag != 0 && entry instanceof GameProfile && ((GameProfile) entry).getId() != null) {
+            UserIndex.getInstance().setFlag(((GameProfile) entry).getId(), null, flag, false);
+        }
+    }
+
+    private int getIndexFlag() {
+        if ((Object) this instanceof UserListWhitelist) {
+            return UserIndex.WHITELISTED;
+        }
+        if ((Object) this instanceof UserListBans) {
+            return UserIndex.BANNED;
+        }
+        return 0;
+    }
+
 }
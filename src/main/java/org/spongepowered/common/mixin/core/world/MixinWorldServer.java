@@ -193,6 +193,7 @@
 import org.spongepowered.common.util.NonNullArrayList;
 import org.spongepowered.common.util.SpongeHooks;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.ParallelWorldTicker;
 import org.spongepowered.common.world.SpongeBlockChangeFlag;
 import org.spongepowered.common.world.WorldManager;
 import org.spongepowered.common.world.border.PlayerBorderListener;
@@ -416,6 +417,7 @@ public void setActiveConfig(SpongeConfig<? extends GeneralConfigBase> config) {
         if (this.getChunkProvider() != null) {
             final int maxChunkUnloads = this.activeConfig.getConfig().getWorld().getMaxChunkUnloads();
             this.mixinChunkProviderServer.setMaxChunkUnloads(maxChunkUnloads < 1 ? 1 : maxChunkUnloads);
+            this.mixinChunkProviderServer.setMaxChunkUnloadTime(this.activeConfig.getConfig().getWorld().getMaxChunkUnloadTime());
             this.mixinChunkProviderServer.setDenyChunkRequests(this.activeConfig.getConfig().getWorld().getDenyChunkRequests());
             for (net.minecraft.entity.Entity entity : this.loadedEntityList) {
                 if (entity instanceof IModData_Activation) {
@@ -900,8 +902,9 @@ private boolean onFireBlockEvent(net.minecraft.world.WorldServer worldIn, BlockE
 
     @Redirect(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/IChunkProvider;tick()Z"))
     private boolean onTicktick(IChunkProvider chunkProvider) {
-        // chunk unloads are moved at end of server tick to avoid clashing with chunk GC
-        if (this.chunkGCTickInterval > 0) {
+        // chunk unloads are moved at end of server tick to avoid clashing with chunk GC,
+        // or after all worlds were ticked when they are ticked in parallel
+        if (this.chunkGCTickInterval > 0 || ParallelWorldTicker.isWorldThread()) {
             return false;
         }
 
@@ -25,6 +25,7 @@
 package org.spongepowered.common.mixin.core.world.biome;
 
 import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.biome.BiomeProvider;
 import org.spongepowered.api.world.biome.BiomeType;
@@ -32,12 +33,87 @@
 import org.spongepowered.api.world.gen.BiomeGenerator;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.world.gen.AsyncTerrainGenerator;
+
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nullable;
 
 @Mixin(BiomeProvider.class)
 public abstract class MixinBiomeProvider implements BiomeGenerator {
 
     @Shadow
     public abstract Biome[] getBiomes(Biome[] listToReuse, int x, int z, int width, int length, boolean cacheFlag);
+    @Shadow public abstract Biome getBiome(BlockPos pos, Biome defaultBiome);
+    @Shadow public abstract Biome[] getBiomesForGeneration(Biome[] biomes, int x, int z, int width, int height);
+    @Shadow public abstract boolean areBiomesViable(int x, int z, int radius, List<Biome> allowed);
+    @Shadow @Nullable public abstract BlockPos findBiomePosition(int x, int z, int range, List<Biome> biomes, Random random);
+    @Shadow public abstract void cleanupCache();
+
+    // The genlayers, their int caches and the biome cache are shared with
+    // the terrain workers. Each entry point re-enters itself while holding
+    // the biome lock, nested calls then run the method body directly.
+
+    @Inject(method = "getBiome(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/world/biome/Biome;)Lnet/minecraft/world/biome/Biome;",
+            at = @At("HEAD"), cancellable = true)
+    private void onGetBiome(BlockPos pos, Biome defaultBiome, CallbackInfoReturnable<Biome> cir) {
+        if (!Thread.holdsLock(AsyncTerrainGenerator.BIOME_LOCK)) {
+            synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+                cir.setReturnValue(this.getBiome(pos, defaultBiome));
+            }
+        }
+    }
+
+    @Inject(method = "getBiomesForGeneration", at = @At("HEAD"), cancellable = true)
+    private void onGetBiomesForGeneration(Biome[] biomes, int x, int z, int width, int height, CallbackInfoReturnable<Biome[]> cir) {
+        if (!Thread.holdsLock(AsyncTerrainGenerator.BIOME_LOCK)) {
+            synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+                cir.setReturnValue(this.getBiomesForGeneration(biomes, x, z, width, height));
+            }
+        }
+    }
+
+    @Inject(method = "getBiomes([Lnet/minecraft/world/biome/Biome;IIIIZ)[Lnet/minecraft/world/biome/Biome;", at = @At("HEAD"), cancellable = true)
+    private void onGetBiomes(Biome[] listToReuse, int x, int z, int width, int length, boolean cacheFlag, CallbackInfoReturnable<Biome[]> cir) {
+        if (!Thread.holdsLock(AsyncTerrainGenerator.BIOME_LOCK)) {
+            synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+                cir.setReturnValue(this.getBiomes(listToReuse, x, z, width, length, cacheFlag));
+            }
+        }
+    }
+
+    @Inject(method = "areBiomesViable", at = @At("HEAD"), cancellable = true)
+    private void onAreBiomesViable(int x, int z, int radius, List<Biome> allowed, CallbackInfoReturnable<Boolean> cir) {
+        if (!Thread.holdsLock(AsyncTerrainGenerator.BIOME_LOCK)) {
+            synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+                cir.setReturnValue(this.areBiomesViable(x, z, radius, allowed));
+            }
+        }
+    }
+
+    @Inject(method = "findBiomePosition", at = @At("HEAD"), cancellable = true)
+    private void onFindBiomePosition(int x, int z, int range, List<Biome> biomes, Random random, CallbackInfoReturnable<BlockPos> cir) {
+        if (!Thread.holdsLock(AsyncTerrainGenerator.BIOME_LOCK)) {
+            synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+                cir.setReturnValue(this.findBiomePosition(x, z, range, biomes, random));
+            }
+        }
+    }
+
+    @Inject(method = "cleanupCache", at = @At("HEAD"), cancellable = true)
+    private void onCleanupCache(CallbackInfo ci) {
+        if (!Thread.holdsLock(AsyncTerrainGenerator.BIOME_LOCK)) {
+            synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+                this.cleanupCache();
+            }
+            ci.cancel();
+        }
+    }
 
     @Override
     public void generateBiomes(MutableBiomeVolume buffer) {
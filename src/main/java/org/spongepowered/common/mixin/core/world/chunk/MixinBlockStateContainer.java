@@ -26,20 +26,41 @@
 
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BitArray;
 import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.IBlockStatePalette;
 import net.minecraft.world.chunk.NibbleArray;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.common.interfaces.world.IMixinBlockStateContainer;
+import org.spongepowered.common.world.storage.BlockStateSnapshot;
 
 import javax.annotation.Nullable;
 
 @Mixin(BlockStateContainer.class)
-public abstract class MixinBlockStateContainer {
+public abstract class MixinBlockStateContainer implements IMixinBlockStateContainer {
+
+    @Shadow protected BitArray storage;
+    @Shadow protected IBlockStatePalette palette;
+    @Shadow private int bits;
 
     @Shadow protected abstract void set(int index, IBlockState state);
 
+    @Override
+    public BlockStateSnapshot createSnapshot() {
+        IBlockState[] states = null;
+        // Larger containers use the global palette
+        if (this.bits <= 8) {
+            states = new IBlockState[1 << this.bits];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = this.palette.getBlockState(i);
+            }
+        }
+        return new BlockStateSnapshot(this.bits, this.storage.getBackingLongArray().clone(), states);
+    }
+
     /**
      * @author barteks2x
      *
@@ -25,7 +25,6 @@
 package org.spongepowered.common.mixin.core.world.chunk.storage;
 
 import com.flowpowered.math.vector.Vector3d;
-import com.google.common.collect.Maps;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.item.EntityMinecart;
@@ -33,6 +32,7 @@
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.MinecraftException;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.storage.AnvilChunkLoader;
@@ -63,11 +63,13 @@
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
 import org.spongepowered.common.data.util.NbtDataUtil;
-import org.spongepowered.common.entity.PlayerTracker;
 import org.spongepowered.common.interfaces.IMixinChunk;
 import org.spongepowered.common.interfaces.world.IMixinAnvilChunkLoader;
 import org.spongepowered.common.registry.type.entity.EntityTypeRegistryModule;
 import org.spongepowered.common.util.QueuedChunk;
+import org.spongepowered.common.world.TrackedBlockPositions;
+import org.spongepowered.common.world.storage.ChunkSerializationQueue;
+import org.spongepowered.common.world.storage.RegionFileWriter;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -78,8 +80,10 @@
 @Implements(@Interface(iface = IMixinAnvilChunkLoader.class, prefix = "loader$"))
 public abstract class MixinAnvilChunkLoader implements IMixinAnvilChunkLoader {
 
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+
     private ConcurrentLinkedQueue<QueuedChunk> queue = new ConcurrentLinkedQueue<>();
-    private final Object lock = new Object();
+    private final ChunkSerializationQueue serializationQueue = new ChunkSerializationQueue(this::addChunkToPending);
 
     private static final String ENTITY_LIST_CREATE_FROM_NBT =
             "Lnet/minecraft/entity/EntityList;createEntityFromNBT(Lnet/minecraft/nbt/NBTTagCompound;Lnet/minecraft/world/World;)Lnet/minecraft/entity/Entity;";
@@ -92,38 +96,53 @@ public abstract class MixinAnvilChunkLoader implements IMixinAnvilChunkLoader {
     @Shadow
     public abstract void writeChunkData(ChunkPos pos, NBTTagCompound compound);
 
+    @Inject(method = "saveChunk", at = @At(value = "HEAD"), cancellable = true)
+    private void onSaveChunk(World worldIn, Chunk chunkIn, CallbackInfo ci) throws MinecraftException {
+        if (!ChunkSerializationQueue.isEnabled() || !SpongeImpl.getServer().isCallingFromMinecraftThread()) {
+            return;
+        }
+        worldIn.checkSessionLock();
+        try {
+            this.serializationQueue.save(chunkIn, worldIn);
+        } catch (Exception exception) {
+            LOGGER.error("Failed to save chunk", exception);
+        }
+        ci.cancel();
+    }
+
+    @Inject(method = "chunkTick", at = @At(value = "HEAD"))
+    private void onChunkTick(CallbackInfo ci) {
+        this.serializationQueue.tick();
+    }
+
+    @Inject(method = "flush", at = @At(value = "HEAD"))
+    private void onFlush(CallbackInfo ci) {
+        this.serializationQueue.completeAll();
+    }
+
+    @Inject(method = "loadChunk", at = @At(value = "HEAD"))
+    private void onLoadChunk(World worldIn, int x, int z, CallbackInfoReturnable<Chunk> cir) {
+        // Make the data of a chunk that is still being saved readable
+        this.serializationQueue.complete(new ChunkPos(x, z));
+    }
+
+    @Inject(method = "isChunkGeneratedAt", at = @At(value = "HEAD"), cancellable = true)
+    private void onIsChunkGeneratedAt(int x, int z, CallbackInfoReturnable<Boolean> cir) {
+        if (this.serializationQueue.isPending(new ChunkPos(x, z))) {
+            cir.setReturnValue(true);
+        }
+    }
+
     @Inject(method = "writeChunkToNBT", at = @At(value = "RETURN"))
     public void onWriteChunkToNBT(net.minecraft.world.chunk.Chunk chunkIn, World worldIn, NBTTagCompound compound, CallbackInfo ci) {
         IMixinChunk chunk = (IMixinChunk) chunkIn;
 
         // Add tracked block positions
-        if (chunk.getTrackedShortPlayerPositions().size() > 0 || chunk.getTrackedIntPlayerPositions().size() > 0) {
+        final TrackedBlockPositions trackedPositions = chunk.getTrackedBlockPositions();
+        if (trackedPositions != null && !trackedPositions.isEmpty()) {
             NBTTagCompound trackedNbt = new NBTTagCompound();
-            NBTTagList positions = new NBTTagList();
-            trackedNbt.setTag(NbtDataUtil.SPONGE_BLOCK_POS_TABLE, positions);
+            trackedNbt.setIntArray(NbtDataUtil.SPONGE_TRACKED_BLOCK_POSITIONS, trackedPositions.serialize());
             compound.setTag(NbtDataUtil.SPONGE_DATA, trackedNbt);
-
-            for (Map.Entry<Short, PlayerTracker> mapEntry : chunk.getTrackedShortPlayerPositions().entrySet()) {
-                Short pos = mapEntry.getKey();
-                Integer ownerUniqueIdIndex = mapEntry.getValue().ownerIndex;
-                Integer notifierUniqueIdIndex = mapEntry.getValue().notifierIndex;
-                NBTTagCompound valueNbt = new NBTTagCompound();
-                valueNbt.setInteger("owner", ownerUniqueIdIndex);
-                valueNbt.setInteger("notifier", notifierUniqueIdIndex);
-                valueNbt.setShort("pos", pos);
-                positions.appendTag(valueNbt);
-            }
-
-            for (Map.Entry<Integer, PlayerTracker> mapEntry : chunk.getTrackedIntPlayerPositions().entrySet()) {
-                Integer pos = mapEntry.getKey();
-                Integer ownerUniqueIdIndex = mapEntry.getValue().ownerIndex;
-                Integer notifierUniqueIdIndex = mapEntry.getValue().notifierIndex;
-                NBTTagCompound valueNbt = new NBTTagCompound();
-                valueNbt.setInteger("owner", ownerUniqueIdIndex);
-                valueNbt.setInteger("notifier", notifierUniqueIdIndex);
-                valueNbt.setInteger("ipos", pos);
-                positions.appendTag(valueNbt);
-            }
         }
     }
 
@@ -131,33 +150,35 @@ public void onWriteChunkToNBT(net.minecraft.world.chunk.Chunk chunkIn, World wor
     public void onReadChunkFromNBT(World worldIn, NBTTagCompound compound, CallbackInfoReturnable<net.minecraft.world.chunk.Chunk> ci, int chunkX,
             int chunkZ, net.minecraft.world.chunk.Chunk chunkIn) {
         if (compound.hasKey(NbtDataUtil.SPONGE_DATA)) {
-            Map<Integer, PlayerTracker> trackedIntPlayerPositions = Maps.newHashMap();
-            Map<Short, PlayerTracker> trackedShortPlayerPositions = Maps.newHashMap();
-            NBTTagList positions = compound.getCompoundTag(NbtDataUtil.SPONGE_DATA).getTagList(NbtDataUtil.SPONGE_BLOCK_POS_TABLE, 10);
+            NBTTagCompound trackedNbt = compound.getCompoundTag(NbtDataUtil.SPONGE_DATA);
             IMixinChunk chunk = (IMixinChunk) chunkIn;
+            if (trackedNbt.hasKey(NbtDataUtil.SPONGE_TRACKED_BLOCK_POSITIONS, NbtDataUtil.TAG_INT_ARRAY)) {
+                chunk.setTrackedBlockPositions(TrackedBlockPositions.deserialize(trackedNbt.getIntArray(NbtDataUtil.SPONGE_TRACKED_BLOCK_POSITIONS)));
+                return;
+            }
+            // Migrate the position table written by older versions
+            TrackedBlockPositions trackedPositions = new TrackedBlockPositions();
+            NBTTagList positions = trackedNbt.getTagList(NbtDataUtil.SPONGE_BLOCK_POS_TABLE, 10);
             for (int i = 0; i < positions.tagCount(); i++) {
                 NBTTagCompound valueNbt = positions.getCompoundTagAt(i);
-                boolean isShortPos = valueNbt.hasKey("pos");
-                PlayerTracker tracker = new PlayerTracker();
+                int ownerIndex = TrackedBlockPositions.NONE;
+                int notifierIndex = TrackedBlockPositions.NONE;
                 if (valueNbt.hasKey("owner")) {
-                    tracker.ownerIndex = valueNbt.getInteger("owner");
+                    ownerIndex = valueNbt.getInteger("owner");
                 } else if (valueNbt.hasKey("uuid")) { // Migrate old data, remove in future
-                    tracker.ownerIndex = valueNbt.getInteger("uuid");
+                    ownerIndex = valueNbt.getInteger("uuid");
                 }
                 if (valueNbt.hasKey("notifier")) {
-                    tracker.notifierIndex = valueNbt.getInteger("notifier");
+                    notifierIndex = valueNbt.getInteger("notifier");
                 }
 
-                if (tracker.notifierIndex != -1 || tracker.ownerIndex != -1) {
-                    if (isShortPos) {
-                        trackedShortPlayerPositions.put(valueNbt.getShort("pos"), tracker);
-                    } else {
-                        trackedIntPlayerPositions.put(valueNbt.getInteger("ipos"), tracker);
-                    }
+                if (valueNbt.hasKey("pos")) {
+                    trackedPositions.put(TrackedBlockPositions.fromLegacyShort(valueNbt.getShort("pos")), ownerIndex, notifierIndex);
+                } else {
+                    trackedPositions.put(valueNbt.getInteger("ipos"), ownerIndex, notifierIndex);
                 }
             }
-            chunk.setTrackedIntPlayerPositions(trackedIntPlayerPositions);
-            chunk.setTrackedShortPlayerPositions(trackedShortPlayerPositions);
+            chunk.setTrackedBlockPositions(trackedPositions);
         }
     }
 
@@ -215,7 +236,7 @@ private static Entity onReadChunkEntity(NBTTagCompound compound, World world, Ch
         //         }
         //     }
         // }
-        if (this.chunksToSave.containsKey(chunkcoordintpair)) {
+        if (this.chunksToSave.containsKey(chunkcoordintpair) || this.serializationQueue.isPending(chunkcoordintpair)) {
             return true;
         }
         // Sponge end
@@ -232,9 +253,11 @@ private static Entity onReadChunkEntity(NBTTagCompound compound, World world, Ch
      */
     @Overwrite
     protected void addChunkToPending(ChunkPos pos, NBTTagCompound compound) {
-        synchronized (this.lock) {
-            this.chunksToSave.put(pos, compound);
+        if (RegionFileWriter.isEnabled()) {
+            RegionFileWriter.queue(this, pos, compound);
+            return;
         }
+        this.chunksToSave.put(pos, compound);
         this.queue.add(new QueuedChunk(pos, compound));
 
         ThreadedFileIOBase.getThreadedIOInstance().queueIO((AnvilChunkLoader) (Object) this);
@@ -250,6 +273,8 @@ public boolean writeNextIO() {
         QueuedChunk chunk = this.queue.poll();
         if (chunk == null) {
             if (this.flushing) {
+                // Sponge - wait for the chunks queued to the region file writer
+                RegionFileWriter.flush(this);
                 LOGGER.info("ThreadedAnvilChunkStorage ({}): All chunks are saved", new Object[] {this.chunkSaveLocation.getName()});
             }
 
@@ -263,36 +288,24 @@ public boolean writeNextIO() {
                 NBTTagCompound nbttagcompound = chunk.compound;
 
                 if (nbttagcompound != null) {
-                    int attempts = 0;
-                    Exception laste = null;
-                    while (attempts++ < 5) {
-                        try {
-                            this.writeChunkData(chunkpos, nbttagcompound);
-                            laste = null;
-                            break;
-                        } catch (Exception exception) {
-                            // LOGGER.error((String)"Failed to save chunk",
-                            // (Throwable)exception);
-                            laste = exception;
-                        }
-                        try {
-                            Thread.sleep(10);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
+                    try {
+                        this.writeChunkData(chunkpos, nbttagcompound);
+                    } catch (Exception exception) {
+                        // Sponge - retry from the back of the queue instead of sleeping on the IO thread,
+                        // unless a newer version is pending
+                        if (++chunk.attempts < MAX_WRITE_ATTEMPTS) {
+                            if (this.chunksToSave.get(chunkpos) == nbttagcompound) {
+                                this.queue.add(chunk);
+                            }
+                            return true;
                         }
-                    }
-                    if (laste != null) {
-                        laste.printStackTrace();
+                        LOGGER.error("Failed to save chunk", exception);
                     }
                 }
 
-                synchronized (this.lock) {
-                    if (this.chunksToSave.get(chunkpos) == nbttagcompound) {
-                        this.chunksToSave.remove(chunkpos);
-                    }
-                }
-                // Sponge - This will not equal if a newer version is still
-                // pending
+                // Sponge - This will not remove the data if a newer version is
+                // still pending
+                this.chunksToSave.remove(chunkpos, nbttagcompound);
                 lvt_3_1_ = true;
             } finally {
                 // this.field_193415_c.remove(chunkpos);
@@ -307,4 +320,14 @@ public Path getWorldDir() {
         return this.chunkSaveLocation.toPath();
     }
 
+    @Override
+    public Map<ChunkPos, NBTTagCompound> getPendingChunks() {
+        return this.chunksToSave;
+    }
+
+    @Override
+    public void writeChunk(ChunkPos pos, NBTTagCompound compound) {
+        this.writeChunkData(pos, compound);
+    }
+
 }
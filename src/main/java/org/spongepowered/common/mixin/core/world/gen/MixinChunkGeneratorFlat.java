@@ -47,6 +47,7 @@
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.common.interfaces.world.gen.ICopyableGenerationPopulator;
 import org.spongepowered.common.interfaces.world.gen.IPopulatorProvider;
 import org.spongepowered.common.world.gen.WorldGenConstants;
 import org.spongepowered.common.world.gen.populators.FilteredPopulator;
@@ -54,7 +55,7 @@
 import java.util.Map;
 
 @Mixin(ChunkGeneratorFlat.class)
-public class MixinChunkGeneratorFlat implements GenerationPopulator, IPopulatorProvider {
+public class MixinChunkGeneratorFlat implements GenerationPopulator, IPopulatorProvider, ICopyableGenerationPopulator {
 
     @Shadow @Final private IBlockState[] cachedBlockIDs;
     @Shadow @Final private Map<String, MapGenStructure> structureGenerators;
@@ -113,6 +114,12 @@ public void addPopulators(WorldGenerator generator) {
         }
     }
 
+    @Override
+    public GenerationPopulator copyForThread() {
+        // Only reads the cached layers
+        return this;
+    }
+
     @Override
     public void populate(World world, MutableBlockVolume buffer, ImmutableBiomeVolume biomes) {
         int x;
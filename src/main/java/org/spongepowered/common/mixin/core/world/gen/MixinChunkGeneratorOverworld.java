@@ -62,10 +62,12 @@
 import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.interfaces.world.gen.IChunkProviderOverworld;
+import org.spongepowered.common.interfaces.world.gen.ICopyableGenerationPopulator;
 import org.spongepowered.common.interfaces.world.gen.IPopulatorProvider;
 import org.spongepowered.common.util.VecHelper;
 import org.spongepowered.common.util.gen.ChunkBufferPrimer;
 import org.spongepowered.common.util.gen.ObjectArrayMutableBiomeBuffer;
+import org.spongepowered.common.world.gen.AsyncTerrainGenerator;
 import org.spongepowered.common.world.gen.WorldGenConstants;
 import org.spongepowered.common.world.gen.populators.AnimalPopulator;
 import org.spongepowered.common.world.gen.populators.FilteredPopulator;
@@ -73,8 +75,11 @@
 
 import java.util.Random;
 
+import javax.annotation.Nullable;
+
 @Mixin(ChunkGeneratorOverworld.class)
-public abstract class MixinChunkGeneratorOverworld implements IChunkProvider, GenerationPopulator, IPopulatorProvider, IChunkProviderOverworld {
+public abstract class MixinChunkGeneratorOverworld implements IChunkProvider, GenerationPopulator, IPopulatorProvider, IChunkProviderOverworld,
+        ICopyableGenerationPopulator {
 
     @Shadow @Final private double[] heightMap;
     @Shadow @Final private boolean mapFeaturesEnabled;
@@ -110,6 +115,19 @@ public void setBiomeGenerator(BiomeGenerator biomes) {
         this.biomegen = biomes;
     }
 
+    @Nullable
+    @Override
+    public GenerationPopulator copyForThread() {
+        // Extending generators may keep state of their own
+        if (!this.isVanilla) {
+            return null;
+        }
+        final ChunkGeneratorOverworld copy = new ChunkGeneratorOverworld(this.world, this.world.getSeed(), this.mapFeaturesEnabled,
+                this.world.getWorldInfo().getGeneratorOptions());
+        ((IChunkProviderOverworld) copy).setBiomeGenerator(this.biomegen);
+        return (GenerationPopulator) copy;
+    }
+
     @Override
     public void addPopulators(WorldGenerator generator) {
         if (this.settings.useCaves) {
@@ -197,7 +215,9 @@ public void populate(World world, MutableBlockVolume buffer, ImmutableBiomeVolum
         int x = GenericMath.floor(buffer.getBlockMin().getX() / 16f);
         int z = GenericMath.floor(buffer.getBlockMin().getZ() / 16f);
         this.rand.setSeed((long) x * 341873128712L + (long) z * 132897987541L);
-        this.biomesForGeneration = getBiomesFromGenerator(x, z);
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            this.biomesForGeneration = getBiomesFromGenerator(x, z);
+        }
         ChunkPrimer chunkprimer = new ChunkBufferPrimer(buffer);
         this.setBlocksInChunk(x, z, chunkprimer);
         setBedrock(buffer);
@@ -48,9 +48,9 @@
 import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
-import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.config.SpongeConfig;
 import org.spongepowered.common.config.type.GeneralConfigBase;
+import org.spongepowered.common.event.tracking.PhaseContext;
 import org.spongepowered.common.event.tracking.PhaseTracker;
 import org.spongepowered.common.event.tracking.IPhaseState;
 import org.spongepowered.common.event.tracking.phase.TrackingPhases;
@@ -64,13 +64,15 @@
 import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
 import org.spongepowered.common.util.CachedLong2ObjectMap;
 import org.spongepowered.common.util.SpongeHooks;
+import org.spongepowered.common.world.ChunkUnloadQueue;
+import org.spongepowered.common.world.ParallelWorldTicker;
 import org.spongepowered.common.world.SpongeEmptyChunk;
 import org.spongepowered.common.world.storage.SpongeChunkDataStream;
 import org.spongepowered.common.world.storage.WorldStorageUtil;
 
-import java.util.Iterator;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Mixin(ChunkProviderServer.class)
 public abstract class MixinChunkProviderServer implements WorldStorage, IMixinChunkProviderServer {
@@ -80,6 +82,8 @@ public abstract class MixinChunkProviderServer implements WorldStorage, IMixinCh
     private boolean forceChunkRequests = false;
     private long chunkUnloadDelay = 15000;
     private int maxChunkUnloads = 100;
+    private long maxChunkUnloadTime = TimeUnit.MILLISECONDS.toNanos(10);
+    private final ChunkUnloadQueue unloadQueue = new ChunkUnloadQueue();
 
     @Shadow @Final public WorldServer world;
     @Shadow @Final private IChunkLoader chunkLoader;
@@ -102,6 +106,7 @@ private void onConstruct(WorldServer worldObjIn, IChunkLoader chunkLoaderIn, ICh
         this.denyChunkRequests = spongeConfig.getConfig().getWorld().getDenyChunkRequests();
         this.chunkUnloadDelay = spongeConfig.getConfig().getWorld().getChunkUnloadDelay() * 1000;
         this.maxChunkUnloads = spongeConfig.getConfig().getWorld().getMaxChunkUnloads();
+        this.setMaxChunkUnloadTime(spongeConfig.getConfig().getWorld().getMaxChunkUnloadTime());
     }
 
     @Override
@@ -109,6 +114,11 @@ public WorldServer getWorld() {
         return this.world;
     }
 
+    @Override
+    public IChunkLoader getChunkLoader() {
+        return this.chunkLoader;
+    }
+
     @Override
     public ChunkDataStream getGeneratedChunks() {
         if (!(this.chunkLoader instanceof IMixinAnvilChunkLoader)) {
@@ -143,12 +153,18 @@ public void queueUnload(Chunk chunkIn)
     {
         if (!((IMixinChunk) chunkIn).isPersistedChunk() && this.world.provider.canDropChunk(chunkIn.x, chunkIn.z))
         {
-            // Sponge - we avoid using the queue and simply check the unloaded flag during unloads
+            // Sponge - we queue chunks by the time they are due to unload, the unloaded flag is checked during unloads
             //this.droppedChunksSet.add(Long.valueOf(ChunkPos.asLong(chunkIn.x, chunkIn.z)));
             chunkIn.unloadQueued = true;
+            final long now = System.currentTimeMillis();
+            this.unloadQueue.add(ChunkPos.asLong(chunkIn.x, chunkIn.z), now, this.getUnloadDueTime((IMixinChunk) chunkIn, now));
         }
     }
 
+    private long getUnloadDueTime(IMixinChunk chunk, long now) {
+        return this.chunkUnloadDelay > 0 ? chunk.getScheduledForUnload() + this.chunkUnloadDelay : now;
+    }
+
     // split from loadChunk to avoid 2 lookups with our inject
     private Chunk loadChunkForce(int x, int z) {
         Chunk chunk = this.loadChunkFromFile(x, z);
@@ -163,6 +179,28 @@ private Chunk loadChunkForce(int x, int z) {
         return chunk;
     }
 
+    @Override
+    public Chunk loadGeneratedChunk(Chunk generated) {
+        final int x = generated.x;
+        final int z = generated.z;
+        final Chunk chunk = this.getLoadedChunk(x, z);
+        if (chunk != null) {
+            return chunk;
+        }
+        if (this.chunkLoader instanceof IMixinAnvilChunkLoader && ((IMixinAnvilChunkLoader) this.chunkLoader).chunkExists(this.world, x, z)) {
+            return this.provideChunk(x, z);
+        }
+
+        try (PhaseContext<?> context = GenerationPhase.State.TERRAIN_GENERATION.createPhaseContext()
+                .world(this.world)
+                .buildAndSwitch()) {
+            this.id2ChunkMap.put(ChunkPos.asLong(x, z), generated);
+            generated.onLoad();
+            generated.populate((ChunkProviderServer) (Object) this, this.chunkGenerator);
+        }
+        return generated;
+    }
+
     @Redirect(method = "provideChunk", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/gen/ChunkProviderServer;loadChunk(II)Lnet/minecraft/world/chunk/Chunk;"))
     public Chunk onProvideChunkHead(ChunkProviderServer chunkProviderServer, int x, int z) {
         if (!this.denyChunkRequests) {
@@ -199,7 +237,7 @@ private void onError(CallbackInfoReturnable<Chunk> ci) {
     }
 
     private boolean canDenyChunkRequest() {
-        if (!SpongeImpl.getServer().isCallingFromMinecraftThread()) {
+        if (!ParallelWorldTicker.isOwningThread(this.world)) {
             return true;
         }
 
@@ -248,6 +286,11 @@ public void setMaxChunkUnloads(int maxUnloads) {
         this.maxChunkUnloads = maxUnloads;
     }
 
+    @Override
+    public void setMaxChunkUnloadTime(int maxUnloadTime) {
+        this.maxChunkUnloadTime = maxUnloadTime > 0 ? TimeUnit.MILLISECONDS.toNanos(maxUnloadTime) : Long.MAX_VALUE;
+    }
+
     @Override
     public void setForceChunkRequests(boolean flag) {
         this.forceChunkRequests = flag;
@@ -263,11 +306,17 @@ public long getChunkUnloadDelay() {
         return this.chunkUnloadDelay;
     }
 
+    @Override
+    public ChunkUnloadQueue getUnloadQueue() {
+        return this.unloadQueue;
+    }
+
     /**
      * @author blood - October 20th, 2016
      * @reason Refactors entire method to not use the droppedChunksSet by
-     * simply looping through all loaded chunks and determining whether it
-     * can unload or not.
+     * polling the chunks that are due from the unload queue and determining
+     * whether they can unload or not. Saving is limited by a time budget,
+     * the remaining chunks are unloaded in the following ticks.
      *
      * @return true if unload queue was processed
      */
@@ -277,25 +326,37 @@ public boolean tick()
         if (!this.world.disableLevelSaving)
         {
             ((IMixinWorldServer) this.world).getTimingsHandler().doChunkUnload.startTiming();
-            Iterator<Chunk> iterator = this.id2ChunkMap.values().iterator();
             int chunksUnloaded = 0;
             long now = System.currentTimeMillis();
-            while (chunksUnloaded < this.maxChunkUnloads && iterator.hasNext()) {
-                Chunk chunk = iterator.next();
+            final long start = System.nanoTime();
+            ChunkUnloadQueue.Entry entry;
+            while (chunksUnloaded < this.maxChunkUnloads && System.nanoTime() - start < this.maxChunkUnloadTime
+                    && (entry = this.unloadQueue.poll(now)) != null) {
+                Chunk chunk = this.id2ChunkMap.get(entry.chunkKey);
+                // The chunk was unloaded or marked active since it was queued
+                if (chunk == null || !chunk.unloadQueued) {
+                    continue;
+                }
                 IMixinChunk spongeChunk = (IMixinChunk) chunk;
-                if (chunk != null && chunk.unloadQueued && !spongeChunk.isPersistedChunk()) {
-                    if (this.getChunkUnloadDelay() > 0) {
-                        if ((now - spongeChunk.getScheduledForUnload()) < this.chunkUnloadDelay) {
-                            continue;
-                        }
-                        spongeChunk.setScheduledForUnload(-1);
+                if (spongeChunk.isPersistedChunk()) {
+                    chunk.unloadQueued = false;
+                    continue;
+                }
+                if (this.getChunkUnloadDelay() > 0) {
+                    // The delay restarts whenever the chunk becomes inactive again
+                    final long dueTime = this.getUnloadDueTime(spongeChunk, now);
+                    if (dueTime > now) {
+                        this.unloadQueue.reschedule(entry, dueTime);
+                        continue;
                     }
-                    chunk.onUnload();
-                    this.saveChunkData(chunk);
-                    this.saveChunkExtraData(chunk);
-                    iterator.remove();
-                    chunksUnloaded++;
+                    spongeChunk.setScheduledForUnload(-1);
                 }
+                chunk.onUnload();
+                this.saveChunkData(chunk);
+                this.saveChunkExtraData(chunk);
+                this.id2ChunkMap.remove(entry.chunkKey);
+                this.unloadQueue.onUnloaded(entry, now);
+                chunksUnloaded++;
             }
             ((IMixinWorldServer) this.world).getTimingsHandler().doChunkUnload.stopTiming();
         }
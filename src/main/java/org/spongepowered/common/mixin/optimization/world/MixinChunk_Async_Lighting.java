@@ -44,22 +44,22 @@
 import org.spongepowered.common.interfaces.IMixinChunk;
 import org.spongepowered.common.interfaces.world.IMixinWorldServer;
 import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
+import org.spongepowered.common.world.LightUpdateQueue;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.Nullable;
+
 @Mixin(value = Chunk.class, priority = 1002)
 public abstract class MixinChunk_Async_Lighting implements IMixinChunk {
 
-    // Keeps track of block positions in this chunk currently queued for sky light update
-    private CopyOnWriteArrayList<Short> queuedSkyLightingUpdates = new CopyOnWriteArrayList<>();
-    // Keeps track of block positions in this chunk currently queued for block light update
-    private CopyOnWriteArrayList<Short> queuedBlockLightingUpdates = new CopyOnWriteArrayList<>();
+    // Keeps track of block positions in this chunk currently queued for light updates, created on first use
+    @Nullable private volatile LightUpdateQueue lightUpdateQueue;
     private AtomicInteger pendingLightUpdates = new AtomicInteger();
     private long lightUpdateTime;
     private ExecutorService lightExecutorService;
@@ -691,16 +691,21 @@ private boolean checkWorldLight(BlockPos pos, List<Chunk> neighbors) {
     }
 
     /**
-     * Gets the list of block positions currently queued for lighting updates.
+     * Gets the queue of block positions currently queued for lighting updates.
      * 
-     * @param type The light type
-     * @return The list of queued block positions, empty if none
+     * @return The light update queue
      */
     @Override
-    public CopyOnWriteArrayList<Short> getQueuedLightingUpdates(EnumSkyBlock type) {
-        if (type == EnumSkyBlock.SKY) {
-            return this.queuedSkyLightingUpdates;
+    public LightUpdateQueue getLightUpdateQueue() {
+        LightUpdateQueue queue = this.lightUpdateQueue;
+        if (queue == null) {
+            synchronized (this) {
+                queue = this.lightUpdateQueue;
+                if (queue == null) {
+                    this.lightUpdateQueue = queue = new LightUpdateQueue();
+                }
+            }
         }
-        return this.queuedBlockLightingUpdates;
+        return queue;
     }
 }
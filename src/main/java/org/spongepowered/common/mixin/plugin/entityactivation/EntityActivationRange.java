@@ -28,6 +28,11 @@
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.EntityLivingBase;
@@ -51,6 +56,7 @@
 import net.minecraft.entity.projectile.EntityFireball;
 import net.minecraft.entity.projectile.EntityThrowable;
 import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
@@ -73,6 +79,8 @@
 import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
 import org.spongepowered.common.mixin.plugin.entityactivation.interfaces.IModData_Activation;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class EntityActivationRange {
@@ -85,15 +93,13 @@ public class EntityActivationRange {
             .put((byte) 5, "misc")
             .build();
 
-    static AxisAlignedBB maxBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB miscBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB creatureBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB monsterBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB aquaticBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB ambientBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB tileEntityBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
     static Map<Byte, Integer> maxActivationRanges = Maps.newHashMap();
 
+    // Players are bucketed into cells of 64x64 blocks, so only the players near an entity are checked against it
+    private static final int PLAYER_CELL_SHIFT = 6;
+    // Accounts for player bounding boxes reaching outside of the cell their position is in
+    private static final int PLAYER_CELL_MARGIN = 2;
+
     /**
      * Initializes an entities type on construction to specify what group this
      * entity is in for activation ranges.
@@ -215,39 +221,58 @@ public static void growBb(AxisAlignedBB target, AxisAlignedBB source, int x, int
      * Find what entities are in range of the players in the world and set
      * active if in range.
      *
+     * <p>The chunks in range of all players are collected first, so that every
+     * chunk, and with it every entity, is only visited once per tick no matter
+     * how many players are close to it. This keeps no state outside of the
+     * current pass.</p>
+     *
      * @param world The world to perform activation checks in
      */
     public static void activateEntities(World world) {
-        if (((IMixinWorld) world).isFake()) {
+        if (((IMixinWorld) world).isFake() || world.playerEntities.isEmpty()) {
             return;
         }
 
-        for (EntityPlayer player : world.playerEntities) {
+        int maxRange = 0;
+        for (Integer range : maxActivationRanges.values()) {
+            if (range > maxRange) {
+                maxRange = range;
+            }
+        }
+        maxRange = Math.min((((org.spongepowered.api.world.World) world).getViewDistance() << 4) - 8, maxRange);
 
-            int maxRange = 0;
-            for (Integer range : maxActivationRanges.values()) {
-                if (range > maxRange) {
-                    maxRange = range;
+        final long currentTick = SpongeImpl.getServer().getTickCounter();
+        final LongSet activeChunks = new LongOpenHashSet();
+        final Long2ObjectMap<List<AxisAlignedBB>> playerCells = new Long2ObjectOpenHashMap<>();
+        for (EntityPlayer player : world.playerEntities) {
+            ((IModData_Activation) player).setActivatedTick(currentTick);
+            final AxisAlignedBB playerBB = player.getEntityBoundingBox();
+            final long cell = ChunkPos.asLong(MathHelper.floor(player.posX) >> PLAYER_CELL_SHIFT, MathHelper.floor(player.posZ) >> PLAYER_CELL_SHIFT);
+            List<AxisAlignedBB> cellPlayers = playerCells.get(cell);
+            if (cellPlayers == null) {
+                cellPlayers = new ArrayList<>();
+                playerCells.put(cell, cellPlayers);
+            }
+            cellPlayers.add(playerBB);
+
+            final int minChunkX = MathHelper.floor((playerBB.minX - maxRange) / 16.0D);
+            final int maxChunkX = MathHelper.floor((playerBB.maxX + maxRange) / 16.0D);
+            final int minChunkZ = MathHelper.floor((playerBB.minZ - maxRange) / 16.0D);
+            final int maxChunkZ = MathHelper.floor((playerBB.maxZ + maxRange) / 16.0D);
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+                    activeChunks.add(ChunkPos.asLong(chunkX, chunkZ));
                 }
             }
+        }
 
-            maxRange = Math.min((((org.spongepowered.api.world.World) world).getViewDistance() << 4) - 8, maxRange);
-            ((IModData_Activation) player).setActivatedTick(SpongeImpl.getServer().getTickCounter());
-            growBb(maxBB, player.getEntityBoundingBox(), maxRange, 256, maxRange);
-
-            int i = MathHelper.floor(maxBB.minX / 16.0D);
-            int j = MathHelper.floor(maxBB.maxX / 16.0D);
-            int k = MathHelper.floor(maxBB.minZ / 16.0D);
-            int l = MathHelper.floor(maxBB.maxZ / 16.0D);
-
-            for (int i1 = i; i1 <= j; ++i1) {
-                for (int j1 = k; j1 <= l; ++j1) {
-                    WorldServer worldserver = (WorldServer) world;
-                    Chunk chunk = ((IMixinChunkProviderServer) worldserver.getChunkProvider()).getLoadedChunkWithoutMarkingActive(i1, j1);
-                    if (chunk != null) {
-                        activateChunkEntities(player, chunk);
-                    }
-                }
+        final IMixinChunkProviderServer chunkProvider = (IMixinChunkProviderServer) ((WorldServer) world).getChunkProvider();
+        final LongIterator iterator = activeChunks.iterator();
+        while (iterator.hasNext()) {
+            final long chunkKey = iterator.nextLong();
+            final Chunk chunk = chunkProvider.getLoadedChunkWithoutMarkingActive((int) chunkKey, (int) (chunkKey >>> 32));
+            if (chunk != null) {
+                activateChunkEntities(chunk, playerCells, currentTick);
             }
         }
     }
@@ -256,14 +281,15 @@ public static void activateEntities(World world) {
      * Checks for the activation state of all entities in this chunk.
      *
      * @param chunk Chunk to check for activation
+     * @param playerCells The player bounding boxes, bucketed by cell
+     * @param currentTick The current server tick
      */
-    private static void activateChunkEntities(EntityPlayer player, Chunk chunk) {
+    private static void activateChunkEntities(Chunk chunk, Long2ObjectMap<List<AxisAlignedBB>> playerCells, long currentTick) {
         for (int i = 0; i < chunk.getEntityLists().length; ++i) {
 
             for (Object o : chunk.getEntityLists()[i]) {
                 Entity entity = (Entity) o;
                 EntityType type = ((org.spongepowered.api.entity.Entity) entity).getType();
-                long currentTick = SpongeImpl.getServer().getTickCounter();
                 if (type == EntityTypes.UNKNOWN) {
                     ((IModData_Activation) entity).setActivatedTick(currentTick);
                     continue;
@@ -281,52 +307,55 @@ private static void activateChunkEntities(EntityPlayer player, Chunk chunk) {
                         EntityActivationRange.initializeEntityActivationState(entity);
                         spongeEntity.requiresActivationCacheRefresh(false);
                     }
-                    // check for entity type overrides
-                    byte activationType = ((IModData_Activation) entity).getActivationType();
-                    int bbActivationRange = ((IModData_Activation) entity).getActivationRange();
-
-                    if (activationType == 5) {
-                        growBb(miscBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else if (activationType == 4) {
-                        growBb(ambientBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else if (activationType == 3) {
-                        growBb(aquaticBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else if (activationType == 2) {
-                        growBb(creatureBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else {
-                        growBb(monsterBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
+                    // the activation range already accounts for entity type overrides
+                    if (isInPlayerRange(entity.getEntityBoundingBox(), spongeEntity.getActivationRange(), playerCells)) {
+                        spongeEntity.setActivatedTick(currentTick);
                     }
+                }
+            }
+        }
+    }
 
-                    switch (((IModData_Activation) entity).getActivationType()) {
-                        case 1:
-                            if (monsterBB.intersects(entity.getEntityBoundingBox())) {
-                                ((IModData_Activation) entity).setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 2:
-                            if (creatureBB.intersects(entity.getEntityBoundingBox())) {
-                                ((IModData_Activation) entity).setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 3:
-                            if (aquaticBB.intersects(entity.getEntityBoundingBox())) {
-                                ((IModData_Activation) entity).setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 4:
-                            if (ambientBB.intersects(entity.getEntityBoundingBox())) {
-                                ((IModData_Activation) entity).setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 5:
-                        default:
-                            if (miscBB.intersects(entity.getEntityBoundingBox())) {
-                                ((IModData_Activation) entity).setActivatedTick(currentTick);
-                            }
-                    }
+    /**
+     * Gets whether the bounding box of any player, grown by the given
+     * activation range, intersects the bounding box of the entity.
+     */
+    private static boolean isInPlayerRange(AxisAlignedBB entityBB, int range, Long2ObjectMap<List<AxisAlignedBB>> playerCells) {
+        final int minCellX = MathHelper.floor(entityBB.minX - range - PLAYER_CELL_MARGIN) >> PLAYER_CELL_SHIFT;
+        final int maxCellX = MathHelper.floor(entityBB.maxX + range + PLAYER_CELL_MARGIN) >> PLAYER_CELL_SHIFT;
+        final int minCellZ = MathHelper.floor(entityBB.minZ - range - PLAYER_CELL_MARGIN) >> PLAYER_CELL_SHIFT;
+        final int maxCellZ = MathHelper.floor(entityBB.maxZ + range + PLAYER_CELL_MARGIN) >> PLAYER_CELL_SHIFT;
+        if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > playerCells.size()) {
+            // Cheaper to go through the occupied cells than to look up every cell in range
+            for (List<AxisAlignedBB> cellPlayers : playerCells.values()) {
+                if (intersectsAny(entityBB, range, cellPlayers)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int cellX = minCellX; cellX <= maxCellX; ++cellX) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; ++cellZ) {
+                final List<AxisAlignedBB> cellPlayers = playerCells.get(ChunkPos.asLong(cellX, cellZ));
+                if (cellPlayers != null && intersectsAny(entityBB, range, cellPlayers)) {
+                    return true;
                 }
             }
         }
+        return false;
+    }
+
+    private static boolean intersectsAny(AxisAlignedBB entityBB, int range, List<AxisAlignedBB> playerBBs) {
+        for (int i = 0; i < playerBBs.size(); i++) {
+            final AxisAlignedBB playerBB = playerBBs.get(i);
+            // Same as growing the player bounding box by the range (and 256 vertically) and checking for an intersection
+            if (playerBB.minX - range < entityBB.maxX && playerBB.maxX + range > entityBB.minX
+                    && playerBB.minY - 256 < entityBB.maxY && playerBB.maxY + 256 > entityBB.minY
+                    && playerBB.minZ - range < entityBB.maxZ && playerBB.maxZ + range > entityBB.minZ) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -24,6 +24,8 @@
  */
 package org.spongepowered.common.network;
 
+import co.aikar.timings.SpongeTimings;
+import co.aikar.timings.Timing;
 import com.flowpowered.math.vector.Vector3d;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
@@ -34,10 +36,12 @@
 import net.minecraft.network.play.client.CPacketClientSettings;
 import net.minecraft.network.play.client.CPacketClientStatus;
 import net.minecraft.network.play.client.CPacketCreativeInventoryAction;
+import net.minecraft.network.play.client.CPacketKeepAlive;
 import net.minecraft.network.play.client.CPacketPlayer;
 import net.minecraft.network.play.client.CPacketPlayerDigging;
 import net.minecraft.network.play.client.CPacketPlayerTryUseItem;
 import net.minecraft.network.play.client.CPacketPlayerTryUseItemOnBlock;
+import net.minecraft.network.play.client.CPacketTabComplete;
 import net.minecraft.network.play.server.SPacketBlockChange;
 import net.minecraft.util.EnumHand;
 import net.minecraft.util.math.BlockPos;
@@ -81,84 +85,152 @@ public class PacketUtil {
     private static long lastTryBlockPacketTimeStamp = 0;
     private static boolean lastTryBlockPacketItemResult = true;
 
-    @SuppressWarnings({"rawtypes", "unchecked", "unused"})
+    /**
+     * How inbound play packets of a class are processed.
+     */
+    private enum Route {
+        /**
+         * Processed directly, nothing is fired for these packets.
+         */
+        DIRECT,
+        /**
+         * Processed with the player as cause, but these packets never change
+         * blocks, entities or inventories so no phase is entered.
+         */
+        CAUSE_ONLY,
+        /**
+         * Movement packets, which only enter their phase if the player
+         * actually moved.
+         */
+        MOVEMENT,
+        /**
+         * Processed within the phase state of the packet.
+         */
+        TRACKED
+    }
+
+    private static final class PacketHandling {
+
+        final Route route;
+        final Timing timing;
+
+        PacketHandling(Route route, Timing timing) {
+            this.route = route;
+            this.timing = timing;
+        }
+
+    }
+
+    private static final ClassValue<PacketHandling> PACKET_HANDLING = new ClassValue<PacketHandling>() {
+        @Override
+        protected PacketHandling computeValue(Class<?> packetClass) {
+            final Route route;
+            if (packetClass == CPacketKeepAlive.class) {
+                route = Route.DIRECT;
+            } else if (packetClass == CPacketClientSettings.class || packetClass == CPacketTabComplete.class) {
+                route = Route.CAUSE_ONLY;
+            } else if (CPacketPlayer.class.isAssignableFrom(packetClass)) {
+                route = Route.MOVEMENT;
+            } else {
+                route = Route.TRACKED;
+            }
+            return new PacketHandling(route, SpongeTimings.getPacketTiming(packetClass));
+        }
+    };
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
     public static void onProcessPacket(Packet packetIn, INetHandler netHandler) {
         if (netHandler instanceof NetHandlerPlayServer) {
-            try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
-                EntityPlayerMP packetPlayer = ((NetHandlerPlayServer) netHandler).player;
-                Sponge.getCauseStackManager().pushCause(packetPlayer);
-                // If true, logic was handled in Pre so return
-                if (firePreEvents(packetIn, packetPlayer)) {
-                    return;
+            final PacketHandling handling = PACKET_HANDLING.get(packetIn.getClass());
+            try (Timing timing = handling.timing.startTiming()) {
+                if (handling.route == Route.DIRECT) {
+                    packetIn.processPacket(netHandler);
+                } else {
+                    processTrackedPacket(packetIn, netHandler, handling.route);
                 }
-                boolean ignoreCreative = false;
+            }
+        } else { // client
+            packetIn.processPacket(netHandler);
+        }
+    }
 
-                // This is another horrible hack required since the client sends a C10 packet for every slot
-                // containing an itemstack after a C16 packet in the following scenarios :
-                // 1. Opening creative inventory after initial server join.
-                // 2. Opening creative inventory again after making a change in previous inventory open.
-                //
-                // This is done in order to sync client inventory to server and would be fine if the C10 packet
-                // included an Enum of some sort that defined what type of sync was happening.
-                // TODO 1.12-pre2 is something here still needed
-    //            if (packetPlayer.interactionManager.isCreative() && (packetIn instanceof CPacketClientStatus && ((CPacketClientStatus) packetIn).getStatus() == CPacketClientStatus.State.OPEN_INVENTORY_ACHIEVEMENT)) {
-    //                lastInventoryOpenPacketTimeStamp = System.currentTimeMillis();
-    //            } else
-                if (creativeCheck(packetIn, packetPlayer)) {
+    @SuppressWarnings({"rawtypes", "unchecked", "unused"})
+    private static void processTrackedPacket(Packet packetIn, INetHandler netHandler, Route route) {
+        try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
+            EntityPlayerMP packetPlayer = ((NetHandlerPlayServer) netHandler).player;
+            Sponge.getCauseStackManager().pushCause(packetPlayer);
+            // If true, logic was handled in Pre so return
+            if (firePreEvents(packetIn, packetPlayer)) {
+                return;
+            }
+            boolean ignoreCreative = false;
 
-                    long packetDiff = System.currentTimeMillis() - lastInventoryOpenPacketTimeStamp;
-                    // If the time between packets is small enough, mark the current packet to be ignored for our event handler.
-                    if (packetDiff < 100) {
-                        ignoreCreative = true;
-                    }
+            // This is another horrible hack required since the client sends a C10 packet for every slot
+            // containing an itemstack after a C16 packet in the following scenarios :
+            // 1. Opening creative inventory after initial server join.
+            // 2. Opening creative inventory again after making a change in previous inventory open.
+            //
+            // This is done in order to sync client inventory to server and would be fine if the C10 packet
+            // included an Enum of some sort that defined what type of sync was happening.
+            // TODO 1.12-pre2 is something here still needed
+//            if (packetPlayer.interactionManager.isCreative() && (packetIn instanceof CPacketClientStatus && ((CPacketClientStatus) packetIn).getStatus() == CPacketClientStatus.State.OPEN_INVENTORY_ACHIEVEMENT)) {
+//                lastInventoryOpenPacketTimeStamp = System.currentTimeMillis();
+//            } else
+            if (creativeCheck(packetIn, packetPlayer)) {
+
+                long packetDiff = System.currentTimeMillis() - lastInventoryOpenPacketTimeStamp;
+                // If the time between packets is small enough, mark the current packet to be ignored for our event handler.
+                if (packetDiff < 100) {
+                    ignoreCreative = true;
                 }
+            }
 
-                // Don't process movement capture logic if player hasn't moved
-                boolean ignoreMovementCapture = false;
-                if (packetIn instanceof CPacketPlayer) {
-                    CPacketPlayer movingPacket = ((CPacketPlayer) packetIn);
-                    if (movingPacket instanceof CPacketPlayer.Rotation) {
-                        ignoreMovementCapture = true;
-                    } else if (packetPlayer.posX == movingPacket.x && packetPlayer.posY == movingPacket.y && packetPlayer.posZ == movingPacket.z) {
-                        ignoreMovementCapture = true;
-                    }
+            // Don't process movement capture logic if player hasn't moved
+            boolean ignoreMovementCapture = false;
+            if (route == Route.MOVEMENT) {
+                CPacketPlayer movingPacket = ((CPacketPlayer) packetIn);
+                if (movingPacket instanceof CPacketPlayer.Rotation) {
+                    ignoreMovementCapture = true;
+                } else if (packetPlayer.posX == movingPacket.x && packetPlayer.posY == movingPacket.y && packetPlayer.posZ == movingPacket.z) {
+                    ignoreMovementCapture = true;
                 }
-                if (ignoreMovementCapture || (packetIn instanceof CPacketClientSettings)) {
-                    packetIn.processPacket(netHandler);
-                } else {
-                    final ItemStackSnapshot cursor = ItemStackUtil.snapshotOf(packetPlayer.inventory.getItemStack());
-                    final PhaseTracker phaseTracker = PhaseTracker.getInstance();
-                    IPhaseState<? extends PacketContext<?>> packetState = TrackingPhases.PACKET.getStateForPacket(packetIn);
-                    if (packetState == null) {
-                        throw new IllegalArgumentException("Found a null packet phase for packet: " + packetIn.getClass());
-                    }
-                    PhaseContext<?> context = EMPTY;
-                    if (!TrackingPhases.PACKET.isPacketInvalid(packetIn, packetPlayer, packetState)) {
-                        context = packetState.createPhaseContext()
-                            .source(packetPlayer)
-                            .packetPlayer(packetPlayer)
-                            .packet(packetIn)
-                            .cursor(cursor)
-                            .ignoreCreative(ignoreCreative);
+            }
+            if (ignoreMovementCapture || route == Route.CAUSE_ONLY) {
+                packetIn.processPacket(netHandler);
+            } else {
+                final PhaseTracker phaseTracker = PhaseTracker.getInstance();
+                IPhaseState<? extends PacketContext<?>> packetState = TrackingPhases.PACKET.getStateForPacket(packetIn);
+                if (packetState == null) {
+                    throw new IllegalArgumentException("Found a null packet phase for packet: " + packetIn.getClass());
+                }
+                PhaseContext<?> context = EMPTY;
+                if (!TrackingPhases.PACKET.isPacketInvalid(packetIn, packetPlayer, packetState)) {
+                    // Only snapshot the cursor for states that compare it during unwinding
+                    final ItemStackSnapshot cursor = ((PacketState<?>) packetState).requiresCursorSnapshot()
+                            ? ItemStackUtil.snapshotOf(packetPlayer.inventory.getItemStack())
+                            : null;
+                    context = packetState.createPhaseContext()
+                        .source(packetPlayer)
+                        .packetPlayer(packetPlayer)
+                        .packet(packetIn)
+                        .cursor(cursor)
+                        .ignoreCreative(ignoreCreative);
 
-                        TrackingPhases.PACKET.populateContext(packetIn, packetPlayer, packetState, context);
-                        context.owner((Player) packetPlayer);
-                        context.notifier((Player) packetPlayer);
-                    }
-                    try (PhaseContext<?> packetContext = context.buildAndSwitch()) {
-                        packetIn.processPacket(netHandler);
+                    TrackingPhases.PACKET.populateContext(packetIn, packetPlayer, packetState, context);
+                    context.owner((Player) packetPlayer);
+                    context.notifier((Player) packetPlayer);
+                }
+                try (PhaseContext<?> packetContext = context.buildAndSwitch()) {
+                    packetIn.processPacket(netHandler);
 
-                    }
+                }
 
-                    if (packetIn instanceof CPacketClientStatus) {
-                        // update the reference of player
-                        packetPlayer = ((NetHandlerPlayServer) netHandler).player;
-                    }
-                    ((IMixinEntityPlayerMP) packetPlayer).setPacketItem(ItemStack.EMPTY);
+                if (packetIn instanceof CPacketClientStatus) {
+                    // update the reference of player
+                    packetPlayer = ((NetHandlerPlayServer) netHandler).player;
                 }
+                ((IMixinEntityPlayerMP) packetPlayer).setPacketItem(ItemStack.EMPTY);
             }
-        } else { // client
-            packetIn.processPacket(netHandler);
         }
     }
 
@@ -24,31 +24,45 @@
  */
 package org.spongepowered.common.scheduler;
 
-import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.AsyncSchedulerCategory;
 
-import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
+
 public class AsyncScheduler extends SchedulerBase {
 
     // Adjustable timeout for pending Tasks
     private long minimumTimeout = Long.MAX_VALUE;
-    private long lastProcessingTimestamp;
     // Locking mechanism
     private final Lock lock = new ReentrantLock();
     private final Condition condition = this.lock.newCondition();
-    // The dynamic thread pooling executor of asynchronous tasks.
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // The executor of asynchronous tasks, either dynamically pooling threads
+    // or bounded with per plugin limits.
+    private final ExecutorService executor;
+    @Nullable private final BoundedAsyncExecutor boundedExecutor;
 
     AsyncScheduler() {
         super(ScheduledTask.TaskSynchronicity.ASYNCHRONOUS);
 
+        final AsyncSchedulerCategory category = SpongeImpl.getGlobalConfig().getConfig().getAsyncScheduler();
+        if (category.isBounded()) {
+            final int threads = category.getMaxThreads() > 0 ? category.getMaxThreads() : Runtime.getRuntime().availableProcessors();
+            this.boundedExecutor = new BoundedAsyncExecutor(threads, Math.max(1, category.getMaxConcurrencyPerPlugin()),
+                    category.getMaxQueuedPerPlugin());
+            this.executor = this.boundedExecutor;
+        } else {
+            this.boundedExecutor = null;
+            this.executor = Executors.newCachedThreadPool();
+        }
+
         Thread thread = new Thread(AsyncScheduler.this::mainLoop);
         thread.setName("Sponge Async Scheduler Thread");
         thread.setDaemon(true);
@@ -60,7 +74,6 @@ ExecutorService getExecutor() {
     }
 
     private void mainLoop() {
-        this.lastProcessingTimestamp = System.nanoTime();
         while (true) {
             recalibrateMinimumTimeout();
             this.runTick();
@@ -70,35 +83,13 @@ private void mainLoop() {
     private void recalibrateMinimumTimeout() {
         this.lock.lock();
         try {
-            Set<Task> tasks = this.getScheduledTasks();
-            this.minimumTimeout = Long.MAX_VALUE;
-            long now = System.nanoTime();
-            for (Task tmpTask : tasks) {
-                ScheduledTask task = (ScheduledTask) tmpTask;
-                // Recalibrate the wait delay for processing tasks before new
-                // tasks cause the scheduler to process pending tasks.
-                if (task.offset == 0 && task.period == 0) {
-                    this.minimumTimeout = 0;
-                }
-                // The time since the task last executed or was added to the map
-                long timeSinceLast = now - task.getTimestamp();
-
-                if (task.offset > 0 && task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-                    // There is an offset and the task hasn't run yet
-                    this.minimumTimeout = Math.min(task.offset - timeSinceLast, this.minimumTimeout);
-                }
-                if (task.period > 0 && task.getState().isActive) {
-                    // The task repeats and has run after the initial delay
-                    this.minimumTimeout = Math.min(task.period - timeSinceLast, this.minimumTimeout);
-                }
-                if (this.minimumTimeout <= 0) {
-                    break;
-                }
-            }
-            if (!tasks.isEmpty()) {
-                long latency = System.nanoTime() - this.lastProcessingTimestamp;
-                this.minimumTimeout -= (latency <= 0) ? 0 : latency;
-                this.minimumTimeout = (this.minimumTimeout < 0) ? 0 : this.minimumTimeout;
+            // Only the earliest due task matters for the wait delay
+            this.queueAddedTasks();
+            final long nextDue = this.getNextDueTimestamp();
+            if (nextDue == Long.MAX_VALUE) {
+                this.minimumTimeout = Long.MAX_VALUE;
+            } else {
+                this.minimumTimeout = Math.max(0L, nextDue - System.nanoTime());
             }
         } finally {
             this.lock.unlock();
@@ -109,7 +100,11 @@ private void recalibrateMinimumTimeout() {
     protected void preTick() {
         this.lock.lock();
         try {
-            this.condition.await(this.minimumTimeout, TimeUnit.NANOSECONDS);
+            // Tasks added after the timeout was calibrated have to be
+            // considered before waiting
+            if (!this.hasAddedTasks()) {
+                this.condition.await(this.minimumTimeout, TimeUnit.NANOSECONDS);
+            }
         } catch (InterruptedException ignored) {
             // The taskMap has been modified; there is work to do.
             // Continue on without handling the Exception.
@@ -118,11 +113,6 @@ protected void preTick() {
         }
     }
 
-    @Override
-    protected void postTick() {
-        this.lastProcessingTimestamp = System.nanoTime();
-    }
-
     @Override
     protected void finallyPostTick() {
         this.lock.unlock();
@@ -130,7 +120,20 @@ protected void finallyPostTick() {
 
     @Override
     protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
-        this.executor.submit(runnable);
+        if (this.boundedExecutor == null) {
+            this.executor.submit(runnable);
+            return;
+        }
+        try {
+            this.boundedExecutor.execute(task.getOwner(), runnable);
+        } catch (RejectedExecutionException e) {
+            // Repeating tasks would otherwise warn every period
+            if (!task.skipLogged) {
+                task.skipLogged = true;
+                SpongeImpl.getLogger().warn("Skipped an execution of the async task {}, further skipped executions are not logged: {}",
+                        task.getName(), e.getMessage());
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,257 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.scheduler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import co.aikar.timings.SpongeTimings;
+import co.aikar.timings.TimingHistogram;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.common.SpongeImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor for async plugin tasks backed by a bounded work-stealing pool.
+ * Each plugin gets its own queue, of which at most a configured amount of
+ * tasks run at the same time, and which rejects tasks once it is full.
+ */
+class BoundedAsyncExecutor extends AbstractExecutorService {
+
+    // The amount of tasks a worker runs for a plugin before it yields to the other plugins
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private final int maxConcurrencyPerPlugin;
+    private final int maxQueuedPerPlugin;
+    private final Map<String, PluginQueue> queues = new ConcurrentHashMap<>();
+    // The plugin whose queue the current worker drains
+    private final ThreadLocal<PluginContainer> drainedPlugin = new ThreadLocal<>();
+    // Set by shutdownNow, workers stop taking tasks from the queues
+    private volatile boolean stopped;
+
+    BoundedAsyncExecutor(int threads, int maxConcurrencyPerPlugin, int maxQueuedPerPlugin) {
+        checkArgument(threads > 0, "threads must be positive");
+        checkArgument(maxConcurrencyPerPlugin > 0, "maxConcurrencyPerPlugin must be positive");
+        this.maxConcurrencyPerPlugin = maxConcurrencyPerPlugin;
+        this.maxQueuedPerPlugin = maxQueuedPerPlugin;
+        this.pool = new ForkJoinPool(threads, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Sponge Async Worker - " + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+    }
+
+    /**
+     * Queues the command on the queue of the calling plugin, see
+     * {@link #getCallingPlugin()}.
+     *
+     * @param command The command
+     * @throws RejectedExecutionException If the queue of the plugin is full
+     *     or the executor was shut down
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(getCallingPlugin(), command);
+    }
+
+    /**
+     * Gets the plugin on whose behalf the current thread queues tasks. Async
+     * tasks queue on behalf of the plugin owning them, the main thread on
+     * behalf of the first plugin in the current cause. Anything else is
+     * charged to Sponge.
+     *
+     * @return The calling plugin
+     */
+    private PluginContainer getCallingPlugin() {
+        final PluginContainer drained = this.drainedPlugin.get();
+        if (drained != null) {
+            return drained;
+        }
+        if (SpongeImpl.isMainThread()) {
+            return Sponge.getCauseStackManager().getCurrentCause().first(PluginContainer.class).orElseGet(SpongeImpl::getPlugin);
+        }
+        return SpongeImpl.getPlugin();
+    }
+
+    /**
+     * Queues the command on the queue of the given plugin.
+     *
+     * @param plugin The plugin owning the command
+     * @param command The command
+     * @throws RejectedExecutionException If the queue of the plugin is full
+     *     or the executor was shut down
+     */
+    void execute(PluginContainer plugin, Runnable command) {
+        checkNotNull(plugin, "plugin");
+        checkNotNull(command, "command");
+        if (this.pool.isShutdown()) {
+            throw new RejectedExecutionException("The async executor was shut down");
+        }
+        this.queues.computeIfAbsent(plugin.getId(), id -> new PluginQueue(plugin)).offer(command);
+    }
+
+    @Override
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        this.stopped = true;
+        this.pool.shutdownNow();
+        // The pool only knows the workers, the tasks wait in the plugin queues
+        final List<Runnable> queued = new ArrayList<>();
+        for (PluginQueue queue : this.queues.values()) {
+            queue.drainTo(queued);
+        }
+        return queued;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.pool.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.pool.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.pool.awaitTermination(timeout, unit);
+    }
+
+    private static final class QueuedTask {
+
+        final Runnable command;
+        final long queuedAt;
+
+        QueuedTask(Runnable command, long queuedAt) {
+            this.command = command;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final class PluginQueue {
+
+        private final PluginContainer plugin;
+        private final Queue<QueuedTask> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        // The amount of workers currently draining this queue
+        private final AtomicInteger workers = new AtomicInteger();
+        private final TimingHistogram queueLatency;
+        private final TimingHistogram runTime;
+
+        PluginQueue(PluginContainer plugin) {
+            this.plugin = plugin;
+            this.queueLatency = SpongeTimings.getPluginAsyncQueueHistogram(plugin);
+            this.runTime = SpongeTimings.getPluginAsyncRunHistogram(plugin);
+        }
+
+        void offer(Runnable command) {
+            final int maxQueued = BoundedAsyncExecutor.this.maxQueuedPerPlugin;
+            if (this.queued.incrementAndGet() > maxQueued && maxQueued > 0) {
+                this.queued.decrementAndGet();
+                throw new RejectedExecutionException("Plugin " + this.plugin.getId() + " has more than " + maxQueued + " queued async tasks");
+            }
+            this.tasks.add(new QueuedTask(command, System.nanoTime()));
+            this.spawnWorker();
+        }
+
+        void drainTo(List<Runnable> commands) {
+            QueuedTask task;
+            while ((task = this.tasks.poll()) != null) {
+                this.queued.decrementAndGet();
+                commands.add(task.command);
+            }
+        }
+
+        private void spawnWorker() {
+            int workers;
+            while (!this.tasks.isEmpty() && (workers = this.workers.get()) < BoundedAsyncExecutor.this.maxConcurrencyPerPlugin) {
+                if (this.workers.compareAndSet(workers, workers + 1)) {
+                    BoundedAsyncExecutor.this.pool.execute(this::drain);
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            final Thread thread = Thread.currentThread();
+            final String name = thread.getName();
+            thread.setName(name + " (" + this.plugin.getId() + ")");
+            BoundedAsyncExecutor.this.drainedPlugin.set(this.plugin);
+            boolean resubmitted = false;
+            try {
+                QueuedTask task;
+                int ran = 0;
+                while (!BoundedAsyncExecutor.this.stopped && (task = this.tasks.poll()) != null) {
+                    this.queued.decrementAndGet();
+                    final long start = System.nanoTime();
+                    this.queueLatency.record(start - task.queuedAt);
+                    try {
+                        task.command.run();
+                    } catch (Throwable t) {
+                        SpongeImpl.getLogger().error("An async task owned by {} threw an exception", this.plugin.getId(), t);
+                    }
+                    this.runTime.record(System.nanoTime() - start);
+                    // The pool rejects new workers once it is shut down, this
+                    // worker then finishes the queue itself
+                    if (++ran >= DRAIN_BATCH_SIZE && !this.tasks.isEmpty() && !BoundedAsyncExecutor.this.pool.isShutdown()) {
+                        // Give the queues of other plugins a chance, this worker keeps its slot
+                        BoundedAsyncExecutor.this.pool.execute(this::drain);
+                        resubmitted = true;
+                        return;
+                    }
+                }
+            } finally {
+                thread.setName(name);
+                BoundedAsyncExecutor.this.drainedPlugin.remove();
+                if (!resubmitted) {
+                    this.workers.decrementAndGet();
+                    // A task may have been queued after the last poll
+                    this.spawnWorker();
+                }
+            }
+        }
+    }
+
+}
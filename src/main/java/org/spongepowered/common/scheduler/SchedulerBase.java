@@ -33,15 +33,27 @@
 import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.common.SpongeImpl;
 
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 abstract class SchedulerBase {
 
+    private static final Comparator<ScheduledTask> DUE_ORDER = Comparator.comparingLong(task -> task.dueTimestamp);
+
     // The simple queue of all pending (and running) ScheduledTasks
     private final Map<UUID, ScheduledTask> taskMap = Maps.newConcurrentMap();
+    // Tasks added since the last tick, only the ticking thread touches the due queues
+    private final Queue<ScheduledTask> addedTasks = new ConcurrentLinkedQueue<>();
+    // The tasks ordered by the timestamp at which they are due, one queue per
+    // timestamp type. Cancelled tasks are only dropped once they reach the head.
+    private final PriorityQueue<ScheduledTask> tickQueue = new PriorityQueue<>(DUE_ORDER);
+    private final PriorityQueue<ScheduledTask> timeQueue = new PriorityQueue<>(DUE_ORDER);
     private long sequenceNumber = 0L;
     private final String taskNameFmt;
 
@@ -65,7 +77,27 @@ protected String nextName(PluginContainer plugin) {
      * @return Timestamp for the task
      */
     protected long getTimestamp(ScheduledTask task) {
-        return System.nanoTime();
+        return isTickBased(task) ? getTick() : System.nanoTime();
+    }
+
+    /**
+     * Gets whether the timestamp of the task, in its current state, is
+     * measured in ticks rather than in nanoseconds.
+     *
+     * @param task The task
+     * @return Whether the task is tick based
+     */
+    protected boolean isTickBased(ScheduledTask task) {
+        return false;
+    }
+
+    /**
+     * Gets the current tick, only used for tick based tasks.
+     *
+     * @return The current tick
+     */
+    protected long getTick() {
+        return 0L;
     }
 
     /**
@@ -76,11 +108,14 @@ protected long getTimestamp(ScheduledTask task) {
      */
     protected void addTask(ScheduledTask task) {
         task.setTimestamp(this.getTimestamp(task));
+        task.scheduler = this;
         this.taskMap.put(task.getUniqueId(), task);
+        this.addedTasks.add(task);
     }
 
     /**
-     * Removes the task from the task map.
+     * Removes the task from the task map. If the task is still queued it is
+     * dropped once it becomes due.
      *
      * @param task The task to remove
      */
@@ -88,6 +123,58 @@ protected void removeTask(ScheduledTask task) {
         this.taskMap.remove(task.getUniqueId());
     }
 
+    /**
+     * Gets whether tasks were added since they were last moved into the due
+     * queues.
+     *
+     * @return Whether there are newly added tasks
+     */
+    protected boolean hasAddedTasks() {
+        return !this.addedTasks.isEmpty();
+    }
+
+    /**
+     * Moves the newly added tasks into the due queues. Must only be called
+     * from the ticking thread.
+     */
+    protected void queueAddedTasks() {
+        ScheduledTask task;
+        while ((task = this.addedTasks.poll()) != null) {
+            if (task.getState() != ScheduledTask.ScheduledTaskState.CANCELED) {
+                this.enqueue(task);
+            }
+        }
+        // Cancelled tasks stay queued until they are due, so get rid of them
+        // once they make up the majority of the queues
+        if (this.tickQueue.size() + this.timeQueue.size() > 2 * this.taskMap.size() + 64) {
+            this.tickQueue.removeIf(queued -> queued.getState() == ScheduledTask.ScheduledTaskState.CANCELED);
+            this.timeQueue.removeIf(queued -> queued.getState() == ScheduledTask.ScheduledTaskState.CANCELED);
+        }
+    }
+
+    private void enqueue(ScheduledTask task) {
+        task.dueTimestamp = task.nextExecutionTimestamp();
+        if (this.isTickBased(task)) {
+            this.tickQueue.add(task);
+        } else {
+            this.timeQueue.add(task);
+        }
+    }
+
+    /**
+     * Gets the earliest nanosecond timestamp at which a task that isn't tick
+     * based becomes due. Must only be called from the ticking thread.
+     *
+     * @return The timestamp, or {@link Long#MAX_VALUE} if there is none
+     */
+    protected long getNextDueTimestamp() {
+        ScheduledTask task;
+        while ((task = this.timeQueue.peek()) != null && task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+            this.timeQueue.poll();
+        }
+        return task == null ? Long.MAX_VALUE : task.dueTimestamp;
+    }
+
     protected Optional<Task> getTask(UUID id) {
         return Optional.<Task>ofNullable(this.taskMap.get(id));
     }
@@ -99,13 +186,15 @@ protected Set<Task> getScheduledTasks() {
     }
 
     /**
-     * Process all tasks in the map.
+     * Process all tasks which are due.
      */
     protected final void runTick() {
         this.preTick();
         TimingsManager.PLUGIN_SCHEDULER_HANDLER.startTimingIfSync();
         try {
-            this.taskMap.values().forEach(this::processTask);
+            this.queueAddedTasks();
+            this.processDueTasks(this.tickQueue, this.getTick());
+            this.processDueTasks(this.timeQueue, System.nanoTime());
             this.postTick();
         } finally {
             this.finallyPostTick();
@@ -132,41 +221,38 @@ protected void postTick() {
     protected void finallyPostTick() {
     }
 
+    private void processDueTasks(PriorityQueue<ScheduledTask> queue, long now) {
+        // Tasks which are re-queued while processing are always due after now,
+        // so they can't be polled again during this tick
+        ScheduledTask task;
+        while ((task = queue.peek()) != null && task.dueTimestamp <= now) {
+            queue.poll();
+            this.processTask(task);
+        }
+    }
+
     /**
-     * Processes the task.
+     * Processes the task, which is due.
      *
      * @param task The task to process
      */
     protected void processTask(ScheduledTask task) {
-        // If the task is now slated to be cancelled, we just remove it as if it
+        // If the task is now slated to be cancelled, we just drop it as if it
         // no longer exists.
         if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
-            this.removeTask(task);
             return;
         }
-        long threshold = Long.MAX_VALUE;
-        // Figure out if we start a delayed Task after threshold ticks or, start
-        // it after the interval (period) of the repeating task parameter.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            threshold = task.offset;
-        } else if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            threshold = task.period;
-        }
-        // This moment is 'now'
-        long now = this.getTimestamp(task);
-        // So, if the current time minus the timestamp of the task is greater
-        // than the delay to wait before starting the task, then start the task.
-        // Repeating tasks get a reset-timestamp each time they are set RUNNING
+        // Repeating tasks get a reset-timestamp each time they are started.
         // If the task has a period of 0 (zero) this task will not repeat, and
         // is removed after we start it.
-        if (threshold <= (now - task.getTimestamp())) {
-            task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
-            task.setTimestamp(this.getTimestamp(task));
-            startTask(task);
-            // If task is one time shot, remove it from the map.
-            if (task.period == 0L) {
-                this.removeTask(task);
-            }
+        task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
+        task.setTimestamp(this.getTimestamp(task));
+        startTask(task);
+        // If task is one time shot, remove it from the map.
+        if (task.period == 0L) {
+            this.removeTask(task);
+        } else if (task.getState() != ScheduledTask.ScheduledTaskState.CANCELED) {
+            this.enqueue(task);
         }
     }
 
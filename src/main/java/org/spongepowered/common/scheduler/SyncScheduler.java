@@ -45,21 +45,20 @@ void tick() {
     }
 
     @Override
-    protected long getTimestamp(ScheduledTask task) {
+    protected boolean isTickBased(ScheduledTask task) {
         if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
             // The timestamp is based on the initial offset
-            if (task.delayIsTicks) {
-                return this.counter;
-            }
-            return super.getTimestamp(task);
+            return task.delayIsTicks;
         } else if (task.getState().isActive) {
             // The timestamp is based on the period
-            if (task.intervalIsTicks) {
-                return this.counter;
-            }
-            return super.getTimestamp(task);
+            return task.intervalIsTicks;
         }
-        return 0L;
+        return false;
+    }
+
+    @Override
+    protected long getTick() {
+        return this.counter;
     }
 
     @Override
@@ -106,6 +106,18 @@ static User findByProfile(org.spongepowered.api.profile.GameProfile profile) {
     }
 
     static User findByUsername(String username) {
+        final UserIndex index = UserIndex.getInstance();
+        if (index.isLoaded()) {
+            // The index knows every name the profile and username caches do
+            final Optional<UUID> uniqueId = index.findByName(username);
+            if (!uniqueId.isPresent()) {
+                return null;
+            }
+            final GameProfile profile = new GameProfile(uniqueId.get(), index.getName(uniqueId.get()).orElse(username));
+            final User user = findByProfile((org.spongepowered.api.profile.GameProfile) profile);
+            return user != null ? user : create(profile);
+        }
+
         // check mojang cache
         PlayerProfileCache cache = SpongeImpl.getServer().getPlayerProfileCache();
         HashSet<String> names = Sets.newHashSet(cache.getUsernames());
@@ -125,6 +137,26 @@ static User findByUsername(String username) {
         return null;
     }
 
+    static Collection<org.spongepowered.api.profile.GameProfile> matchProfiles(String lastKnownName) {
+        final UserIndex index = UserIndex.getInstance();
+        if (!index.isLoaded()) {
+            final Collection<org.spongepowered.api.profile.GameProfile> matching = Sets.newHashSet();
+            for (org.spongepowered.api.profile.GameProfile profile : getAllProfiles()) {
+                if (profile.getName().isPresent() && profile.getName().get().toLowerCase(Locale.ROOT).startsWith(lastKnownName)) {
+                    matching.add(profile);
+                }
+            }
+            return matching;
+        }
+        final Set<org.spongepowered.api.profile.GameProfile> profiles = index.match(lastKnownName).collect(Collectors.toSet());
+        for (User user : userCache.asMap().values()) {
+            if (user.getName() != null && user.getName().toLowerCase(Locale.ROOT).startsWith(lastKnownName)) {
+                profiles.add(user.getProfile());
+            }
+        }
+        return profiles;
+    }
+
     static Collection<org.spongepowered.api.profile.GameProfile> getAllProfiles() {
         Preconditions.checkState(Sponge.isServerAvailable(), "Server is not available!");
         Set<org.spongepowered.api.profile.GameProfile> profiles = Sets.newHashSet();
@@ -132,6 +164,12 @@ static Collection<org.spongepowered.api.profile.GameProfile> getAllProfiles() {
         // Add all cached profiles
         profiles.addAll(userCache.asMap().values().stream().map(User::getProfile).collect(Collectors.toList()));
 
+        final UserIndex index = UserIndex.getInstance();
+        if (index.isLoaded()) {
+            index.stream().forEach(profiles::add);
+            return profiles;
+        }
+
         // Add all known profiles from the data files
         SaveHandler saveHandler = (SaveHandler) WorldManager.getWorldByDimensionId(0).get().getSaveHandler();
         String[] uuids = saveHandler.getAvailablePlayerDat();
@@ -179,6 +217,9 @@ static boolean delete(UUID uniqueId) {
         boolean success = deleteStoredPlayerData(uniqueId);
         success = success && deleteWhitelistEntry(uniqueId);
         success = success && deleteBanlistEntry(uniqueId);
+        if (success) {
+            UserIndex.getInstance().remove(uniqueId);
+        }
         return success;
     }
 
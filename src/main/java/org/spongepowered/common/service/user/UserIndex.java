@@ -0,0 +1,523 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.user;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.management.PlayerList;
+import net.minecraft.server.management.UserListEntry;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.storage.SaveHandler;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.profile.GameProfile;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.util.SpongeUsernameCache;
+import org.spongepowered.common.world.WorldManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * An index of every user known to the server: their unique id, their last
+ * known name, and whether they have a data file or are on the whitelist or
+ * banlist.
+ *
+ * <p>The index is kept up to date as players join, have their data saved,
+ * or are added to or removed from the user lists, and is persisted next to
+ * the other sponge world data. It is loaded in the background on startup and
+ * reconciled against the player data directory, so that files added or
+ * removed while the server was down are picked up. Until it is loaded,
+ * {@link UserDiscoverer} falls back to scanning the directory.</p>
+ */
+public final class UserIndex {
+
+    public static final int DATA_FILE = 1;
+    public static final int WHITELISTED = 2;
+    public static final int BANNED = 4;
+    public static final int PLAYED = 8;
+
+    private static final int LIST_FLAGS = WHITELISTED | BANNED;
+
+    private static final int MAGIC = 0x53554958; // SUIX
+    private static final int VERSION = 2;
+
+    private static final String INDEX_FILE = "users.idx";
+
+    private static final UserIndex instance = new UserIndex();
+
+    private volatile Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    // Keyed by the lower case name followed by the unique id, which keeps
+    // users sharing a stale name apart while sorting by name
+    private volatile ConcurrentNavigableMap<String, UUID> names = new ConcurrentSkipListMap<>();
+    // Held while changing the index, so that no change is lost when a loaded
+    // index is swapped in
+    private final Object lock = new Object();
+    // The last time a user was seen, kept increasing so that a user seen
+    // later always wins
+    private long lastSeenClock;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("Sponge - User Index Thread")
+            .setDaemon(true)
+            .build());
+
+    @Nullable private volatile Path file;
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    UserIndex() {
+    }
+
+    public static UserIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts loading the index of the current save in the background. The
+     * user lists are snapshot on the calling thread, as they are not safe to
+     * read from another one. The known names are taken once the username
+     * cache is loaded.
+     */
+    public static void init() {
+        if (!Sponge.isServerAvailable()) {
+            return;
+        }
+        final Optional<WorldServer> overworld = WorldManager.getWorldByDimensionId(0);
+        if (!overworld.isPresent()) {
+            return;
+        }
+        final Path indexFile = WorldManager.getCurrentSavesDirectory().get().resolve("data").resolve("sponge").resolve(INDEX_FILE);
+        final Path playerDir = ((SaveHandler) overworld.get().getSaveHandler()).playersDirectory.toPath();
+        final MinecraftServer server = SpongeImpl.getServer();
+        final PlayerList playerList = server.getPlayerList();
+        final Map<UUID, String> whitelisted = toNames(playerList.getWhitelistedPlayers().getValues().values());
+        final Map<UUID, String> banned = toNames(playerList.getBannedPlayers().getValues().values());
+
+        final UserIndex index = getInstance();
+        index.reset();
+        SpongeUsernameCache.whenLoaded()
+                .thenRunAsync(() -> index.load(indexFile, playerDir, whitelisted, banned, SpongeUsernameCache.getMap()), index.executor)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        SpongeImpl.getLogger().error("Could not load the user index, falling back to scanning player data", error);
+                    }
+                });
+    }
+
+    private static Map<UUID, String> toNames(Iterable<? extends UserListEntry<?>> userListEntries) {
+        final Map<UUID, String> names = new HashMap<>();
+        for (UserListEntry<?> entry : userListEntries) {
+            if (entry != null && entry.getValue() instanceof com.mojang.authlib.GameProfile) {
+                final com.mojang.authlib.GameProfile profile = (com.mojang.authlib.GameProfile) entry.getValue();
+                if (profile.getId() != null) {
+                    names.put(profile.getId(), profile.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Starts over with an empty index, in case another save was loaded
+     * before. Changes made from now on are kept by {@link #load}.
+     */
+    void reset() {
+        synchronized (this.lock) {
+            this.loaded = false;
+            this.entries = new ConcurrentHashMap<>();
+            this.names = new ConcurrentSkipListMap<>();
+        }
+    }
+
+    /**
+     * Loads the index from the given file, and reconciles it with the data
+     * files and user lists as they are now. The index is built aside and
+     * swapped in, changes made while loading are kept.
+     *
+     * @param indexFile The file the index is persisted to
+     * @param playerDir The player data directory
+     * @param whitelisted The whitelisted users
+     * @param banned The banned users
+     * @param knownNames Other known names, by unique id
+     */
+    void load(Path indexFile, @Nullable Path playerDir, Map<UUID, String> whitelisted, Map<UUID, String> banned,
+            Map<UUID, String> knownNames) {
+        this.file = indexFile;
+        final Map<UUID, Entry> stored = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            final int version;
+            if (in.readInt() != MAGIC || (version = in.readInt()) < 1 || version > VERSION) {
+                throw new IOException("Unknown user index format");
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                final UUID id = new UUID(in.readLong(), in.readLong());
+                final int flags = in.readUnsignedByte();
+                final String name = in.readBoolean() ? in.readUTF() : null;
+                // Version 1 didn't record when a user was last seen
+                final long lastSeen = version >= 2 ? in.readLong() : 0;
+                stored.put(id, new Entry(name, flags, lastSeen));
+            }
+        } catch (NoSuchFileException e) {
+            // First start, everything comes from the data files
+        } catch (IOException e) {
+            SpongeImpl.getLogger().warn("Could not read the user index {}, rebuilding it", indexFile, e);
+            stored.clear();
+        }
+
+        final Set<UUID> dataFiles = new HashSet<>();
+        if (playerDir != null && Files.isDirectory(playerDir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(playerDir, "*.dat")) {
+                for (Path path : stream) {
+                    final String fileName = path.getFileName().toString();
+                    try {
+                        dataFiles.add(UUID.fromString(fileName.substring(0, fileName.length() - 4)));
+                    } catch (IllegalArgumentException e) {
+                        // Not a player data file
+                    }
+                }
+            } catch (IOException e) {
+                SpongeImpl.getLogger().warn("Could not list the player data in {}", playerDir, e);
+            }
+        }
+
+        final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+        final ConcurrentNavigableMap<String, UUID> names = new ConcurrentSkipListMap<>();
+        long maxLastSeen = 0;
+        final Set<UUID> ids = new HashSet<>(stored.keySet());
+        ids.addAll(dataFiles);
+        ids.addAll(whitelisted.keySet());
+        ids.addAll(banned.keySet());
+        for (UUID id : ids) {
+            final Entry entry = stored.get(id);
+            int flags = entry == null ? 0 : entry.flags & PLAYED;
+            if (dataFiles.contains(id)) {
+                flags |= DATA_FILE;
+            }
+            if (whitelisted.containsKey(id)) {
+                flags |= WHITELISTED;
+            }
+            if (banned.containsKey(id)) {
+                flags |= BANNED;
+            }
+            String name = entry == null ? null : entry.name;
+            if (name == null) {
+                name = knownNames.get(id);
+            }
+            if (name == null) {
+                name = whitelisted.get(id);
+            }
+            if (name == null) {
+                name = banned.get(id);
+            }
+            final long lastSeen = entry == null ? 0 : entry.lastSeen;
+            maxLastSeen = Math.max(maxLastSeen, lastSeen);
+            put(entries, names, id, new Entry(name, flags, lastSeen));
+        }
+        for (Map.Entry<UUID, String> known : knownNames.entrySet()) {
+            if (!ids.contains(known.getKey())) {
+                put(entries, names, known.getKey(), new Entry(known.getValue(), 0, 0));
+            }
+        }
+
+        synchronized (this.lock) {
+            // Names and flags set while loading win over the loaded ones
+            for (Map.Entry<UUID, Entry> changed : this.entries.entrySet()) {
+                final Entry current = changed.getValue();
+                final Entry read = entries.get(changed.getKey());
+                if (read == null) {
+                    put(entries, names, changed.getKey(), current);
+                } else {
+                    final String name = current.name != null ? current.name : read.name;
+                    indexName(names, changed.getKey(), read.name, name);
+                    entries.put(changed.getKey(), new Entry(name, current.flags | read.flags, Math.max(current.lastSeen, read.lastSeen)));
+                }
+            }
+            this.entries = entries;
+            this.names = names;
+            this.lastSeenClock = Math.max(this.lastSeenClock, maxLastSeen);
+            this.loaded = true;
+            this.dirty = true;
+        }
+    }
+
+    private static void put(Map<UUID, Entry> entries, Map<String, UUID> names, UUID id, Entry entry) {
+        entries.put(id, entry);
+        indexName(names, id, null, entry.name);
+    }
+
+    private static void indexName(Map<String, UUID> names, UUID id, @Nullable String oldName, @Nullable String newName) {
+        if (oldName != null && !oldName.equals(newName)) {
+            names.remove(nameKey(oldName, id));
+        }
+        if (newName != null) {
+            names.put(nameKey(newName, id), id);
+        }
+    }
+
+    private static String nameKey(String name, UUID id) {
+        // A space sorts before any character a name may contain
+        return name.toLowerCase(Locale.ROOT) + ' ' + id;
+    }
+
+    public boolean isLoaded() {
+        return this.loaded;
+    }
+
+    /**
+     * Updates a user, creating it if it is not known yet.
+     *
+     * @param id The unique id of the user
+     * @param name The new name of the user, or null to keep the known name
+     * @param setFlags The flags to set
+     * @param clearFlags The flags to clear
+     */
+    public void update(UUID id, @Nullable String name, int setFlags, int clearFlags) {
+        checkNotNull(id, "id");
+        synchronized (this.lock) {
+            final Map<String, UUID> names = this.names;
+            this.entries.compute(id, (key, current) -> {
+                final String oldName = current == null ? null : current.name;
+                final String newName = name == null ? oldName : name;
+                final int flags = ((current == null ? 0 : current.flags) | setFlags) & ~clearFlags;
+                if (current == null && flags == 0 && newName == null) {
+                    return null;
+                }
+                // A given name is the current name of the user, which wins
+                // over older users who were last seen with it
+                final long lastSeen = name != null ? this.nextLastSeen() : current == null ? 0 : current.lastSeen;
+                if (name == null && current != null && current.flags == flags) {
+                    return current;
+                }
+                indexName(names, id, oldName, newName);
+                this.dirty = true;
+                return new Entry(newName, flags, lastSeen);
+            });
+        }
+    }
+
+    private long nextLastSeen() {
+        this.lastSeenClock = Math.max(System.currentTimeMillis(), this.lastSeenClock + 1);
+        return this.lastSeenClock;
+    }
+
+    public void setName(UUID id, @Nullable String name) {
+        if (name != null) {
+            this.update(id, name, 0, 0);
+        }
+    }
+
+    public void setFlag(UUID id, @Nullable String name, int flag, boolean value) {
+        this.update(id, name, value ? flag : 0, value ? 0 : flag);
+    }
+
+    public void remove(UUID id) {
+        synchronized (this.lock) {
+            final Entry entry = this.entries.remove(id);
+            if (entry != null) {
+                indexName(this.names, id, entry.name, null);
+                this.dirty = true;
+            }
+        }
+    }
+
+    public Optional<String> getName(UUID id) {
+        final Entry entry = this.entries.get(id);
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.name);
+    }
+
+    public int getFlags(UUID id) {
+        final Entry entry = this.entries.get(id);
+        return entry == null ? 0 : entry.flags;
+    }
+
+    /**
+     * Gets the user last known by the given name, ignoring case. If several
+     * users are known by the name, the one last seen with it wins.
+     *
+     * @param name The name
+     * @return The unique id of the user, if known
+     */
+    public Optional<UUID> findByName(String name) {
+        final String lowerName = checkNotNull(name, "name").toLowerCase(Locale.ROOT);
+        final Map<UUID, Entry> entries = this.entries;
+        UUID found = null;
+        long foundLastSeen = Long.MIN_VALUE;
+        // '!' is the character right after the separator
+        for (UUID id : this.names.subMap(lowerName + ' ', lowerName + '!').values()) {
+            final Entry entry = entries.get(id);
+            if (entry != null && entry.lastSeen > foundLastSeen) {
+                found = id;
+                foundLastSeen = entry.lastSeen;
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * Streams every user with any flag set, which are the users known to
+     * the server rather than only seen through a profile lookup. Users
+     * only known by a data file are left out until their name is known.
+     *
+     * @return The known users
+     */
+    public Stream<GameProfile> stream() {
+        return this.entries.entrySet().stream()
+                .filter(entry -> isListed(entry.getValue()))
+                .map(entry -> toProfile(entry.getKey(), entry.getValue().name));
+    }
+
+    /**
+     * Streams the known users whose name starts with the given prefix,
+     * ignoring case, in order of their name.
+     *
+     * @param prefix The name prefix
+     * @return The matching users
+     */
+    public Stream<GameProfile> match(String prefix) {
+        final String lowerPrefix = checkNotNull(prefix, "prefix").toLowerCase(Locale.ROOT);
+        final ConcurrentNavigableMap<String, UUID> names = this.names;
+        final Map<UUID, Entry> entries = this.entries;
+        final Map<String, UUID> range = lowerPrefix.isEmpty() ? names : names.subMap(lowerPrefix, lowerPrefix + Character.MAX_VALUE);
+        return range.entrySet().stream()
+                .map(entry -> {
+                    final Entry user = entries.get(entry.getValue());
+                    return user != null && isListed(user) && user.name != null ? toProfile(entry.getValue(), user.name) : null;
+                })
+                .filter(profile -> profile != null);
+    }
+
+    /**
+     * Gets a page of {@link #match(String)}. Pages are stable as long as no
+     * users are added or renamed in between.
+     *
+     * @param prefix The name prefix
+     * @param offset The number of users to skip
+     * @param limit The maximum number of users to return
+     * @return The page of matching users
+     */
+    public List<GameProfile> page(String prefix, int offset, int limit) {
+        checkArgument(offset >= 0, "offset must not be negative");
+        checkArgument(limit >= 0, "limit must not be negative");
+        return this.match(prefix).skip(offset).limit(limit).collect(Collectors.toList());
+    }
+
+    private static boolean isListed(Entry entry) {
+        return (entry.flags & LIST_FLAGS) != 0 || (entry.flags != 0 && entry.name != null);
+    }
+
+    private static GameProfile toProfile(UUID id, @Nullable String name) {
+        return (GameProfile) new com.mojang.authlib.GameProfile(id, name);
+    }
+
+    /**
+     * Writes the index in the background, if it changed.
+     */
+    public void saveAsync() {
+        if (this.loaded && this.dirty) {
+            this.executor.execute(this::save);
+        }
+    }
+
+    /**
+     * Writes the index, if it changed.
+     */
+    public void save() {
+        final Path file = this.file;
+        if (!this.loaded || !this.dirty || file == null) {
+            return;
+        }
+        synchronized (this) {
+            this.dirty = false;
+            final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(file.getParent());
+                final Map<UUID, Entry> snapshot = new HashMap<>(this.entries);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(snapshot.size());
+                    for (Map.Entry<UUID, Entry> entry : snapshot.entrySet()) {
+                        out.writeLong(entry.getKey().getMostSignificantBits());
+                        out.writeLong(entry.getKey().getLeastSignificantBits());
+                        out.writeByte(entry.getValue().flags);
+                        out.writeBoolean(entry.getValue().name != null);
+                        if (entry.getValue().name != null) {
+                            out.writeUTF(entry.getValue().name);
+                        }
+                        out.writeLong(entry.getValue().lastSeen);
+                    }
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                this.dirty = true;
+                SpongeImpl.getLogger().error("Could not save the user index to {}", file, e);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        @Nullable final String name;
+        final int flags;
+        // When the user was last seen with the name, 0 if unknown
+        final long lastSeen;
+
+        Entry(@Nullable String name, int flags, long lastSeen) {
+            this.name = name;
+            this.flags = flags;
+            this.lastSeen = lastSeen;
+        }
+
+    }
+
+}
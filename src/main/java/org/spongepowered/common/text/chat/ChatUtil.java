@@ -38,6 +38,7 @@
 import org.spongepowered.api.text.chat.ChatTypes;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.text.SpongeTexts;
+import org.spongepowered.common.world.ParallelWorldTicker;
 
 import java.util.Optional;
 
@@ -47,10 +48,17 @@ private ChatUtil() {
     }
 
     public static void sendMessage(ITextComponent component, MessageChannel channel, CommandSource source, boolean isChat) {
-        Text raw = SpongeTexts.toText(component);
-        MessageFormatter formatter = new MessageEvent.MessageFormatter(raw);
         final boolean isMainThread = Sponge.isServerAvailable() && Sponge.getServer().isMainThread();
         Cause cause = isMainThread ? Sponge.getCauseStackManager().getCurrentCause() : Cause.of(EventContext.empty(), source);
+        // Broadcasts from the threads ticking worlds in parallel are sent once all worlds have been ticked
+        if (!ParallelWorldTicker.defer(() -> sendMessage(component, channel, source, isChat, cause))) {
+            sendMessage(component, channel, source, isChat, cause);
+        }
+    }
+
+    private static void sendMessage(ITextComponent component, MessageChannel channel, CommandSource source, boolean isChat, Cause cause) {
+        Text raw = SpongeTexts.toText(component);
+        MessageFormatter formatter = new MessageEvent.MessageFormatter(raw);
         MessageChannelEvent event;
         if (isChat) {
             event = SpongeEventFactory.createMessageChannelEventChat(cause, channel, Optional.of(channel), formatter, raw, false);
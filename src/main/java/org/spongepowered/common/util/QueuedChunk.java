@@ -30,6 +30,7 @@
 public class QueuedChunk {
     public ChunkPos coords;
     public NBTTagCompound compound;
+    public int attempts;
 
     public QueuedChunk(ChunkPos coords, NBTTagCompound compound) {
         this.coords = coords;
@@ -26,26 +26,41 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.io.File;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.spongepowered.common.SpongeImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
-import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
-import org.spongepowered.common.SpongeImpl;
-import com.google.common.base.Charsets;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
-import com.google.common.io.Files;
-import com.google.common.reflect.TypeToken;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonSyntaxException;
-
 /**
  * Caches player's last known usernames
  * <p>
@@ -53,6 +68,13 @@
  * last known username.<br>
  * For convenience, {@link #getMap()} is provided to get an immutable copy of
  * the caches underlying map.
+ * <p>
+ * The cache is persisted as an append-only journal of binary records, which
+ * is compacted in the background once it holds mostly stale records. All
+ * disk access happens on a single background thread: changes are coalesced
+ * and appended on {@link #save()} or every few seconds, and {@link #load()}
+ * only schedules the journal to be read. Lookups never wait for the disk,
+ * so they may miss entries until loading has finished.
  * 
  * Note: This class represents Forge's UsernameCache. It is used merely used
  * to support both SpongeForge and SpongeVanilla. Original code can be found
@@ -62,15 +84,45 @@
  */
 public final class SpongeUsernameCache {
 
-    // Thread-safe map
-    private static Map<UUID, String> map = new ConcurrentHashMap<>();
+    private static final int MAGIC = 0x53554e43; // SUNC
+    private static final int VERSION = 1;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
 
-    private static final Charset charset = Charsets.UTF_8;
+    /**
+     * The journal is compacted once it holds this many times more records
+     * than there are entries.
+     */
+    private static final int COMPACTION_RATIO = 2;
+    private static final int MIN_COMPACTION_RECORDS = 4096;
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+
+    // Thread-safe maps
+    private static final Map<UUID, String> map = new ConcurrentHashMap<>();
+    private static final Map<String, UUID> uuidsByName = new ConcurrentHashMap<>();
+    // The latest change per user that is not journaled yet, absent meaning
+    // a removal. Repeated changes to a user only produce one record.
+    private static final Map<UUID, Optional<String>> pending = new ConcurrentHashMap<>();
+
+    private static final Path journalFile = Paths.get(".", "usernamecache.bin");
+    private static final Path legacyFile = Paths.get(".", "usernamecache.json");
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("Sponge - Username Cache Thread")
+            .setDaemon(true)
+            .build());
+
+    private static volatile boolean loaded = false;
+    private static volatile boolean loadScheduled = false;
+    private static final CompletableFuture<Void> loadFuture = new CompletableFuture<>();
 
-    private static final File saveFile = new File(".", "usernamecache.json");
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // Only accessed from the executor
+    @Nullable private static DataOutputStream journal;
+    private static int journalRecords;
+    private static boolean compactionFailed;
 
-    private static boolean loaded = false;
+    private SpongeUsernameCache() {
+    }
 
     /**
      * Set a player's current username
@@ -83,19 +135,25 @@ public final class SpongeUsernameCache {
     public static void setUsername(UUID uuid, String username) {
         checkNotNull(uuid);
         checkNotNull(username);
-        if (!loaded) {
-            load();
-        }
+        load();
 
-        if (username.equals(map.get(uuid))) {
+        final String previous = map.put(uuid, username);
+        if (username.equals(previous)) {
             return;
         }
-
-        map.put(uuid, username);
+        if (previous != null) {
+            uuidsByName.remove(previous.toLowerCase(Locale.ROOT), uuid);
+        }
+        uuidsByName.put(username.toLowerCase(Locale.ROOT), uuid);
+        pending.put(uuid, Optional.of(username));
     }
 
     /**
      * Remove a player's username from the cache
+     * <p>
+     * Before the cache is loaded, the removal is queued so that the entry
+     * isn't read back from the file, but only the entries set since are
+     * known to be removed.
      *
      * @param uuid
      *            the player's {@link java.util.UUID UUID}
@@ -103,13 +161,18 @@ public static void setUsername(UUID uuid, String username) {
      */
     public static boolean removeUsername(UUID uuid) {
         checkNotNull(uuid);
-        if (!loaded) {
-            load();
-        }
+        load();
 
-        if (map.remove(uuid) != null) {
+        final String previous = map.remove(uuid);
+        if (previous != null) {
+            uuidsByName.remove(previous.toLowerCase(Locale.ROOT), uuid);
+            pending.put(uuid, Optional.empty());
             return true;
         }
+        if (!loaded) {
+            // Users with pending changes are skipped when the file is read
+            pending.put(uuid, Optional.empty());
+        }
 
         return false;
     }
@@ -127,9 +190,7 @@ public static boolean removeUsername(UUID uuid) {
     @Nullable
     public static String getLastKnownUsername(UUID uuid) {
         checkNotNull(uuid);
-        if (!loaded) {
-            load();
-        }
+        load();
 
         return map.get(uuid);
     }
@@ -147,17 +208,9 @@ public static String getLastKnownUsername(UUID uuid) {
     @Nullable
     public static UUID getLastKnownUUID(String username) {
         checkNotNull(username);
-        if (!loaded) {
-            load();
-        }
-
-        for (Map.Entry<UUID, String> mapEntry : map.entrySet()) {
-            if (mapEntry.getValue().equalsIgnoreCase(username)) {
-                return mapEntry.getKey();
-            }
-        }
+        load();
 
-        return null;
+        return uuidsByName.get(username.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -169,9 +222,7 @@ public static UUID getLastKnownUUID(String username) {
      */
     public static boolean containsUUID(UUID uuid) {
         checkNotNull(uuid);
-        if (!loaded) {
-            load();
-        }
+        load();
 
         return map.containsKey(uuid);
     }
@@ -182,53 +233,217 @@ public static boolean containsUUID(UUID uuid) {
      * @return the map
      */
     public static Map<UUID, String> getMap() {
-        if (!loaded) {
-            load();
-        }
+        load();
 
         return ImmutableMap.copyOf(map);
     }
 
     /**
-     * Save the cache to file
+     * Gets whether the journal has been read, so that lookups see every
+     * persisted entry.
+     *
+     * @return If the cache is loaded
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Gets a future which completes once the journal has been read, or
+     * reading it failed.
+     *
+     * @return The future
+     */
+    public static CompletableFuture<Void> whenLoaded() {
+        load();
+        return loadFuture;
+    }
+
+    /**
+     * Schedule the pending changes to be appended to the journal
      */
     public static void save() {
-        if (!loaded) {
-            load();
-        }
+        load();
+        executor.execute(SpongeUsernameCache::flush);
+    }
 
+    /**
+     * Append the pending changes to the journal, waiting until they are
+     * written. Used on shutdown, as the background thread does not keep the
+     * server alive.
+     */
+    public static void saveAndWait() {
+        load();
         try {
-            // Make sure we don't save when another thread is still saving
-            Files.write(gson.toJson(map), saveFile, charset);
-        } catch (IOException e) {
-            SpongeImpl.getLogger().error("Failed to save username cache to file!", e);
+            executor.submit(SpongeUsernameCache::flush).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            SpongeImpl.getLogger().error("Failed to save username cache to file!", e.getCause());
         }
     }
 
     /**
-     * Load the cache from file
+     * Schedule the cache to be loaded from file, if it has not been yet.
+     * This does not wait for the file to be read.
      */
     public static void load() {
-        loaded = true;
-        if (!saveFile.exists()) return;
+        if (loadScheduled) {
+            return;
+        }
+        synchronized (SpongeUsernameCache.class) {
+            if (!loadScheduled) {
+                loadScheduled = true;
+                executor.execute(() -> {
+                    try {
+                        readJournal();
+                    } finally {
+                        loadFuture.complete(null);
+                    }
+                });
+                executor.scheduleWithFixedDelay(SpongeUsernameCache::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
 
+    private static void readJournal() {
+        final Map<UUID, String> stored = new HashMap<>();
+        boolean rewrite = false;
         try {
+            if (Files.exists(journalFile)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+                    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                        throw new IOException("Unknown username cache format");
+                    }
+                    while (true) {
+                        final byte type;
+                        try {
+                            type = in.readByte();
+                        } catch (EOFException e) {
+                            break;
+                        }
+                        final UUID uuid = new UUID(in.readLong(), in.readLong());
+                        if (type == RECORD_PUT) {
+                            stored.put(uuid, in.readUTF());
+                        } else if (type == RECORD_REMOVE) {
+                            stored.remove(uuid);
+                        } else {
+                            throw new IOException("Unknown username cache record " + type);
+                        }
+                        journalRecords++;
+                    }
+                } catch (EOFException e) {
+                    // The last record was cut off by a crash, rewrite the journal without it
+                    rewrite = true;
+                }
+            } else if (Files.exists(legacyFile)) {
+                rewrite = readLegacyFile(stored);
+            }
+        } catch (IOException e) {
+            SpongeImpl.getLogger().error("Failed to read username cache file from disk, starting a new one", e);
+            stored.clear();
+            rewrite = true;
+        }
 
-            String json = Files.toString(saveFile, charset);
-            Type type = new TypeToken<Map<UUID, String>>() { private static final long serialVersionUID = 1L; }.getType();
+        // Changes made while loading are newer than the stored ones
+        for (Map.Entry<UUID, String> entry : stored.entrySet()) {
+            if (!pending.containsKey(entry.getKey()) && map.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                uuidsByName.putIfAbsent(entry.getValue().toLowerCase(Locale.ROOT), entry.getKey());
+            }
+        }
+        loaded = true;
+        if (rewrite || !Files.exists(journalFile)) {
+            compact();
+        }
+    }
 
-            map = gson.fromJson(json, type);
-        } catch (JsonSyntaxException e) {
-            SpongeImpl.getLogger().error("Could not parse username cache file as valid json, deleting file", e);
-            saveFile.delete();
+    private static boolean readLegacyFile(Map<UUID, String> stored) throws IOException {
+        final Type type = new TypeToken<Map<UUID, String>>() { private static final long serialVersionUID = 1L; }.getType();
+        try (Reader reader = Files.newBufferedReader(legacyFile, Charsets.UTF_8)) {
+            final Map<UUID, String> legacy = new Gson().fromJson(reader, type);
+            if (legacy != null) {
+                stored.putAll(legacy);
+            }
+            return true;
+        } catch (JsonParseException e) {
+            SpongeImpl.getLogger().error("Could not parse username cache file as valid json, ignoring it", e);
+            return false;
+        }
+    }
+
+    private static void flush() {
+        if (!loaded || (pending.isEmpty() && !compactionFailed)) {
+            return;
+        }
+        if (compactionFailed || journalRecords + pending.size() > Math.max(MIN_COMPACTION_RECORDS, map.size() * COMPACTION_RATIO)) {
+            compact();
+            return;
+        }
+        try {
+            if (journal == null) {
+                journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND)));
+            }
+            for (UUID uuid : pending.keySet()) {
+                final Optional<String> username = pending.remove(uuid);
+                if (username != null) {
+                    writeRecord(journal, uuid, username.orElse(null));
+                    journalRecords++;
+                }
+            }
+            journal.flush();
+        } catch (IOException e) {
+            SpongeImpl.getLogger().error("Failed to save username cache to file!", e);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Rewrites the journal with one record per entry, replacing the old one
+     * atomically.
+     */
+    private static void compact() {
+        closeJournal();
+        final Path tempFile = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        // Whatever is pending is part of the snapshot written below
+        pending.clear();
+        final Map<UUID, String> snapshot = ImmutableMap.copyOf(map);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (Map.Entry<UUID, String> entry : snapshot.entrySet()) {
+                    writeRecord(out, entry.getKey(), entry.getValue());
+                }
+            }
+            Files.move(tempFile, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalRecords = snapshot.size();
+            compactionFailed = false;
         } catch (IOException e) {
-            SpongeImpl.getLogger().error("Failed to read username cache file from disk, deleting file", e);
-            saveFile.delete();
-        } finally {
-            // Can sometimes occur when the json file is malformed
-            if (map == null) {
-                map = Maps.newHashMap();
+            // The changes cleared above are only in memory now, retry on the next flush
+            compactionFailed = true;
+            SpongeImpl.getLogger().error("Failed to compact username cache file!", e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, UUID uuid, @Nullable String username) throws IOException {
+        out.writeByte(username == null ? RECORD_REMOVE : RECORD_PUT);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        if (username != null) {
+            out.writeUTF(username);
+        }
+    }
+
+    private static void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                SpongeImpl.getLogger().warn("Failed to close username cache file", e);
             }
+            journal = null;
         }
     }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.PriorityQueue;
+
+import javax.annotation.Nullable;
+
+/**
+ * The chunks of a world that are queued for unload, ordered by the time they
+ * are due to unload so that a tick only visits the chunks it may unload.
+ * Each chunk position is queued at most once, entries may be stale and are
+ * checked against the chunk when they are {@link #poll polled}.
+ *
+ * <p>Not thread safe, the queue is only used from the main thread.</p>
+ */
+public final class ChunkUnloadQueue {
+
+    // Weight of the latest unload in the mean latency
+    private static final double LATENCY_WEIGHT = 0.05;
+
+    public static final class Entry implements Comparable<Entry> {
+
+        public final long chunkKey;
+        public final long queueTime;
+        final long dueTime;
+        final long sequence;
+
+        Entry(long chunkKey, long queueTime, long dueTime, long sequence) {
+            this.chunkKey = chunkKey;
+            this.queueTime = queueTime;
+            this.dueTime = dueTime;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            final int compare = Long.compare(this.dueTime, other.dueTime);
+            return compare != 0 ? compare : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>();
+    private final LongSet queued = new LongOpenHashSet();
+    private long sequence;
+    private long unloadCount;
+    private double meanLatency;
+
+    /**
+     * Queues a chunk, unless it is already queued.
+     *
+     * @param chunkKey The chunk position, as packed by {@code ChunkPos#asLong}
+     * @param now The current time in milliseconds
+     * @param dueTime The time in milliseconds at which the chunk may unload
+     * @return False if the chunk was already queued
+     */
+    public boolean add(long chunkKey, long now, long dueTime) {
+        if (!this.queued.add(chunkKey)) {
+            return false;
+        }
+        this.entries.add(new Entry(chunkKey, now, dueTime, this.sequence++));
+        return true;
+    }
+
+    /**
+     * Removes the chunk that is due to unload first, if it is due.
+     *
+     * @param now The current time in milliseconds
+     * @return The entry of the chunk, or null if no chunk is due
+     */
+    @Nullable
+    public Entry poll(long now) {
+        final Entry entry = this.entries.peek();
+        if (entry == null || entry.dueTime > now) {
+            return null;
+        }
+        this.entries.poll();
+        this.queued.remove(entry.chunkKey);
+        return entry;
+    }
+
+    /**
+     * Queues a polled chunk again, for chunks that are not due anymore.
+     *
+     * @param entry The polled entry
+     * @param dueTime The new time in milliseconds at which the chunk may unload
+     */
+    public void reschedule(Entry entry, long dueTime) {
+        if (this.queued.add(entry.chunkKey)) {
+            this.entries.add(new Entry(entry.chunkKey, entry.queueTime, dueTime, this.sequence++));
+        }
+    }
+
+    /**
+     * Records that a polled chunk was unloaded.
+     *
+     * @param entry The polled entry
+     * @param now The current time in milliseconds
+     */
+    public void onUnloaded(Entry entry, long now) {
+        final long latency = now - Math.max(entry.queueTime, entry.dueTime);
+        this.meanLatency = this.unloadCount++ == 0 ? latency : this.meanLatency + (latency - this.meanLatency) * LATENCY_WEIGHT;
+    }
+
+    public boolean contains(long chunkKey) {
+        return this.queued.contains(chunkKey);
+    }
+
+    /**
+     * Gets the amount of queued chunks, including those that were marked
+     * active again since they were queued.
+     *
+     * @return The queue depth
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getUnloadCount() {
+        return this.unloadCount;
+    }
+
+    /**
+     * Gets the mean time in milliseconds between chunks being due to unload
+     * and being unloaded, weighted towards the latest unloads.
+     *
+     * @return The mean unload latency
+     */
+    public double getMeanLatency() {
+        return this.meanLatency;
+    }
+
+    public void clear() {
+        this.entries.clear();
+        this.queued.clear();
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free queue of the positions within a single chunk that are waiting
+ * for a light update, used by the async lighting optimization. Any thread
+ * may {@link #offer} updates while a single light thread at a time, the one
+ * that won {@link #tryStartDrain()}, {@link #poll polls} them.
+ *
+ * <p>Updates are packed into an {@code int} together with their light type,
+ * see {@link #pack}, and a position is only queued once per light type until
+ * it has been {@link #unmark unmarked} again by the consumer.</p>
+ */
+public final class LightUpdateQueue {
+
+    public static final int EMPTY = -1;
+
+    // Must be a power of two
+    private static final int CAPACITY = 1 << 11;
+    private static final int MASK = CAPACITY - 1;
+
+    // The queued positions are tracked per light type and z slice of the chunk
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_COUNT = 1 << (17 - PAGE_BITS);
+
+    private final AtomicIntegerArray slots = new AtomicIntegerArray(CAPACITY); // packed update + 1, 0 if free
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final AtomicReferenceArray<AtomicLongArray> queued = new AtomicReferenceArray<>(PAGE_COUNT);
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public static int pack(EnumSkyBlock lightType, BlockPos pos) {
+        return lightType.ordinal() << 16 | (pos.getZ() & 15) << 12 | (pos.getY() & 255) << 4 | pos.getX() & 15;
+    }
+
+    public static EnumSkyBlock unpackLightType(int packed) {
+        return packed >>> 16 == 0 ? EnumSkyBlock.SKY : EnumSkyBlock.BLOCK;
+    }
+
+    public static BlockPos unpackPos(Chunk chunk, int packed) {
+        return new BlockPos(chunk.x << 4 | packed & 15, packed >>> 4 & 255, chunk.z << 4 | packed >>> 12 & 15);
+    }
+
+    /**
+     * Marks the packed update as queued.
+     *
+     * @param packed The packed update
+     * @return False if the update was already marked
+     */
+    public boolean mark(int packed) {
+        final AtomicLongArray page = this.getPage(packed >>> PAGE_BITS);
+        final int index = (packed >>> 6) & ((1 << (PAGE_BITS - 6)) - 1);
+        final long bit = 1L << (packed & 63);
+        long word;
+        do {
+            word = page.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!page.compareAndSet(index, word, word | bit));
+        return true;
+    }
+
+    public void unmark(int packed) {
+        final AtomicLongArray page = this.getPage(packed >>> PAGE_BITS);
+        final int index = (packed >>> 6) & ((1 << (PAGE_BITS - 6)) - 1);
+        final long bit = 1L << (packed & 63);
+        long word;
+        do {
+            word = page.get(index);
+        } while ((word & bit) != 0 && !page.compareAndSet(index, word, word & ~bit));
+    }
+
+    private AtomicLongArray getPage(int pageIndex) {
+        AtomicLongArray page = this.queued.get(pageIndex);
+        if (page == null) {
+            final AtomicLongArray created = new AtomicLongArray(1 << (PAGE_BITS - 6));
+            page = this.queued.compareAndSet(pageIndex, null, created) ? created : this.queued.get(pageIndex);
+        }
+        return page;
+    }
+
+    /**
+     * Adds the packed update to the end of this queue.
+     *
+     * @param packed The packed update
+     * @return False if the queue is full
+     */
+    public boolean offer(int packed) {
+        long tail;
+        do {
+            tail = this.tail.get();
+            if (tail - this.head >= CAPACITY) {
+                return false;
+            }
+        } while (!this.tail.compareAndSet(tail, tail + 1));
+        this.slots.lazySet((int) tail & MASK, packed + 1);
+        return true;
+    }
+
+    /**
+     * Takes the next packed update from this queue. May only be called by
+     * the thread that is currently draining this queue.
+     *
+     * @return The packed update, or {@link #EMPTY} if there is none available
+     */
+    public int poll() {
+        final long head = this.head;
+        final int index = (int) head & MASK;
+        final int value = this.slots.get(index);
+        if (value == 0) {
+            return EMPTY;
+        }
+        this.slots.lazySet(index, 0);
+        this.head = head + 1;
+        return value - 1;
+    }
+
+    public boolean isEmpty() {
+        return this.tail.get() == this.head;
+    }
+
+    /**
+     * Attempts to become the consumer of this queue.
+     *
+     * @return True if the caller is now responsible for draining this queue
+     */
+    public boolean tryStartDrain() {
+        return !this.draining.get() && this.draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Gives up draining this queue. Updates may have been offered after the
+     * last {@link #poll()}, so callers need to check {@link #isEmpty()} and
+     * {@link #tryStartDrain()} again afterwards.
+     */
+    public void finishDrain() {
+        this.draining.set(false);
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.minecraft.crash.CrashReport;
+import net.minecraft.util.ReportedException;
+import net.minecraft.world.WorldServer;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.ParallelWorldTickingCategory;
+import org.spongepowered.common.interfaces.world.IMixinWorldServer;
+import org.spongepowered.common.world.gen.SpongeChunkGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Ticks the worlds of a server tick in parallel on a pool of
+ * {@link WorldTickThread}s, when enabled in the
+ * {@link ParallelWorldTickingCategory}.
+ *
+ * <p>Each world is ticked, has its entities updated and its entity tracker
+ * ticked on one thread, which owns the world until it is done. The server
+ * thread waits for all worlds with {@link #await()} before the network tick.
+ * Operations that reach into other worlds or into state shared by all of
+ * them, such as teleports between worlds, world loads and unloads and chat
+ * broadcasts, are {@link #defer deferred} to the server thread and run once
+ * every world has been ticked. The chunk unloads of the ticked worlds run on
+ * the server thread after them.</p>
+ */
+public final class ParallelWorldTicker {
+
+    private static final AtomicInteger threadId = new AtomicInteger();
+    private static final List<WorldTick> ticks = new ArrayList<>();
+    private static final Queue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+    @Nullable private static ThreadPoolExecutor executor;
+    private static boolean parallel;
+
+    private ParallelWorldTicker() {
+    }
+
+    /**
+     * Decides whether the worlds are ticked in parallel in the current server
+     * tick. Called by the server thread before any world is ticked.
+     */
+    public static void startTick() {
+        final ParallelWorldTickingCategory config = SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getParallelWorldTickingCategory();
+        parallel = config.isEnabled();
+        if (!parallel) {
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+            return;
+        }
+        final int numThreads = config.getNumThreads() > 0 ? config.getNumThreads() : Runtime.getRuntime().availableProcessors();
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    task -> new WorldTickThread(task, "Sponge - World Tick Thread #" + threadId.getAndIncrement()));
+        } else if (numThreads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(numThreads);
+            executor.setCorePoolSize(numThreads);
+        } else if (numThreads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(numThreads);
+            executor.setMaximumPoolSize(numThreads);
+        }
+    }
+
+    /**
+     * Gets whether the worlds are ticked in parallel in the current server
+     * tick.
+     *
+     * @return True if the worlds are ticked in parallel
+     */
+    public static boolean isTickingInParallel() {
+        return parallel;
+    }
+
+    /**
+     * Submits a world to be ticked, which includes updating its entities and
+     * ticking its entity tracker.
+     *
+     * @param world The world
+     */
+    public static void submit(WorldServer world) {
+        final WorldTick tick = new WorldTick(world);
+        tick.future = executor.submit(tick);
+        ticks.add(tick);
+    }
+
+    /**
+     * Waits for all worlds submitted in the current server tick, then runs
+     * the deferred operations and the chunk unloads of the ticked worlds.
+     *
+     * @throws ReportedException If ticking a world failed
+     */
+    public static void await() {
+        if (ticks.isEmpty()) {
+            return;
+        }
+        try {
+            WorldTick failed = null;
+            for (WorldTick tick : ticks) {
+                try {
+                    Uninterruptibles.getUninterruptibly(tick.future);
+                } catch (ExecutionException e) {
+                    tick.failure = e.getCause();
+                }
+                if (tick.failure != null && failed == null) {
+                    failed = tick;
+                }
+                ((IMixinWorldServer) tick.world).getTimingsHandler().recordParallelTick(tick.tickTime, tick.entitiesTime, tick.trackerTime);
+            }
+            if (failed != null) {
+                if (failed.failure instanceof ReportedException) {
+                    throw (ReportedException) failed.failure;
+                }
+                final CrashReport report = CrashReport.makeCrashReport(failed.failure, "Exception ticking world");
+                failed.world.addWorldInfoToCrashReport(report);
+                throw new ReportedException(report);
+            }
+            runDeferred();
+            for (WorldTick tick : ticks) {
+                // Chunk unloads save chunks, which is confined to the server thread
+                tick.world.getChunkProvider().tick();
+            }
+        } finally {
+            ticks.clear();
+            deferred.clear();
+        }
+    }
+
+    /**
+     * Defers an operation to the server thread until all worlds have been
+     * ticked, if the current thread is ticking a world.
+     *
+     * @param operation The operation
+     * @return True if the operation was deferred, false if the caller has to
+     *     run it itself
+     */
+    public static boolean defer(Runnable operation) {
+        if (!(Thread.currentThread() instanceof WorldTickThread)) {
+            return false;
+        }
+        deferred.add(operation);
+        return true;
+    }
+
+    /**
+     * Gets whether the current thread is a thread ticking worlds in parallel.
+     *
+     * @return True if the current thread is a world tick thread
+     */
+    public static boolean isWorldThread() {
+        return Thread.currentThread() instanceof WorldTickThread;
+    }
+
+    /**
+     * Gets whether the current thread owns the given world. That is the
+     * thread ticking the world while the worlds are ticked in parallel, and
+     * the server thread otherwise.
+     *
+     * @param world The world
+     * @return True if the current thread owns the world
+     */
+    public static boolean isOwningThread(net.minecraft.world.World world) {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof WorldTickThread) {
+            return ((WorldTickThread) thread).world == world;
+        }
+        return SpongeImpl.getServer().isCallingFromMinecraftThread();
+    }
+
+    private static void runDeferred() {
+        Runnable operation;
+        while ((operation = deferred.poll()) != null) {
+            try {
+                operation.run();
+            } catch (Exception e) {
+                SpongeImpl.getLogger().error("Could not run an operation deferred by a world tick", e);
+            }
+        }
+    }
+
+    private static final class WorldTick implements Runnable {
+
+        final WorldServer world;
+        Future<?> future;
+        @Nullable Throwable failure;
+        long tickTime;
+        long entitiesTime;
+        long trackerTime;
+
+        WorldTick(WorldServer world) {
+            this.world = world;
+        }
+
+        @Override
+        public void run() {
+            final WorldTickThread thread = (WorldTickThread) Thread.currentThread();
+            thread.world = this.world;
+            try {
+                final long start = System.nanoTime();
+                this.world.tick();
+                final long ticked = System.nanoTime();
+                this.world.updateEntities();
+                final long updated = System.nanoTime();
+                this.world.getEntityTracker().tick();
+                this.trackerTime = System.nanoTime() - updated;
+                this.entitiesTime = updated - ticked;
+                this.tickTime = ticked - start;
+                if (this.world.getChunkProvider().chunkGenerator instanceof SpongeChunkGenerator) {
+                    ((SpongeChunkGenerator) this.world.getChunkProvider().chunkGenerator).tickTerrainPrediction();
+                }
+            } catch (Throwable t) {
+                this.failure = t;
+            } finally {
+                thread.world = null;
+            }
+        }
+    }
+
+}
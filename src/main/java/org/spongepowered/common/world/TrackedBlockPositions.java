@@ -0,0 +1,228 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+
+/**
+ * The creator and notifier indices of the tracked block positions within a
+ * single chunk, stored in an open addressing hash table of primitive arrays.
+ *
+ * <p>Positions are packed into an {@code int}, see {@link #pack}, and both
+ * indices are stored inline in a single {@code long}. A position with neither
+ * a creator nor a notifier is the same as an untracked position, so setting
+ * both indices to {@code -1} removes it.</p>
+ */
+public final class TrackedBlockPositions {
+
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long FREE = -1L; // No creator and no notifier
+
+    private int[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int maxFill;
+
+    public TrackedBlockPositions() {
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    public static int pack(BlockPos pos) {
+        return pack(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public static int pack(int x, int y, int z) {
+        return (z & 0xF) << 28 | (y & 0xFFFFFF) << 4 | x & 0xF;
+    }
+
+    /**
+     * Converts a position from the packed {@code short} form that was used
+     * for positions below y 256 in older chunk data.
+     *
+     * @param legacyPos The packed short position
+     * @return The packed position
+     */
+    public static int fromLegacyShort(short legacyPos) {
+        return pack(legacyPos & 0xF, legacyPos >> 4 & 0xFF, legacyPos >> 12 & 0xF);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new long[capacity];
+        Arrays.fill(this.values, FREE);
+        this.mask = capacity - 1;
+        this.maxFill = capacity - (capacity >>> 2);
+    }
+
+    private int find(int pos) {
+        int slot = HashCommon.mix(pos) & this.mask;
+        while (this.values[slot] != FREE) {
+            if (this.keys[slot] == pos) {
+                return slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1 - slot;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(int pos) {
+        return this.find(pos) >= 0;
+    }
+
+    public int getCreator(int pos) {
+        final int slot = this.find(pos);
+        return slot < 0 ? NONE : (int) (this.values[slot] >>> 32);
+    }
+
+    public int getNotifier(int pos) {
+        final int slot = this.find(pos);
+        return slot < 0 ? NONE : (int) this.values[slot];
+    }
+
+    public void setCreator(int pos, int creator) {
+        this.put(pos, creator, this.getNotifier(pos));
+    }
+
+    public void setNotifier(int pos, int notifier) {
+        this.put(pos, this.getCreator(pos), notifier);
+    }
+
+    public void put(int pos, int creator, int notifier) {
+        final long value = (long) creator << 32 | notifier & 0xFFFFFFFFL;
+        if (value == FREE) {
+            this.remove(pos);
+            return;
+        }
+        final int slot = this.find(pos);
+        if (slot >= 0) {
+            this.values[slot] = value;
+            return;
+        }
+        this.keys[-1 - slot] = pos;
+        this.values[-1 - slot] = value;
+        if (++this.size > this.maxFill) {
+            this.rehash(this.keys.length << 1);
+        }
+    }
+
+    public boolean remove(int pos) {
+        int slot = this.find(pos);
+        if (slot < 0) {
+            return false;
+        }
+        this.size--;
+        // Shift the following entries of the cluster back, so lookups don't
+        // stop early at the freed slot
+        int next = slot;
+        while (true) {
+            next = (next + 1) & this.mask;
+            if (this.values[next] == FREE) {
+                break;
+            }
+            final int home = HashCommon.mix(this.keys[next]) & this.mask;
+            if (slot <= next ? slot >= home || home > next : slot >= home && home > next) {
+                this.keys[slot] = this.keys[next];
+                this.values[slot] = this.values[next];
+                slot = next;
+            }
+        }
+        this.values[slot] = FREE;
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        final int[] oldKeys = this.keys;
+        final long[] oldValues = this.values;
+        this.allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != FREE) {
+                int slot = HashCommon.mix(oldKeys[i]) & this.mask;
+                while (this.values[slot] != FREE) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Writes all tracked positions into a flat array of position, creator
+     * and notifier triples, which is how they're stored in the chunk data.
+     *
+     * @return The serialized positions
+     */
+    public int[] serialize() {
+        final int[] data = new int[this.size * 3];
+        int index = 0;
+        for (int i = 0; i < this.keys.length; i++) {
+            final long value = this.values[i];
+            if (value != FREE) {
+                data[index++] = this.keys[i];
+                data[index++] = (int) (value >>> 32);
+                data[index++] = (int) value;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Reads the tracked positions from the form written by
+     * {@link #serialize()}.
+     *
+     * @param data The serialized positions
+     * @return The tracked positions
+     */
+    public static TrackedBlockPositions deserialize(int[] data) {
+        final TrackedBlockPositions positions = new TrackedBlockPositions();
+        final int count = data.length / 3;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity - (capacity >>> 2) < count) {
+            capacity <<= 1;
+        }
+        if (capacity != INITIAL_CAPACITY) {
+            positions.allocate(capacity);
+        }
+        for (int i = 0; i < count * 3; i += 3) {
+            positions.put(data[i], data[i + 1], data[i + 2]);
+        }
+        return positions;
+    }
+
+}
@@ -470,6 +470,11 @@ public static void queueWorldToUnload(WorldServer worldServer) {
     public static boolean unloadWorld(WorldServer worldServer, boolean checkConfig) {
         checkNotNull(worldServer);
 
+        // The worlds can't change while they are ticked in parallel, unload once all of them have been ticked
+        if (ParallelWorldTicker.defer(() -> unloadWorld(worldServer, checkConfig))) {
+            return true;
+        }
+
         final MinecraftServer server = SpongeImpl.getServer();
 
         // Likely leaked, don't want to drop leaked world data
@@ -571,6 +576,9 @@ private static Optional<WorldServer> loadWorld(String worldName, @Nullable ISave
             return optExistingWorldServer;
         }
 
+        checkState(!ParallelWorldTicker.isWorldThread(), "Attempt made to load world [%s] while the worlds are ticked in parallel! Schedule "
+                + "a task to load it instead.", worldName);
+
         if (!server.getAllowNether()) {
             SpongeImpl.getLogger().error("Unable to load world [{}]. Multi-world is disabled via [allow-nether] in [server.properties].", worldName);
             return Optional.empty();
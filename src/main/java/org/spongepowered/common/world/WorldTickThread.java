@@ -0,0 +1,67 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import net.minecraft.world.WorldServer;
+import org.spongepowered.common.event.SpongeCauseStackManager;
+import org.spongepowered.common.event.tracking.PhaseTracker;
+
+import javax.annotation.Nullable;
+
+/**
+ * A thread of the {@link ParallelWorldTicker}. Each thread has its own
+ * {@link PhaseTracker} and cause stack, which {@link PhaseTracker#getInstance()}
+ * and the {@link SpongeCauseStackManager} hand out to the code running on it.
+ */
+public final class WorldTickThread extends Thread {
+
+    private final PhaseTracker phaseTracker = new PhaseTracker();
+    private final SpongeCauseStackManager causeStackManager = SpongeCauseStackManager.createThreadStack();
+    @Nullable WorldServer world;
+
+    WorldTickThread(Runnable target, String name) {
+        super(target, name);
+        setDaemon(true);
+    }
+
+    public PhaseTracker getPhaseTracker() {
+        return this.phaseTracker;
+    }
+
+    public SpongeCauseStackManager getCauseStackManager() {
+        return this.causeStackManager;
+    }
+
+    /**
+     * Gets the world this thread is currently ticking.
+     *
+     * @return The world, or null if the thread is idle
+     */
+    @Nullable
+    public WorldServer getWorld() {
+        return this.world;
+    }
+
+}
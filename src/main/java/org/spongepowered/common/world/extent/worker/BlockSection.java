@@ -0,0 +1,170 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.world.WorldServer;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.extent.BlockVolume;
+import org.spongepowered.api.world.extent.ImmutableBlockVolume;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+import org.spongepowered.api.world.extent.UnmodifiableBlockVolume;
+import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
+import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeReducer;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.event.tracking.phase.plugin.BasicPluginContext;
+import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * A box of blocks within a single chunk section, used to evaluate the work
+ * of a block volume worker in parallel. Each section holds the blocks
+ * produced for it, which are written to the destination afterwards on the
+ * calling thread.
+ */
+final class BlockSection {
+
+    /**
+     * Volumes smaller than a chunk section are not worth splitting.
+     */
+    private static final int MIN_PARALLEL_VOLUME = 16 * 16 * 16;
+
+    final int minX;
+    final int minY;
+    final int minZ;
+    final int sizeX;
+    final int sizeY;
+    final int sizeZ;
+    @Nullable private BlockState[] blocks;
+
+    private BlockSection(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = maxX - minX + 1;
+        this.sizeY = maxY - minY + 1;
+        this.sizeZ = maxZ - minZ + 1;
+    }
+
+    static boolean shouldSplit(Vector3i size) {
+        return (long) size.getX() * size.getY() * size.getZ() >= MIN_PARALLEL_VOLUME
+                && SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useParallelBlockWorkers();
+    }
+
+    /**
+     * Gets a volume that can be read from any thread: the volume itself if
+     * it is immutable, otherwise a copy taken on the calling thread.
+     *
+     * @param volume The volume
+     * @return The snapshot
+     */
+    static UnmodifiableBlockVolume snapshot(BlockVolume volume) {
+        return volume instanceof ImmutableBlockVolume ? (ImmutableBlockVolume) volume : volume.getImmutableBlockCopy();
+    }
+
+    /**
+     * Splits a box into boxes which each lie within one chunk section.
+     *
+     * @param min The minimum corner of the box
+     * @param max The maximum corner of the box
+     * @return The sections, in chunk order
+     */
+    static List<BlockSection> split(Vector3i min, Vector3i max) {
+        final List<BlockSection> sections = new ArrayList<>();
+        for (int x = min.getX(); x <= max.getX(); x = (x & ~15) + 16) {
+            for (int z = min.getZ(); z <= max.getZ(); z = (z & ~15) + 16) {
+                for (int y = min.getY(); y <= max.getY(); y = (y & ~15) + 16) {
+                    sections.add(new BlockSection(x, y, z,
+                            Math.min(max.getX(), x | 15), Math.min(max.getY(), y | 15), Math.min(max.getZ(), z | 15)));
+                }
+            }
+        }
+        return sections;
+    }
+
+    void fill(BlockVolumeFiller filler) {
+        this.blocks = new BlockState[this.sizeX * this.sizeY * this.sizeZ];
+        int index = 0;
+        for (int y = 0; y < this.sizeY; y++) {
+            for (int z = 0; z < this.sizeZ; z++) {
+                for (int x = 0; x < this.sizeX; x++) {
+                    this.blocks[index++] = checkNotNull(filler.produce(this.minX + x, this.minY + y, this.minZ + z), "block");
+                }
+            }
+        }
+    }
+
+    <T> T reduce(UnmodifiableBlockVolume volume, BlockVolumeReducer<T> reducer, T identity) {
+        T reduction = identity;
+        for (int y = this.minY; y < this.minY + this.sizeY; y++) {
+            for (int z = this.minZ; z < this.minZ + this.sizeZ; z++) {
+                for (int x = this.minX; x < this.minX + this.sizeX; x++) {
+                    reduction = reducer.reduce(volume, x, y, z, reduction);
+                }
+            }
+        }
+        return reduction;
+    }
+
+    BlockState get(int x, int y, int z) {
+        return this.blocks[((y - this.minY) * this.sizeZ + (z - this.minZ)) * this.sizeX + (x - this.minX)];
+    }
+
+    /**
+     * Writes the blocks of the given sections to the destination. Worlds are
+     * written one chunk at a time, any other volume block by block.
+     *
+     * @param sections The sections to write
+     * @param destination The destination, in the coordinates of the sections
+     * @param source The worker performing the write
+     */
+    static void write(List<BlockSection> sections, MutableBlockVolume destination, Object source) {
+        if (destination instanceof WorldServer) {
+            WorldSectionWriter.write((WorldServer) destination, sections);
+            return;
+        }
+        try (BasicPluginContext context = PluginPhase.State.BLOCK_WORKER.createPhaseContext()
+            .source(source)
+            .buildAndSwitch()) {
+            for (BlockSection section : sections) {
+                int index = 0;
+                for (int y = 0; y < section.sizeY; y++) {
+                    for (int z = 0; z < section.sizeZ; z++) {
+                        for (int x = 0; x < section.sizeX; x++) {
+                            destination.setBlock(section.minX + x, section.minY + y, section.minZ + z, section.blocks[index++]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -41,6 +41,7 @@
 import org.spongepowered.common.event.tracking.phase.plugin.BasicPluginContext;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
 
+import java.util.List;
 import java.util.function.BiFunction;
 
 /**
@@ -65,6 +66,14 @@ public void map(BlockVolumeMapper mapper, MutableBlockVolume destination) {
         final int xOffset = offset.getX();
         final int yOffset = offset.getY();
         final int zOffset = offset.getZ();
+        if (BlockSection.shouldSplit(this.volume.getBlockSize())) {
+            // Evaluate the mapper per destination section, then write them all at once
+            final UnmodifiableBlockVolume snapshot = BlockSection.snapshot(this.volume);
+            final List<BlockSection> sections = BlockSection.split(this.volume.getBlockMin().add(offset), this.volume.getBlockMax().add(offset));
+            sections.parallelStream().forEach(section -> section.fill((x, y, z) -> mapper.map(snapshot, x - xOffset, y - yOffset, z - zOffset)));
+            BlockSection.write(sections, destination, this);
+            return;
+        }
         final UnmodifiableBlockVolume unmodifiableVolume = this.volume.getUnmodifiableBlockView();
         final int xMin = unmodifiableVolume.getBlockMin().getX();
         final int yMin = unmodifiableVolume.getBlockMin().getY();
@@ -98,6 +107,21 @@ public void merge(BlockVolume second, BlockVolumeMerger merger, MutableBlockVolu
         final int xOffsetDestination = offsetDestination.getX();
         final int yOffsetDestination = offsetDestination.getY();
         final int zOffsetDestination = offsetDestination.getZ();
+        if (BlockSection.shouldSplit(this.volume.getBlockSize())) {
+            final UnmodifiableBlockVolume first = BlockSection.snapshot(this.volume);
+            final UnmodifiableBlockVolume secondSnapshot = BlockSection.snapshot(second);
+            final List<BlockSection> sections = BlockSection.split(this.volume.getBlockMin().add(offsetDestination),
+                this.volume.getBlockMax().add(offsetDestination));
+            sections.parallelStream().forEach(section -> section.fill((x, y, z) -> {
+                final int xFirst = x - xOffsetDestination;
+                final int yFirst = y - yOffsetDestination;
+                final int zFirst = z - zOffsetDestination;
+                return merger.merge(first, xFirst, yFirst, zFirst,
+                    secondSnapshot, xFirst + xOffsetSecond, yFirst + yOffsetSecond, zFirst + zOffsetSecond);
+            }));
+            BlockSection.write(sections, destination, this);
+            return;
+        }
         final UnmodifiableBlockVolume firstUnmodifiableVolume = this.volume.getUnmodifiableBlockView();
         final int xMin = firstUnmodifiableVolume.getBlockMin().getX();
         final int yMin = firstUnmodifiableVolume.getBlockMin().getY();
@@ -145,6 +169,13 @@ public void iterate(BlockVolumeVisitor<V> visitor) {
 
     @Override
     public <T> T reduce(BlockVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T identity) {
+        if (BlockSection.shouldSplit(this.volume.getBlockSize())) {
+            // Sections are reduced in parallel and merged in order
+            final UnmodifiableBlockVolume snapshot = BlockSection.snapshot(this.volume);
+            return BlockSection.split(this.volume.getBlockMin(), this.volume.getBlockMax()).parallelStream()
+                .map(section -> section.reduce(snapshot, reducer, identity))
+                .reduce(identity, merge::apply);
+        }
         final UnmodifiableBlockVolume unmodifiableVolume = this.volume.getUnmodifiableBlockView();
         final int xMin = unmodifiableVolume.getBlockMin().getX();
         final int yMin = unmodifiableVolume.getBlockMin().getY();
@@ -29,6 +29,8 @@
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
 
+import java.util.List;
+
 /**
  *
  */
@@ -40,6 +42,12 @@ public SpongeMutableBlockVolumeWorker(V volume) {
 
     @Override
     public void fill(BlockVolumeFiller filler) {
+        if (BlockSection.shouldSplit(this.volume.getBlockSize())) {
+            final List<BlockSection> sections = BlockSection.split(this.volume.getBlockMin(), this.volume.getBlockMax());
+            sections.parallelStream().forEach(section -> section.fill(filler));
+            BlockSection.write(sections, this.volume, this);
+            return;
+        }
         final int xMin = this.volume.getBlockMin().getX();
         final int yMin = this.volume.getBlockMin().getY();
         final int zMin = this.volume.getBlockMin().getZ();
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.network.play.server.SPacketChunkData;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.spongepowered.common.SpongeImplHooks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the sections evaluated by a block volume worker straight into the
+ * block storage of a world's chunks. Once a chunk is written, its sky light
+ * is regenerated, block light is checked where emitted light changed, and
+ * the whole chunk is resent to the players watching it.
+ *
+ * <p>This skips the block change tracking of the phase tracker, so no block
+ * change events are thrown and neighbors are not notified.</p>
+ */
+final class WorldSectionWriter {
+
+    private WorldSectionWriter() {
+    }
+
+    static void write(WorldServer world, List<BlockSection> sections) {
+        final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        final List<BlockPos> lightChecks = new ArrayList<>();
+        int start = 0;
+        while (start < sections.size()) {
+            // Sections of the same chunk are adjacent, see BlockSection#split
+            final int chunkX = sections.get(start).minX >> 4;
+            final int chunkZ = sections.get(start).minZ >> 4;
+            int end = start;
+            while (end < sections.size() && sections.get(end).minX >> 4 == chunkX && sections.get(end).minZ >> 4 == chunkZ) {
+                end++;
+            }
+            final Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+            boolean changed = false;
+            for (int i = start; i < end; i++) {
+                changed |= writeSection(world, chunk, sections.get(i), pos, lightChecks);
+            }
+            if (changed) {
+                chunk.generateSkylightMap();
+                chunk.markDirty();
+                for (BlockPos lightCheck : lightChecks) {
+                    world.checkLight(lightCheck);
+                }
+                final PlayerChunkMapEntry entry = world.getPlayerChunkMap().getEntry(chunkX, chunkZ);
+                if (entry != null && entry.isSentToPlayers()) {
+                    entry.sendPacket(new SPacketChunkData(chunk, 65535));
+                }
+            }
+            lightChecks.clear();
+            start = end;
+        }
+    }
+
+    private static boolean writeSection(WorldServer world, Chunk chunk, BlockSection section, BlockPos.MutableBlockPos pos,
+            List<BlockPos> lightChecks) {
+        final ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+        final int sectionY = section.minY >> 4;
+        ExtendedBlockStorage storage = storageArray[sectionY];
+        boolean changed = false;
+        for (int y = section.minY; y < section.minY + section.sizeY; y++) {
+            for (int z = section.minZ; z < section.minZ + section.sizeZ; z++) {
+                for (int x = section.minX; x < section.minX + section.sizeX; x++) {
+                    final IBlockState newState = (IBlockState) section.get(x, y, z);
+                    if (storage == Chunk.NULL_BLOCK_STORAGE) {
+                        if (newState == Blocks.AIR.getDefaultState()) {
+                            continue;
+                        }
+                        storage = new ExtendedBlockStorage(sectionY << 4, world.provider.hasSkyLight());
+                        storageArray[sectionY] = storage;
+                    }
+                    final IBlockState oldState = storage.get(x & 15, y & 15, z & 15);
+                    if (oldState == newState) {
+                        continue;
+                    }
+                    pos.setPos(x, y, z);
+                    final Block newBlock = newState.getBlock();
+                    if (SpongeImplHooks.hasBlockTileEntity(oldState.getBlock(), oldState)) {
+                        final TileEntity tileEntity = chunk.getTileEntity(pos, Chunk.EnumCreateEntityType.CHECK);
+                        if (tileEntity != null && SpongeImplHooks.shouldRefresh(tileEntity, world, pos, oldState, newState)) {
+                            world.removeTileEntity(pos);
+                        }
+                    }
+                    final int oldLight = SpongeImplHooks.getChunkPosLight(oldState, world, pos);
+                    storage.set(x & 15, y & 15, z & 15, newState);
+                    if (SpongeImplHooks.hasBlockTileEntity(newBlock, newState)) {
+                        // Creates the tile entity for the new block, if it does not have one yet
+                        chunk.getTileEntity(pos, Chunk.EnumCreateEntityType.IMMEDIATE);
+                    }
+                    if (oldLight != SpongeImplHooks.getChunkPosLight(newState, world, pos)) {
+                        lightChecks.add(pos.toImmutable());
+                    }
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import net.minecraft.world.gen.IChunkGenerator;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.interfaces.world.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Generates the terrain of chunks on a pool of worker threads. The chunks
+ * are generated through {@link SpongeChunkGenerator#generateChunk} but not
+ * added to the world, the main thread loads and populates them through
+ * {@link IMixinChunkProviderServer#loadGeneratedChunk}.
+ */
+public final class AsyncTerrainGenerator {
+
+    /**
+     * Guards the biome providers, the int caches of the vanilla biome layers
+     * are shared by every world and the biome caches are not thread safe.
+     * Acquired after the generation lock of a chunk generator, never before
+     * it.
+     */
+    public static final Object BIOME_LOCK = new Object();
+
+    @Nullable private static ThreadPoolExecutor executor;
+
+    /**
+     * Gets whether the terrain of chunks of the given world can be generated
+     * off the main thread.
+     *
+     * @param world The world
+     * @return True if terrain can be generated off the main thread
+     */
+    public static boolean canGenerate(WorldServer world) {
+        if (!SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useAsyncTerrainGeneration()) {
+            return false;
+        }
+        final ChunkProviderServer chunkProvider = world.getChunkProvider();
+        final IChunkGenerator chunkGenerator = chunkProvider.chunkGenerator;
+        // Generated chunks are checked against the region files before they are added
+        return chunkGenerator instanceof SpongeChunkGenerator && ((SpongeChunkGenerator) chunkGenerator).supportsAsyncGeneration()
+                && ((IMixinChunkProviderServer) chunkProvider).getChunkLoader() instanceof IMixinAnvilChunkLoader;
+    }
+
+    /**
+     * Generates the terrain of a chunk on a worker thread.
+     *
+     * @param world The world, which must be able to {@link #canGenerate generate} terrain off the main thread
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The chunk, which is not yet loaded or populated
+     */
+    public static CompletableFuture<Chunk> generate(WorldServer world, int chunkX, int chunkZ) {
+        final SpongeChunkGenerator chunkGenerator = (SpongeChunkGenerator) world.getChunkProvider().chunkGenerator;
+        return CompletableFuture.supplyAsync(() -> chunkGenerator.generateChunk(chunkX, chunkZ), getExecutor());
+    }
+
+    /**
+     * Generates the terrain of a chunk on a worker thread, unless the request
+     * is withdrawn before a worker picks it up.
+     *
+     * @param world The world, which must be able to {@link #canGenerate generate} terrain off the main thread
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param start Called by the worker before it generates the chunk, the
+     *     future is cancelled if it returns false
+     * @return The chunk, which is not yet loaded or populated
+     */
+    public static CompletableFuture<Chunk> generate(WorldServer world, int chunkX, int chunkZ, BooleanSupplier start) {
+        final SpongeChunkGenerator chunkGenerator = (SpongeChunkGenerator) world.getChunkProvider().chunkGenerator;
+        final CompletableFuture<Chunk> future = new CompletableFuture<>();
+        getExecutor().execute(() -> {
+            if (!start.getAsBoolean()) {
+                future.cancel(false);
+                return;
+            }
+            try {
+                future.complete(chunkGenerator.generateChunk(chunkX, chunkZ));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    public static int getNumThreads() {
+        return Math.max(1, SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getAsyncTerrainGenerationCategory().getNumThreads());
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            final int numThreads = getNumThreads();
+            executor = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("Sponge - Terrain Generation Thread #%d")
+                            .setDaemon(true)
+                            .build());
+        }
+        return executor;
+    }
+
+    /**
+     * Applies changes of the configuration to the worker pool. The pool is
+     * resized to the configured number of threads, or shut down once terrain
+     * generation is no longer done off the main thread. Queued chunks are
+     * still generated. Called by the server thread once per tick.
+     */
+    public static synchronized void updateExecutor() {
+        if (executor == null) {
+            return;
+        }
+        if (!SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useAsyncTerrainGeneration()) {
+            shutdown();
+            return;
+        }
+        final int numThreads = getNumThreads();
+        if (numThreads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(numThreads);
+            executor.setCorePoolSize(numThreads);
+        } else if (numThreads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(numThreads);
+            executor.setMaximumPoolSize(numThreads);
+        }
+    }
+
+    /**
+     * Shuts down the worker pool, the chunks that are already queued are
+     * still generated. A new pool is started by the next chunk to generate.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private AsyncTerrainGenerator() {
+    }
+
+}
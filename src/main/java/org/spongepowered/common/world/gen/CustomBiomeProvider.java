@@ -50,7 +50,10 @@ public final class CustomBiomeProvider extends BiomeProvider {
 
     private static final Vector3i CACHED_AREA_SIZE = new Vector3i(40, 1, 40);
 
-    private final ObjectArrayMutableBiomeBuffer areaForGeneration = new ObjectArrayMutableBiomeBuffer(Vector3i.ZERO, CACHED_AREA_SIZE);
+    // Biomes may be requested by the terrain workers while the main thread
+    // uses them, each thread reuses its own area
+    private final ThreadLocal<ObjectArrayMutableBiomeBuffer> areaForGeneration =
+            ThreadLocal.withInitial(() -> new ObjectArrayMutableBiomeBuffer(Vector3i.ZERO, CACHED_AREA_SIZE));
     private final BiomeGenerator biomeGenerator;
 
     /**
@@ -107,7 +110,9 @@ public Biome[] getBiomesForGeneration(Biome[] biomeArrayZoomedOut, int xStart, i
 
         // Get biomes
         ObjectArrayMutableBiomeBuffer buffer = getBiomeBuffer(xStartBlock, zStartBlock, xSizeBlock, zSizeBlock);
-        this.biomeGenerator.generateBiomes(buffer);
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            this.biomeGenerator.generateBiomes(buffer);
+        }
 
         // Downscale
         for (int i = 0; i < biomeArrayZoomedOut.length; i++) {
@@ -122,15 +127,15 @@ public Biome[] getBiomesForGeneration(Biome[] biomeArrayZoomedOut, int xStart, i
 
     private ObjectArrayMutableBiomeBuffer getBiomeBuffer(int xStart, int zStart, int xSize, int zSize) {
         if (xSize == CACHED_AREA_SIZE.getX() && zSize == CACHED_AREA_SIZE.getY()) {
-            this.areaForGeneration.reuse(new Vector3i(xStart, 0, zStart));
-            return this.areaForGeneration;
+            final ObjectArrayMutableBiomeBuffer buffer = this.areaForGeneration.get();
+            buffer.reuse(new Vector3i(xStart, 0, zStart));
+            return buffer;
         }
         return new ObjectArrayMutableBiomeBuffer(new Vector3i(xStart, 0, zStart), new Vector3i(xSize, 1, zSize));
     }
 
     @Override
     public boolean areBiomesViable(int xCenter, int zCenter, int range, @SuppressWarnings("rawtypes") List searchingForBiomes) {
-        IntCache.resetIntCache();
         int xStartSegment = xCenter - range;
         int zStartSegment = zCenter - range;
         int xMaxSegment = xCenter + range;
@@ -139,7 +144,10 @@ public boolean areBiomesViable(int xCenter, int zCenter, int range, @SuppressWar
         int zSizeSegments = zMaxSegment - zStartSegment + 1;
 
         ObjectArrayMutableBiomeBuffer buffer = getBiomeBuffer(xStartSegment, zStartSegment, xSizeSegments, zSizeSegments);
-        this.biomeGenerator.generateBiomes(buffer);
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            IntCache.resetIntCache();
+            this.biomeGenerator.generateBiomes(buffer);
+        }
 
         for (int x = xStartSegment; x < xMaxSegment; x++) {
             for (int z = zStartSegment; z < zMaxSegment; z++) {
@@ -155,7 +163,6 @@ public boolean areBiomesViable(int xCenter, int zCenter, int range, @SuppressWar
 
     @Override
     public BlockPos findBiomePosition(int xCenter, int zCenter, int range, List<Biome> biomes, Random random) {
-        IntCache.resetIntCache();
         int xStartSegment = xCenter - range;
         int zStartSegment = zCenter - range;
         int xMaxSegment = xCenter + range;
@@ -164,7 +171,10 @@ public BlockPos findBiomePosition(int xCenter, int zCenter, int range, List<Biom
         int zSizeSegments = zMaxSegment - zStartSegment + 1;
 
         ObjectArrayMutableBiomeBuffer buffer = getBiomeBuffer(xStartSegment, zStartSegment, xSizeSegments, zSizeSegments);
-        this.biomeGenerator.generateBiomes(buffer);
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            IntCache.resetIntCache();
+            this.biomeGenerator.generateBiomes(buffer);
+        }
 
         BlockPos blockpos = null;
         int attempts = 0;
@@ -195,7 +205,9 @@ public Biome[] getBiomes(Biome[] biomeArray, int startX, int startZ, int sizeX,
         }
 
         ObjectArrayMutableBiomeBuffer biomeArea = new ObjectArrayMutableBiomeBuffer(new Vector3i(startX, 0, startZ), new Vector3i(sizeX, 1, sizeZ));
-        this.biomeGenerator.generateBiomes(biomeArea);
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            this.biomeGenerator.generateBiomes(biomeArea);
+        }
         biomeArea.fill(biomeArray);
         return biomeArray;
     }
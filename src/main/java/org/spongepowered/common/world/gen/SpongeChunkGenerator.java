@@ -41,6 +41,7 @@
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.biome.Biome.SpawnListEntry;
 import net.minecraft.world.chunk.Chunk;
@@ -80,10 +81,12 @@
 import org.spongepowered.common.interfaces.IMixinChunk;
 import org.spongepowered.common.interfaces.world.IMixinWorldServer;
 import org.spongepowered.common.interfaces.world.gen.IChunkProviderOverworld;
+import org.spongepowered.common.interfaces.world.gen.ICopyableGenerationPopulator;
 import org.spongepowered.common.interfaces.world.gen.IFlaggedPopulator;
 import org.spongepowered.common.interfaces.world.gen.IGenerationPopulator;
 import org.spongepowered.common.util.gen.ChunkPrimerBuffer;
 import org.spongepowered.common.util.gen.ObjectArrayMutableBiomeBuffer;
+import org.spongepowered.common.world.ParallelWorldTicker;
 import org.spongepowered.common.world.biome.SpongeBiomeGenerationSettings;
 import org.spongepowered.common.world.extent.SoftBufferExtentViewDownsize;
 import org.spongepowered.common.world.gen.populators.SnowPopulator;
@@ -114,8 +117,22 @@ public class SpongeChunkGenerator implements WorldGenerator, IChunkGenerator {
     protected final ObjectArrayMutableBiomeBuffer cachedBiomes;
 
     protected Random rand;
-    private NoiseGeneratorPerlin noise4;
-    private double[] stoneNoise;
+
+    // The buffers of the terrain stage are confined to a thread, the fields
+    // above are used by the main thread
+    private final TerrainBuffers terrainBuffers;
+    private final ThreadLocal<TerrainBuffers> workerTerrainBuffers;
+
+    // Guards the generation populators, which are shared between the main
+    // thread and the terrain workers. Held for one populator at a time, so
+    // the main thread never waits for a whole chunk.
+    protected final Object generationLock = new Object();
+    // Guards the structure maps, which the main thread queries for spawns
+    // and nearby structures. Never held together with the generation lock by
+    // a worker.
+    protected final Object structureLock = new Object();
+
+    @Nullable private TerrainPredictor terrainPredictor;
 
     protected Map<String, Timing> populatorTimings = Maps.newHashMap();
     protected Timing chunkGeneratorTiming;
@@ -132,8 +149,9 @@ public SpongeChunkGenerator(World world, GenerationPopulator base, BiomeGenerato
         this.pop = Lists.newArrayList();
         this.biomeSettings = Maps.newHashMap();
         this.rand = new Random(world.getSeed());
-        this.noise4 = new NoiseGeneratorPerlin(this.rand, 4);
-        this.stoneNoise = new double[256];
+        this.terrainBuffers = new TerrainBuffers(this.rand, this.cachedBiomes, world.getSeed());
+        this.workerTerrainBuffers = ThreadLocal.withInitial(() ->
+                new TerrainBuffers(new Random(), new ObjectArrayMutableBiomeBuffer(Vector3i.ZERO, CHUNK_AREA), world.getSeed()));
 
         this.world.provider.biomeProvider = CustomBiomeProvider.of(this.biomeGenerator);
         if (this.baseGenerator instanceof IChunkProviderOverworld) {
@@ -209,19 +227,21 @@ public void setBiomeGenerator(BiomeGenerator biomeGenerator) {
     @Override
     public BiomeGenerationSettings getBiomeSettings(BiomeType type) {
         checkNotNull(type, "type");
-        BiomeGenerationSettings settings = this.biomeSettings.get(type);
-        if (settings == null) {
-            if (SpongeGenerationPopulator.class.isInstance(this.baseGenerator)) {
-                // If the base generator was mod provided then we assume that it
-                // will handle its own
-                // generation so we don't add the base game's generation
-                settings = new SpongeBiomeGenerationSettings();
-            } else {
-                settings = type.createDefaultGenerationSettings((org.spongepowered.api.world.World) this.world);
+        synchronized (this.generationLock) {
+            BiomeGenerationSettings settings = this.biomeSettings.get(type);
+            if (settings == null) {
+                if (SpongeGenerationPopulator.class.isInstance(this.baseGenerator)) {
+                    // If the base generator was mod provided then we assume that it
+                    // will handle its own
+                    // generation so we don't add the base game's generation
+                    settings = new SpongeBiomeGenerationSettings();
+                } else {
+                    settings = type.createDefaultGenerationSettings((org.spongepowered.api.world.World) this.world);
+                }
+                this.biomeSettings.put(type, settings);
             }
-            this.biomeSettings.put(type, settings);
+            return settings;
         }
-        return settings;
     }
 
     @Override
@@ -234,36 +254,95 @@ public List<Populator> getPopulators(Class<? extends Populator> type) {
         return this.pop.stream().filter((p) -> type.isAssignableFrom(p.getClass())).collect(Collectors.toList());
     }
 
+    /**
+     * Gets whether {@link #generateChunk} may be called from a terrain worker
+     * while the main thread keeps running. Wrapped chunk generators hand out
+     * their chunks through shared state, so they are always generated on the
+     * main thread.
+     *
+     * @return True if chunks can be generated off the main thread
+     */
+    public boolean supportsAsyncGeneration() {
+        return !(this.baseGenerator instanceof SpongeGenerationPopulator);
+    }
+
+    /**
+     * Prepares the terrain of the chunks ahead of moving players, if enabled.
+     * Called once per tick by the thread owning the world.
+     */
+    public void tickTerrainPrediction() {
+        if (!TerrainPredictor.isEnabled() || !AsyncTerrainGenerator.canGenerate((WorldServer) this.world)) {
+            if (this.terrainPredictor != null) {
+                this.terrainPredictor.clear();
+                this.terrainPredictor = null;
+            }
+            return;
+        }
+        if (this.terrainPredictor == null) {
+            this.terrainPredictor = new TerrainPredictor((WorldServer) this.world);
+        }
+        this.terrainPredictor.tick();
+    }
+
     @Override
     public Chunk generateChunk(int chunkX, int chunkZ) {
-        this.rand.setSeed(chunkX * 341873128712L + chunkZ * 132897987541L);
-        this.cachedBiomes.reuse(new Vector3i(chunkX * 16, 0, chunkZ * 16));
-        this.biomeGenerator.generateBiomes(this.cachedBiomes);
-        ImmutableBiomeVolume biomeBuffer = this.cachedBiomes.getImmutableBiomeCopy();
-
-        // Generate base terrain
+        final boolean mainThread = ParallelWorldTicker.isOwningThread(this.world);
+        if (mainThread && this.terrainPredictor != null) {
+            // Populators generate neighbouring chunks while holding a lock
+            // which the workers wait for
+            final Chunk chunk = this.terrainPredictor.take(chunkX, chunkZ,
+                    !Thread.holdsLock(this.generationLock) && !Thread.holdsLock(this.structureLock));
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        final TerrainBuffers buffers = mainThread ? this.terrainBuffers : this.workerTerrainBuffers.get();
+        final ObjectArrayMutableBiomeBuffer cachedBiomes = buffers.biomes;
         ChunkPrimer chunkprimer = new ChunkPrimer();
         MutableBlockVolume blockBuffer = new ChunkPrimerBuffer(chunkprimer, chunkX, chunkZ);
-        this.baseGenerator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
 
-        if (!(this.baseGenerator instanceof SpongeGenerationPopulator)) {
-            replaceBiomeBlocks(this.world, this.rand, chunkX, chunkZ, chunkprimer, biomeBuffer);
+        buffers.rand.setSeed(chunkX * 341873128712L + chunkZ * 132897987541L);
+        cachedBiomes.reuse(new Vector3i(chunkX * 16, 0, chunkZ * 16));
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            this.biomeGenerator.generateBiomes(cachedBiomes);
         }
+        ImmutableBiomeVolume biomeBuffer = cachedBiomes.getImmutableBiomeCopy();
+
+        // Generate base terrain, with the copy of the base generator owned by
+        // this thread if there is one
+        final GenerationPopulator threadBaseGenerator = getThreadBaseGenerator(buffers);
+        if (threadBaseGenerator != null) {
+            threadBaseGenerator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
+            replaceBiomeBlocks(buffers, this.world, buffers.rand, chunkX, chunkZ, chunkprimer, biomeBuffer);
+        } else {
+            synchronized (this.generationLock) {
+                this.baseGenerator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
 
-        // Apply the generator populators to complete the blockBuffer
-        for (GenerationPopulator populator : this.genpop) {
-            populator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
+                if (!(this.baseGenerator instanceof SpongeGenerationPopulator)) {
+                    replaceBiomeBlocks(buffers, this.world, buffers.rand, chunkX, chunkZ, chunkprimer, biomeBuffer);
+                }
+            }
         }
 
         // Get unique biomes to determine what generator populators to run
         List<BiomeType> uniqueBiomes = Lists.newArrayList();
         BiomeType biome;
+        BiomeType previous = null;
         for (int x = 0; x < 16; x++) {
             for (int z = 0; z < 16; z++) {
-                biome = this.cachedBiomes.getBiome(chunkX * 16 + x, 0, chunkZ * 16 + z);
-                if (!uniqueBiomes.contains(biome)) {
+                biome = cachedBiomes.getBiome(chunkX * 16 + x, 0, chunkZ * 16 + z);
+                // Neighbouring columns mostly share their biome
+                if (biome != previous && !uniqueBiomes.contains(biome)) {
                     uniqueBiomes.add(biome);
                 }
+                previous = biome;
+            }
+        }
+
+        // Apply the generator populators to complete the blockBuffer
+        for (GenerationPopulator populator : this.genpop) {
+            synchronized (getLock(populator)) {
+                populator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
             }
         }
 
@@ -271,7 +350,9 @@ public Chunk generateChunk(int chunkX, int chunkZ) {
         for (BiomeType type : uniqueBiomes) {
             BiomeGenerationSettings settings = getBiomeSettings(type);
             for (GenerationPopulator populator : settings.getGenerationPopulators()) {
-                populator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
+                synchronized (getLock(populator)) {
+                    populator.populate((org.spongepowered.api.world.World) this.world, blockBuffer, biomeBuffer);
+                }
             }
         }
 
@@ -282,12 +363,30 @@ public Chunk generateChunk(int chunkX, int chunkZ) {
             ((IMixinChunk) chunk).fill(chunkprimer);
         } else {
             chunk = new Chunk(this.world, chunkprimer, chunkX, chunkZ);
-            this.cachedBiomes.fill(chunk.getBiomeArray());
+            cachedBiomes.fill(chunk.getBiomeArray());
         }
         chunk.generateSkylightMap();
         return chunk;
     }
 
+    /**
+     * Gets the lock guarding the given populator. Populators which are never
+     * run by the terrain workers don't need one.
+     *
+     * @param populator The populator
+     * @return The lock, or null if none is needed
+     */
+    @Nullable
+    private Object getLock(Object populator) {
+        if (populator instanceof MapGenStructure) {
+            return this.structureLock;
+        }
+        if (populator instanceof GenerationPopulator) {
+            return this.generationLock;
+        }
+        return null;
+    }
+
     @Override
     public void populate(int chunkX, int chunkZ) {
         IMixinWorldServer world = (IMixinWorldServer) this.world;
@@ -303,7 +402,9 @@ public void populate(int chunkX, int chunkZ) {
         // Have to regeneate the biomes so that any virtual biomes can be passed
         // to the populator.
         this.cachedBiomes.reuse(new Vector3i(chunkX * 16, 0, chunkZ * 16));
-        this.biomeGenerator.generateBiomes(this.cachedBiomes);
+        synchronized (AsyncTerrainGenerator.BIOME_LOCK) {
+            this.biomeGenerator.generateBiomes(this.cachedBiomes);
+        }
         ImmutableBiomeVolume biomeBuffer = this.cachedBiomes.getImmutableBiomeCopy();
 
         BlockPos blockpos = new BlockPos(chunkX * 16, 0, chunkZ * 16);
@@ -360,10 +461,13 @@ public void populate(int chunkX, int chunkZ) {
                     .populator(type)
                     .buildAndSwitch()) {
 
-                    if (populator instanceof IFlaggedPopulator) {
-                        ((IFlaggedPopulator) populator).populate(spongeWorld, volume, this.rand, biomeBuffer, flags);
+                    final Object lock = getLock(populator);
+                    if (lock == null) {
+                        populate(populator, spongeWorld, volume, biomeBuffer, flags);
                     } else {
-                        populator.populate(spongeWorld, volume, this.rand, biomeBuffer);
+                        synchronized (lock) {
+                            populate(populator, spongeWorld, volume, biomeBuffer, flags);
+                        }
                     }
                     if (Timings.isTimingsEnabled()) {
                         timing.stopTimingIfSync();
@@ -395,18 +499,29 @@ public void populate(int chunkX, int chunkZ) {
         world.getTimingsHandler().chunkPopulate.stopTimingIfSync();
     }
 
+    private void populate(Populator populator, org.spongepowered.api.world.World world, Extent volume, ImmutableBiomeVolume biomeBuffer,
+            List<String> flags) {
+        if (populator instanceof IFlaggedPopulator) {
+            ((IFlaggedPopulator) populator).populate(world, volume, this.rand, biomeBuffer, flags);
+        } else {
+            populator.populate(world, volume, this.rand, biomeBuffer);
+        }
+    }
+
     @Override
     public boolean generateStructures(Chunk chunk, int chunkX, int chunkZ) {
         boolean flag = false;
         if (chunk.getInhabitedTime() < 3600L) {
             for (Populator populator : this.pop) {
                 if (populator instanceof StructureOceanMonument) {
-                    try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame();
-                         GenerationContext context = GenerationPhase.State.POPULATOR_RUNNING.createPhaseContext()
-                             .world(this.world)
-                             .populator(populator.getType())
-                            .buildAndSwitch()) {
-                        flag |= ((StructureOceanMonument) populator).generateStructure(this.world, this.rand, new ChunkPos(chunkX, chunkZ));
+                    synchronized (this.structureLock) {
+                        try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame();
+                             GenerationContext context = GenerationPhase.State.POPULATOR_RUNNING.createPhaseContext()
+                                 .world(this.world)
+                                 .populator(populator.getType())
+                                .buildAndSwitch()) {
+                            flag |= ((StructureOceanMonument) populator).generateStructure(this.world, this.rand, new ChunkPos(chunkX, chunkZ));
+                        }
                     }
                 }
             }
@@ -417,7 +532,10 @@ public boolean generateStructures(Chunk chunk, int chunkX, int chunkZ) {
     @Override
     public List<SpawnListEntry> getPossibleCreatures(EnumCreatureType creatureType, BlockPos pos) {
         if (this.baseGenerator instanceof IChunkGenerator) {
-            return ((IChunkGenerator) this.baseGenerator).getPossibleCreatures(creatureType, pos);
+            // Only reads the structures of the base generator
+            synchronized (this.structureLock) {
+                return ((IChunkGenerator) this.baseGenerator).getPossibleCreatures(creatureType, pos);
+            }
         }
 
         if (this.baseGenerator instanceof SpongeGenerationPopulator) {
@@ -452,7 +570,9 @@ public BlockPos getNearestStructurePos(World worldIn, String structureName, Bloc
         if (target != null) {
             for (GenerationPopulator gen : this.genpop) {
                 if (target.isInstance(gen)) {
-                    return ((MapGenStructure) gen).getNearestStructurePos(worldIn, position, p_180513_4_);
+                    synchronized (this.structureLock) {
+                        return ((MapGenStructure) gen).getNearestStructurePos(worldIn, position, p_180513_4_);
+                    }
                 }
             }
         }
@@ -487,7 +607,9 @@ public boolean isInsideStructure(World worldIn, String structureName, BlockPos p
         if (target != null) {
             for (GenerationPopulator gen : this.genpop) {
                 if (target.isInstance(gen)) {
-                    return ((MapGenStructure) gen).isInsideStructure(position);
+                    synchronized (this.structureLock) {
+                        return ((MapGenStructure) gen).isInsideStructure(position);
+                    }
                 }
             }
         }
@@ -501,29 +623,35 @@ public boolean isInsideStructure(World worldIn, String structureName, BlockPos p
 
     @Override
     public void recreateStructures(Chunk chunkIn, int x, int z) {
-        if (this.baseGenerator instanceof IChunkGenerator) {
-            ((IChunkGenerator) this.baseGenerator).recreateStructures(chunkIn, x, z);
-        }
+        synchronized (this.structureLock) {
+            if (this.baseGenerator instanceof IChunkGenerator) {
+                ((IChunkGenerator) this.baseGenerator).recreateStructures(chunkIn, x, z);
+            }
 
-        if (this.baseGenerator instanceof SpongeGenerationPopulator) {
-            ((SpongeGenerationPopulator) this.baseGenerator).getHandle(this.world).recreateStructures(chunkIn, x, z);
-        }
+            if (this.baseGenerator instanceof SpongeGenerationPopulator) {
+                ((SpongeGenerationPopulator) this.baseGenerator).getHandle(this.world).recreateStructures(chunkIn, x, z);
+            }
 
-        for (GenerationPopulator populator : this.genpop) {
-            if (populator instanceof MapGenStructure) {
-                ((MapGenStructure) populator).generate(chunkIn.getWorld(), x, z, null);
+            for (GenerationPopulator populator : this.genpop) {
+                if (populator instanceof MapGenStructure) {
+                    ((MapGenStructure) populator).generate(chunkIn.getWorld(), x, z, null);
+                }
             }
         }
     }
 
     public void replaceBiomeBlocks(World world, Random rand, int x, int z, ChunkPrimer chunk, ImmutableBiomeVolume biomes) {
+        replaceBiomeBlocks(getTerrainBuffers(), world, rand, x, z, chunk, biomes);
+    }
+
+    private void replaceBiomeBlocks(TerrainBuffers buffers, World world, Random rand, int x, int z, ChunkPrimer chunk, ImmutableBiomeVolume biomes) {
         double d0 = 0.03125D;
-        this.stoneNoise = this.noise4.getRegion(this.stoneNoise, x * 16, z * 16, 16, 16, d0 * 2.0D, d0 * 2.0D, 1.0D);
+        buffers.stoneNoise = buffers.noise4.getRegion(buffers.stoneNoise, x * 16, z * 16, 16, 16, d0 * 2.0D, d0 * 2.0D, 1.0D);
         Vector3i min = biomes.getBiomeMin();
         for (int x0 = 0; x0 < 16; ++x0) {
             for (int z0 = 0; z0 < 16; ++z0) {
                 BiomeType biomegenbase = biomes.getBiome(min.getX() + x0, 0, min.getZ() + z0);
-                generateBiomeTerrain(world, rand, chunk, x * 16 + x0, z * 16 + z0, this.stoneNoise[x0 + z0 * 16],
+                generateBiomeTerrain(world, rand, chunk, x * 16 + x0, z * 16 + z0, buffers.stoneNoise[x0 + z0 * 16],
                         getBiomeSettings(biomegenbase).getGroundCoverLayers());
             }
         }
@@ -595,4 +723,41 @@ public void generateBiomeTerrain(World worldIn, Random rand, ChunkPrimer chunk,
         }
     }
 
+    private TerrainBuffers getTerrainBuffers() {
+        return ParallelWorldTicker.isOwningThread(this.world) ? this.terrainBuffers : this.workerTerrainBuffers.get();
+    }
+
+    @Nullable
+    private GenerationPopulator getThreadBaseGenerator(TerrainBuffers buffers) {
+        final GenerationPopulator baseGenerator = this.baseGenerator;
+        if (!(baseGenerator instanceof ICopyableGenerationPopulator)
+                || !SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getAsyncTerrainGenerationCategory().useParallelBaseTerrain()) {
+            return null;
+        }
+        // The copy is made again once the base or biome generator is replaced
+        if (buffers.baseGeneratorSource != baseGenerator || buffers.biomeGeneratorSource != this.biomeGenerator) {
+            buffers.baseGeneratorSource = baseGenerator;
+            buffers.biomeGeneratorSource = this.biomeGenerator;
+            buffers.baseGenerator = ((ICopyableGenerationPopulator) baseGenerator).copyForThread();
+        }
+        return buffers.baseGenerator;
+    }
+
+    private static final class TerrainBuffers {
+
+        final Random rand;
+        final ObjectArrayMutableBiomeBuffer biomes;
+        final NoiseGeneratorPerlin noise4;
+        double[] stoneNoise = new double[256];
+        @Nullable GenerationPopulator baseGeneratorSource;
+        @Nullable BiomeGenerator biomeGeneratorSource;
+        @Nullable GenerationPopulator baseGenerator;
+
+        TerrainBuffers(Random rand, ObjectArrayMutableBiomeBuffer biomes, long seed) {
+            this.rand = rand;
+            this.biomes = biomes;
+            this.noise4 = new NoiseGeneratorPerlin(new Random(seed), 4);
+        }
+    }
+
 }
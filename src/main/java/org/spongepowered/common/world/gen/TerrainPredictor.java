@@ -0,0 +1,257 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.api.util.Tristate;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.AsyncTerrainGenerationCategory;
+import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
+import org.spongepowered.common.world.storage.RegionHeaderCache;
+
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Generates the terrain of the chunks players are heading towards through
+ * the {@link AsyncTerrainGenerator}, so that the main thread only has to
+ * populate them once they are requested.
+ *
+ * <p>Not thread safe, the predictor is only used from the main thread.</p>
+ */
+final class TerrainPredictor {
+
+    // Ticks between two predictions
+    private static final int PREDICTION_INTERVAL = 5;
+    // Players moving less than this many blocks between two predictions are
+    // not followed
+    private static final double MIN_MOVEMENT_SQ = 1;
+    // Chunks that are written to the region files after a header was read
+    // are reported as missing until it is read again
+    private static final long HEADER_MAX_AGE = 60000;
+
+    static final class PreparedChunk {
+
+        final int requestTick;
+        CompletableFuture<Chunk> chunk;
+        // Whether a worker picked up the request, or it was withdrawn before
+        private boolean started;
+        private boolean cancelled;
+
+        PreparedChunk(int requestTick) {
+            this.requestTick = requestTick;
+        }
+
+        /**
+         * Called by the worker before it generates the chunk.
+         *
+         * @return False if the request was withdrawn
+         */
+        synchronized boolean start() {
+            this.started = !this.cancelled;
+            return this.started;
+        }
+
+        /**
+         * Withdraws the request if no worker picked it up yet. A running
+         * generation can't be stopped, it holds the generation lock until
+         * the chunk is done.
+         *
+         * @return False if the chunk is already being generated
+         */
+        synchronized boolean cancel() {
+            this.cancelled = !this.started;
+            return this.cancelled;
+        }
+
+        /**
+         * Gets the prepared chunk. A request that no worker picked up yet is
+         * withdrawn, a running one is waited for only if allowed.
+         *
+         * @param wait Whether the caller may block on the worker, which must
+         *     not be the case while it holds the generation lock the worker
+         *     needs to complete
+         * @return The chunk, or null if it has to be generated by the caller
+         */
+        @Nullable
+        Chunk get(boolean wait) {
+            if (!this.chunk.isDone() && (this.cancel() || !wait)) {
+                return null;
+            }
+            return this.chunk.join();
+        }
+    }
+
+    static boolean isEnabled() {
+        return SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getAsyncTerrainGenerationCategory().predictPlayerMovement();
+    }
+
+    private final WorldServer world;
+    private final RegionHeaderCache savedChunks;
+    private final Long2ObjectMap<PreparedChunk> preparedChunks = new Long2ObjectOpenHashMap<>();
+    private Int2ObjectMap<double[]> lastPositions = new Int2ObjectOpenHashMap<>();
+    private int ticks;
+    private int hits;
+    private int misses;
+
+    TerrainPredictor(WorldServer world) {
+        this.world = world;
+        this.savedChunks = new RegionHeaderCache(((IMixinChunkProviderServer) world.getChunkProvider()).getChunkLoader(), HEADER_MAX_AGE);
+    }
+
+    /**
+     * Requests the terrain of the chunks ahead of the moving players of the
+     * world, and drops the chunks that were not requested in time.
+     */
+    void tick() {
+        if (++this.ticks % PREDICTION_INTERVAL != 0) {
+            return;
+        }
+        final AsyncTerrainGenerationCategory config =
+                SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getAsyncTerrainGenerationCategory();
+        final int maxChunks = config.getMaxPredictedChunks();
+        final double steps = config.getPredictionSeconds() * 20 / PREDICTION_INTERVAL;
+        final int viewDistance = ((org.spongepowered.api.world.World) this.world).getViewDistance();
+        this.expire(Math.max((int) (steps * PREDICTION_INTERVAL) * 4, 200));
+        this.savedChunks.prune();
+
+        final Int2ObjectMap<double[]> positions = new Int2ObjectOpenHashMap<>(this.world.playerEntities.size());
+        for (EntityPlayer player : this.world.playerEntities) {
+            final double[] last = this.lastPositions.get(player.getEntityId());
+            positions.put(player.getEntityId(), new double[] {player.posX, player.posZ});
+            if (last == null) {
+                continue;
+            }
+            final double dx = player.posX - last[0];
+            final double dz = player.posZ - last[1];
+            if (dx * dx + dz * dz < MIN_MOVEMENT_SQ) {
+                continue;
+            }
+            final int chunkX = MathHelper.floor(player.posX + dx * steps) >> 4;
+            final int chunkZ = MathHelper.floor(player.posZ + dz * steps) >> 4;
+            // Closest chunks to the predicted position first
+            for (int radius = 0; radius <= viewDistance; radius++) {
+                for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+                    for (int z = chunkZ - radius; z <= chunkZ + radius; z++) {
+                        if (Math.abs(x - chunkX) != radius && Math.abs(z - chunkZ) != radius) {
+                            continue;
+                        }
+                        if (this.preparedChunks.size() >= maxChunks) {
+                            this.lastPositions = positions;
+                            return;
+                        }
+                        this.request(x, z);
+                    }
+                }
+            }
+        }
+        this.lastPositions = positions;
+    }
+
+    /**
+     * Takes the terrain of a chunk if it was prepared.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param wait Whether the terrain may be waited for if it is being
+     *     generated, false while the caller holds the generation lock
+     * @return The chunk, or null if it has to be generated by the caller
+     */
+    @Nullable
+    Chunk take(int chunkX, int chunkZ, boolean wait) {
+        final PreparedChunk prepared = this.preparedChunks.remove(ChunkPos.asLong(chunkX, chunkZ));
+        if (prepared == null) {
+            return null;
+        }
+        try {
+            // Waiting for a running worker is faster than generating the chunk
+            // again behind the generation lock it holds, unless the lock is
+            // held here
+            final Chunk chunk = prepared.get(wait);
+            if (chunk == null) {
+                this.misses++;
+                return null;
+            }
+            this.hits++;
+            return chunk;
+        } catch (CompletionException | CancellationException e) {
+            SpongeImpl.getLogger().error("Failed to generate the terrain of chunk ({}, {}) in world {} ahead of time", chunkX, chunkZ,
+                    this.world.getWorldInfo().getWorldName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Cancels all the chunks that are being prepared.
+     */
+    void clear() {
+        for (PreparedChunk prepared : this.preparedChunks.values()) {
+            prepared.cancel();
+        }
+        this.preparedChunks.clear();
+        SpongeImpl.getLogger().debug("Terrain prediction for world {} stopped with {} hits and {} misses",
+                this.world.getWorldInfo().getWorldName(), this.hits, this.misses);
+    }
+
+    private void request(int chunkX, int chunkZ) {
+        final long key = ChunkPos.asLong(chunkX, chunkZ);
+        if (this.preparedChunks.containsKey(key)
+                || ((IMixinChunkProviderServer) this.world.getChunkProvider()).getLoadedChunkWithoutMarkingActive(chunkX, chunkZ) != null
+                || this.savedChunks.isSaved(chunkX, chunkZ) != Tristate.FALSE) {
+            return;
+        }
+        final PreparedChunk prepared = new PreparedChunk(this.ticks);
+        prepared.chunk = AsyncTerrainGenerator.generate(this.world, chunkX, chunkZ, prepared::start);
+        this.preparedChunks.put(key, prepared);
+    }
+
+    private void expire(int maxAge) {
+        final IMixinChunkProviderServer chunkProvider = (IMixinChunkProviderServer) this.world.getChunkProvider();
+        for (Iterator<Long2ObjectMap.Entry<PreparedChunk>> it = this.preparedChunks.long2ObjectEntrySet().iterator(); it.hasNext(); ) {
+            final Long2ObjectMap.Entry<PreparedChunk> entry = it.next();
+            final long key = entry.getLongKey();
+            // Chunks that were loaded from elsewhere won't be requested anymore
+            if (this.ticks - entry.getValue().requestTick > maxAge
+                    || chunkProvider.getLoadedChunkWithoutMarkingActive((int) key, (int) (key >> 32)) != null) {
+                entry.getValue().cancel();
+                it.remove();
+                this.misses++;
+            }
+        }
+    }
+
+}
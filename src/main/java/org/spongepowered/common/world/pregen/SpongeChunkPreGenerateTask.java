@@ -30,6 +30,10 @@
 import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.IChunkLoader;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
@@ -39,20 +43,27 @@
 import org.spongepowered.api.event.world.ChunkPreGenerationEvent;
 import org.spongepowered.api.scheduler.Scheduler;
 import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.util.Tristate;
 import org.spongepowered.api.world.ChunkPreGenerate;
 import org.spongepowered.api.world.World;
 import org.spongepowered.api.world.WorldBorder;
 import org.spongepowered.api.world.storage.WorldProperties;
+import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.interfaces.world.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.world.gen.IMixinChunkProviderServer;
+import org.spongepowered.common.world.gen.AsyncTerrainGenerator;
+import org.spongepowered.common.world.storage.RegionHeaderCache;
 import org.spongepowered.common.world.storage.SpongeChunkLayout;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
@@ -61,6 +72,13 @@ public class SpongeChunkPreGenerateTask implements ChunkPreGenerate, Consumer<Ta
     private static final int DEFAULT_TICK_INTERVAL = 4;
     private static final float DEFAULT_TICK_PERCENT = 0.8f;
 
+    // The smallest main thread budget of a step, so that generation always progresses
+    private static final long MIN_STEP_TIME = 1;
+    // The most groups of chunks in generation per terrain thread
+    private static final int MAX_PENDING_GROUPS_PER_THREAD = 8;
+    // Weight of the last step in the throughput average
+    private static final double THROUGHPUT_SMOOTHING = 0.2;
+
     private static final Vector3i[] OFFSETS = {
             Vector3i.UNIT_Z.negate().mul(2),
             Vector3i.UNIT_X.mul(2),
@@ -71,7 +89,11 @@ public class SpongeChunkPreGenerateTask implements ChunkPreGenerate, Consumer<Ta
     private final Scheduler scheduler;
 
     private final World world;
-    private final Predicate<Vector3i> doesChunkExistCheck;
+    private final WorldServer worldServer;
+    private final IMixinChunkProviderServer chunkProvider;
+    // If null, chunks are in another storage format and are always loaded
+    @Nullable private final RegionHeaderCache savedChunks;
+    private final boolean asyncGeneration;
     private final int chunkRadius;
     private final int chunkCount;
     private final float tickPercent;
@@ -94,6 +116,19 @@ public class SpongeChunkPreGenerateTask implements ChunkPreGenerate, Consumer<Ta
     private int chunksSkipped = 0;
     private int chunksGenerated = 0;
 
+    // The groups of chunks being generated, in spiral order
+    private final ArrayDeque<ChunkGroup> pendingGroups = new ArrayDeque<>();
+    // The next group, if it is waiting for its region file header
+    @Nullable private ChunkGroup nextGroup;
+    private int maxPendingGroups;
+
+    // Throttling and throughput
+    private long stepTimeLimit;
+    private long lastStepTime;
+    private long lastStepEndTime;
+    private double meanTickTime;
+    private double chunksPerSecond;
+
     // Used for wall clock times.
     private long generationStartTime = 0;
     private long generationEndTime = 0;
@@ -108,23 +143,20 @@ private SpongeChunkPreGenerateTask(Object plugin,
 
         this.plugin = plugin;
         this.world = world;
+        this.worldServer = (WorldServer) world;
+        this.chunkProvider = (IMixinChunkProviderServer) this.worldServer.getChunkProvider();
 
-        // In order to be able to check whether a chunk exists, we could use standard Sponge API methods. However,
-        // because they set up an async method which we need to get sync anyway, we just bypass it.
-        // This results in a extremely noticeable speed improvement.
-        //
-        // This also allows us to catch non Anvil file formats too.
-        if (world.getWorldStorage() instanceof IMixinAnvilChunkLoader) {
-            this.doesChunkExistCheck = v -> ((IMixinAnvilChunkLoader) world.getWorldStorage())
-                    .chunkExists((net.minecraft.world.World) this.world, v.getX(), v.getZ());
-        } else {
-            this.doesChunkExistCheck = v -> false;
-        }
+        // Whether chunks exist is read from the region file headers off the main thread
+        final IChunkLoader chunkLoader = this.chunkProvider.getChunkLoader();
+        this.savedChunks = chunkLoader instanceof IMixinAnvilChunkLoader ? new RegionHeaderCache(chunkLoader, 0) : null;
+        this.asyncGeneration = AsyncTerrainGenerator.canGenerate(this.worldServer);
+        this.maxPendingGroups = AsyncTerrainGenerator.getNumThreads();
 
         this.chunkRadius = GenericMath.floor(diameter / 32);
         this.chunkCount = chunkCount;
         this.tickPercent = tickPercent;
         this.tickTimeLimit = Math.round(preferredTickInterval * tickPercent);
+        this.stepTimeLimit = this.tickTimeLimit;
         this.cause = cause;
         this.tickInterval = tickInterval;
         final Optional<Vector3i> currentPosition = SpongeChunkLayout.instance.toChunk(center.toInt());
@@ -206,9 +238,58 @@ public void cancel() {
             }
             this.spongeTask.cancel();
             this.isCancelled = true;
+            this.pendingGroups.clear();
         }
     }
 
+    /**
+     * Gets the number of chunks completed per second, averaged over the
+     * recent steps.
+     *
+     * @return The chunks per second
+     */
+    public double getChunksPerSecond() {
+        return this.chunksPerSecond;
+    }
+
+    /**
+     * Gets the number of chunks that are being generated off the main
+     * thread.
+     *
+     * @return The pending chunks
+     */
+    public int getPendingChunks() {
+        int count = 0;
+        for (ChunkGroup group : this.pendingGroups) {
+            for (CompletableFuture<Chunk> chunk : group.generated) {
+                if (chunk != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the time the last step was allowed to spend on the main thread,
+     * which is adapted to the time the rest of the server needs per tick.
+     *
+     * @return The step time limit
+     */
+    public Duration getStepTimeLimit() {
+        return Duration.ofMillis(this.stepTimeLimit);
+    }
+
+    /**
+     * Gets the mean tick time of the server, as measured before the last
+     * step.
+     *
+     * @return The mean tick time in milliseconds
+     */
+    public double getMeanTickTime() {
+        return this.meanTickTime;
+    }
+
     @Override
     public void accept(Task task) {
         final long stepStartTime = System.currentTimeMillis();
@@ -235,37 +316,75 @@ public void accept(Task task) {
             return;
         }
 
+        this.updateStepTimeLimit();
+
         // Count how many chunks are generated during the tick
         int count = 0;
         int skipped = 0;
-        do {
-            final Vector3i position = nextChunkPosition();
-            final Vector3i pos1 = position.sub(Vector3i.UNIT_X);
-            final Vector3i pos2 = position.sub(Vector3i.UNIT_Z);
-            final Vector3i pos3 = pos2.sub(Vector3i.UNIT_X);
 
-            // We can only skip generation if all chunks are loaded.
-            if (!areAllChunksLoaded(position, pos1, pos2, pos3)) {
-
-                // At least one chunk isn't generated, so to populate, we need to load them all.
-                this.world.loadChunk(position, true);
-                this.world.loadChunk(pos1, true);
-                this.world.loadChunk(pos2, true);
-                this.world.loadChunk(pos3, true);
+        // Load and populate the chunks that finished generating, in spiral order
+        while (!this.pendingGroups.isEmpty() && this.pendingGroups.peek().isDone()
+                && checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime)) {
+            final ChunkGroup group = this.pendingGroups.poll();
+            for (int i = 0; i < group.positions.length; i++) {
+                loadChunk(group.positions[i], group.generated.get(i));
+            }
+            count += group.genCount;
+        }
 
-                count += this.currentGenCount;
-            } else {
+        boolean saturated = false;
+        while (checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime)) {
+            if (this.nextGroup == null) {
+                if (!hasNextChunkPosition()) {
+                    break;
+                }
+                final Vector3i position = nextChunkPosition();
+                this.nextGroup = new ChunkGroup(this.currentGenCount, position, position.sub(Vector3i.UNIT_X), position.sub(Vector3i.UNIT_Z),
+                        position.sub(Vector3i.UNIT_X).sub(Vector3i.UNIT_Z));
+            }
+            final ChunkGroup group = this.nextGroup;
+            final boolean[] exists = new boolean[group.positions.length];
+            if (!checkChunksExist(group, exists)) {
+                // Wait for the region file header
+                break;
+            }
 
+            // We can only skip generation if all chunks exist.
+            if (allTrue(exists)) {
                 // Skipped them, log this.
-                skipped += this.currentGenCount;
+                skipped += group.genCount;
+                this.nextGroup = null;
+                continue;
             }
-        } while (hasNextChunkPosition() && checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime));
+
+            if (this.asyncGeneration) {
+                if (this.pendingGroups.size() >= this.maxPendingGroups) {
+                    saturated = true;
+                    break;
+                }
+                // Existing chunks are only loaded once the group is complete, to populate the generated ones
+                for (int i = 0; i < group.positions.length; i++) {
+                    final Vector3i position = group.positions[i];
+                    group.generated.add(exists[i] ? null : AsyncTerrainGenerator.generate(this.worldServer, position.getX(), position.getZ()));
+                }
+                this.pendingGroups.add(group);
+            } else {
+                // At least one chunk isn't generated, so to populate, we need to load them all.
+                for (Vector3i position : group.positions) {
+                    this.world.loadChunk(position, true);
+                }
+                count += group.genCount;
+            }
+            this.nextGroup = null;
+        }
 
         this.chunksGenerated += count;
         this.chunksSkipped += skipped;
 
-        final long deltaTime = System.currentTimeMillis() - stepStartTime;
-        this.generationEndTime = System.currentTimeMillis();
+        final long now = System.currentTimeMillis();
+        final long deltaTime = now - stepStartTime;
+        this.generationEndTime = now;
+        this.updateThroughput(count + skipped, deltaTime, now, saturated);
 
         // Create and fire event.
         if (Sponge.getEventManager().post(SpongeEventFactory.createChunkPreGenerationEventPost(
@@ -280,7 +399,7 @@ public void accept(Task task) {
             return;
         }
 
-        if (!hasNextChunkPosition()) {
+        if (!hasNextChunkPosition() && this.nextGroup == null && this.pendingGroups.isEmpty()) {
             // Generation has completed.
             Sponge.getEventManager().post(SpongeEventFactory.createChunkPreGenerationEventComplete(
                     this.cause,
@@ -294,9 +413,82 @@ public void accept(Task task) {
         }
     }
 
-    private boolean areAllChunksLoaded(Vector3i chunk1, Vector3i chunk2, Vector3i chunk3, Vector3i chunk4) {
-        return this.doesChunkExistCheck.test(chunk1) && this.doesChunkExistCheck.test(chunk2) &&
-                this.doesChunkExistCheck.test(chunk3) && this.doesChunkExistCheck.test(chunk4);
+    private void loadChunk(Vector3i position, @Nullable CompletableFuture<Chunk> generated) {
+        if (generated != null) {
+            try {
+                this.chunkProvider.loadGeneratedChunk(generated.join());
+                return;
+            } catch (CompletionException e) {
+                SpongeImpl.getLogger().error("Failed to generate chunk {} off the main thread, generating it again", position, e.getCause());
+            }
+        }
+        this.world.loadChunk(position, true);
+    }
+
+    /**
+     * Checks which chunks of a group exist, either loaded or saved.
+     *
+     * @param group The group of chunks
+     * @param exists The existence of each chunk
+     * @return False if a region file header is still being read
+     */
+    private boolean checkChunksExist(ChunkGroup group, boolean[] exists) {
+        for (int i = 0; i < group.positions.length; i++) {
+            final Vector3i position = group.positions[i];
+            if (this.chunkProvider.getLoadedChunkWithoutMarkingActive(position.getX(), position.getZ()) != null) {
+                exists[i] = true;
+                continue;
+            }
+            if (this.savedChunks == null) {
+                exists[i] = false;
+                continue;
+            }
+            final Tristate saved = this.savedChunks.isSaved(position.getX(), position.getZ());
+            if (saved == Tristate.UNDEFINED) {
+                return false;
+            }
+            exists[i] = saved.asBoolean();
+        }
+        return true;
+    }
+
+    private static boolean allTrue(boolean[] values) {
+        for (boolean value : values) {
+            if (!value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adapts the time this step may take to the time the rest of the server
+     * spends per tick, so the server keeps up with its tick rate.
+     */
+    private void updateStepTimeLimit() {
+        this.meanTickTime = MathHelper.average(SpongeImpl.getServer().tickTimeArray) * 1.0E-6D;
+        // The mean includes the steps of this task, which run once per interval
+        final double otherTickTime = Math.max(0, this.meanTickTime - (double) this.lastStepTime / this.tickInterval);
+        final long headroom = (long) (this.scheduler.getPreferredTickInterval() - otherTickTime);
+        this.stepTimeLimit = Math.max(MIN_STEP_TIME, Math.min(this.tickTimeLimit, headroom));
+
+        // Back off the terrain workers while the server is behind, they compete with the main thread
+        if (headroom <= 0) {
+            this.maxPendingGroups = Math.max(1, this.maxPendingGroups / 2);
+        }
+    }
+
+    private void updateThroughput(int chunks, long stepTime, long now, boolean saturated) {
+        this.lastStepTime = stepTime;
+        if (saturated && this.stepTimeLimit > MIN_STEP_TIME) {
+            this.maxPendingGroups = Math.min(this.maxPendingGroups + 1, AsyncTerrainGenerator.getNumThreads() * MAX_PENDING_GROUPS_PER_THREAD);
+        }
+        if (this.lastStepEndTime != 0 && now > this.lastStepEndTime) {
+            final double chunksPerSecond = chunks * 1000.0 / (now - this.lastStepEndTime);
+            this.chunksPerSecond = this.chunksPerSecond == 0 ? chunksPerSecond
+                    : this.chunksPerSecond + THROUGHPUT_SMOOTHING * (chunksPerSecond - this.chunksPerSecond);
+        }
+        this.lastStepEndTime = now;
     }
 
     private void unregisterListener() {
@@ -313,6 +505,7 @@ private void cancelTask(Task task) {
         }
 
         this.isCancelled = true;
+        this.pendingGroups.clear();
         unregisterListener();
     }
 
@@ -347,7 +540,29 @@ private boolean checkChunkCount(int count) {
     }
 
     private boolean checkTickTime(long tickTime) {
-        return this.tickPercent <= 0 || tickTime < this.tickTimeLimit;
+        return this.tickPercent <= 0 || tickTime < this.stepTimeLimit;
+    }
+
+    private static final class ChunkGroup {
+
+        final int genCount;
+        final Vector3i[] positions;
+        // The chunks being generated, or null for chunks that exist
+        final List<CompletableFuture<Chunk>> generated = new ArrayList<>(4);
+
+        ChunkGroup(int genCount, Vector3i... positions) {
+            this.genCount = genCount;
+            this.positions = positions;
+        }
+
+        boolean isDone() {
+            for (CompletableFuture<Chunk> chunk : this.generated) {
+                if (chunk != null && !chunk.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     public static class Builder implements ChunkPreGenerate.Builder {
@@ -393,6 +608,12 @@ public ChunkPreGenerate.Builder logger(@Nullable Logger logger) {
                                 100 * (post.getChunkPreGenerate().getTotalGeneratedChunks() + post.getChunkPreGenerate().getTotalSkippedChunks())
                                     / post.getChunkPreGenerate().getTargetTotalChunks())
                         );
+                        if (post.getChunkPreGenerate() instanceof SpongeChunkPreGenerateTask) {
+                            final SpongeChunkPreGenerateTask task = (SpongeChunkPreGenerateTask) post.getChunkPreGenerate();
+                            logger.debug("{} chunks per second, {} chunks pending, {}ms step limit, {}ms mean tick time",
+                                String.format("%.1f", task.getChunksPerSecond()), task.getPendingChunks(), task.getStepTimeLimit().toMillis(),
+                                String.format("%.1f", task.getMeanTickTime()));
+                        }
                     } else if (event instanceof ChunkPreGenerationEvent.Complete) {
                         logger.info("Done! Generated a total of {} chunks in {}", event.getChunkPreGenerate().getTargetTotalChunks(),
                             DurationFormatUtils.formatDuration(event.getChunkPreGenerate().getTotalTime().toMillis(), TIME_FORMAT, false));
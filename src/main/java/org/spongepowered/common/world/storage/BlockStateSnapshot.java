@@ -0,0 +1,116 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.NibbleArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * An immutable copy of the block states of a {@link BlockStateContainer},
+ * made of its packed storage and palette so that it is cheap to take on the
+ * main thread and can be serialized on another thread.
+ */
+public final class BlockStateSnapshot {
+
+    private final int bits;
+    private final long[] storage;
+    // Null if the container uses the global palette
+    @Nullable private final IBlockState[] palette;
+
+    public BlockStateSnapshot(int bits, long[] storage, @Nullable IBlockState[] palette) {
+        this.bits = bits;
+        this.storage = storage;
+        this.palette = palette;
+    }
+
+    /**
+     * Reads a value from packed storage, see {@code BitArray#getAt}.
+     *
+     * @param storage The packed storage
+     * @param bits The amount of bits per value
+     * @param index The index of the value
+     * @return The value
+     */
+    static int getAt(long[] storage, int bits, int index) {
+        final long mask = (1L << bits) - 1L;
+        final int bitIndex = index * bits;
+        final int start = bitIndex >> 6;
+        final int end = ((index + 1) * bits - 1) >> 6;
+        final int offset = bitIndex & 63;
+        if (start == end) {
+            return (int) (storage[start] >>> offset & mask);
+        }
+        return (int) ((storage[start] >>> offset | storage[end] << (64 - offset)) & mask);
+    }
+
+    /**
+     * Writes the block states in the legacy format of the chunk sections,
+     * see {@code BlockStateContainer#getDataForNBT}.
+     *
+     * @param blockIds The array to write the block ids to
+     * @param data The array to write the block metadata to
+     * @return The extra bits of the block ids, or null if there are none
+     */
+    @Nullable
+    public NibbleArray getDataForNBT(byte[] blockIds, NibbleArray data) {
+        // Resolve the ids of the palette only once
+        final int[] ids;
+        if (this.palette != null) {
+            ids = new int[this.palette.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = getStateId(this.palette[i]);
+            }
+        } else {
+            ids = null;
+        }
+        NibbleArray add = null;
+        for (int i = 0; i < 4096; i++) {
+            final int value = getAt(this.storage, this.bits, i);
+            final int id = ids != null ? ids[value] : getStateId(Block.BLOCK_STATE_IDS.getByValue(value));
+            final int x = i & 15;
+            final int y = i >> 8 & 15;
+            final int z = i >> 4 & 15;
+            if ((id >> 12 & 15) != 0) {
+                if (add == null) {
+                    add = new NibbleArray();
+                }
+                add.set(x, y, z, id >> 12 & 15);
+            }
+            blockIds[i] = (byte) (id >> 4 & 255);
+            data.set(x, y, z, id & 15);
+        }
+        return add;
+    }
+
+    private static int getStateId(@Nullable IBlockState state) {
+        return Block.BLOCK_STATE_IDS.get(state == null ? Blocks.AIR.getDefaultState() : state);
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.Entity;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ClassInheritanceMultiMap;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.NextTickListEntry;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.spongepowered.common.data.util.NbtDataUtil;
+import org.spongepowered.common.interfaces.IMixinChunk;
+import org.spongepowered.common.interfaces.world.IMixinBlockStateContainer;
+import org.spongepowered.common.world.TrackedBlockPositions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The state of a chunk that is being saved, captured on the main thread.
+ * Block states, light and biomes are copied when the snapshot is taken, the
+ * entities and tile entities are serialized on the main thread, possibly in
+ * batches afterwards. The chunk data is then built from the snapshot on any
+ * thread, in the same format as {@code AnvilChunkLoader#writeChunkToNBT}.
+ */
+public final class ChunkSaveSnapshot {
+
+    // The data version written by vanilla
+    private static final int DATA_VERSION = 1343;
+
+    private static final class Section {
+
+        final int y;
+        final BlockStateSnapshot blocks;
+        final byte[] blockLight;
+        @Nullable final byte[] skyLight;
+
+        Section(int y, BlockStateSnapshot blocks, byte[] blockLight, @Nullable byte[] skyLight) {
+            this.y = y;
+            this.blocks = blocks;
+            this.blockLight = blockLight;
+            this.skyLight = skyLight;
+        }
+    }
+
+    private final Chunk chunk;
+    private final long lastUpdate;
+    private final int[] heightMap;
+    private final boolean terrainPopulated;
+    private final boolean lightPopulated;
+    private final long inhabitedTime;
+    private final List<Section> sections = new ArrayList<>();
+    private final byte[] biomes;
+    @Nullable private final NBTTagList tileTicks;
+    @Nullable private final int[] trackedPositions;
+
+    private final List<Entity> entities = new ArrayList<>();
+    private final List<TileEntity> tileEntities;
+    private final NBTTagList entityTags = new NBTTagList();
+    private final NBTTagList tileEntityTags = new NBTTagList();
+    private boolean hasEntities;
+    private int entityIndex;
+    private int tileEntityIndex;
+
+    /**
+     * Captures the state of a chunk, must be called from the main thread.
+     *
+     * @param chunk The chunk
+     * @param world The world of the chunk
+     */
+    public ChunkSaveSnapshot(Chunk chunk, World world) {
+        this.chunk = chunk;
+        this.lastUpdate = world.getTotalWorldTime();
+        this.heightMap = chunk.getHeightMap().clone();
+        this.terrainPopulated = chunk.isTerrainPopulated();
+        this.lightPopulated = chunk.isLightPopulated();
+        this.inhabitedTime = chunk.getInhabitedTime();
+        final boolean hasSkyLight = world.provider.hasSkyLight();
+        for (ExtendedBlockStorage storage : chunk.getBlockStorageArray()) {
+            if (storage != Chunk.NULL_BLOCK_STORAGE) {
+                final byte[] blockLight = storage.getBlockLight().getData().clone();
+                this.sections.add(new Section(storage.getYLocation() >> 4 & 255,
+                        ((IMixinBlockStateContainer) storage.getData()).createSnapshot(), blockLight,
+                        hasSkyLight ? storage.getSkyLight().getData().clone() : null));
+            }
+        }
+        this.biomes = chunk.getBiomeArray().clone();
+
+        final List<NextTickListEntry> pendingUpdates = world.getPendingBlockUpdates(chunk, false);
+        if (pendingUpdates != null) {
+            this.tileTicks = new NBTTagList();
+            for (NextTickListEntry entry : pendingUpdates) {
+                final NBTTagCompound tick = new NBTTagCompound();
+                final ResourceLocation id = Block.REGISTRY.getNameForObject(entry.getBlock());
+                tick.setString("i", id == null ? "" : id.toString());
+                tick.setInteger("x", entry.position.getX());
+                tick.setInteger("y", entry.position.getY());
+                tick.setInteger("z", entry.position.getZ());
+                tick.setInteger("t", (int) (entry.scheduledTime - this.lastUpdate));
+                tick.setInteger("p", entry.priority);
+                this.tileTicks.appendTag(tick);
+            }
+        } else {
+            this.tileTicks = null;
+        }
+
+        final TrackedBlockPositions trackedPositions = ((IMixinChunk) chunk).getTrackedBlockPositions();
+        this.trackedPositions = trackedPositions != null && !trackedPositions.isEmpty() ? trackedPositions.serialize() : null;
+
+        for (ClassInheritanceMultiMap<Entity> entities : chunk.getEntityLists()) {
+            this.entities.addAll(entities);
+        }
+        this.tileEntities = new ArrayList<>(chunk.getTileEntityMap().values());
+    }
+
+    public ChunkPos getPos() {
+        return this.chunk.getPos();
+    }
+
+    /**
+     * Gets whether all the entities and tile entities are serialized.
+     *
+     * @return True if the chunk data can be built
+     */
+    public boolean isSerialized() {
+        return this.entityIndex == this.entities.size() && this.tileEntityIndex == this.tileEntities.size();
+    }
+
+    /**
+     * Serializes the next entities and tile entities, must be called from the
+     * main thread. The entities captured by the snapshot are all saved with
+     * this chunk, so the chunk must either be unloaded, whose entities no
+     * longer tick, or be serialized within the tick the snapshot was taken.
+     *
+     * @param max The maximum amount of entities and tile entities to serialize
+     * @return The amount that was serialized
+     */
+    public int serializeEntities(int max) {
+        int count = 0;
+        while (count < max && this.entityIndex < this.entities.size()) {
+            final Entity entity = this.entities.get(this.entityIndex++);
+            count++;
+            final NBTTagCompound compound = new NBTTagCompound();
+            if (entity.writeToNBTOptional(compound)) {
+                this.hasEntities = true;
+                this.entityTags.appendTag(compound);
+            }
+        }
+        while (count < max && this.tileEntityIndex < this.tileEntities.size()) {
+            final TileEntity tileEntity = this.tileEntities.get(this.tileEntityIndex++);
+            count++;
+            this.tileEntityTags.appendTag(tileEntity.writeToNBT(new NBTTagCompound()));
+        }
+        if (this.isSerialized()) {
+            this.chunk.setHasEntities(this.hasEntities);
+        }
+        return count;
+    }
+
+    /**
+     * Builds the chunk data, once all the entities and tile entities are
+     * {@link #isSerialized serialized}. May be called from any thread.
+     *
+     * @return The chunk data
+     */
+    public NBTTagCompound toNBT() {
+        final ChunkPos pos = this.chunk.getPos();
+        final NBTTagCompound level = new NBTTagCompound();
+        level.setInteger("xPos", pos.x);
+        level.setInteger("zPos", pos.z);
+        level.setLong("LastUpdate", this.lastUpdate);
+        level.setIntArray("HeightMap", this.heightMap);
+        level.setBoolean("TerrainPopulated", this.terrainPopulated);
+        level.setBoolean("LightPopulated", this.lightPopulated);
+        level.setLong("InhabitedTime", this.inhabitedTime);
+
+        final NBTTagList sections = new NBTTagList();
+        for (Section section : this.sections) {
+            final NBTTagCompound compound = new NBTTagCompound();
+            compound.setByte("Y", (byte) section.y);
+            final byte[] blockIds = new byte[4096];
+            final NibbleArray data = new NibbleArray();
+            final NibbleArray add = section.blocks.getDataForNBT(blockIds, data);
+            compound.setByteArray("Blocks", blockIds);
+            compound.setByteArray("Data", data.getData());
+            if (add != null) {
+                compound.setByteArray("Add", add.getData());
+            }
+            compound.setByteArray("BlockLight", section.blockLight);
+            compound.setByteArray("SkyLight", section.skyLight != null ? section.skyLight : new byte[section.blockLight.length]);
+            sections.appendTag(compound);
+        }
+        level.setTag(NbtDataUtil.CHUNK_DATA_SECTIONS, sections);
+        level.setByteArray("Biomes", this.biomes);
+        level.setTag("Entities", this.entityTags);
+        level.setTag("TileEntities", this.tileEntityTags);
+        if (this.tileTicks != null) {
+            level.setTag("TileTicks", this.tileTicks);
+        }
+        if (this.trackedPositions != null) {
+            final NBTTagCompound trackedNbt = new NBTTagCompound();
+            trackedNbt.setIntArray(NbtDataUtil.SPONGE_TRACKED_BLOCK_POSITIONS, this.trackedPositions);
+            level.setTag(NbtDataUtil.SPONGE_DATA, trackedNbt);
+        }
+
+        final NBTTagCompound compound = new NBTTagCompound();
+        compound.setTag(NbtDataUtil.CHUNK_DATA_LEVEL, level);
+        compound.setInteger("DataVersion", DATA_VERSION);
+        return compound;
+    }
+
+}
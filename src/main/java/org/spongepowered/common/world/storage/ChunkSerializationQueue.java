@@ -0,0 +1,241 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.SpongeImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * The chunks of a chunk loader that are being saved from a
+ * {@link ChunkSaveSnapshot}. The entities of unloaded chunks are serialized
+ * in batches when the loader ticks, then the chunk data is built on a worker
+ * thread. The built chunk data is handed back to the main thread, which
+ * queues it to be written like any other chunk when the loader ticks.
+ *
+ * <p>Only the latest snapshot of a chunk is queued. Loading a chunk, or
+ * flushing the loader, completes the pending snapshots on the calling
+ * thread, which must be the main thread.</p>
+ */
+public final class ChunkSerializationQueue {
+
+    @Nullable private static ExecutorService executor;
+
+    public static boolean isEnabled() {
+        return SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useAsyncChunkSerialization();
+    }
+
+    private final BiConsumer<ChunkPos, NBTTagCompound> pendingChunks;
+    // The latest snapshot of each chunk, guarded by itself
+    private final Map<ChunkPos, ChunkSaveSnapshot> snapshots = new HashMap<>();
+    // The snapshots waiting for their entities, only used from the main thread
+    private final ArrayDeque<ChunkSaveSnapshot> serializing = new ArrayDeque<>();
+    // The chunk data built by the workers, queued by the main thread
+    private final Queue<Built> built = new ConcurrentLinkedQueue<>();
+
+    private static final class Built {
+
+        final ChunkSaveSnapshot snapshot;
+        final NBTTagCompound compound;
+
+        Built(ChunkSaveSnapshot snapshot, NBTTagCompound compound) {
+            this.snapshot = snapshot;
+            this.compound = compound;
+        }
+    }
+
+    /**
+     * Creates a new queue.
+     *
+     * @param pendingChunks Queues the chunk data to be written
+     */
+    public ChunkSerializationQueue(BiConsumer<ChunkPos, NBTTagCompound> pendingChunks) {
+        this.pendingChunks = pendingChunks;
+    }
+
+    /**
+     * Captures a snapshot of a chunk to be saved.
+     *
+     * @param chunk The chunk
+     * @param world The world of the chunk
+     */
+    public void save(Chunk chunk, World world) {
+        final ChunkSaveSnapshot snapshot = new ChunkSaveSnapshot(chunk, world);
+        if (chunk.isLoaded()) {
+            // The entities of chunks that stay loaded keep moving between
+            // chunks, they are saved along with the blocks
+            snapshot.serializeEntities(Integer.MAX_VALUE);
+        }
+        synchronized (this.snapshots) {
+            this.snapshots.put(snapshot.getPos(), snapshot);
+        }
+        if (snapshot.isSerialized()) {
+            this.submit(snapshot);
+        } else {
+            this.serializing.add(snapshot);
+        }
+    }
+
+    /**
+     * Queues the chunk data built since the last tick to be written, and
+     * serializes the entities of the queued snapshots, up to the configured
+     * amount.
+     */
+    public void tick() {
+        this.queueBuilt();
+        int max = SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getAsyncChunkSerializationCategory().getMaxEntitiesPerTick();
+        while (max > 0 && !this.serializing.isEmpty()) {
+            final ChunkSaveSnapshot snapshot = this.serializing.peek();
+            if (!this.isCurrent(snapshot)) {
+                this.serializing.poll();
+                continue;
+            }
+            max -= snapshot.serializeEntities(max);
+            if (snapshot.isSerialized()) {
+                this.serializing.poll();
+                this.submit(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Gets whether a chunk is being saved.
+     *
+     * @param pos The chunk position
+     * @return True if a snapshot of the chunk is pending
+     */
+    public boolean isPending(ChunkPos pos) {
+        synchronized (this.snapshots) {
+            return this.snapshots.containsKey(pos);
+        }
+    }
+
+    /**
+     * Completes the pending snapshot of a chunk, if there is one, so that
+     * its data can be read.
+     *
+     * @param pos The chunk position
+     */
+    public void complete(ChunkPos pos) {
+        final ChunkSaveSnapshot snapshot;
+        synchronized (this.snapshots) {
+            snapshot = this.snapshots.get(pos);
+        }
+        if (snapshot != null) {
+            this.complete(snapshot);
+        }
+    }
+
+    /**
+     * Completes all the pending snapshots.
+     */
+    public void completeAll() {
+        final List<ChunkSaveSnapshot> snapshots;
+        synchronized (this.snapshots) {
+            snapshots = new ArrayList<>(this.snapshots.values());
+        }
+        for (ChunkSaveSnapshot snapshot : snapshots) {
+            this.complete(snapshot);
+        }
+        this.serializing.clear();
+        // Drops the data built by the workers in the meantime
+        this.queueBuilt();
+    }
+
+    private void complete(ChunkSaveSnapshot snapshot) {
+        snapshot.serializeEntities(Integer.MAX_VALUE);
+        // A worker may build the same snapshot, only the first one is queued
+        this.queue(snapshot, snapshot.toNBT());
+    }
+
+    private void queueBuilt() {
+        Built built;
+        while ((built = this.built.poll()) != null) {
+            this.queue(built.snapshot, built.compound);
+        }
+    }
+
+    private boolean isCurrent(ChunkSaveSnapshot snapshot) {
+        synchronized (this.snapshots) {
+            return this.snapshots.get(snapshot.getPos()) == snapshot;
+        }
+    }
+
+    private void submit(ChunkSaveSnapshot snapshot) {
+        getExecutor().execute(() -> {
+            try {
+                this.built.add(new Built(snapshot, snapshot.toNBT()));
+            } catch (Exception e) {
+                SpongeImpl.getLogger().error("Failed to save chunk ({}, {})", snapshot.getPos().x, snapshot.getPos().z, e);
+            }
+        });
+    }
+
+    /**
+     * Queues the data of a snapshot to be written, must be called from the
+     * main thread, which is the only one changing the snapshots. The chunk
+     * loader may block, so it is called outside of the snapshots lock.
+     */
+    private void queue(ChunkSaveSnapshot snapshot, NBTTagCompound compound) {
+        // Superseded by a newer snapshot, or already queued
+        if (!this.isCurrent(snapshot)) {
+            return;
+        }
+        this.pendingChunks.accept(snapshot.getPos(), compound);
+        // The chunk stays pending until its data can be found by the loader
+        synchronized (this.snapshots) {
+            this.snapshots.remove(snapshot.getPos());
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final int numThreads = Math.max(1,
+                    SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getAsyncChunkSerializationCategory().getNumThreads());
+            executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("Sponge - Chunk Serialization Thread #%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return executor;
+    }
+
+}
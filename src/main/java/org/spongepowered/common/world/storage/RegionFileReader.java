@@ -0,0 +1,266 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.world.chunk.storage.RegionFileCache;
+import org.spongepowered.api.data.DataContainer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads chunks directly from a region file, without going through the
+ * {@link RegionFileCache} and evicting the region files that are in use by
+ * the server. Only the offset table is kept in memory, the chunks
+ * themselves are read on demand and can be read from any thread, also while
+ * the server writes to the region file.
+ */
+final class RegionFileReader {
+
+    static final int CHUNKS_PER_REGION = 1024;
+
+    private static final int SECTOR_SIZE = 4096;
+    private static final int MAX_READ_ATTEMPTS = 3;
+    private static final Pattern FILE_NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+
+    final Path path;
+    final int regionX;
+    final int regionZ;
+    private final int[] offsets;
+
+    private RegionFileReader(Path path, int regionX, int regionZ, int[] offsets) {
+        this.path = path;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Reads the offset table of the region file at the given path.
+     *
+     * @param path The path of the region file
+     * @return The reader, or empty if the file is not a readable region file
+     */
+    static Optional<RegionFileReader> open(Path path) {
+        final Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        final int[] offsets = new int[CHUNKS_PER_REGION];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Smaller files have no chunks yet, RegionFile would initialize them
+            if (channel.size() >= SECTOR_SIZE) {
+                final ByteBuffer header = ByteBuffer.allocate(SECTOR_SIZE);
+                readFully(channel, header, 0);
+                header.flip();
+                header.asIntBuffer().get(offsets);
+            }
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        return Optional.of(new RegionFileReader(path, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), offsets));
+    }
+
+    /**
+     * Gets the index of the first chunk present in this region, starting at
+     * the given index.
+     *
+     * @param from The index to start at
+     * @return The index, or -1 if there are no more chunks
+     */
+    int nextChunkIndex(int from) {
+        for (int index = from; index < CHUNKS_PER_REGION; index++) {
+            if (this.offsets[index] != 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    int countChunks(int from) {
+        int count = 0;
+        for (int index = from; index < CHUNKS_PER_REGION; index++) {
+            if (this.offsets[index] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the indices of the chunks present in this region.
+     *
+     * @return The chunk indices
+     */
+    BitSet getChunkIndices() {
+        final BitSet indices = new BitSet(CHUNKS_PER_REGION);
+        for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+            if (this.offsets[index] != 0) {
+                indices.set(index);
+            }
+        }
+        return indices;
+    }
+
+    static int getChunkIndex(int chunkX, int chunkZ) {
+        return (chunkX & 31) | (chunkZ & 31) << 5;
+    }
+
+    static Path getRegionFile(Path worldDir, int regionX, int regionZ) {
+        return worldDir.resolve("region").resolve("r." + regionX + "." + regionZ + ".mca");
+    }
+
+    /**
+     * Reads and translates the chunks at the given indices. The entries of
+     * chunks that couldn't be read hold the exception instead, which is only
+     * thrown once the chunk is requested. The entries of chunks whose data is
+     * invalid or that no longer exist are null.
+     *
+     * @param indices The chunk indices
+     * @param count The number of indices to read
+     * @return The translated chunks, or exceptions
+     */
+    Object[] readChunks(int[] indices, int count) {
+        final Object[] chunks = new Object[count];
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            for (int i = 0; i < count; i++) {
+                try {
+                    chunks[i] = this.readChunk(channel, indices[i]);
+                } catch (IOException | RuntimeException e) {
+                    chunks[i] = e instanceof RuntimeException ? e : new RuntimeException(e);
+                }
+            }
+        } catch (IOException e) {
+            for (int i = 0; i < count; i++) {
+                chunks[i] = new RuntimeException(e);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Reads a chunk, which the server may be writing at the same time. The
+     * chunk is located through the current header of the file rather than
+     * the offsets read when the reader was opened, and the header entry of
+     * the chunk is read again afterwards. If the chunk was moved or rewritten
+     * in the meantime, or its data is torn, the chunk is read again.
+     */
+    @Nullable
+    private DataContainer readChunk(FileChannel channel, int index) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            final long entry = readHeaderEntry(channel, index);
+            final ByteBuffer buffer = readSectors(channel, (int) (entry >>> 32));
+            if (buffer == null) {
+                return null;
+            }
+            final boolean last = attempt == MAX_READ_ATTEMPTS;
+            if (readHeaderEntry(channel, index) != entry) {
+                if (last) {
+                    throw new IOException("The chunk kept being rewritten while it was read");
+                }
+                continue;
+            }
+            try {
+                final DataContainer chunk = readChunkData(buffer);
+                if (chunk != null || last) {
+                    return chunk;
+                }
+            } catch (IOException e) {
+                if (last) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // The offset and the timestamp of a chunk, a write to the chunk changes at least one of them
+    private static long readHeaderEntry(FileChannel channel, int index) throws IOException {
+        final ByteBuffer offset = ByteBuffer.allocate(4);
+        readFully(channel, offset, index * 4);
+        final ByteBuffer timestamp = ByteBuffer.allocate(4);
+        readFully(channel, timestamp, SECTOR_SIZE + index * 4);
+        return (long) offset.getInt(0) << 32 | timestamp.getInt(0) & 0xFFFFFFFFL;
+    }
+
+    @Nullable
+    private static ByteBuffer readSectors(FileChannel channel, int offset) throws IOException {
+        final long position = (long) (offset >>> 8) * SECTOR_SIZE;
+        final int length = (offset & 0xFF) * SECTOR_SIZE;
+        if (length == 0 || position + length > channel.size()) {
+            return null;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer, position);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Same checks as RegionFile#getChunkDataInputStream
+    @Nullable
+    private static DataContainer readChunkData(ByteBuffer buffer) throws IOException {
+        final int dataLength = buffer.getInt(0);
+        if (dataLength <= 0 || dataLength > buffer.limit() - 4) {
+            return null;
+        }
+        final InputStream data = new ByteArrayInputStream(buffer.array(), 5, dataLength - 1);
+        final byte compression = buffer.get(4);
+        final InputStream stream;
+        if (compression == 1) {
+            stream = new GZIPInputStream(data);
+        } else if (compression == 2) {
+            stream = new InflaterInputStream(data);
+        } else {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(stream))) {
+            return WorldStorageUtil.readDataFromRegion(input);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.ParallelChunkWritingCategory;
+import org.spongepowered.common.data.util.NbtDataUtil;
+import org.spongepowered.common.interfaces.world.IMixinAnvilChunkLoader;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Writes the chunks saved by the chunk loaders of all worlds on a pool of
+ * threads, replacing the single file IO thread. Each region file belongs to
+ * one thread, so writes to different region files proceed in parallel while
+ * the writes to a region file keep their order.
+ *
+ * <p>The data waiting to be written stays in the pending map of the chunk
+ * loader, where it is found by chunk loads. Saving a chunk again before it
+ * was written replaces its pending data, which is then written once.</p>
+ */
+public final class RegionFileWriter {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_DELAY = 10;
+    // Weight of the latest write in the mean latency
+    private static final double LATENCY_WEIGHT = 0.05;
+
+    // Rough sizes of the parts of the chunk data, in bytes
+    private static final long CHUNK_SIZE = 2048;
+    private static final long SECTION_SIZE = 10752;
+    private static final long ENTITY_SIZE = 512;
+
+    @Nullable private static ScheduledExecutorService[] lanes;
+    private static final AtomicInteger pendingWrites = new AtomicInteger();
+    private static final AtomicLong pendingBytes = new AtomicLong();
+    private static final Object monitor = new Object();
+    private static volatile double meanLatency;
+
+    public static boolean isEnabled() {
+        return SpongeImpl.getGlobalConfig().getConfig().getOptimizations().useParallelChunkWriting();
+    }
+
+    /**
+     * Queues the data of a chunk to be written. Blocks while the pending data
+     * of all worlds exceeds the memory budget.
+     *
+     * @param loader The chunk loader
+     * @param pos The chunk position
+     * @param compound The chunk data
+     */
+    public static void queue(IMixinAnvilChunkLoader loader, ChunkPos pos, NBTTagCompound compound) {
+        final ParallelChunkWritingCategory config = SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getParallelChunkWritingCategory();
+        queue(loader, pos, compound, config.getMaxPendingMemory() * 1024L * 1024L);
+    }
+
+    /**
+     * Queues the data of a chunk to be written. Blocks while the pending data
+     * of all worlds exceeds the given budget.
+     *
+     * @param loader The chunk loader
+     * @param pos The chunk position
+     * @param compound The chunk data
+     * @param budget The memory budget in bytes, unlimited if not positive
+     */
+    static void queue(IMixinAnvilChunkLoader loader, ChunkPos pos, NBTTagCompound compound, long budget) {
+        awaitBudget(budget);
+        final NBTTagCompound previous = loader.getPendingChunks().put(pos, compound);
+        // Otherwise the queued write picks up the new data, which is assumed
+        // to be about as large as the data it replaces
+        if (previous == null) {
+            final Write write = new Write(loader, pos, System.nanoTime(), estimateSize(compound));
+            pendingBytes.addAndGet(write.size);
+            pendingWrites.incrementAndGet();
+            submit(write, 0);
+        }
+    }
+
+    /**
+     * Waits until all the chunks queued by a chunk loader are written.
+     *
+     * @param loader The chunk loader
+     */
+    public static void flush(IMixinAnvilChunkLoader loader) {
+        final Map<ChunkPos, NBTTagCompound> pending = loader.getPendingChunks();
+        synchronized (monitor) {
+            while (!pending.isEmpty()) {
+                if (!await()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until all the queued chunks are written.
+     */
+    public static void flushAll() {
+        synchronized (monitor) {
+            while (pendingWrites.get() > 0) {
+                if (!await()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of chunks that wait to be written.
+     *
+     * @return The queue depth
+     */
+    public static int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    /**
+     * Gets the estimated size in bytes of the chunk data that waits to be
+     * written.
+     *
+     * @return The estimated pending memory
+     */
+    public static long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * Gets the mean time in milliseconds between chunks being queued and
+     * being written, weighted towards the latest writes.
+     *
+     * @return The mean write latency
+     */
+    public static double getMeanLatency() {
+        return meanLatency;
+    }
+
+    static long estimateSize(NBTTagCompound compound) {
+        final NBTTagCompound level = compound.getCompoundTag(NbtDataUtil.CHUNK_DATA_LEVEL);
+        return CHUNK_SIZE + level.getTagList(NbtDataUtil.CHUNK_DATA_SECTIONS, NbtDataUtil.TAG_COMPOUND).tagCount() * SECTION_SIZE
+                + (level.getTagList("Entities", NbtDataUtil.TAG_COMPOUND).tagCount()
+                        + level.getTagList("TileEntities", NbtDataUtil.TAG_COMPOUND).tagCount()) * ENTITY_SIZE;
+    }
+
+    private static void awaitBudget(long budget) {
+        if (budget <= 0 || pendingBytes.get() <= budget) {
+            return;
+        }
+        synchronized (monitor) {
+            while (pendingBytes.get() > budget) {
+                if (!await()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean await() {
+        try {
+            // Completed writes notify the monitor, the timeout only guards against missed wake ups
+            monitor.wait(100);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void submit(Write write, long delay) {
+        final ScheduledExecutorService[] lanes = getLanes();
+        final int hash = 31 * (31 * write.loader.getWorldDir().hashCode() + (write.pos.x >> 5)) + (write.pos.z >> 5);
+        lanes[Math.floorMod(hash, lanes.length)].schedule(write, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledExecutorService[] getLanes() {
+        if (lanes == null) {
+            startLanes(SpongeImpl.getGlobalConfig().getConfig().getOptimizations().getParallelChunkWritingCategory().getNumThreads());
+        }
+        return lanes;
+    }
+
+    /**
+     * Starts the writer threads, unless they are already running.
+     *
+     * @param numThreads The number of threads
+     */
+    static synchronized void startLanes(int numThreads) {
+        if (lanes == null) {
+            lanes = new ScheduledExecutorService[Math.max(1, numThreads)];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("Sponge - Chunk Writer Thread #" + i)
+                        .setDaemon(true)
+                        .build());
+            }
+        }
+    }
+
+    private static final class Write implements Runnable {
+
+        final IMixinAnvilChunkLoader loader;
+        final ChunkPos pos;
+        final long queueTime;
+        // The estimated size added to the pending bytes
+        final long size;
+        int attempts;
+
+        Write(IMixinAnvilChunkLoader loader, ChunkPos pos, long queueTime, long size) {
+            this.loader = loader;
+            this.pos = pos;
+            this.queueTime = queueTime;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            final Map<ChunkPos, NBTTagCompound> pending = this.loader.getPendingChunks();
+            final NBTTagCompound compound = pending.get(this.pos);
+            if (compound == null) {
+                // Written by the file IO thread since the writer was disabled
+                this.complete();
+                return;
+            }
+            try {
+                this.loader.writeChunk(this.pos, compound);
+            } catch (Exception e) {
+                // Retry later instead of stalling the other region files of this thread
+                if (++this.attempts < MAX_ATTEMPTS) {
+                    submit(this, RETRY_DELAY * this.attempts);
+                    return;
+                }
+                SpongeImpl.getLogger().error("Failed to save chunk ({}, {}) to {} after {} attempts", this.pos.x, this.pos.z,
+                        this.loader.getWorldDir(), MAX_ATTEMPTS, e);
+            }
+            if (!pending.remove(this.pos, compound)) {
+                // Saved again while it was written
+                this.attempts = 0;
+                submit(this, 0);
+                return;
+            }
+            this.complete();
+        }
+
+        private void complete() {
+            pendingBytes.addAndGet(-this.size);
+            pendingWrites.decrementAndGet();
+            final double latency = (System.nanoTime() - this.queueTime) / 1000000D;
+            synchronized (monitor) {
+                meanLatency += (latency - meanLatency) * LATENCY_WEIGHT;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private RegionFileWriter() {
+    }
+
+}
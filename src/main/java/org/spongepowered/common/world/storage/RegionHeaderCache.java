@@ -0,0 +1,125 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import org.spongepowered.api.util.Tristate;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches which chunks are saved in the region files of a world, as read
+ * from the region file headers off the main thread. The headers are only
+ * ever stale in one direction: chunks saved after a header was read are
+ * reported as missing until it is read again.
+ *
+ * <p>Not thread safe, the cache is meant to be used from the main
+ * thread.</p>
+ */
+public final class RegionHeaderCache {
+
+    private static final class Region {
+
+        final CompletableFuture<BitSet> saved;
+        final long readTime;
+
+        Region(CompletableFuture<BitSet> saved, long readTime) {
+            this.saved = saved;
+            this.readTime = readTime;
+        }
+    }
+
+    private final IChunkLoader chunkLoader;
+    private final long maxAge;
+    private final Long2ObjectMap<Region> regions = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param chunkLoader The chunk loader of the world
+     * @param maxAge The time in milliseconds after which a header is read
+     *     again, or 0 to never read it again
+     */
+    public RegionHeaderCache(IChunkLoader chunkLoader, long maxAge) {
+        this.chunkLoader = chunkLoader;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Gets whether a chunk is saved. The headers of the regions around the
+     * region of the chunk are read ahead of time.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return Whether the chunk is saved, or {@link Tristate#UNDEFINED} while
+     *     the region file header is being read
+     */
+    public Tristate isSaved(int chunkX, int chunkZ) {
+        final CompletableFuture<BitSet> saved = this.getRegion(chunkX >> 5, chunkZ >> 5).saved;
+        if (!saved.isDone()) {
+            return Tristate.UNDEFINED;
+        }
+        // Regions that can't be read are treated as empty, their chunks are loaded anyway
+        if (saved.isCompletedExceptionally()) {
+            return Tristate.FALSE;
+        }
+        return Tristate.fromBoolean(saved.join().get(RegionFileReader.getChunkIndex(chunkX, chunkZ)));
+    }
+
+    /**
+     * Removes the headers that are due to be read again.
+     */
+    public void prune() {
+        if (this.maxAge <= 0) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        for (Iterator<Region> it = this.regions.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().readTime > this.maxAge) {
+                it.remove();
+            }
+        }
+    }
+
+    private Region getRegion(int regionX, int regionZ) {
+        final long now = System.currentTimeMillis();
+        for (int x = regionX - 1; x <= regionX + 1; x++) {
+            for (int z = regionZ - 1; z <= regionZ + 1; z++) {
+                final long key = ChunkPos.asLong(x, z);
+                final Region region = this.regions.get(key);
+                if (region == null || this.maxAge > 0 && now - region.readTime > this.maxAge && region.saved.isDone()) {
+                    this.regions.put(key, new Region(WorldStorageUtil.getSavedChunks(this.chunkLoader, x, z), now));
+                }
+            }
+        }
+        return this.regions.get(ChunkPos.asLong(regionX, regionZ));
+    }
+
+}
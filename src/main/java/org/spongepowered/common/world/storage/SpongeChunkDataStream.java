@@ -24,126 +24,172 @@
  */
 package org.spongepowered.common.world.storage;
 
-import com.google.common.collect.Sets;
-import net.minecraft.world.chunk.storage.RegionFile;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Lists;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.world.storage.ChunkDataStream;
 
-import java.io.DataInputStream;
-import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
-public class SpongeChunkDataStream implements ChunkDataStream {
+import javax.annotation.Nullable;
 
-    private static class RegionFileItr {
+/**
+ * A {@link ChunkDataStream} over the region files of a world. The chunks are
+ * read, decompressed and translated in batches on the common fork join pool
+ * ahead of the caller, and returned in region file order. Chunks whose data
+ * turns out to be invalid once read are skipped.
+ */
+public class SpongeChunkDataStream implements ChunkDataStream {
 
-        private final RegionFile file;
-        public int index;
+    private static final int BATCH_SIZE = 8;
+    private static final int MAX_PENDING_BATCHES = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 2);
 
-        public RegionFileItr(RegionFile regionFile) {
-            this.file = regionFile;
-        }
+    private static final class Batch {
 
-        public int getNext() {
-            int index = this.index;
-            int[] offsets = this.file.offsets;
-            while (index != -1 && index < offsets.length && offsets[index] == 0) {
-                index++;
-            }
-            if (index >= offsets.length) {
-                return -1;
-            }
-            return index;
-        }
+        final RegionFileReader region;
+        final int[] indices = new int[BATCH_SIZE];
+        int count;
+        @Nullable CompletableFuture<Object[]> future;
+        @Nullable Object[] chunks;
+        int consumed;
 
-        public DataInputStream getStreamAt(int index) {
-            int x = index & 31;
-            int z = index >>> 5;
-            return this.file.getChunkDataInputStream(x, z);
+        Batch(RegionFileReader region) {
+            this.region = region;
         }
 
     }
 
-    private final Set<Path> openedFiles = Sets.newHashSet();
-    private RegionFileItr regionFileItr;
     private final Path worldDir;
+    @Nullable private List<RegionFileReader> regions;
+    private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+    @Nullable private Batch current;
+    // The position of the next chunk to be scheduled
+    private int regionIndex;
+    private int chunkIndex;
+    // The chunks that have not been returned or skipped yet
+    private int remaining;
 
     public SpongeChunkDataStream(Path worldDir) {
-        this.worldDir = worldDir;
+        this.worldDir = checkNotNull(worldDir, "worldDir");
     }
 
-    private boolean itrAvailable() {
-        if (this.regionFileItr != null) {
-            return true;
+    private List<RegionFileReader> getRegions() {
+        if (this.regions == null) {
+            final List<RegionFileReader> regions = Lists.newArrayList();
+            for (Path file : WorldStorageUtil.listRegionFiles(this.worldDir)) {
+                RegionFileReader.open(file).ifPresent(regions::add);
+            }
+            regions.sort(Comparator.<RegionFileReader>comparingInt(region -> region.regionX).thenComparingInt(region -> region.regionZ));
+            this.regions = regions;
+            this.remaining = 0;
+            for (RegionFileReader region : regions) {
+                this.remaining += region.countChunks(0);
+            }
         }
-        Iterable<Path> files = WorldStorageUtil.listRegionFiles(this.worldDir);
-        for (Path file : files) {
-            if (!this.openedFiles.contains(file)) {
-                this.regionFileItr = new RegionFileItr(WorldStorageUtil.getRegionFile(file));
-                this.openedFiles.add(file);
-                return true;
+        return this.regions;
+    }
+
+    private void schedule() {
+        final List<RegionFileReader> regions = this.getRegions();
+        while (this.pending.size() < MAX_PENDING_BATCHES && this.regionIndex < regions.size()) {
+            final RegionFileReader region = regions.get(this.regionIndex);
+            final Batch batch = new Batch(region);
+            int index = this.chunkIndex;
+            while (batch.count < BATCH_SIZE && (index = region.nextChunkIndex(index)) != -1) {
+                batch.indices[batch.count++] = index++;
+            }
+            if (index == -1 || index >= RegionFileReader.CHUNKS_PER_REGION) {
+                this.regionIndex++;
+                this.chunkIndex = 0;
+            } else {
+                this.chunkIndex = index;
+            }
+            if (batch.count != 0) {
+                batch.future = CompletableFuture.supplyAsync(() -> region.readChunks(batch.indices, batch.count), ForkJoinPool.commonPool());
+                this.pending.add(batch);
             }
         }
-        return false;
     }
 
-    private int getNextIndex() {
-        int next;
-        while (itrAvailable()) {
-            if ((next = this.regionFileItr.getNext()) == -1) {
-                this.regionFileItr = null;
+    @Nullable
+    private Batch nextBatch() {
+        this.schedule();
+        final Batch batch = this.pending.poll();
+        if (batch == null) {
+            return null;
+        }
+        batch.chunks = batch.future.join();
+        batch.future = null;
+        // Keep the pool busy while this batch is consumed
+        this.schedule();
+        return batch;
+    }
+
+    /**
+     * Moves to the next chunk that was read, skipping the chunks that turned
+     * out to be invalid or missing.
+     *
+     * @return True if there is a next chunk
+     */
+    private boolean advance() {
+        while (true) {
+            if (this.current != null && this.current.consumed < this.current.count) {
+                if (this.current.chunks[this.current.consumed] != null) {
+                    return true;
+                }
+                this.current.consumed++;
+                this.remaining--;
             } else {
-                return next;
+                this.current = this.nextBatch();
+                if (this.current == null) {
+                    return false;
+                }
             }
         }
-        return -1;
     }
 
     @Override
     public DataContainer next() {
-        int next = getNextIndex();
-        if (next == -1) {
+        if (!this.advance()) {
             throw new NoSuchElementException();
         }
-        this.regionFileItr.index = next + 1;
-        DataInputStream stream = this.regionFileItr.getStreamAt(next);
-        try {
-            return WorldStorageUtil.readDataFromRegion(stream);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        final Object chunk = this.current.chunks[this.current.consumed];
+        this.current.chunks[this.current.consumed++] = null;
+        this.remaining--;
+        if (chunk instanceof RuntimeException) {
+            throw (RuntimeException) chunk;
         }
+        return (DataContainer) chunk;
     }
 
     @Override
     public boolean hasNext() {
-        return getNextIndex() != -1;
+        return this.advance();
     }
 
     @Override
     public int available() {
-        // Advance to the end of the stream, counting along the way. Store
-        // previous state and reset to it afterwards.
-        RegionFileItr currentItr = this.regionFileItr;
-        Set<Path> currentOpenedFiles = Sets.newHashSet(this.openedFiles);
-        int count = 0;
-        int index = getNextIndex();
-        while (index != -1) {
-            count++;
-            this.regionFileItr.index = index + 1;
-            index = getNextIndex();
-        }
-        this.regionFileItr = currentItr;
-        this.openedFiles.clear();
-        this.openedFiles.addAll(currentOpenedFiles);
-        return count;
+        // The chunks of batches that weren't read yet may still be skipped
+        return this.advance() ? this.remaining : 0;
     }
 
     @Override
     public void reset() {
-        this.regionFileItr = null;
-        this.openedFiles.clear();
+        for (Batch batch : this.pending) {
+            batch.future.cancel(false);
+        }
+        this.pending.clear();
+        this.current = null;
+        this.regions = null;
+        this.regionIndex = 0;
+        this.chunkIndex = 0;
     }
 
 }
@@ -30,7 +30,6 @@
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.storage.IChunkLoader;
-import net.minecraft.world.chunk.storage.RegionFile;
 import net.minecraft.world.chunk.storage.RegionFileCache;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.common.SpongeImpl;
@@ -44,6 +43,7 @@
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -73,6 +73,24 @@ public static CompletableFuture<Optional<DataContainer>> getChunkData(WorldServe
         });
     }
 
+    /**
+     * Reads which chunks of a region are saved from the offset table of its
+     * region file, without reading the chunks themselves. Chunks that are
+     * still queued for saving are not included.
+     *
+     * @param chunkLoader The chunk loader of the world
+     * @param regionX The region x coordinate
+     * @param regionZ The region z coordinate
+     * @return The saved chunks, by index within the region
+     */
+    public static CompletableFuture<BitSet> getSavedChunks(IChunkLoader chunkLoader, int regionX, int regionZ) {
+        if (!(chunkLoader instanceof IMixinAnvilChunkLoader)) {
+            return CompletableFuture.completedFuture(new BitSet());
+        }
+        final Path file = RegionFileReader.getRegionFile(((IMixinAnvilChunkLoader) chunkLoader).getWorldDir(), regionX, regionZ);
+        return SpongeImpl.getScheduler().submitAsyncTask(() -> RegionFileReader.open(file).map(RegionFileReader::getChunkIndices).orElseGet(BitSet::new));
+    }
+
     public static DataContainer readDataFromRegion(DataInputStream stream) throws IOException {
         if (stream == null) {
             return null;
@@ -99,20 +117,4 @@ public static Iterable<Path> listRegionFiles(Path worldDir) {
         }
     }
 
-    // Similar to RegionFileCache#createOrLoadRegionFile except this uses direct
-    // file name instead of x,z
-    public static RegionFile getRegionFile(Path regionFilePath) {
-        File file = regionFilePath.toFile();
-        RegionFile regionFile = RegionFileCache.REGIONS_BY_FILE.get(file);
-        if (regionFile != null) {
-            return regionFile;
-        }
-        if (RegionFileCache.REGIONS_BY_FILE.size() >= 256) {
-            RegionFileCache.clearRegionFileReferences();
-        }
-        regionFile = new RegionFile(file);
-        RegionFileCache.REGIONS_BY_FILE.put(file, regionFile);
-        return regionFile;
-    }
-
 }
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.spongepowered.api.data.DataQuery.of;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.util.List;
+import java.util.Map;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class CompactDataTest {
+
+    private static void fill(DataView view) {
+        view.set(of("foo", "bar", "baz"), 1);
+        view.set(of("foo", "double"), 2.5D);
+        view.set(of("bool"), true);
+        view.set(of("string"), "foo");
+        view.set(of("list"), ImmutableList.of(1, 2, 3));
+        for (int i = 0; i < 40; i++) {
+            view.set(of("many", "key" + i), (short) i);
+        }
+    }
+
+    @Test
+    public void testMatchesMemoryData() {
+        final DataContainer memory = DataContainer.createNew();
+        final DataContainer compact = new CompactDataContainer();
+        fill(memory);
+        fill(compact);
+        assertEquals(memory.getKeys(true), compact.getKeys(true));
+        for (DataQuery query : memory.getKeys(true)) {
+            final Object value = memory.get(query).get();
+            if (value instanceof DataView) {
+                assertEquals(((DataView) value).getCurrentPath(), compact.getView(query).get().getCurrentPath());
+            } else {
+                assertEquals(value, compact.get(query).get());
+            }
+        }
+        assertEquals(memory.getValues(true), compact.getValues(true));
+    }
+
+    @Test
+    public void testUnboxedStorage() {
+        final CompactDataContainer container = new CompactDataContainer();
+        container.set(of("int"), 5);
+        container.setLong("long", 7L);
+        assertEquals(CompactDataView.KIND_INT, container.getKind(0));
+        assertEquals(5L, container.getPrimitive(0));
+        assertEquals(CompactDataView.KIND_LONG, container.getKind(1));
+        assertEquals(7L, (long) container.getLong(of("long")).get());
+        assertTrue(container.getInt(of("long")).get() == 7);
+    }
+
+    @Test
+    public void testRemoveAndOverwrite() {
+        final DataContainer container = new CompactDataContainer();
+        fill(container);
+        container.remove(of("many", "key3"));
+        assertTrue(!container.contains(of("many", "key3")));
+        assertEquals(39, (short) container.getShort(of("many", "key39")).get());
+        container.set(of("foo"), "bar");
+        assertTrue(!container.contains(of("foo", "bar", "baz")));
+        assertEquals("bar", container.getString(of("foo")).get());
+    }
+
+    @Test
+    public void testCopy() {
+        final DataContainer container = new CompactDataContainer();
+        fill(container);
+        final DataContainer copy = container.copy();
+        assertEquals(container, copy);
+        copy.set(of("foo", "double"), 3.0D);
+        assertTrue(!container.equals(copy));
+        container.getView(of("foo")).get().set(of("root"), container);
+        assertEquals(1, (int) container.getInt(of("foo", "root", "foo", "bar", "baz")).get());
+    }
+
+    @Test
+    public void testMaps() {
+        final Map<String, Object> map = Maps.newLinkedHashMap();
+        map.put("foo", "bar");
+        map.put("number", 1);
+        final DataContainer container = new CompactDataContainer();
+        container.set(of("map"), map);
+        assertEquals(map, container.getMap(of("map")).get());
+        final List<Integer> list = container.getIntegerList(of("missing")).orElse(ImmutableList.of());
+        assertTrue(list.isEmpty());
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.spongepowered.api.data.DataQuery.of;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.common.data.persistence.JsonDataFormat;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class DataStreamTest {
+
+    private static DataContainer createSample() {
+        final DataContainer container = DataContainer.createNew();
+        container.set(of("name"), "schematic");
+        container.set(of("flag"), true);
+        container.set(of("pos", "x"), 1);
+        container.set(of("pos", "y"), 64L);
+        container.set(of("pos", "z"), 2.5D);
+        container.set(of("blocks"), new byte[] {1, 2, 3});
+        final List<DataContainer> entities = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final DataContainer entity = DataContainer.createNew();
+            entity.set(of("id"), "entity" + i);
+            entity.set(of("index"), i);
+            entity.set(of("tags"), ImmutableList.of("a", "b"));
+            entities.add(entity);
+        }
+        container.set(of("entities"), entities);
+        return container;
+    }
+
+    private static byte[] writeNbt(DataContainer container) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataViewWalker.walk(container, new NbtDataWriter(out));
+        return out.toByteArray();
+    }
+
+    private static DataContainer readNbt(byte[] bytes) throws IOException {
+        final DataContainerWriter writer = new DataContainerWriter();
+        NbtDataReader.read(new DataInputStream(new ByteArrayInputStream(bytes)), writer);
+        return writer.getResult();
+    }
+
+    @Test
+    public void testNbtRoundTrip() throws IOException {
+        final DataContainer result = readNbt(writeNbt(createSample()));
+        assertEquals("schematic", result.getString(of("name")).get());
+        assertTrue(result.getBoolean(of("flag")).get());
+        assertEquals(64L, result.get(of("pos", "y")).get());
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) result.get(of("blocks")).get());
+        final List<DataView> entities = result.getViewList(of("entities")).get();
+        assertEquals(5, entities.size());
+        assertEquals(ImmutableList.of("a", "b"), entities.get(3).getStringList(of("tags")).get());
+    }
+
+    @Test
+    public void testJsonToNbtWithoutMaterializing() throws IOException {
+        final JsonDataFormat format = new JsonDataFormat();
+        final String json = format.write(createSample());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.readFrom(new StringReader(json), new NbtDataWriter(out));
+        final DataContainer result = readNbt(out.toByteArray());
+        assertEquals(4, result.getViewList(of("entities")).get().get(4).getInt(of("index")).get().intValue());
+        assertEquals(2.5D, result.getDouble(of("pos", "z")).get(), 0);
+    }
+
+    @Test
+    public void testJsonMixedNumberListsToNbt() throws IOException {
+        final String json = "{\"Pos\":[0.0,64.0,1.5],\"Ids\":[1,3000000000,2],\"Motion\":[1.5,0.0]}";
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonDataFormat().readFrom(new StringReader(json), new NbtDataWriter(out));
+        final DataContainer result = readNbt(out.toByteArray());
+        assertEquals(ImmutableList.of(0.0D, 64.0D, 1.5D), result.getDoubleList(of("Pos")).get());
+        assertEquals(ImmutableList.of(1L, 3000000000L, 2L), result.getLongList(of("Ids")).get());
+        assertEquals(ImmutableList.of(1.5D, 0.0D), result.getDoubleList(of("Motion")).get());
+    }
+
+    @Test
+    public void testListElementVisitor() throws IOException {
+        final List<Object> elements = new ArrayList<>();
+        final DataContainerWriter rest = new DataContainerWriter();
+        NbtDataReader.read(new DataInputStream(new ByteArrayInputStream(writeNbt(createSample()))),
+                new ListElementVisitor(rest, of("entities"), elements::add));
+        assertEquals(5, elements.size());
+        assertEquals("entity2", ((DataView) elements.get(2)).getString(of("id")).get());
+        assertFalse(rest.getResult().contains(of("entities")));
+        assertEquals(1, rest.getResult().getInt(of("pos", "x")).get().intValue());
+    }
+
+}
@@ -90,4 +90,30 @@ public void testPoppingFrameRemovesFrameContexts() throws Exception {
         Assert.assertFalse(causeStackManager.getContext(EventContextKeys.OWNER).isPresent());
     }
 
+    @Test
+    public void testReusedFrameRestoresRemovedContexts() throws Exception {
+        final SpongeCauseStackManager causeStackManager = SpongeImpl.getCauseStackManager();
+
+        User user = Mockito.mock(User.class);
+
+        SpongeCauseStackManager.StackFrame frame1 = causeStackManager.pushCauseFrame();
+        causeStackManager.addContext(EventContextKeys.OWNER, user);
+
+        // Push and pop the same frame depth a few times, the frame is reused
+        for (int i = 0; i < 3; i++) {
+            SpongeCauseStackManager.StackFrame frame = causeStackManager.pushCauseFrame();
+            causeStackManager.pushCause(i);
+            causeStackManager.removeContext(EventContextKeys.OWNER);
+            Assert.assertFalse(causeStackManager.getContext(EventContextKeys.OWNER).isPresent());
+            Assert.assertEquals(i, causeStackManager.getCurrentCause().root());
+
+            causeStackManager.popCauseFrame(frame);
+            Assert.assertEquals(user, causeStackManager.getContext(EventContextKeys.OWNER).get());
+            Assert.assertEquals(user, causeStackManager.getCurrentContext().get(EventContextKeys.OWNER).get());
+        }
+
+        causeStackManager.popCauseFrame(frame1);
+        Assert.assertFalse(causeStackManager.getContext(EventContextKeys.OWNER).isPresent());
+    }
+
 }
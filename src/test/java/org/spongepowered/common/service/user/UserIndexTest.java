@@ -0,0 +1,133 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class UserIndexTest {
+
+    private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID CAROL = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path indexFile;
+    private Path playerDir;
+
+    @Before
+    public void setUp() throws IOException {
+        this.indexFile = this.folder.getRoot().toPath().resolve("users.idx");
+        this.playerDir = this.folder.newFolder("playerdata").toPath();
+        Files.createFile(this.playerDir.resolve(ALICE + ".dat"));
+        Files.createFile(this.playerDir.resolve(BOB + ".dat"));
+        Files.createFile(this.playerDir.resolve("not-a-player.dat"));
+    }
+
+    private UserIndex load() {
+        final UserIndex index = new UserIndex();
+        index.load(this.indexFile, this.playerDir, Collections.singletonMap(CAROL, "Carol"), Collections.emptyMap(),
+                ImmutableMap.of(ALICE, "Alice", BOB, "Bob"));
+        return index;
+    }
+
+    @Test
+    public void testReconcile() {
+        final UserIndex index = this.load();
+        assertEquals(3, index.stream().count());
+        assertEquals(UserIndex.DATA_FILE, index.getFlags(ALICE));
+        assertEquals(UserIndex.WHITELISTED, index.getFlags(CAROL));
+        assertEquals(Optional.of(CAROL), index.findByName("carol"));
+        assertFalse(index.findByName("car").isPresent());
+    }
+
+    @Test
+    public void testPrefixPages() {
+        final UserIndex index = this.load();
+        index.update(UUID.randomUUID(), "Alfred", UserIndex.PLAYED, 0);
+        assertEquals(2, index.page("AL", 0, 10).size());
+        assertEquals("Alice", index.page("al", 1, 10).get(0).getName().get());
+        assertEquals(2, index.page("", 2, 10).size());
+    }
+
+    @Test
+    public void testRenameAndPersist() throws IOException {
+        final UserIndex index = this.load();
+        index.update(ALICE, "Alicia", 0, 0);
+        assertFalse(index.findByName("alice").isPresent());
+        assertEquals(Optional.of(ALICE), index.findByName("ALICIA"));
+        index.save();
+
+        Files.delete(this.playerDir.resolve(BOB + ".dat"));
+        final UserIndex reloaded = new UserIndex();
+        reloaded.load(this.indexFile, this.playerDir, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        assertEquals(Optional.of("Alicia"), reloaded.getName(ALICE));
+        assertEquals(0, reloaded.getFlags(BOB));
+        assertEquals(0, reloaded.getFlags(CAROL));
+        assertEquals(1, reloaded.stream().count());
+    }
+
+    @Test
+    public void testSharedNamePicksLastSeen() throws IOException {
+        final UserIndex index = this.load();
+        index.update(ALICE, "Bob", UserIndex.PLAYED, 0);
+        assertEquals(Optional.of(ALICE), index.findByName("bob"));
+        index.update(BOB, "Bob", UserIndex.PLAYED, 0);
+        assertEquals(Optional.of(BOB), index.findByName("bob"));
+        index.save();
+
+        final UserIndex reloaded = new UserIndex();
+        reloaded.load(this.indexFile, this.playerDir, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        assertEquals(Optional.of(BOB), reloaded.findByName("BOB"));
+    }
+
+    @Test
+    public void testKeepsChangesMadeWhileLoading() {
+        final UserIndex index = new UserIndex();
+        index.update(ALICE, "Alicia", UserIndex.PLAYED, 0);
+        index.load(this.indexFile, this.playerDir, Collections.emptyMap(), Collections.emptyMap(), ImmutableMap.of(ALICE, "Alice"));
+        assertEquals(Optional.of("Alicia"), index.getName(ALICE));
+        assertEquals(UserIndex.DATA_FILE | UserIndex.PLAYED, index.getFlags(ALICE));
+        assertFalse(index.findByName("alice").isPresent());
+    }
+
+}
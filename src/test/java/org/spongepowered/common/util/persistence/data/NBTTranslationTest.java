@@ -27,6 +27,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import net.minecraft.nbt.NBTTagCompound;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,6 +37,7 @@
 import org.spongepowered.api.data.DataQuery;
 import org.spongepowered.api.data.DataView;
 import org.spongepowered.api.data.persistence.DataBuilder;
+import org.spongepowered.common.data.CompactDataContainer;
 import org.spongepowered.common.data.persistence.NbtTranslator;
 import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
 
@@ -66,4 +68,20 @@ public void testDotContainerKeys() {
         assertEquals(container, translatedContainer);
     }
 
+    @Test
+    public void testCompactRoundTrip() {
+        final CompactDataContainer container = new CompactDataContainer(DataView.SafetyMode.NO_DATA_CLONED);
+        container.set(DataQuery.of("foo", "bar"), "baz");
+        container.set(DataQuery.of("my.key.to.data"), 1);
+        container.set(DataQuery.of("flag"), true);
+        container.set(DataQuery.of("ints"), new int[] {1, 2, 3});
+        container.set(DataQuery.of("list"), ImmutableList.of(1.0D, 2.0D));
+        NBTTagCompound compound = NbtTranslator.getInstance().translateData(container);
+        assertEquals(compound, NbtTranslator.getInstance().translateData(NbtTranslator.getInstance().translateFrom(compound)));
+        CompactDataContainer translated = NbtTranslator.getInstance().translateCompact(compound);
+        assertEquals(compound, NbtTranslator.getInstance().translateData(translated));
+        assertEquals("baz", translated.getString(DataQuery.of("foo", "bar")).get());
+        assertEquals(true, translated.getBoolean(DataQuery.of("flag")).get());
+    }
+
 }
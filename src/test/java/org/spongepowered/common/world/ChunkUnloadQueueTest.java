@@ -0,0 +1,76 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ChunkUnloadQueueTest {
+
+    @Test
+    public void testPollsDueChunksInOrder() {
+        final ChunkUnloadQueue queue = new ChunkUnloadQueue();
+        assertTrue(queue.add(1, 0, 300));
+        assertTrue(queue.add(2, 0, 100));
+        assertTrue(queue.add(3, 0, 100));
+        assertFalse(queue.add(2, 50, 200));
+        assertEquals(3, queue.size());
+
+        assertNull(queue.poll(99));
+        assertEquals(2, queue.poll(100).chunkKey);
+        assertEquals(3, queue.poll(100).chunkKey);
+        assertNull(queue.poll(100));
+        assertEquals(1, queue.poll(1000).chunkKey);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testReschedule() {
+        final ChunkUnloadQueue queue = new ChunkUnloadQueue();
+        queue.add(1, 0, 100);
+        final ChunkUnloadQueue.Entry entry = queue.poll(100);
+        assertFalse(queue.contains(1));
+        queue.reschedule(entry, 500);
+        assertTrue(queue.contains(1));
+        assertNull(queue.poll(499));
+        final ChunkUnloadQueue.Entry rescheduled = queue.poll(500);
+        assertEquals(1, rescheduled.chunkKey);
+        assertEquals(0, rescheduled.queueTime);
+    }
+
+    @Test
+    public void testLatency() {
+        final ChunkUnloadQueue queue = new ChunkUnloadQueue();
+        queue.add(1, 0, 100);
+        queue.onUnloaded(queue.poll(150), 150);
+        assertEquals(1, queue.getUnloadCount());
+        assertEquals(50, queue.getMeanLatency(), 0);
+    }
+
+}
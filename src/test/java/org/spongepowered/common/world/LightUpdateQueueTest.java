@@ -0,0 +1,132 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EnumSkyBlock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class LightUpdateQueueTest {
+
+    @Test
+    public void testPackedLightType() {
+        final BlockPos pos = new BlockPos(-17, 255, 31);
+        assertEquals(EnumSkyBlock.SKY, LightUpdateQueue.unpackLightType(LightUpdateQueue.pack(EnumSkyBlock.SKY, pos)));
+        assertEquals(EnumSkyBlock.BLOCK, LightUpdateQueue.unpackLightType(LightUpdateQueue.pack(EnumSkyBlock.BLOCK, pos)));
+    }
+
+    @Test
+    public void testMarkDeduplicates() {
+        final LightUpdateQueue queue = new LightUpdateQueue();
+        final int sky = LightUpdateQueue.pack(EnumSkyBlock.SKY, new BlockPos(3, 64, 7));
+        final int block = LightUpdateQueue.pack(EnumSkyBlock.BLOCK, new BlockPos(3, 64, 7));
+        assertTrue(queue.mark(sky));
+        assertFalse(queue.mark(sky));
+        assertTrue(queue.mark(block));
+        queue.unmark(sky);
+        assertTrue(queue.mark(sky));
+    }
+
+    @Test
+    public void testFifoOrderAndCapacity() {
+        final LightUpdateQueue queue = new LightUpdateQueue();
+        int offered = 0;
+        while (queue.offer(offered)) {
+            offered++;
+        }
+        assertTrue(offered > 0);
+        for (int i = 0; i < offered; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(LightUpdateQueue.EMPTY, queue.poll());
+        assertTrue(queue.isEmpty());
+        // Wrapped around
+        assertTrue(queue.offer(42));
+        assertEquals(42, queue.poll());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        final LightUpdateQueue queue = new LightUpdateQueue();
+        final int producers = 4;
+        final int perProducer = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        final BitSet seen = new BitSet();
+        int received = 0;
+        while (received < producers * perProducer) {
+            final int value = queue.poll();
+            if (value == LightUpdateQueue.EMPTY) {
+                Thread.yield();
+                continue;
+            }
+            assertFalse("Received " + value + " twice", seen.get(value));
+            seen.set(value);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(producers * perProducer, seen.cardinality());
+    }
+
+    @Test
+    public void testSingleDrainer() {
+        final LightUpdateQueue queue = new LightUpdateQueue();
+        assertTrue(queue.tryStartDrain());
+        assertFalse(queue.tryStartDrain());
+        queue.finishDrain();
+        assertTrue(queue.tryStartDrain());
+    }
+
+}
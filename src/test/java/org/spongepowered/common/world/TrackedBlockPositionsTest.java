@@ -0,0 +1,90 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TrackedBlockPositionsTest {
+
+    @Test
+    public void testLegacyShortPositions() {
+        // x 3, y 200, z 9 in the old short layout
+        final short legacy = (short) (3 | 200 << 4 | 9 << 12);
+        assertEquals(TrackedBlockPositions.pack(3, 200, 9), TrackedBlockPositions.fromLegacyShort(legacy));
+    }
+
+    @Test
+    public void testCreatorAndNotifier() {
+        final TrackedBlockPositions positions = new TrackedBlockPositions();
+        final int pos = TrackedBlockPositions.pack(1, 64, 2);
+        assertEquals(TrackedBlockPositions.NONE, positions.getCreator(pos));
+        positions.setCreator(pos, 0);
+        positions.setNotifier(pos, 5);
+        assertEquals(0, positions.getCreator(pos));
+        assertEquals(5, positions.getNotifier(pos));
+        assertEquals(1, positions.size());
+        positions.put(pos, TrackedBlockPositions.NONE, TrackedBlockPositions.NONE);
+        assertFalse(positions.contains(pos));
+        assertTrue(positions.isEmpty());
+    }
+
+    @Test
+    public void testAgainstMap() {
+        final TrackedBlockPositions positions = new TrackedBlockPositions();
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(0);
+        for (int i = 0; i < 50000; i++) {
+            final int pos = TrackedBlockPositions.pack(random.nextInt(16), random.nextInt(256), random.nextInt(16));
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(pos) != null, positions.remove(pos));
+            } else {
+                positions.setCreator(pos, i);
+                expected.put(pos, i);
+            }
+        }
+        assertEquals(expected.size(), positions.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), positions.getCreator(entry.getKey()));
+        }
+
+        final TrackedBlockPositions copy = TrackedBlockPositions.deserialize(positions.serialize());
+        assertEquals(positions.size(), copy.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), copy.getCreator(entry.getKey()));
+            assertEquals(TrackedBlockPositions.NONE, copy.getNotifier(entry.getKey()));
+        }
+        assertArrayEquals(new int[0], new TrackedBlockPositions().serialize());
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.util.List;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class BlockSectionTest {
+
+    @Test
+    public void testSplitAlignsToSections() {
+        final List<BlockSection> sections = BlockSection.split(new Vector3i(-20, 5, 7), new Vector3i(5, 40, 16));
+        // x: [-20, -17] [-16, -1] [0, 5], y: [5, 15] [16, 31] [32, 40], z: [7, 15] [16, 16]
+        assertEquals(3 * 3 * 2, sections.size());
+        long volume = 0;
+        for (BlockSection section : sections) {
+            assertEquals(section.minX >> 4, (section.minX + section.sizeX - 1) >> 4);
+            assertEquals(section.minY >> 4, (section.minY + section.sizeY - 1) >> 4);
+            assertEquals(section.minZ >> 4, (section.minZ + section.sizeZ - 1) >> 4);
+            volume += section.sizeX * section.sizeY * section.sizeZ;
+        }
+        assertEquals(26 * 36 * 10, volume);
+    }
+
+    @Test
+    public void testSectionsOfAChunkAreAdjacent() {
+        final List<BlockSection> sections = BlockSection.split(new Vector3i(0, 0, 0), new Vector3i(47, 255, 31));
+        for (int i = 1; i < sections.size(); i++) {
+            final BlockSection previous = sections.get(i - 1);
+            final BlockSection section = sections.get(i);
+            final boolean sameChunk = previous.minX >> 4 == section.minX >> 4 && previous.minZ >> 4 == section.minZ >> 4;
+            assertTrue(sameChunk || section.minY == 0);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import net.minecraft.world.chunk.Chunk;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TerrainPredictorTest {
+
+    private final Object generationLock = new Object();
+
+    private TerrainPredictor.PreparedChunk prepare(Chunk chunk, CountDownLatch started) {
+        final TerrainPredictor.PreparedChunk prepared = new TerrainPredictor.PreparedChunk(0);
+        prepared.chunk = new CompletableFuture<>();
+        final Thread worker = new Thread(() -> {
+            if (!prepared.start()) {
+                prepared.chunk.cancel(false);
+                return;
+            }
+            started.countDown();
+            // The populator stage of the worker
+            synchronized (this.generationLock) {
+                prepared.chunk.complete(chunk);
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+        return prepared;
+    }
+
+    @Test(timeout = 10000)
+    public void testPopulateNextToRunningPrediction() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final TerrainPredictor.PreparedChunk prepared;
+        // The main thread populates a chunk while the worker prepares its neighbour
+        synchronized (this.generationLock) {
+            prepared = this.prepare(mock(Chunk.class), started);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertNull(prepared.get(!Thread.holdsLock(this.generationLock)));
+        }
+        assertFalse(prepared.cancel());
+    }
+
+    @Test(timeout = 10000)
+    public void testWaitsForRunningPrediction() throws InterruptedException {
+        final Chunk chunk = mock(Chunk.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        final TerrainPredictor.PreparedChunk prepared = this.prepare(chunk, started);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertSame(chunk, prepared.get(true));
+    }
+
+    @Test
+    public void testWithdrawsPendingPrediction() {
+        final TerrainPredictor.PreparedChunk prepared = new TerrainPredictor.PreparedChunk(0);
+        prepared.chunk = new CompletableFuture<>();
+        assertNull(prepared.get(true));
+        assertFalse(prepared.start());
+    }
+
+}
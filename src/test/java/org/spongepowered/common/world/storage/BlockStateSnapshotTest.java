@@ -0,0 +1,53 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import net.minecraft.util.BitArray;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class BlockStateSnapshotTest {
+
+    @Test
+    public void testReadsBitArrayStorage() {
+        final Random random = new Random(0);
+        for (int bits : new int[] {4, 5, 8, 13}) {
+            final BitArray array = new BitArray(bits, 4096);
+            final int[] values = new int[4096];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(1 << bits);
+                array.setAt(i, values[i]);
+            }
+            final long[] storage = array.getBackingLongArray().clone();
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(values[i], BlockStateSnapshot.getAt(storage, bits, i));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Optional;
+
+public class RegionFileReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChunkIndices() throws IOException {
+        final Path worldDir = this.folder.getRoot().toPath();
+        Files.createDirectories(worldDir.resolve("region"));
+        final ByteBuffer header = ByteBuffer.allocate(8192);
+        header.putInt(RegionFileReader.getChunkIndex(-32, -32) * 4, 2 << 8 | 1);
+        header.putInt(RegionFileReader.getChunkIndex(-31, -30) * 4, 3 << 8 | 1);
+        header.putInt(RegionFileReader.getChunkIndex(-1, -1) * 4, 4 << 8 | 1);
+        final Path file = RegionFileReader.getRegionFile(worldDir, -1, -1);
+        Files.write(file, header.array());
+
+        final Optional<RegionFileReader> reader = RegionFileReader.open(file);
+        assertTrue(reader.isPresent());
+        assertEquals(-1, reader.get().regionX);
+        assertEquals(-1, reader.get().regionZ);
+
+        final BitSet indices = reader.get().getChunkIndices();
+        assertEquals(3, indices.cardinality());
+        assertTrue(indices.get(0));
+        assertTrue(indices.get(1 + 2 * 32));
+        assertTrue(indices.get(1023));
+        assertFalse(indices.get(1));
+    }
+
+    @Test
+    public void testMissingRegionFile() {
+        final Path file = RegionFileReader.getRegionFile(this.folder.getRoot().toPath(), 4, -2);
+        assertEquals("r.4.-2.mca", file.getFileName().toString());
+        assertFalse(RegionFileReader.open(file).isPresent());
+    }
+
+}
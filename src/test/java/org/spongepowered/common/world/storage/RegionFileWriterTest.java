@@ -0,0 +1,209 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.common.interfaces.world.IMixinAnvilChunkLoader;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class RegionFileWriterTest {
+
+    private static final ChunkPos BLOCKING = new ChunkPos(0, 0);
+    private static final ChunkPos CHUNK = new ChunkPos(1, 0);
+
+    @BeforeClass
+    public static void startLanes() {
+        // A single thread, so that a blocked write holds back the others
+        RegionFileWriter.startLanes(1);
+    }
+
+    @After
+    public void flush() {
+        RegionFileWriter.flushAll();
+        assertEquals(0, RegionFileWriter.getPendingWrites());
+        assertEquals(0, RegionFileWriter.getPendingBytes());
+    }
+
+    @Test(timeout = 10000)
+    public void testCoalescesQueuedSaves() throws InterruptedException {
+        final FakeChunkLoader loader = new FakeChunkLoader();
+        RegionFileWriter.queue(loader, BLOCKING, new NBTTagCompound(), 0);
+        assertTrue(loader.started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            RegionFileWriter.queue(loader, CHUNK, new NBTTagCompound(), 0);
+        }
+        final NBTTagCompound latest = loader.getPendingChunks().get(CHUNK);
+        assertEquals(2, RegionFileWriter.getPendingWrites());
+        loader.release.countDown();
+
+        RegionFileWriter.flush(loader);
+        assertEquals(2, loader.writes.size());
+        assertEquals(CHUNK, loader.writes.get(1).pos);
+        assertSame(latest, loader.writes.get(1).compound);
+    }
+
+    @Test(timeout = 10000)
+    public void testResubmitsChunkSavedWhileWritten() throws InterruptedException {
+        final FakeChunkLoader loader = new FakeChunkLoader();
+        final NBTTagCompound first = new NBTTagCompound();
+        RegionFileWriter.queue(loader, BLOCKING, first, 0);
+        assertTrue(loader.started.await(5, TimeUnit.SECONDS));
+        final NBTTagCompound second = new NBTTagCompound();
+        RegionFileWriter.queue(loader, BLOCKING, second, 0);
+        assertEquals(1, RegionFileWriter.getPendingWrites());
+        loader.release.countDown();
+
+        RegionFileWriter.flush(loader);
+        assertEquals(2, loader.writes.size());
+        assertSame(first, loader.writes.get(0).compound);
+        assertSame(second, loader.writes.get(1).compound);
+    }
+
+    @Test(timeout = 10000)
+    public void testWaitsForBudget() throws InterruptedException {
+        final FakeChunkLoader loader = new FakeChunkLoader();
+        final NBTTagCompound compound = new NBTTagCompound();
+        final long size = RegionFileWriter.estimateSize(compound);
+        RegionFileWriter.queue(loader, BLOCKING, compound, size);
+        assertTrue(loader.started.await(5, TimeUnit.SECONDS));
+        assertEquals(size, RegionFileWriter.getPendingBytes());
+
+        // Reaches the budget but doesn't exceed it
+        RegionFileWriter.queue(loader, CHUNK, new NBTTagCompound(), size);
+        assertEquals(2 * size, RegionFileWriter.getPendingBytes());
+        final CountDownLatch queued = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            RegionFileWriter.queue(loader, new ChunkPos(2, 0), new NBTTagCompound(), size);
+            queued.countDown();
+        });
+        thread.setDaemon(true);
+        thread.start();
+        assertFalse(queued.await(200, TimeUnit.MILLISECONDS));
+
+        loader.release.countDown();
+        assertTrue(queued.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void testRetriesFailedWrites() {
+        final FakeChunkLoader loader = new FakeChunkLoader();
+        loader.release.countDown();
+        loader.failures.set(2);
+        RegionFileWriter.queue(loader, CHUNK, new NBTTagCompound(), 0);
+
+        RegionFileWriter.flush(loader);
+        assertEquals(3, loader.attempts.get());
+        assertEquals(1, loader.writes.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testGivesUpAfterMaxAttempts() {
+        final FakeChunkLoader loader = new FakeChunkLoader();
+        loader.release.countDown();
+        loader.failures.set(Integer.MAX_VALUE);
+        RegionFileWriter.queue(loader, CHUNK, new NBTTagCompound(), 0);
+
+        RegionFileWriter.flush(loader);
+        assertEquals(5, loader.attempts.get());
+        assertTrue(loader.writes.isEmpty());
+    }
+
+    private static final class FakeChunkLoader implements IMixinAnvilChunkLoader {
+
+        final Map<ChunkPos, NBTTagCompound> pending = new ConcurrentHashMap<>();
+        final List<Write> writes = new CopyOnWriteArrayList<>();
+        // Counted down when the first write starts, which then waits for release
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        public boolean chunkExists(World world, int x, int z) {
+            return this.pending.containsKey(new ChunkPos(x, z));
+        }
+
+        @Override
+        public Path getWorldDir() {
+            return Paths.get("world");
+        }
+
+        @Override
+        public Map<ChunkPos, NBTTagCompound> getPendingChunks() {
+            return this.pending;
+        }
+
+        @Override
+        public void writeChunk(ChunkPos pos, NBTTagCompound compound) {
+            this.started.countDown();
+            try {
+                this.release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.attempts.incrementAndGet();
+            if (this.failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Failed to write chunk");
+            }
+            this.writes.add(new Write(pos, compound));
+        }
+
+    }
+
+    private static final class Write {
+
+        final ChunkPos pos;
+        final NBTTagCompound compound;
+
+        Write(ChunkPos pos, NBTTagCompound compound) {
+            this.pos = pos;
+            this.compound = compound;
+        }
+
+    }
+
+}
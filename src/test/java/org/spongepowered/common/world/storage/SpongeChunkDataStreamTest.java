@@ -0,0 +1,86 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+public class SpongeChunkDataStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(expected = NoSuchElementException.class)
+    public void testSkipsInvalidChunks() throws IOException {
+        final Path worldDir = this.folder.getRoot().toPath();
+        Files.createDirectories(worldDir.resolve("region"));
+        final ByteBuffer file = ByteBuffer.allocate(4 * 4096);
+        // A chunk without data, a chunk with an unknown compression and a chunk past the end of the file
+        file.putInt(RegionFileReader.getChunkIndex(0, 0) * 4, 2 << 8 | 1);
+        file.putInt(RegionFileReader.getChunkIndex(1, 0) * 4, 3 << 8 | 1);
+        file.putInt(3 * 4096, 2).put(3 * 4096 + 4, (byte) 7);
+        file.putInt(RegionFileReader.getChunkIndex(2, 0) * 4, 8 << 8 | 1);
+        Files.write(RegionFileReader.getRegionFile(worldDir, 0, 0), file.array());
+
+        final SpongeChunkDataStream stream = new SpongeChunkDataStream(worldDir);
+        assertFalse(stream.hasNext());
+        assertEquals(0, stream.available());
+        stream.next();
+    }
+
+    @Test
+    public void testReadsCurrentHeader() throws IOException {
+        final Path worldDir = this.folder.getRoot().toPath();
+        Files.createDirectories(worldDir.resolve("region"));
+        final ByteBuffer file = ByteBuffer.allocate(3 * 4096);
+        // Corrupt zlib data, which would fail to be read
+        file.putInt(0, 2 << 8 | 1);
+        file.putInt(2 * 4096, 9).put(2 * 4096 + 4, (byte) 2);
+        for (int i = 5; i < 13; i++) {
+            file.put(2 * 4096 + i, (byte) 0xFF);
+        }
+        final Path path = RegionFileReader.getRegionFile(worldDir, 0, 0);
+        Files.write(path, file.array());
+
+        final RegionFileReader reader = RegionFileReader.open(path).get();
+        // The chunk is removed after the offsets were read
+        file.putInt(0, 0);
+        Files.write(path, file.array());
+        final Object[] chunks = reader.readChunks(new int[] {0}, 1);
+        assertNull(chunks[0]);
+    }
+
+}